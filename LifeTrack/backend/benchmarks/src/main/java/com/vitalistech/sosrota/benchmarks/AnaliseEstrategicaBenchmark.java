@@ -0,0 +1,79 @@
+package com.vitalistech.sosrota.benchmarks;
+
+import com.vitalistech.sosrota.dominio.repositorio.AmbulanciaRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.BairroRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.OcorrenciaRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.RuaConexaoRepositorio;
+import com.vitalistech.sosrota.dominio.servico.AnaliseEstrategicaServico;
+import com.vitalistech.sosrota.dominio.servico.GrafoViarioServico;
+import com.vitalistech.sosrota.dominio.servico.RoteamentoServico;
+import com.vitalistech.sosrota.util.CidadeSintetica;
+import com.vitalistech.sosrota.util.ModoRoteamento;
+import com.vitalistech.sosrota.web.dto.BairroSugeridoDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AnaliseEstrategicaServico#obterBairrosSugeridos()} completo, com os serviços montados
+ * manualmente sobre repositórios em memória e as configurações padrão de roteamento
+ * (matriz até 2000 bairros, Dijkstra com cache acima disso).
+ *
+ * Por padrão roda só 20 e 1k bairros: a análise calcula rotas de cada bairro para todos os
+ * bairros com ocorrência e para toda a frota, o que em 10k/100k bairros leva minutos por chamada.
+ * Para medir esses tamanhos use {@code -p bairros=10000,100000}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnaliseEstrategicaBenchmark {
+
+    private static final int QUANTIDADE_OCORRENCIAS = 200;
+
+    @Param({"20", "1000"})
+    public int bairros;
+
+    @Param({"5", "50", "500", "2000"})
+    public int frota;
+
+    private AnaliseEstrategicaServico analiseEstrategicaServico;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        CidadeSintetica cidade = Cidades.gerar(bairros, frota, QUANTIDADE_OCORRENCIAS);
+
+        BairroRepositorio bairroRepositorio =
+                RepositoriosEmMemoria.comDados(BairroRepositorio.class, cidade.getBairros());
+        GrafoViarioServico grafoViarioServico = new GrafoViarioServico(
+                bairroRepositorio,
+                RepositoriosEmMemoria.comDados(RuaConexaoRepositorio.class, cidade.getConexoes()));
+        RoteamentoServico roteamentoServico =
+                new RoteamentoServico(grafoViarioServico, 2000, 10000, ModoRoteamento.DIJKSTRA, false);
+
+        analiseEstrategicaServico = new AnaliseEstrategicaServico(
+                bairroRepositorio,
+                RepositoriosEmMemoria.comDados(OcorrenciaRepositorio.class, cidade.getOcorrencias()),
+                RepositoriosEmMemoria.comDados(AmbulanciaRepositorio.class, cidade.getAmbulancias()),
+                roteamentoServico);
+    }
+
+    @Benchmark
+    public List<BairroSugeridoDTO> obterBairrosSugeridos() {
+        return analiseEstrategicaServico.obterBairrosSugeridos();
+    }
+}
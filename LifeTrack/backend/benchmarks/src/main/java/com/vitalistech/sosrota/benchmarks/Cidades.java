@@ -0,0 +1,24 @@
+package com.vitalistech.sosrota.benchmarks;
+
+import com.vitalistech.sosrota.util.CidadeSintetica;
+import com.vitalistech.sosrota.util.GeradorCidadeSintetica;
+
+/**
+ * Cidades sintéticas usadas pelos benchmarks, todas geradas com a mesma semente
+ * para que as medições sejam comparáveis entre execuções.
+ */
+final class Cidades {
+
+    static final long SEMENTE = 20240601L;
+
+    private Cidades() {
+    }
+
+    static CidadeSintetica gerar(int bairros, int ambulancias, int ocorrencias) {
+        GeradorCidadeSintetica gerador = new GeradorCidadeSintetica(SEMENTE);
+        gerador.setQuantidadeBairros(bairros);
+        gerador.setQuantidadeAmbulancias(ambulancias);
+        gerador.setQuantidadeOcorrencias(ocorrencias);
+        return gerador.gerar();
+    }
+}
@@ -0,0 +1,116 @@
+package com.vitalistech.sosrota.benchmarks;
+
+import com.vitalistech.sosrota.dominio.modelo.Ambulancia;
+import com.vitalistech.sosrota.dominio.modelo.Bairro;
+import com.vitalistech.sosrota.util.CidadeSintetica;
+import com.vitalistech.sosrota.util.GrafoViario;
+import com.vitalistech.sosrota.util.ModoRoteamento;
+import com.vitalistech.sosrota.util.MotorDijkstra;
+import com.vitalistech.sosrota.util.MotorRoteamento;
+import com.vitalistech.sosrota.util.ResultadoRota;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escolha da ambulância mais próxima de uma ocorrência, como em OcorrenciaServico.despachar:
+ * uma rota por candidata (laço original) contra uma única busca multi-alvo a partir do local
+ * da ocorrência ({@link MotorRoteamento#distanciasAte}).
+ *
+ * Todas as ambulâncias da frota são candidatas; o local da ocorrência varia a cada chamada.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DespachoBenchmark {
+
+    private static final int QUANTIDADE_LOCAIS = 256;
+
+    @Param({"20", "1000", "10000", "100000"})
+    public int bairros;
+
+    @Param({"5", "50", "500", "2000"})
+    public int frota;
+
+    private MotorRoteamento motor;
+    private List<Ambulancia> candidatas;
+    private Set<Long> idsBairrosBase;
+    private Bairro[] locais;
+    private int proximoLocal;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        CidadeSintetica cidade = Cidades.gerar(bairros, frota, 0);
+        GrafoViario grafo = GrafoViario.construir(cidade.getBairros(), cidade.getConexoes(), 1L);
+        motor = new MotorDijkstra(grafo, ModoRoteamento.DIJKSTRA);
+
+        candidatas = cidade.getAmbulancias();
+        idsBairrosBase = new HashSet<>();
+        for (Ambulancia a : candidatas) {
+            idsBairrosBase.add(a.getBairroBase().getId());
+        }
+
+        List<Bairro> todos = cidade.getBairros();
+        Random aleatorio = new Random(Cidades.SEMENTE);
+        locais = new Bairro[QUANTIDADE_LOCAIS];
+        for (int i = 0; i < QUANTIDADE_LOCAIS; i++) {
+            locais[i] = todos.get(aleatorio.nextInt(todos.size()));
+        }
+    }
+
+    private Bairro proximoLocal() {
+        int i = proximoLocal;
+        proximoLocal = (i + 1) & (QUANTIDADE_LOCAIS - 1);
+        return locais[i];
+    }
+
+    @Benchmark
+    public Ambulancia rotaPorCandidata() {
+        Bairro local = proximoLocal();
+        Ambulancia melhor = null;
+        double menorDistancia = Double.POSITIVE_INFINITY;
+        for (Ambulancia a : candidatas) {
+            double distKm = motor.calcularRota(a.getBairroBase(), local).getDistanciaKm();
+            if (distKm < menorDistancia) {
+                menorDistancia = distKm;
+                melhor = a;
+            }
+        }
+        return melhor;
+    }
+
+    @Benchmark
+    public Ambulancia buscaMultiAlvo() {
+        Bairro local = proximoLocal();
+        Map<Long, ResultadoRota> rotasPorBase = motor.distanciasAte(local, idsBairrosBase);
+        Ambulancia melhor = null;
+        double menorDistancia = Double.POSITIVE_INFINITY;
+        for (Ambulancia a : candidatas) {
+            ResultadoRota rota = rotasPorBase.get(a.getBairroBase().getId());
+            if (rota != null && rota.getDistanciaKm() < menorDistancia) {
+                menorDistancia = rota.getDistanciaKm();
+                melhor = a;
+            }
+        }
+        return melhor;
+    }
+}
@@ -0,0 +1,85 @@
+package com.vitalistech.sosrota.benchmarks;
+
+import com.vitalistech.sosrota.dominio.modelo.Bairro;
+import com.vitalistech.sosrota.util.CidadeSintetica;
+import com.vitalistech.sosrota.util.GrafoViario;
+import com.vitalistech.sosrota.util.MatrizDistancias;
+import com.vitalistech.sosrota.util.ResultadoRota;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consulta e cálculo da {@link MatrizDistancias}.
+ *
+ * Só faz sentido até o limite padrão de {@code sosrota.roteamento.matriz.limite-bairros} (2000);
+ * acima disso o RoteamentoServico nem monta a matriz, por isso 10k/100k bairros não entram aqui.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MatrizDistanciasBenchmark {
+
+    private static final int QUANTIDADE_PARES = 1024;
+
+    @Param({"20", "1000"})
+    public int bairros;
+
+    private GrafoViario grafo;
+    private MatrizDistancias matriz;
+    private Bairro[] origens;
+    private Bairro[] destinos;
+    private int proximoPar;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        CidadeSintetica cidade = Cidades.gerar(bairros, 0, 0);
+        grafo = GrafoViario.construir(cidade.getBairros(), cidade.getConexoes(), 1L);
+        matriz = MatrizDistancias.calcular(grafo, ForkJoinPool.commonPool());
+
+        List<Bairro> todos = cidade.getBairros();
+        Random aleatorio = new Random(Cidades.SEMENTE);
+        origens = new Bairro[QUANTIDADE_PARES];
+        destinos = new Bairro[QUANTIDADE_PARES];
+        for (int i = 0; i < QUANTIDADE_PARES; i++) {
+            origens[i] = todos.get(aleatorio.nextInt(todos.size()));
+            destinos[i] = todos.get(aleatorio.nextInt(todos.size()));
+        }
+    }
+
+    @Benchmark
+    public ResultadoRota consultarRota() {
+        int i = proximoPar;
+        proximoPar = (i + 1) & (QUANTIDADE_PARES - 1);
+        return matriz.rota(origens[i], destinos[i]);
+    }
+
+    /**
+     * Custo de recalcular a matriz inteira (acontece a cada nova versão do grafo).
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public MatrizDistancias calcularMatriz() {
+        return MatrizDistancias.calcular(grafo, ForkJoinPool.commonPool());
+    }
+}
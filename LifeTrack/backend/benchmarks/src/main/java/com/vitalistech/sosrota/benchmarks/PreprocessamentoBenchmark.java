@@ -0,0 +1,54 @@
+package com.vitalistech.sosrota.benchmarks;
+
+import com.vitalistech.sosrota.util.CidadeSintetica;
+import com.vitalistech.sosrota.util.GrafoViario;
+import com.vitalistech.sosrota.util.HierarquiaContracao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de montar o snapshot do grafo e de pré-processar a hierarquia de contração,
+ * pagos a cada nova versão do grafo viário.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PreprocessamentoBenchmark {
+
+    @Param({"20", "1000", "10000", "100000"})
+    public int bairros;
+
+    private CidadeSintetica cidade;
+    private GrafoViario grafo;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        cidade = Cidades.gerar(bairros, 0, 0);
+        grafo = GrafoViario.construir(cidade.getBairros(), cidade.getConexoes(), 1L);
+    }
+
+    @Benchmark
+    public GrafoViario construirGrafo() {
+        return GrafoViario.construir(cidade.getBairros(), cidade.getConexoes(), 1L);
+    }
+
+    @Benchmark
+    public HierarquiaContracao preprocessarHierarquia() {
+        return HierarquiaContracao.preprocessar(grafo);
+    }
+}
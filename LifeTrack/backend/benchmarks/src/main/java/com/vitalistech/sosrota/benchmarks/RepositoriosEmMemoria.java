@@ -0,0 +1,43 @@
+package com.vitalistech.sosrota.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+/**
+ * Implementações em memória dos repositórios Spring Data usados pelos serviços medidos.
+ *
+ * Os serviços de roteamento e análise estratégica só leem os dados com {@code findAll()},
+ * então basta um proxy que devolva a lista da cidade sintética; qualquer outro método
+ * lança UnsupportedOperationException para que um uso novo não passe despercebido no benchmark.
+ */
+final class RepositoriosEmMemoria {
+
+    private RepositoriosEmMemoria() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <R> R comDados(Class<R> tipoRepositorio, List<?> dados) {
+        return (R) Proxy.newProxyInstance(
+                tipoRepositorio.getClassLoader(),
+                new Class<?>[]{tipoRepositorio},
+                (proxy, metodo, argumentos) -> {
+                    switch (metodo.getName()) {
+                        case "findAll":
+                            if (argumentos == null || argumentos.length == 0) {
+                                return dados;
+                            }
+                            break;
+                        case "toString":
+                            return tipoRepositorio.getSimpleName() + "EmMemoria";
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == argumentos[0];
+                        default:
+                            break;
+                    }
+                    throw new UnsupportedOperationException(
+                            tipoRepositorio.getSimpleName() + "." + metodo.getName() + " não é suportado no benchmark");
+                });
+    }
+}
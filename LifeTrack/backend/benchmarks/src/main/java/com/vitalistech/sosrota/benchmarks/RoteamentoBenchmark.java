@@ -0,0 +1,82 @@
+package com.vitalistech.sosrota.benchmarks;
+
+import com.vitalistech.sosrota.dominio.modelo.Bairro;
+import com.vitalistech.sosrota.util.CidadeSintetica;
+import com.vitalistech.sosrota.util.GrafoViario;
+import com.vitalistech.sosrota.util.HierarquiaContracao;
+import com.vitalistech.sosrota.util.ModoRoteamento;
+import com.vitalistech.sosrota.util.MotorDijkstra;
+import com.vitalistech.sosrota.util.MotorRoteamento;
+import com.vitalistech.sosrota.util.ResultadoRota;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de uma consulta ponto a ponto (calcularRota) por motor de roteamento e tamanho de grafo.
+ *
+ * Cada chamada consulta o próximo par de uma lista fixa de pares aleatórios, então o resultado
+ * é a média sobre origens/destinos variados e não sobre uma única rota. Não passa pelo
+ * CacheRotas: mede só o motor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RoteamentoBenchmark {
+
+    private static final int QUANTIDADE_PARES = 1024;
+
+    @Param({"20", "1000", "10000", "100000"})
+    public int bairros;
+
+    /** DIJKSTRA, BIDIRECIONAL ou A_ESTRELA (MotorDijkstra), ou HIERARQUIA (HierarquiaContracao). */
+    @Param({"DIJKSTRA", "BIDIRECIONAL", "A_ESTRELA", "HIERARQUIA"})
+    public String motor;
+
+    private MotorRoteamento motorRoteamento;
+    private Bairro[] origens;
+    private Bairro[] destinos;
+    private int proximoPar;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        CidadeSintetica cidade = Cidades.gerar(bairros, 0, 0);
+        GrafoViario grafo = GrafoViario.construir(cidade.getBairros(), cidade.getConexoes(), 1L);
+
+        motorRoteamento = "HIERARQUIA".equals(motor)
+                ? HierarquiaContracao.preprocessar(grafo)
+                : new MotorDijkstra(grafo, ModoRoteamento.valueOf(motor));
+
+        List<Bairro> todos = cidade.getBairros();
+        Random aleatorio = new Random(Cidades.SEMENTE);
+        origens = new Bairro[QUANTIDADE_PARES];
+        destinos = new Bairro[QUANTIDADE_PARES];
+        for (int i = 0; i < QUANTIDADE_PARES; i++) {
+            origens[i] = todos.get(aleatorio.nextInt(todos.size()));
+            destinos[i] = todos.get(aleatorio.nextInt(todos.size()));
+        }
+    }
+
+    @Benchmark
+    public ResultadoRota calcularRota() {
+        int i = proximoPar;
+        proximoPar = (i + 1) & (QUANTIDADE_PARES - 1);
+        return motorRoteamento.calcularRota(origens[i], destinos[i]);
+    }
+}
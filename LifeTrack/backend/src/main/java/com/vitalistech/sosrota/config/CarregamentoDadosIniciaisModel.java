@@ -1,73 +1,275 @@
 package com.vitalistech.sosrota.config;
 
+import com.vitalistech.sosrota.dominio.modelo.Ambulancia;
 import com.vitalistech.sosrota.dominio.modelo.Bairro;
+import com.vitalistech.sosrota.dominio.modelo.Equipe;
+import com.vitalistech.sosrota.dominio.modelo.EquipeProfissional;
+import com.vitalistech.sosrota.dominio.modelo.FuncaoProfissional;
+import com.vitalistech.sosrota.dominio.modelo.Profissional;
 import com.vitalistech.sosrota.dominio.modelo.RuaConexao;
+import com.vitalistech.sosrota.dominio.modelo.StatusAmbulancia;
+import com.vitalistech.sosrota.dominio.modelo.StatusProfissional;
+import com.vitalistech.sosrota.dominio.modelo.TipoAmbulancia;
+import com.vitalistech.sosrota.dominio.modelo.Turno;
+import com.vitalistech.sosrota.dominio.repositorio.AmbulanciaRepositorio;
 import com.vitalistech.sosrota.dominio.repositorio.BairroRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.EquipeRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.ProfissionalRepositorio;
 import com.vitalistech.sosrota.dominio.repositorio.RuaConexaoRepositorio;
+import com.vitalistech.sosrota.util.CidadeSintetica;
+import com.vitalistech.sosrota.util.GeradorCidadeSintetica;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Carrega os dados iniciais de bairros e conexões viárias a partir de arquivos CSV.
- * Os arquivos esperados ficam em src/main/resources/data.
+ * Carrega os dados iniciais a partir de arquivos CSV.
+ *
+ * Os arquivos ficam em {@code sosrota.dados-iniciais.diretorio} (padrão: src/main/resources/data):
+ * bairros.csv e ruas_conexoes.csv, e opcionalmente ambulancias.csv, profissionais.csv e equipes.csv
+ * (formatos descritos em {@link CidadeSintetica#escreverCsv(Path)}). Cada tipo de registro só é
+ * carregado quando a tabela correspondente está vazia.
+ *
+ * Com {@code sosrota.dados-iniciais.sintetico.bairros} maior que zero, uma cidade sintética é gerada
+ * pelo {@link GeradorCidadeSintetica}, gravada em {@code sosrota.dados-iniciais.sintetico.diretorio}
+ * e carregada de lá no lugar dos arquivos padrão.
  */
 @Configuration
 public class CarregamentoDadosIniciaisModel {
 
+    private static final Logger logger = LoggerFactory.getLogger(CarregamentoDadosIniciaisModel.class);
+
     @Bean
     public CommandLineRunner carregarDadosIniciais(BairroRepositorio bairroRepositorio,
-                                                   RuaConexaoRepositorio ruaConexaoRepositorio) {
+                                                   RuaConexaoRepositorio ruaConexaoRepositorio,
+                                                   AmbulanciaRepositorio ambulanciaRepositorio,
+                                                   ProfissionalRepositorio profissionalRepositorio,
+                                                   EquipeRepositorio equipeRepositorio,
+                                                   @Value("${sosrota.dados-iniciais.diretorio:src/main/resources/data}") String diretorio,
+                                                   @Value("${sosrota.dados-iniciais.sintetico.bairros:0}") int bairrosSinteticos,
+                                                   @Value("${sosrota.dados-iniciais.sintetico.ambulancias:20}") int ambulanciasSinteticas,
+                                                   @Value("${sosrota.dados-iniciais.sintetico.ocorrencias:0}") int ocorrenciasSinteticas,
+                                                   @Value("${sosrota.dados-iniciais.sintetico.semente:1}") long semente,
+                                                   @Value("${sosrota.dados-iniciais.sintetico.diretorio:target/dados-sinteticos}") String diretorioSintetico) {
         return args -> {
             try {
-                if (bairroRepositorio.count() == 0) {
-                    Path caminhoBairros = Path.of("src/main/resources/data/bairros.csv");
-                    if (Files.exists(caminhoBairros)) {
-                        List<String> linhas = Files.readAllLines(caminhoBairros);
-                        for (String linha : linhas) {
-                            String nome = linha.trim();
-                            if (!nome.isBlank()) {
-                                Bairro bairro = new Bairro();
-                                bairro.setNome(nome);
-                                bairroRepositorio.save(bairro);
-                            }
-                        }
-                    }
+                Path origem = Path.of(diretorio);
+                if (bairrosSinteticos > 0) {
+                    origem = gerarCidadeSintetica(bairrosSinteticos, ambulanciasSinteticas, ocorrenciasSinteticas,
+                            semente, Path.of(diretorioSintetico));
                 }
 
+                Map<String, Bairro> bairrosPorNome =
+                        carregarBairros(origem.resolve(CidadeSintetica.ARQUIVO_BAIRROS), bairroRepositorio);
+
                 if (ruaConexaoRepositorio.count() == 0) {
-                    Path caminhoRuas = Path.of("src/main/resources/data/ruas_conexoes.csv");
-                    if (Files.exists(caminhoRuas)) {
-                        List<String> linhas = Files.readAllLines(caminhoRuas);
-                        for (String linha : linhas) {
-                            if (linha.isBlank()) continue;
-                            String[] partes = linha.split(";");
-                            if (partes.length < 3) continue;
-
-                            String nomeOrigem = partes[0].trim();
-                            String nomeDestino = partes[1].trim();
-                            double distancia = Double.parseDouble(partes[2].trim());
-
-                            Bairro origem = bairroRepositorio.findByNome(nomeOrigem);
-                            Bairro destino = bairroRepositorio.findByNome(nomeDestino);
-
-                            if (origem != null && destino != null) {
-                                RuaConexao conexao = new RuaConexao();
-                                conexao.setBairroOrigem(origem);
-                                conexao.setBairroDestino(destino);
-                                conexao.setDistanciaKm(distancia);
-                                ruaConexaoRepositorio.save(conexao);
-                            }
-                        }
-                    }
+                    carregarRuas(origem.resolve(CidadeSintetica.ARQUIVO_RUAS), bairrosPorNome, ruaConexaoRepositorio);
+                }
+
+                if (ambulanciaRepositorio.count() == 0) {
+                    carregarAmbulancias(origem.resolve(CidadeSintetica.ARQUIVO_AMBULANCIAS), bairrosPorNome, ambulanciaRepositorio);
+                }
+
+                if (profissionalRepositorio.count() == 0) {
+                    carregarProfissionais(origem.resolve(CidadeSintetica.ARQUIVO_PROFISSIONAIS), profissionalRepositorio);
+                }
+
+                if (equipeRepositorio.count() == 0) {
+                    carregarEquipes(origem.resolve(CidadeSintetica.ARQUIVO_EQUIPES), ambulanciaRepositorio,
+                            profissionalRepositorio, equipeRepositorio);
                 }
             } catch (Exception e) {
                 e.printStackTrace();
             }
         };
     }
+
+    private Path gerarCidadeSintetica(int bairros, int ambulancias, int ocorrencias, long semente,
+                                      Path destino) throws IOException {
+        GeradorCidadeSintetica gerador = new GeradorCidadeSintetica(semente);
+        gerador.setQuantidadeBairros(bairros);
+        gerador.setQuantidadeAmbulancias(ambulancias);
+        gerador.setQuantidadeOcorrencias(ocorrencias);
+        gerador.gerar().escreverCsv(destino);
+        logger.info("Cidade sintética gerada em {}: {} bairros, {} ambulâncias, {} ocorrências (semente {})",
+                destino.toAbsolutePath(), bairros, ambulancias, ocorrencias, semente);
+        return destino;
+    }
+
+    /**
+     * Formato: nome;latitude;longitude (coordenadas opcionais).
+     * Retorna todos os bairros cadastrados indexados pelo nome.
+     */
+    private Map<String, Bairro> carregarBairros(Path arquivo, BairroRepositorio bairroRepositorio) throws IOException {
+        if (Files.exists(arquivo)) {
+            boolean bancoVazio = bairroRepositorio.count() == 0;
+            List<Bairro> novos = new ArrayList<>();
+            for (String[] partes : lerLinhas(arquivo)) {
+                String nome = partes[0].trim();
+                if (nome.isBlank()) continue;
+
+                Double latitude = partes.length >= 3 ? Double.valueOf(partes[1].trim()) : null;
+                Double longitude = partes.length >= 3 ? Double.valueOf(partes[2].trim()) : null;
+
+                if (bancoVazio) {
+                    Bairro bairro = new Bairro();
+                    bairro.setNome(nome);
+                    bairro.setLatitude(latitude);
+                    bairro.setLongitude(longitude);
+                    novos.add(bairro);
+                } else if (latitude != null) {
+                    // Bancos já populados: apenas completar coordenadas ausentes
+                    Bairro bairro = bairroRepositorio.findByNome(nome);
+                    if (bairro != null && bairro.getLatitude() == null) {
+                        bairro.setLatitude(latitude);
+                        bairro.setLongitude(longitude);
+                        bairroRepositorio.save(bairro);
+                    }
+                }
+            }
+            bairroRepositorio.saveAll(novos);
+        }
+
+        Map<String, Bairro> porNome = new HashMap<>();
+        for (Bairro bairro : bairroRepositorio.findAll()) {
+            porNome.put(bairro.getNome(), bairro);
+        }
+        return porNome;
+    }
+
+    /**
+     * Formato: bairroOrigem;bairroDestino;distanciaKm.
+     */
+    private void carregarRuas(Path arquivo, Map<String, Bairro> bairrosPorNome,
+                              RuaConexaoRepositorio ruaConexaoRepositorio) throws IOException {
+        if (!Files.exists(arquivo)) return;
+
+        List<RuaConexao> conexoes = new ArrayList<>();
+        for (String[] partes : lerLinhas(arquivo)) {
+            if (partes.length < 3) continue;
+
+            Bairro origem = bairrosPorNome.get(partes[0].trim());
+            Bairro destino = bairrosPorNome.get(partes[1].trim());
+            double distancia = Double.parseDouble(partes[2].trim());
+
+            if (origem != null && destino != null) {
+                RuaConexao conexao = new RuaConexao();
+                conexao.setBairroOrigem(origem);
+                conexao.setBairroDestino(destino);
+                conexao.setDistanciaKm(distancia);
+                conexoes.add(conexao);
+            }
+        }
+        ruaConexaoRepositorio.saveAll(conexoes);
+    }
+
+    /**
+     * Formato: placa;tipo;bairroBase.
+     */
+    private void carregarAmbulancias(Path arquivo, Map<String, Bairro> bairrosPorNome,
+                                     AmbulanciaRepositorio ambulanciaRepositorio) throws IOException {
+        if (!Files.exists(arquivo)) return;
+
+        List<Ambulancia> ambulancias = new ArrayList<>();
+        for (String[] partes : lerLinhas(arquivo)) {
+            if (partes.length < 3) continue;
+
+            Bairro base = bairrosPorNome.get(partes[2].trim());
+            if (base == null) continue;
+
+            Ambulancia ambulancia = new Ambulancia();
+            ambulancia.setPlaca(partes[0].trim());
+            ambulancia.setTipo(TipoAmbulancia.valueOf(partes[1].trim()));
+            ambulancia.setStatus(StatusAmbulancia.DISPONIVEL);
+            ambulancia.setBairroBase(base);
+            ambulancia.setAtiva(true);
+            ambulancias.add(ambulancia);
+        }
+        ambulanciaRepositorio.saveAll(ambulancias);
+    }
+
+    /**
+     * Formato: nome;funcao;contato;turno.
+     */
+    private void carregarProfissionais(Path arquivo, ProfissionalRepositorio profissionalRepositorio) throws IOException {
+        if (!Files.exists(arquivo)) return;
+
+        List<Profissional> profissionais = new ArrayList<>();
+        for (String[] partes : lerLinhas(arquivo)) {
+            if (partes.length < 4) continue;
+
+            Profissional profissional = new Profissional();
+            profissional.setNome(partes[0].trim());
+            profissional.setFuncao(FuncaoProfissional.valueOf(partes[1].trim()));
+            profissional.setContato(partes[2].trim());
+            profissional.setTurno(Turno.valueOf(partes[3].trim()));
+            profissional.setStatus(StatusProfissional.DISPONIVEL);
+            profissional.setAtivo(true);
+            profissionais.add(profissional);
+        }
+        profissionalRepositorio.saveAll(profissionais);
+    }
+
+    /**
+     * Formato: descricao;placaAmbulancia;contatos dos profissionais separados por ','.
+     * A composição não é revalidada aqui: o arquivo deve seguir as regras do EquipeServico.
+     */
+    private void carregarEquipes(Path arquivo, AmbulanciaRepositorio ambulanciaRepositorio,
+                                 ProfissionalRepositorio profissionalRepositorio,
+                                 EquipeRepositorio equipeRepositorio) throws IOException {
+        if (!Files.exists(arquivo)) return;
+
+        Map<String, Ambulancia> ambulanciasPorPlaca = new HashMap<>();
+        for (Ambulancia ambulancia : ambulanciaRepositorio.findAll()) {
+            ambulanciasPorPlaca.put(ambulancia.getPlaca(), ambulancia);
+        }
+        Map<String, Profissional> profissionaisPorContato = new HashMap<>();
+        for (Profissional profissional : profissionalRepositorio.findAll()) {
+            profissionaisPorContato.put(profissional.getContato(), profissional);
+        }
+
+        List<Equipe> equipes = new ArrayList<>();
+        for (String[] partes : lerLinhas(arquivo)) {
+            if (partes.length < 3) continue;
+
+            Ambulancia ambulancia = ambulanciasPorPlaca.get(partes[1].trim());
+            if (ambulancia == null) continue;
+
+            Equipe equipe = new Equipe();
+            equipe.setDescricao(partes[0].trim());
+            equipe.setAmbulancia(ambulancia);
+            equipe.setAtiva(true);
+            for (String contato : partes[2].split(",")) {
+                Profissional profissional = profissionaisPorContato.get(contato.trim());
+                if (profissional == null) continue;
+
+                EquipeProfissional membro = new EquipeProfissional();
+                membro.setEquipe(equipe);
+                membro.setProfissional(profissional);
+                equipe.getProfissionais().add(membro);
+            }
+            equipes.add(equipe);
+        }
+        equipeRepositorio.saveAll(equipes);
+    }
+
+    private List<String[]> lerLinhas(Path arquivo) throws IOException {
+        List<String[]> registros = new ArrayList<>();
+        for (String linha : Files.readAllLines(arquivo)) {
+            if (linha.isBlank()) continue;
+            registros.add(linha.split(";"));
+        }
+        return registros;
+    }
 }
@@ -1,5 +1,6 @@
 package com.vitalistech.sosrota.config;
 
+import com.vitalistech.sosrota.dominio.servico.ParticionamentoHistoricoServico;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
@@ -8,6 +9,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 
 import javax.sql.DataSource;
@@ -23,14 +25,20 @@ public class InicializadorBancoDados {
 
     private static final Logger logger = LoggerFactory.getLogger(InicializadorBancoDados.class);
 
+    /** Índice do script que impede dois atendimentos para a mesma ocorrência. */
+    static final String INDICE_ATENDIMENTO_UNICO = "idx_atendimentos_ocorrencia_unique";
+
     /**
      * Executa o script de setup do banco de dados na inicialização da aplicação.
      * Este método é executado automaticamente uma vez quando a aplicação inicia.
      * A ordem -1 garante que seja executado antes de outros CommandLineRunners.
+     * O particionamento do histórico vem antes do script, para que os índices do script
+     * sejam criados já na tabela particionada.
      */
     @Bean
     @Order(-1)
-    public CommandLineRunner inicializarBancoDados(DataSource dataSource) {
+    public CommandLineRunner inicializarBancoDados(DataSource dataSource,
+                                                   ParticionamentoHistoricoServico particionamentoHistorico) {
         return args -> {
             try {
                 logger.info("========================================");
@@ -46,6 +54,8 @@ public class InicializadorBancoDados {
                     return;
                 }
 
+                particionamentoHistorico.particionar();
+
                 logger.info("Executando script de setup do banco de dados...");
                 
                 // Executar o script usando ResourceDatabasePopulator
@@ -57,6 +67,15 @@ public class InicializadorBancoDados {
                 
                 // Executar o script
                 populator.execute(dataSource);
+
+                // O script continua após erros: o índice único de atendimentos é a garantia final
+                // contra despacho duplicado, então a sua ausência não pode passar despercebida
+                if (new JdbcTemplate(dataSource).queryForObject(
+                        "SELECT to_regclass('" + INDICE_ATENDIMENTO_UNICO + "') IS NOT NULL", Boolean.class) != Boolean.TRUE) {
+                    logger.error("Índice único {} ausente após o script de setup: uma ocorrência pode receber mais "
+                            + "de um atendimento. Verifique atendimentos duplicados e crie o índice manualmente.",
+                            INDICE_ATENDIMENTO_UNICO);
+                }
                 
                 logger.info("✓ Script de setup executado com sucesso!");
                 logger.info("========================================");
@@ -7,6 +7,7 @@ import jakarta.persistence.*;
  */
 @Entity
 @Table(name = "bairros")
+@EntityListeners(GrafoViarioListener.class)
 public class Bairro {
 
     @Id
@@ -16,6 +17,14 @@ public class Bairro {
     @Column(nullable = false, unique = true)
     private String nome;
 
+    /**
+     * Coordenadas geográficas (graus decimais, WGS84). Opcionais; quando todos os bairros
+     * as possuem, o roteamento pode usar A* com limite inferior pela distância haversine.
+     */
+    private Double latitude;
+
+    private Double longitude;
+
     public Long getId() {
         return id;
     }
@@ -31,4 +40,20 @@ public class Bairro {
     public void setNome(String nome) {
         this.nome = nome;
     }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
 }
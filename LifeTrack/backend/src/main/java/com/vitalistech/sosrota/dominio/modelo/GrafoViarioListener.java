@@ -0,0 +1,44 @@
+package com.vitalistech.sosrota.dominio.modelo;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Listener JPA que controla a versão do grafo viário.
+ * Toda inclusão, alteração ou remoção de {@link RuaConexao} ou de {@link Bairro}
+ * (vértices e suas coordenadas) incrementa a versão, sinalizando que os snapshots
+ * do grafo em memória precisam ser reconstruídos.
+ */
+public class GrafoViarioListener {
+
+    private static final AtomicLong VERSAO = new AtomicLong();
+
+    /**
+     * Versão atual do grafo viário.
+     */
+    public static long versaoAtual() {
+        return VERSAO.get();
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void grafoAlterado(Object entidade) {
+        // Só incrementa após o commit, para que a reconstrução já enxergue os dados gravados
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    VERSAO.incrementAndGet();
+                }
+            });
+        } else {
+            VERSAO.incrementAndGet();
+        }
+    }
+}
@@ -73,6 +73,10 @@ public class HistoricoOcorrencia {
     @Column(name = "acao_ambulancia", length = 100)
     private String acaoAmbulancia; // Ex: "Indo até o local", "Retornando para base"
 
+    // Ordem de confirmação, atribuída pelo GravadorHistorico depois do commit (null até lá)
+    @Column(name = "sequencia", insertable = false, updatable = false)
+    private Long sequencia;
+
     public HistoricoOcorrencia() {
         this.dataHora = LocalDateTime.now();
     }
@@ -212,5 +216,13 @@ public class HistoricoOcorrencia {
     public void setAcaoAmbulancia(String acaoAmbulancia) {
         this.acaoAmbulancia = acaoAmbulancia;
     }
+
+    public Long getSequencia() {
+        return sequencia;
+    }
+
+    public void setSequencia(Long sequencia) {
+        this.sequencia = sequencia;
+    }
 }
 
@@ -6,8 +6,8 @@ import jakarta.persistence.*;
  * Representa uma ligação viária entre dois bairros com uma distância em km.
  */
 @Entity
-
 @Table(name = "ruas_conexoes")
+@EntityListeners(GrafoViarioListener.class)
 public class RuaConexao {
 
     @Id
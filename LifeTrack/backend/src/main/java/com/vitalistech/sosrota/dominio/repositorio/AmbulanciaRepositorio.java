@@ -4,6 +4,8 @@ import com.vitalistech.sosrota.dominio.modelo.Ambulancia;
 import com.vitalistech.sosrota.dominio.modelo.StatusAmbulancia;
 import com.vitalistech.sosrota.dominio.modelo.TipoAmbulancia;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
@@ -12,4 +14,18 @@ public interface AmbulanciaRepositorio extends JpaRepository<Ambulancia, Long> {
     List<Ambulancia> findByTipoAndStatusAndAtivaTrue(TipoAmbulancia tipo, StatusAmbulancia status);
 
     List<Ambulancia> findByStatusAndAtivaTrue(StatusAmbulancia status);
+
+    /**
+     * Marca a ambulância como EM_ATENDIMENTO somente se ela ainda estiver ativa e DISPONIVEL.
+     * A verificação e a escrita acontecem em um único UPDATE, com trava apenas na linha da ambulância:
+     * de dois despachos concorrentes, só um recebe 1; o outro recebe 0 e deve tentar a próxima candidata.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Ambulancia a SET a.status = com.vitalistech.sosrota.dominio.modelo.StatusAmbulancia.EM_ATENDIMENTO "
+            + "WHERE a.id = :id AND a.ativa = true "
+            + "AND a.status = com.vitalistech.sosrota.dominio.modelo.StatusAmbulancia.DISPONIVEL")
+    int reivindicarDisponivel(Long id);
+
+    @Query("SELECT a FROM Ambulancia a LEFT JOIN FETCH a.bairroBase")
+    List<Ambulancia> findAllComBairroBase();
 }
@@ -22,4 +22,11 @@ public interface AtendimentoRepositorio extends JpaRepository<Atendimento, Long>
     
     @Query("SELECT a FROM Atendimento a WHERE a.ambulancia.id = :idAmbulancia AND a.ocorrencia.status IN (com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia.DESPACHADA, com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia.EM_ATENDIMENTO)")
     List<Atendimento> findAtendimentosAtivosPorAmbulancia(Long idAmbulancia);
+
+    /**
+     * Atendimentos que ainda podem ter chegada ou retorno automáticos (sem retorno registrado e
+     * ocorrência em andamento ou concluída), com a ocorrência carregada.
+     */
+    @Query("SELECT a FROM Atendimento a JOIN FETCH a.ocorrencia o WHERE a.dataHoraRetorno IS NULL AND o.status IN (com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia.DESPACHADA, com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia.EM_ATENDIMENTO, com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia.CONCLUIDA)")
+    List<Atendimento> findPendentesDeTimer();
 }
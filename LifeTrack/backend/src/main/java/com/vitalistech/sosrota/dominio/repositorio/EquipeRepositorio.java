@@ -23,4 +23,7 @@ public interface EquipeRepositorio extends JpaRepository<Equipe, Long> {
 
     @Query("SELECT e FROM Equipe e WHERE e.ambulancia.id = :idAmbulancia AND e.ativa = true")
     Optional<Equipe> findEquipeAtivaPorAmbulancia(Long idAmbulancia);
+
+    @Query("SELECT DISTINCT e FROM Equipe e LEFT JOIN FETCH e.profissionais ep LEFT JOIN FETCH ep.profissional WHERE e.ativa = true")
+    List<Equipe> findAtivasComProfissionais();
 }
@@ -0,0 +1,89 @@
+package com.vitalistech.sosrota.dominio.repositorio;
+
+import com.vitalistech.sosrota.web.dto.HistoricoOcorrenciaDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Leitura do histórico arquivado (historico_ocorrencias_arquivo): entradas das partições mensais
+ * mais antigas que o horizonte configurado, movidas da tabela principal por
+ * {@link com.vitalistech.sosrota.dominio.servico.ParticionamentoHistoricoServico}.
+ *
+ * A tabela não é mapeada como entidade; as consultas seguem as da tabela principal
+ * (mesma ordem e cursor) e montam o DTO direto das colunas.
+ */
+@Repository
+public class HistoricoArquivoRepositorio {
+
+    public static final String TABELA = "historico_ocorrencias_arquivo";
+
+    /** Colunas do histórico, na mesma ordem na tabela principal e no arquivo. */
+    public static final String COLUNAS = "id, id_ocorrencia, id_usuario, acao, status_anterior, status_novo, "
+            + "descricao_acao, data_hora, tipo_ocorrencia, gravidade, bairro_origem_nome, observacoes, "
+            + "usuario_nome, usuario_login, usuario_perfil, placa_ambulancia, acao_ambulancia, sequencia";
+
+    private static final String CONSULTA = "SELECT " + COLUNAS + " FROM " + TABELA + " ";
+    private static final String ANTES_DO_CURSOR = "(data_hora, id) < (?, ?) ORDER BY data_hora DESC, id DESC LIMIT ?";
+
+    private static final RowMapper<HistoricoOcorrenciaDTO> MAPEADOR = (rs, linha) -> {
+        HistoricoOcorrenciaDTO dto = new HistoricoOcorrenciaDTO(rs.getLong("id"), rs.getLong("id_ocorrencia"),
+                rs.getLong("id_usuario"), rs.getString("acao"), rs.getString("status_anterior"),
+                rs.getString("status_novo"), rs.getString("descricao_acao"),
+                rs.getTimestamp("data_hora").toLocalDateTime(), rs.getString("tipo_ocorrencia"),
+                rs.getString("gravidade"), rs.getString("bairro_origem_nome"), rs.getString("observacoes"),
+                rs.getString("usuario_nome"), rs.getString("usuario_login"), rs.getString("usuario_perfil"));
+        dto.setPlacaAmbulancia(rs.getString("placa_ambulancia"));
+        dto.setAcaoAmbulancia(rs.getString("acao_ambulancia"));
+        dto.setSequencia(rs.getObject("sequencia", Long.class));
+        return dto;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public HistoricoArquivoRepositorio(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Entradas arquivadas de uma ocorrência anteriores a (antesDataHora, antesId), mais recentes
+     * primeiro, opcionalmente só as ações de um usuário.
+     */
+    public List<HistoricoOcorrenciaDTO> buscarPaginaPorOcorrencia(Long ocorrenciaId, Long usuarioId,
+                                                                  LocalDateTime antesDataHora, Long antesId,
+                                                                  int limite) {
+        if (usuarioId == null) {
+            return jdbcTemplate.query(CONSULTA + "WHERE id_ocorrencia = ? AND " + ANTES_DO_CURSOR,
+                    MAPEADOR, ocorrenciaId, antesDataHora, antesId, limite);
+        }
+        return jdbcTemplate.query(CONSULTA + "WHERE id_ocorrencia = ? AND id_usuario = ? AND " + ANTES_DO_CURSOR,
+                MAPEADOR, ocorrenciaId, usuarioId, antesDataHora, antesId, limite);
+    }
+
+    /**
+     * Entradas arquivadas de um usuário anteriores a (antesDataHora, antesId), mais recentes primeiro.
+     */
+    public List<HistoricoOcorrenciaDTO> buscarPaginaPorUsuario(Long usuarioId, LocalDateTime antesDataHora,
+                                                               Long antesId, int limite) {
+        return jdbcTemplate.query(CONSULTA + "WHERE id_usuario = ? AND " + ANTES_DO_CURSOR,
+                MAPEADOR, usuarioId, antesDataHora, antesId, limite);
+    }
+
+    /**
+     * Entradas arquivadas anteriores a (antesDataHora, antesId), mais recentes primeiro.
+     */
+    public List<HistoricoOcorrenciaDTO> buscarPagina(LocalDateTime antesDataHora, Long antesId, int limite) {
+        return jdbcTemplate.query(CONSULTA + "WHERE " + ANTES_DO_CURSOR, MAPEADOR, antesDataHora, antesId, limite);
+    }
+
+    /**
+     * Verifica se há alguma entrada arquivada.
+     */
+    public boolean existeAlguma() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + TABELA + ")", Boolean.class));
+    }
+}
@@ -1,11 +1,14 @@
 package com.vitalistech.sosrota.dominio.repositorio;
 
 import com.vitalistech.sosrota.dominio.modelo.HistoricoOcorrencia;
+import com.vitalistech.sosrota.web.dto.HistoricoOcorrenciaDTO;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -15,25 +18,74 @@ import java.util.List;
 public interface HistoricoOcorrenciaRepositorio extends JpaRepository<HistoricoOcorrencia, Long> {
 
     /**
-     * Busca todo o histórico de uma ocorrência específica, ordenado por data/hora (mais recente primeiro).
+     * Consulta das páginas do histórico: monta o DTO direto das colunas, sem carregar a entidade
+     * nem a ocorrência e o usuário associados.
      */
-    List<HistoricoOcorrencia> findByOcorrenciaIdOrderByDataHoraDesc(Long ocorrenciaId);
+    String CONSULTA_PAGINA = "SELECT new com.vitalistech.sosrota.web.dto.HistoricoOcorrenciaDTO("
+            + "h.id, h.ocorrencia.id, h.usuario.id, h.acao, h.statusAnterior, h.statusNovo, h.descricaoAcao, "
+            + "h.dataHora, h.tipoOcorrencia, h.gravidade, h.bairroOrigemNome, h.observacoes, h.usuarioNome, "
+            + "h.usuarioLogin, h.usuarioPerfil, h.placaAmbulancia, h.acaoAmbulancia, h.sequencia) "
+            + "FROM HistoricoOcorrencia h ";
 
     /**
-     * Busca todo o histórico de ações realizadas por um usuário específico, ordenado por data/hora (mais recente primeiro).
+     * Paginação por chave: entradas anteriores a (antesDataHora, antesId), mais recentes primeiro.
+     * A comparação de tupla vira limite de varredura dos índices (..., data_hora DESC, id DESC),
+     * então o custo de uma página não depende de quantas entradas vieram antes dela.
      */
-    List<HistoricoOcorrencia> findByUsuarioIdOrderByDataHoraDesc(Long usuarioId);
+    String ANTES_DO_CURSOR = "(h.dataHora, h.id) < (:antesDataHora, :antesId) ORDER BY h.dataHora DESC, h.id DESC";
 
     /**
-     * Busca histórico de ocorrências com filtros opcionais.
-     * Permite buscar por usuário, ocorrência ou ambos.
+     * Página do histórico de uma ocorrência, opcionalmente só das ações de um usuário.
+     * O tamanho da página vem do {@link Pageable} (página 0).
      */
-    @Query("SELECT h FROM HistoricoOcorrencia h WHERE " +
-           "(:usuarioId IS NULL OR h.usuario.id = :usuarioId) AND " +
-           "(:ocorrenciaId IS NULL OR h.ocorrencia.id = :ocorrenciaId) " +
-           "ORDER BY h.dataHora DESC")
-    List<HistoricoOcorrencia> buscarComFiltros(@Param("usuarioId") Long usuarioId, 
-                                                @Param("ocorrenciaId") Long ocorrenciaId);
+    @Query(CONSULTA_PAGINA + "WHERE h.ocorrencia.id = :ocorrenciaId "
+            + "AND (:usuarioId IS NULL OR h.usuario.id = :usuarioId) AND " + ANTES_DO_CURSOR)
+    List<HistoricoOcorrenciaDTO> buscarPaginaPorOcorrencia(@Param("ocorrenciaId") Long ocorrenciaId,
+                                                           @Param("usuarioId") Long usuarioId,
+                                                           @Param("antesDataHora") LocalDateTime antesDataHora,
+                                                           @Param("antesId") Long antesId,
+                                                           Pageable pagina);
+
+    /**
+     * Entradas do histórico de uma ocorrência sequenciadas depois de aposSequencia, na ordem da
+     * sequência. A sequência é atribuída pelo {@link com.vitalistech.sosrota.dominio.servico.GravadorHistorico}
+     * a entradas já confirmadas, em ordem crescente e uma rodada por vez: quando uma sequência fica
+     * visível, todas as menores já estão, o que um id (gerado antes do commit) não garante.
+     */
+    @Query(CONSULTA_PAGINA + "WHERE h.ocorrencia.id = :ocorrenciaId AND h.sequencia > :aposSequencia "
+            + "ORDER BY h.sequencia")
+    List<HistoricoOcorrenciaDTO> buscarNovasPorOcorrencia(@Param("ocorrenciaId") Long ocorrenciaId,
+                                                          @Param("aposSequencia") Long aposSequencia,
+                                                          Pageable pagina);
+
+    /**
+     * Quantidade de entradas sequenciadas e maior sequência do histórico de uma ocorrência.
+     */
+    @Query("SELECT new com.vitalistech.sosrota.dominio.repositorio.VersaoHistorico(COUNT(h.sequencia), MAX(h.sequencia)) "
+            + "FROM HistoricoOcorrencia h WHERE h.ocorrencia.id = :ocorrenciaId")
+    VersaoHistorico buscarVersaoPorOcorrencia(@Param("ocorrenciaId") Long ocorrenciaId);
+
+    /**
+     * Página do histórico de ações de um usuário.
+     */
+    @Query(CONSULTA_PAGINA + "WHERE h.usuario.id = :usuarioId AND " + ANTES_DO_CURSOR)
+    List<HistoricoOcorrenciaDTO> buscarPaginaPorUsuario(@Param("usuarioId") Long usuarioId,
+                                                        @Param("antesDataHora") LocalDateTime antesDataHora,
+                                                        @Param("antesId") Long antesId,
+                                                        Pageable pagina);
+
+    /**
+     * Página do histórico completo.
+     */
+    @Query(CONSULTA_PAGINA + "WHERE " + ANTES_DO_CURSOR)
+    List<HistoricoOcorrenciaDTO> buscarPagina(@Param("antesDataHora") LocalDateTime antesDataHora,
+                                              @Param("antesId") Long antesId,
+                                              Pageable pagina);
+
+    /**
+     * Verifica se a ocorrência já tem um registro com a ação de ambulância informada.
+     */
+    boolean existsByOcorrenciaIdAndAcaoAmbulancia(Long ocorrenciaId, String acaoAmbulancia);
 
     /**
      * Conta quantos registros de histórico existem para uma ocorrência.
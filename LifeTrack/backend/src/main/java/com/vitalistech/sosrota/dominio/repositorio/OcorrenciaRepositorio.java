@@ -4,9 +4,19 @@ import com.vitalistech.sosrota.dominio.modelo.Bairro;
 import com.vitalistech.sosrota.dominio.modelo.Gravidade;
 import com.vitalistech.sosrota.dominio.modelo.Ocorrencia;
 import com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface OcorrenciaRepositorio extends JpaRepository<Ocorrencia, Long> {
 
@@ -15,4 +25,107 @@ public interface OcorrenciaRepositorio extends JpaRepository<Ocorrencia, Long> {
     List<Ocorrencia> findByGravidade(Gravidade gravidade);
 
     List<Ocorrencia> findByBairroLocal(Bairro bairro);
+
+    /**
+     * Marca a ocorrência como DESPACHADA somente se ela ainda estiver ABERTA, em um único UPDATE.
+     * De dois despachos concorrentes da mesma ocorrência, só um recebe 1 e pode reivindicar ambulância;
+     * o outro recebe 0 e desiste sem tocar na frota.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Ocorrencia o SET o.status = com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia.DESPACHADA "
+            + "WHERE o.id = :id AND o.status = com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia.ABERTA")
+    int reivindicarAberta(Long id);
+
+    /**
+     * Devolve para ABERTA uma ocorrência reivindicada por {@link #reivindicarAberta(Long)} que acabou
+     * ficando sem ambulância, na mesma transação.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Ocorrencia o SET o.status = com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia.ABERTA "
+            + "WHERE o.id = :id AND o.status = com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia.DESPACHADA")
+    int liberarReivindicada(Long id);
+
+    /**
+     * Dados do timer de uma ocorrência, em uma consulta (ocorrência + atendimento + placa).
+     * Como no relatório, só o atendimento de menor id entra, para nunca duplicar a ocorrência.
+     */
+    @Query("SELECT new com.vitalistech.sosrota.dominio.repositorio.TimerOcorrenciaLinha("
+            + "o.id, o.status, o.dataHoraAbertura, o.dataHoraFechamento, o.slaMinutos, "
+            + "a.id, a.dataHoraDespacho, a.dataHoraChegada, a.dataHoraRetorno, a.distanciaKm, amb.placa) "
+            + "FROM Ocorrencia o LEFT JOIN Atendimento a ON a.ocorrencia = o "
+            + "AND a.id = (SELECT MIN(a2.id) FROM Atendimento a2 WHERE a2.ocorrencia = o) "
+            + "LEFT JOIN a.ambulancia amb "
+            + "WHERE o.id = :idOcorrencia")
+    List<TimerOcorrenciaLinha> buscarLinhaTimer(Long idOcorrencia);
+
+    /**
+     * Dados do timer das ocorrências nos status informados, em uma consulta, ordenados por id.
+     * Ocorrências CONCLUIDAS só entram enquanto a ambulância não retornou (o timer ainda corre).
+     */
+    @Query("SELECT new com.vitalistech.sosrota.dominio.repositorio.TimerOcorrenciaLinha("
+            + "o.id, o.status, o.dataHoraAbertura, o.dataHoraFechamento, o.slaMinutos, "
+            + "a.id, a.dataHoraDespacho, a.dataHoraChegada, a.dataHoraRetorno, a.distanciaKm, amb.placa) "
+            + "FROM Ocorrencia o LEFT JOIN Atendimento a ON a.ocorrencia = o "
+            + "AND a.id = (SELECT MIN(a2.id) FROM Atendimento a2 WHERE a2.ocorrencia = o) "
+            + "LEFT JOIN a.ambulancia amb "
+            + "WHERE o.status IN :status "
+            + "AND (o.status <> com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia.CONCLUIDA "
+            + "OR (a.id IS NOT NULL AND a.dataHoraRetorno IS NULL)) "
+            + "ORDER BY o.id")
+    List<TimerOcorrenciaLinha> buscarLinhasTimer(Collection<StatusOcorrencia> status);
+
+    /**
+     * Consulta do relatório de ocorrências (ocorrência + bairro + usuários + primeiro atendimento +
+     * ambulância), com os filtros opcionais; filtros null são ignorados.
+     */
+    String CONSULTA_RELATORIO = "SELECT new com.vitalistech.sosrota.dominio.repositorio.RelatorioOcorrenciaLinha("
+            + "o.id, o.dataHoraAbertura, o.tipoOcorrencia, o.gravidade, o.status, b.nome, o.observacoes, "
+            + "ur.nome, ur.login, o.dataHoraFechamento, o.tempoAtendimentoMinutos, o.slaMinutos, "
+            + "o.slaCumprido, o.tempoExcedidoMinutos, "
+            + "a.id, a.dataHoraDespacho, a.dataHoraChegada, a.dataHoraRetorno, a.distanciaKm, amb.placa, "
+            + "ud.nome, ud.login) "
+            + "FROM Ocorrencia o JOIN o.bairroLocal b LEFT JOIN o.usuarioRegistro ur "
+            + "LEFT JOIN Atendimento a ON a.ocorrencia = o "
+            + "AND a.id = (SELECT MIN(a2.id) FROM Atendimento a2 WHERE a2.ocorrencia = o) "
+            + "LEFT JOIN a.ambulancia amb LEFT JOIN a.usuarioDespacho ud "
+            + "WHERE (:inicio IS NULL OR o.dataHoraAbertura >= :inicio) "
+            + "AND (:fim IS NULL OR o.dataHoraAbertura < :fim) "
+            + "AND (:gravidade IS NULL OR o.gravidade = :gravidade) "
+            + "AND (:idBairro IS NULL OR b.id = :idBairro) ";
+
+    /** Linhas buscadas do banco por vez na exportação do relatório. */
+    int TAMANHO_LOTE_EXPORTACAO = 1000;
+
+    /**
+     * Página do relatório de ocorrências, da mais recente para a mais antiga, em uma consulta.
+     * Paginação por chave: a próxima página começa depois de (cursorAbertura, cursorId), o que usa
+     * o índice (data_hora_abertura, id) em vez de percorrer as linhas já lidas como faria um OFFSET.
+     * O tamanho da página vem do {@link Pageable} (página 0).
+     */
+    @Query(CONSULTA_RELATORIO
+            + "AND (:cursorAbertura IS NULL OR o.dataHoraAbertura < :cursorAbertura "
+            + "OR (o.dataHoraAbertura = :cursorAbertura AND o.id < :cursorId)) "
+            + "ORDER BY o.dataHoraAbertura DESC, o.id DESC")
+    List<RelatorioOcorrenciaLinha> buscarLinhasRelatorio(@Param("inicio") LocalDateTime inicio,
+                                                         @Param("fim") LocalDateTime fim,
+                                                         @Param("gravidade") Gravidade gravidade,
+                                                         @Param("idBairro") Long idBairro,
+                                                         @Param("cursorAbertura") LocalDateTime cursorAbertura,
+                                                         @Param("cursorId") Long cursorId,
+                                                         Pageable pagina);
+
+    /**
+     * Todas as linhas do relatório com os filtros, na mesma ordem das páginas, lidas do banco aos
+     * poucos (cursor do servidor, de {@value #TAMANHO_LOTE_EXPORTACAO} em {@value #TAMANHO_LOTE_EXPORTACAO}
+     * linhas). Deve ser consumido e fechado dentro de uma transação.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + TAMANHO_LOTE_EXPORTACAO),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(CONSULTA_RELATORIO + "ORDER BY o.dataHoraAbertura DESC, o.id DESC")
+    Stream<RelatorioOcorrenciaLinha> streamLinhasRelatorio(@Param("inicio") LocalDateTime inicio,
+                                                           @Param("fim") LocalDateTime fim,
+                                                           @Param("gravidade") Gravidade gravidade,
+                                                           @Param("idBairro") Long idBairro);
 }
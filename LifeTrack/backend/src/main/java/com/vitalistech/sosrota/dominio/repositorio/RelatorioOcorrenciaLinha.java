@@ -0,0 +1,157 @@
+package com.vitalistech.sosrota.dominio.repositorio;
+
+import com.vitalistech.sosrota.dominio.modelo.Gravidade;
+import com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projeção de uma linha do relatório de ocorrências: ocorrência, bairro, usuário de registro e
+ * o primeiro atendimento (com ambulância e usuário de despacho), lidos em uma única consulta.
+ * Os campos do atendimento são null quando a ocorrência não foi despachada.
+ */
+public class RelatorioOcorrenciaLinha {
+
+    private final Long idOcorrencia;
+    private final LocalDateTime dataHoraAbertura;
+    private final String tipoOcorrencia;
+    private final Gravidade gravidade;
+    private final StatusOcorrencia status;
+    private final String bairroNome;
+    private final String observacoes;
+    private final String usuarioRegistroNome;
+    private final String usuarioRegistroLogin;
+    private final LocalDateTime dataHoraFechamento;
+    private final Integer tempoAtendimentoMinutos;
+    private final Integer slaMinutos;
+    private final Boolean slaCumprido;
+    private final Integer tempoExcedidoMinutos;
+    private final Long idAtendimento;
+    private final LocalDateTime dataHoraDespacho;
+    private final LocalDateTime dataHoraChegada;
+    private final LocalDateTime dataHoraRetorno;
+    private final Double distanciaKm;
+    private final String placaAmbulancia;
+    private final String usuarioDespachoNome;
+    private final String usuarioDespachoLogin;
+
+    public RelatorioOcorrenciaLinha(Long idOcorrencia, LocalDateTime dataHoraAbertura, String tipoOcorrencia,
+                                    Gravidade gravidade, StatusOcorrencia status, String bairroNome,
+                                    String observacoes, String usuarioRegistroNome, String usuarioRegistroLogin,
+                                    LocalDateTime dataHoraFechamento, Integer tempoAtendimentoMinutos,
+                                    Integer slaMinutos, Boolean slaCumprido, Integer tempoExcedidoMinutos,
+                                    Long idAtendimento, LocalDateTime dataHoraDespacho,
+                                    LocalDateTime dataHoraChegada, LocalDateTime dataHoraRetorno, Double distanciaKm,
+                                    String placaAmbulancia, String usuarioDespachoNome, String usuarioDespachoLogin) {
+        this.idOcorrencia = idOcorrencia;
+        this.dataHoraAbertura = dataHoraAbertura;
+        this.tipoOcorrencia = tipoOcorrencia;
+        this.gravidade = gravidade;
+        this.status = status;
+        this.bairroNome = bairroNome;
+        this.observacoes = observacoes;
+        this.usuarioRegistroNome = usuarioRegistroNome;
+        this.usuarioRegistroLogin = usuarioRegistroLogin;
+        this.dataHoraFechamento = dataHoraFechamento;
+        this.tempoAtendimentoMinutos = tempoAtendimentoMinutos;
+        this.slaMinutos = slaMinutos;
+        this.slaCumprido = slaCumprido;
+        this.tempoExcedidoMinutos = tempoExcedidoMinutos;
+        this.idAtendimento = idAtendimento;
+        this.dataHoraDespacho = dataHoraDespacho;
+        this.dataHoraChegada = dataHoraChegada;
+        this.dataHoraRetorno = dataHoraRetorno;
+        this.distanciaKm = distanciaKm;
+        this.placaAmbulancia = placaAmbulancia;
+        this.usuarioDespachoNome = usuarioDespachoNome;
+        this.usuarioDespachoLogin = usuarioDespachoLogin;
+    }
+
+    public Long getIdOcorrencia() {
+        return idOcorrencia;
+    }
+
+    public LocalDateTime getDataHoraAbertura() {
+        return dataHoraAbertura;
+    }
+
+    public String getTipoOcorrencia() {
+        return tipoOcorrencia;
+    }
+
+    public Gravidade getGravidade() {
+        return gravidade;
+    }
+
+    public StatusOcorrencia getStatus() {
+        return status;
+    }
+
+    public String getBairroNome() {
+        return bairroNome;
+    }
+
+    public String getObservacoes() {
+        return observacoes;
+    }
+
+    public String getUsuarioRegistroNome() {
+        return usuarioRegistroNome;
+    }
+
+    public String getUsuarioRegistroLogin() {
+        return usuarioRegistroLogin;
+    }
+
+    public LocalDateTime getDataHoraFechamento() {
+        return dataHoraFechamento;
+    }
+
+    public Integer getTempoAtendimentoMinutos() {
+        return tempoAtendimentoMinutos;
+    }
+
+    public Integer getSlaMinutos() {
+        return slaMinutos;
+    }
+
+    public Boolean getSlaCumprido() {
+        return slaCumprido;
+    }
+
+    public Integer getTempoExcedidoMinutos() {
+        return tempoExcedidoMinutos;
+    }
+
+    public Long getIdAtendimento() {
+        return idAtendimento;
+    }
+
+    public LocalDateTime getDataHoraDespacho() {
+        return dataHoraDespacho;
+    }
+
+    public LocalDateTime getDataHoraChegada() {
+        return dataHoraChegada;
+    }
+
+    public LocalDateTime getDataHoraRetorno() {
+        return dataHoraRetorno;
+    }
+
+    public Double getDistanciaKm() {
+        return distanciaKm;
+    }
+
+    public String getPlacaAmbulancia() {
+        return placaAmbulancia;
+    }
+
+    public String getUsuarioDespachoNome() {
+        return usuarioDespachoNome;
+    }
+
+    public String getUsuarioDespachoLogin() {
+        return usuarioDespachoLogin;
+    }
+}
@@ -0,0 +1,86 @@
+package com.vitalistech.sosrota.dominio.repositorio;
+
+import com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projeção com os campos de ocorrência, atendimento e ambulância usados no timer.
+ * Preenchida por uma única consulta (sem carregar as entidades e seus relacionamentos);
+ * os campos do atendimento são null quando a ocorrência ainda não foi despachada.
+ */
+public class TimerOcorrenciaLinha {
+
+    private final Long idOcorrencia;
+    private final StatusOcorrencia status;
+    private final LocalDateTime dataHoraAbertura;
+    private final LocalDateTime dataHoraFechamento;
+    private final Integer slaMinutos;
+    private final Long idAtendimento;
+    private final LocalDateTime dataHoraDespacho;
+    private final LocalDateTime dataHoraChegada;
+    private final LocalDateTime dataHoraRetorno;
+    private final Double distanciaKm;
+    private final String placaAmbulancia;
+
+    public TimerOcorrenciaLinha(Long idOcorrencia, StatusOcorrencia status, LocalDateTime dataHoraAbertura,
+                                LocalDateTime dataHoraFechamento, Integer slaMinutos, Long idAtendimento,
+                                LocalDateTime dataHoraDespacho, LocalDateTime dataHoraChegada,
+                                LocalDateTime dataHoraRetorno, Double distanciaKm, String placaAmbulancia) {
+        this.idOcorrencia = idOcorrencia;
+        this.status = status;
+        this.dataHoraAbertura = dataHoraAbertura;
+        this.dataHoraFechamento = dataHoraFechamento;
+        this.slaMinutos = slaMinutos;
+        this.idAtendimento = idAtendimento;
+        this.dataHoraDespacho = dataHoraDespacho;
+        this.dataHoraChegada = dataHoraChegada;
+        this.dataHoraRetorno = dataHoraRetorno;
+        this.distanciaKm = distanciaKm;
+        this.placaAmbulancia = placaAmbulancia;
+    }
+
+    public Long getIdOcorrencia() {
+        return idOcorrencia;
+    }
+
+    public StatusOcorrencia getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getDataHoraAbertura() {
+        return dataHoraAbertura;
+    }
+
+    public LocalDateTime getDataHoraFechamento() {
+        return dataHoraFechamento;
+    }
+
+    public Integer getSlaMinutos() {
+        return slaMinutos;
+    }
+
+    public Long getIdAtendimento() {
+        return idAtendimento;
+    }
+
+    public LocalDateTime getDataHoraDespacho() {
+        return dataHoraDespacho;
+    }
+
+    public LocalDateTime getDataHoraChegada() {
+        return dataHoraChegada;
+    }
+
+    public LocalDateTime getDataHoraRetorno() {
+        return dataHoraRetorno;
+    }
+
+    public Double getDistanciaKm() {
+        return distanciaKm;
+    }
+
+    public String getPlacaAmbulancia() {
+        return placaAmbulancia;
+    }
+}
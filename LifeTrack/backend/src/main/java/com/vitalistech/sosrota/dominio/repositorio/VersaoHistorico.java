@@ -0,0 +1,29 @@
+package com.vitalistech.sosrota.dominio.repositorio;
+
+/**
+ * Versão do histórico de uma ocorrência: quantidade de entradas sequenciadas e maior sequência.
+ * As sequências só crescem e ficam visíveis em ordem, então a versão muda sempre que uma entrada
+ * nova fica visível para as consultas por sequência.
+ * Calculada pelo índice (id_ocorrencia, sequencia), sem ler as linhas da tabela.
+ */
+public class VersaoHistorico {
+
+    private final long quantidade;
+    private final Long ultimaSequencia;
+
+    public VersaoHistorico(Long quantidade, Long ultimaSequencia) {
+        this.quantidade = quantidade != null ? quantidade : 0;
+        this.ultimaSequencia = ultimaSequencia;
+    }
+
+    public long getQuantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Maior sequência do histórico da ocorrência, ou null se ainda não há entradas sequenciadas.
+     */
+    public Long getUltimaSequencia() {
+        return ultimaSequencia;
+    }
+}
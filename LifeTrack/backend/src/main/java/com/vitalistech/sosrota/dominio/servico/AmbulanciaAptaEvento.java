@@ -0,0 +1,18 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+/**
+ * Publicado por {@link FrotaEstado} quando uma ambulância passa a estar apta ao despacho
+ * (retorno de atendimento, ativação ou equipe completada), já após o commit da alteração.
+ */
+public class AmbulanciaAptaEvento {
+
+    private final Long idAmbulancia;
+
+    public AmbulanciaAptaEvento(Long idAmbulancia) {
+        this.idAmbulancia = idAmbulancia;
+    }
+
+    public Long getIdAmbulancia() {
+        return idAmbulancia;
+    }
+}
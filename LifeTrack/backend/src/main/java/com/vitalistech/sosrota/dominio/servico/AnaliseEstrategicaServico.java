@@ -3,14 +3,21 @@ package com.vitalistech.sosrota.dominio.servico;
 import com.vitalistech.sosrota.dominio.modelo.*;
 import com.vitalistech.sosrota.dominio.repositorio.*;
 import com.vitalistech.sosrota.util.AlgoritmoDijkstra;
-import com.vitalistech.sosrota.util.ResultadoRota;
+import com.vitalistech.sosrota.util.GrafoViario;
 import com.vitalistech.sosrota.web.dto.BairroSugeridoDTO;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
 
 /**
  * Serviço responsável por análises estratégicas para posicionamento de ambulâncias.
@@ -18,19 +25,24 @@ import java.util.stream.Collectors;
 @Service
 public class AnaliseEstrategicaServico {
 
+    // Árvores de caminhos mínimos calculadas (e mantidas em memória) por vez
+    private static final int LOTE_DESTINOS = 32;
+    // Bairros por tarefa no cálculo paralelo dos scores
+    private static final int LOTE_BAIRROS = 64;
+
     private final BairroRepositorio bairroRepositorio;
     private final OcorrenciaRepositorio ocorrenciaRepositorio;
     private final AmbulanciaRepositorio ambulanciaRepositorio;
-    private final RuaConexaoRepositorio ruaConexaoRepositorio;
+    private final RoteamentoServico roteamentoServico;
 
     public AnaliseEstrategicaServico(BairroRepositorio bairroRepositorio,
                                      OcorrenciaRepositorio ocorrenciaRepositorio,
                                      AmbulanciaRepositorio ambulanciaRepositorio,
-                                     RuaConexaoRepositorio ruaConexaoRepositorio) {
+                                     RoteamentoServico roteamentoServico) {
         this.bairroRepositorio = bairroRepositorio;
         this.ocorrenciaRepositorio = ocorrenciaRepositorio;
         this.ambulanciaRepositorio = ambulanciaRepositorio;
-        this.ruaConexaoRepositorio = ruaConexaoRepositorio;
+        this.roteamentoServico = roteamentoServico;
     }
 
     /**
@@ -41,141 +53,143 @@ public class AnaliseEstrategicaServico {
      * - Número de ambulâncias já existentes no bairro
      * - Distância mínima para outras ambulâncias (evita aglomeração)
      * - Tipo de ambulância sendo cadastrada (UTI vs Básica)
-     * 
+     *
+     * Ocorrências e ambulâncias são contadas por bairro em uma única passada. As distâncias vêm
+     * de buscas sobre o snapshot do grafo: uma árvore de caminhos mínimos por bairro com ocorrências
+     * (as mesmas distâncias da {@link com.vitalistech.sosrota.util.MatrizDistancias}) e uma única
+     * busca a partir de todas as bases para a ambulância mais próxima. O score de cada bairro é
+     * calculado uma vez, em paralelo, e a ordenação usa os valores já calculados.
+     *
+     * Ordenação (estável, na ordem de cadastro dos bairros em caso de empate): score de prioridade
+     * decrescente, depois menos conexões diretas, depois mais ocorrências relevantes.
+     *
      * @param tipoAmbulancia Tipo de ambulância sendo cadastrada (opcional, null para análise geral)
      */
     public List<BairroSugeridoDTO> obterBairrosSugeridos(TipoAmbulancia tipoAmbulancia) {
         List<Bairro> todosBairros = bairroRepositorio.findAll();
         List<Ocorrencia> todasOcorrencias = ocorrenciaRepositorio.findAll();
-        List<Ambulancia> todasAmbulancias = ambulanciaRepositorio.findAll()
-                .stream()
-                .filter(a -> a.isAtiva())
-                .collect(Collectors.toList());
-        List<RuaConexao> todasConexoes = ruaConexaoRepositorio.findAll();
-
-        // Filtrar ocorrências por tipo necessário
-        final List<Ocorrencia> ocorrenciasRelevantes;
-        if (tipoAmbulancia != null) {
-            if (tipoAmbulancia == TipoAmbulancia.UTI) {
-                // UTI atende apenas ocorrências de gravidade ALTA
-                ocorrenciasRelevantes = todasOcorrencias.stream()
-                        .filter(o -> o.getGravidade() == Gravidade.ALTA)
-                        .collect(Collectors.toList());
-            } else {
-                // Básica atende ocorrências de gravidade MÉDIA e BAIXA
-                ocorrenciasRelevantes = todasOcorrencias.stream()
-                        .filter(o -> o.getGravidade() == Gravidade.MEDIA || o.getGravidade() == Gravidade.BAIXA)
-                        .collect(Collectors.toList());
-            }
-        } else {
-            ocorrenciasRelevantes = todasOcorrencias;
+        List<Ambulancia> todasAmbulancias = ambulanciaRepositorio.findAll();
+        GrafoViario grafo = roteamentoServico.obterGrafo();
+
+        int quantidade = todosBairros.size();
+        Map<Long, Integer> posicaoPorId = new HashMap<>();
+        int[] indiceNoGrafo = new int[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            Bairro bairro = todosBairros.get(i);
+            posicaoPorId.putIfAbsent(bairro.getId(), i);
+            indiceNoGrafo[i] = grafo.indiceDe(bairro.getId());
         }
 
-        // Agrupar ocorrências por bairro
-        List<Bairro> bairrosComOcorrencias = ocorrenciasRelevantes.stream()
-                .map(Ocorrencia::getBairroLocal)
-                .distinct()
-                .collect(Collectors.toList());
-
-        List<BairroSugeridoDTO> sugestoes = new ArrayList<>();
-
-        for (Bairro bairro : todosBairros) {
-            // Contar ocorrências relevantes neste bairro
-            int ocorrenciasNoBairro = (int) ocorrenciasRelevantes.stream()
-                    .filter(o -> o.getBairroLocal().getId().equals(bairro.getId()))
-                    .count();
-
-            // Contar ambulâncias existentes neste bairro (por tipo se especificado)
-            int ambulanciasExistentes = (int) todasAmbulancias.stream()
-                    .filter(a -> a.getBairroBase().getId().equals(bairro.getId()))
-                    .filter(a -> tipoAmbulancia == null || a.getTipo() == tipoAmbulancia)
-                    .count();
-
-            // Contar ambulâncias do mesmo tipo no bairro
-            int ambulanciasMesmoTipo = (int) todasAmbulancias.stream()
-                    .filter(a -> a.getBairroBase().getId().equals(bairro.getId()))
-                    .filter(a -> tipoAmbulancia != null && a.getTipo() == tipoAmbulancia)
-                    .count();
+        // Ocorrências relevantes por bairro e bairros de destino, na ordem em que aparecem
+        int[] ocorrenciasPorBairro = new int[quantidade];
+        Set<Long> idsDestinos = new HashSet<>();
+        List<Bairro> bairrosComOcorrencias = new ArrayList<>();
+        for (Ocorrencia ocorrencia : todasOcorrencias) {
+            if (!ocorrenciaRelevante(ocorrencia, tipoAmbulancia)) {
+                continue;
+            }
+            Bairro bairro = ocorrencia.getBairroLocal();
+            Integer posicao = posicaoPorId.get(bairro.getId());
+            if (posicao != null) {
+                ocorrenciasPorBairro[posicao]++;
+            }
+            if (idsDestinos.add(bairro.getId())) {
+                bairrosComOcorrencias.add(bairro);
+            }
+        }
 
-            // Calcular distância mínima para outras ambulâncias (evitar aglomeração)
-            double distanciaMinimaProxima = calcularDistanciaMinimaProxima(bairro, todasAmbulancias, todasConexoes, tipoAmbulancia);
+        // Ambulâncias ativas (do tipo, se especificado) por bairro e índices das bases no grafo
+        int[] ambulanciasPorBairro = new int[quantidade];
+        int[] bases = new int[todasAmbulancias.size()];
+        int quantidadeBases = 0;
+        for (Ambulancia ambulancia : todasAmbulancias) {
+            if (!ambulancia.isAtiva() || (tipoAmbulancia != null && ambulancia.getTipo() != tipoAmbulancia)) {
+                continue;
+            }
+            Long idBase = ambulancia.getBairroBase().getId();
+            Integer posicao = posicaoPorId.get(idBase);
+            if (posicao != null) {
+                ambulanciasPorBairro[posicao]++;
+            }
+            int indice = grafo.indiceDe(idBase);
+            if (indice >= 0) {
+                bases[quantidadeBases++] = indice;
+            }
+        }
 
-            // Calcular tempo médio de resposta para outros bairros com ocorrências relevantes
-            double tempoMedioResposta = calcularTempoMedioResposta(bairro, bairrosComOcorrencias, todasConexoes);
+        double[] distanciaBaseMaisProxima = new double[grafo.getQuantidadeBairros()];
+        AlgoritmoDijkstra.distanciasDaOrigemMaisProxima(grafo, Arrays.copyOf(bases, quantidadeBases),
+                distanciaBaseMaisProxima);
+        double[] tempoMedioResposta = calcularTemposMediosResposta(todosBairros, indiceNoGrafo,
+                bairrosComOcorrencias, grafo);
+
+        // Score e DTO de cada bairro, em paralelo
+        double[] scores = new double[quantidade];
+        BairroSugeridoDTO[] sugestoes = new BairroSugeridoDTO[quantidade];
+        ForkJoinPool.commonPool().invoke(new PorBairro(0, quantidade, LOTE_BAIRROS, i -> {
+            Bairro bairro = todosBairros.get(i);
+            int ocorrenciasNoBairro = ocorrenciasPorBairro[i];
+            int ambulanciasExistentes = ambulanciasPorBairro[i];
+            int ambulanciasMesmoTipo = tipoAmbulancia != null ? ambulanciasExistentes : 0;
+
+            // Já há ambulância no bairro: distância 0; fora do grafo: nenhuma outra é alcançável
+            double distanciaMinimaProxima;
+            if (ambulanciasExistentes > 0) {
+                distanciaMinimaProxima = 0.0;
+            } else if (indiceNoGrafo[i] >= 0) {
+                distanciaMinimaProxima = distanciaBaseMaisProxima[indiceNoGrafo[i]];
+            } else {
+                distanciaMinimaProxima = Double.POSITIVE_INFINITY;
+            }
 
-            // Calcular quantas conexões diretas este bairro possui
-            int conexoesDiretas = calcularConexoesDiretas(bairro, todasConexoes);
+            int conexoesDiretas = calcularConexoesDiretas(bairro, grafo);
 
-            // Calcular score de prioridade considerando todos os fatores
-            double scorePrioridade = calcularScorePrioridade(
+            scores[i] = calcularScorePrioridade(
                     ocorrenciasNoBairro,
                     ambulanciasExistentes,
                     ambulanciasMesmoTipo,
                     distanciaMinimaProxima,
                     conexoesDiretas,
-                    tempoMedioResposta,
+                    tempoMedioResposta[i],
                     tipoAmbulancia
             );
 
-            // Gerar justificativa
             String justificativa = gerarJustificativa(
                     ocorrenciasNoBairro,
-                    tempoMedioResposta,
+                    tempoMedioResposta[i],
                     ambulanciasExistentes,
                     ambulanciasMesmoTipo,
                     distanciaMinimaProxima,
                     conexoesDiretas,
-                    todosBairros.size(),
+                    quantidade,
                     tipoAmbulancia
             );
 
-            BairroSugeridoDTO dto = new BairroSugeridoDTO(
+            sugestoes[i] = new BairroSugeridoDTO(
                     bairro.getId(),
                     bairro.getNome(),
                     justificativa,
                     ocorrenciasNoBairro,
-                    tempoMedioResposta,
+                    tempoMedioResposta[i],
                     ambulanciasExistentes,
                     conexoesDiretas
             );
+        }));
 
-            sugestoes.add(dto);
+        Integer[] ordem = new Integer[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            ordem[i] = i;
         }
-
-        // Ordenar por score de prioridade (maior primeiro)
-        return sugestoes.stream()
-                .sorted(Comparator
-                        .comparingDouble((BairroSugeridoDTO dto) -> {
-                            // Recalcular score para ordenação
-                            Bairro bairro = todosBairros.stream()
-                                    .filter(b -> b.getId().equals(dto.getId()))
-                                    .findFirst()
-                                    .orElse(null);
-                            if (bairro == null) return 0.0;
-                            
-                            int ocorrencias = (int) ocorrenciasRelevantes.stream()
-                                    .filter(o -> o.getBairroLocal().getId().equals(bairro.getId()))
-                                    .count();
-                            
-                            int ambExistentes = (int) todasAmbulancias.stream()
-                                    .filter(a -> a.getBairroBase().getId().equals(bairro.getId()))
-                                    .filter(a -> tipoAmbulancia == null || a.getTipo() == tipoAmbulancia)
-                                    .count();
-                            
-                            int ambMesmoTipo = (int) todasAmbulancias.stream()
-                                    .filter(a -> a.getBairroBase().getId().equals(bairro.getId()))
-                                    .filter(a -> tipoAmbulancia != null && a.getTipo() == tipoAmbulancia)
-                                    .count();
-                            
-                            double distMin = calcularDistanciaMinimaProxima(bairro, todasAmbulancias, todasConexoes, tipoAmbulancia);
-                            int conexoes = calcularConexoesDiretas(bairro, todasConexoes);
-                            double tempo = dto.getTempoMedioResposta();
-                            
-                            return calcularScorePrioridade(ocorrencias, ambExistentes, ambMesmoTipo, distMin, conexoes, tempo, tipoAmbulancia);
-                        }).reversed()
-                        .thenComparingInt((BairroSugeridoDTO dto) -> dto.getBairrosAlcancaveis()).reversed()
-                        .thenComparingInt((BairroSugeridoDTO dto) -> dto.getOcorrenciasNoBairro()).reversed())
-                .collect(Collectors.toList());
+        Arrays.sort(ordem, Comparator
+                .comparingDouble((Integer i) -> scores[i]).reversed()
+                .thenComparingInt(i -> sugestoes[i].getBairrosAlcancaveis())
+                .thenComparing(Comparator.comparingInt((Integer i) -> sugestoes[i].getOcorrenciasNoBairro()).reversed()));
+
+        List<BairroSugeridoDTO> ordenadas = new ArrayList<>(quantidade);
+        for (Integer i : ordem) {
+            ordenadas.add(sugestoes[i]);
+        }
+        return ordenadas;
     }
 
     /**
@@ -186,91 +200,107 @@ public class AnaliseEstrategicaServico {
     }
 
     /**
-     * Calcula o tempo médio de resposta (em minutos) de um bairro para todos os outros bairros com ocorrências.
-     * Usa Dijkstra para calcular rotas e assume velocidade de 60 km/h.
+     * UTI atende apenas ocorrências de gravidade ALTA; Básica, MÉDIA e BAIXA; sem tipo, todas.
      */
-    private double calcularTempoMedioResposta(Bairro bairroBase, List<Bairro> bairrosDestino, List<RuaConexao> todasConexoes) {
-        if (bairrosDestino.isEmpty()) {
-            return 0.0;
+    private static boolean ocorrenciaRelevante(Ocorrencia ocorrencia, TipoAmbulancia tipoAmbulancia) {
+        if (tipoAmbulancia == null) {
+            return true;
         }
-
-        double somaTempos = 0.0;
-        int rotasValidas = 0;
-
-        for (Bairro destino : bairrosDestino) {
-            if (bairroBase.getId().equals(destino.getId())) {
-                continue; // Pular se for o mesmo bairro
-            }
-
-            ResultadoRota rota = AlgoritmoDijkstra.calcularRota(bairroBase, destino, todasConexoes);
-            
-            if (!Double.isInfinite(rota.getDistanciaKm())) {
-                // Tempo em minutos = (distância em km / 60 km/h) * 60 minutos/hora
-                double tempoMinutos = (rota.getDistanciaKm() / 60.0) * 60.0;
-                somaTempos += tempoMinutos;
-                rotasValidas++;
-            }
+        if (tipoAmbulancia == TipoAmbulancia.UTI) {
+            return ocorrencia.getGravidade() == Gravidade.ALTA;
         }
-
-        return rotasValidas > 0 ? somaTempos / rotasValidas : 0.0;
+        return ocorrencia.getGravidade() == Gravidade.MEDIA || ocorrencia.getGravidade() == Gravidade.BAIXA;
     }
 
     /**
-     * Calcula quantas conexões diretas um bairro possui.
-     * Uma conexão direta é quando o bairro aparece como origem ou destino em uma conexão de rua.
-     * Como o grafo é bidirecional, cada conexão conta apenas uma vez.
+     * Calcula o tempo médio de resposta (em minutos) de cada bairro para todos os outros bairros com ocorrências.
+     * Usa Dijkstra para calcular rotas e assume velocidade de 60 km/h.
+     *
+     * Cada bairro de destino gera uma árvore de caminhos mínimos (distância de todos os bairros até ele);
+     * as árvores são calculadas em paralelo, LOTE_DESTINOS por vez, e somadas na ordem dos destinos.
      */
-    private int calcularConexoesDiretas(Bairro bairro, List<RuaConexao> todasConexoes) {
-        int conexoes = 0;
-        Long idBairro = bairro.getId();
-        
-        for (RuaConexao conexao : todasConexoes) {
-            // Contar se o bairro é origem ou destino da conexão
-            if (conexao.getBairroOrigem().getId().equals(idBairro) || 
-                conexao.getBairroDestino().getId().equals(idBairro)) {
-                conexoes++;
-            }
+    private double[] calcularTemposMediosResposta(List<Bairro> todosBairros, int[] indiceNoGrafo,
+                                                  List<Bairro> bairrosDestino, GrafoViario grafo) {
+        int quantidade = todosBairros.size();
+        int n = grafo.getQuantidadeBairros();
+        double[] somaTempos = new double[quantidade];
+        int[] rotasValidas = new int[quantidade];
+
+        for (int inicioLote = 0; inicioLote < bairrosDestino.size(); inicioLote += LOTE_DESTINOS) {
+            List<Bairro> lote = bairrosDestino.subList(inicioLote, Math.min(inicioLote + LOTE_DESTINOS, bairrosDestino.size()));
+            double[][] distanciasAte = new double[lote.size()][];
+            ForkJoinPool.commonPool().invoke(new PorBairro(0, lote.size(), 1, k -> {
+                int destino = grafo.indiceDe(lote.get(k).getId());
+                if (destino >= 0) {
+                    distanciasAte[k] = new double[n];
+                    AlgoritmoDijkstra.arvoreCaminhosMinimos(grafo, destino, distanciasAte[k], new int[n]);
+                }
+            }));
+
+            ForkJoinPool.commonPool().invoke(new PorBairro(0, quantidade, LOTE_BAIRROS, i -> {
+                Long idBairro = todosBairros.get(i).getId();
+                for (int k = 0; k < lote.size(); k++) {
+                    // Pular se for o mesmo bairro; bairros fora do grafo não têm rota
+                    if (idBairro.equals(lote.get(k).getId()) || distanciasAte[k] == null || indiceNoGrafo[i] < 0) {
+                        continue;
+                    }
+                    double distanciaKm = distanciasAte[k][indiceNoGrafo[i]];
+                    if (!Double.isInfinite(distanciaKm)) {
+                        // Tempo em minutos = (distância em km / 60 km/h) * 60 minutos/hora
+                        double tempoMinutos = (distanciaKm / 60.0) * 60.0;
+                        somaTempos[i] += tempoMinutos;
+                        rotasValidas[i]++;
+                    }
+                }
+            }));
         }
-        
-        return conexoes;
+
+        double[] medias = new double[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            medias[i] = rotasValidas[i] > 0 ? somaTempos[i] / rotasValidas[i] : 0.0;
+        }
+        return medias;
     }
 
     /**
-     * Calcula a distância mínima para a ambulância mais próxima.
-     * Usado para evitar aglomeração de ambulâncias no mesmo bairro ou muito próximas.
-     * 
-     * @param bairro Bairro sendo analisado
-     * @param todasAmbulancias Lista de todas as ambulâncias ativas
-     * @param todasConexoes Lista de todas as conexões viárias
-     * @param tipoAmbulancia Tipo de ambulância sendo cadastrada (null para considerar todas)
-     * @return Distância mínima em km, ou Double.POSITIVE_INFINITY se não houver ambulâncias próximas
+     * Executa a tarefa para cada posição de [inicio, fim), dividindo o intervalo até o tamanho do lote.
      */
-    private double calcularDistanciaMinimaProxima(Bairro bairro, List<Ambulancia> todasAmbulancias, 
-                                                  List<RuaConexao> todasConexoes, TipoAmbulancia tipoAmbulancia) {
-        double distanciaMinima = Double.POSITIVE_INFINITY;
-        
-        for (Ambulancia ambulancia : todasAmbulancias) {
-            // Filtrar por tipo se especificado
-            if (tipoAmbulancia != null && ambulancia.getTipo() != tipoAmbulancia) {
-                continue;
-            }
-            
-            Bairro bairroAmbulancia = ambulancia.getBairroBase();
-            
-            // Se for o mesmo bairro, distância é 0
-            if (bairro.getId().equals(bairroAmbulancia.getId())) {
-                return 0.0;
+    private static final class PorBairro extends RecursiveAction {
+
+        private final int inicio;
+        private final int fim;
+        private final int lote;
+        private final IntConsumer tarefa;
+
+        PorBairro(int inicio, int fim, int lote, IntConsumer tarefa) {
+            this.inicio = inicio;
+            this.fim = fim;
+            this.lote = lote;
+            this.tarefa = tarefa;
+        }
+
+        @Override
+        protected void compute() {
+            if (fim - inicio > lote) {
+                int meio = (inicio + fim) >>> 1;
+                invokeAll(new PorBairro(inicio, meio, lote, tarefa), new PorBairro(meio, fim, lote, tarefa));
+                return;
             }
-            
-            // Calcular distância usando Dijkstra
-            ResultadoRota rota = AlgoritmoDijkstra.calcularRota(bairro, bairroAmbulancia, todasConexoes);
-            
-            if (!Double.isInfinite(rota.getDistanciaKm()) && rota.getDistanciaKm() < distanciaMinima) {
-                distanciaMinima = rota.getDistanciaKm();
+            for (int i = inicio; i < fim; i++) {
+                tarefa.accept(i);
             }
         }
-        
-        return distanciaMinima;
+    }
+
+    /**
+     * Calcula quantas conexões diretas um bairro possui.
+     * Uma conexão direta é quando o bairro aparece como origem ou destino em uma conexão de rua.
+     * Como o grafo é bidirecional, cada conexão conta apenas uma vez.
+     * No snapshot do grafo isso corresponde ao grau do vértice.
+     */
+    static int calcularConexoesDiretas(Bairro bairro, GrafoViario grafo) {
+        int indice = grafo.indiceDe(bairro.getId());
+        return indice >= 0 ? grafo.grau(indice) : 0;
     }
 
     /**
@@ -284,10 +314,10 @@ public class AnaliseEstrategicaServico {
      * - Tempo médio de resposta (menor é melhor)
      * - Ambulâncias existentes (menos é melhor)
      */
-    private double calcularScorePrioridade(int ocorrenciasNoBairro, int ambulanciasExistentes, 
-                                          int ambulanciasMesmoTipo, double distanciaMinimaProxima,
-                                          int conexoesDiretas, double tempoMedioResposta,
-                                          TipoAmbulancia tipoAmbulancia) {
+    static double calcularScorePrioridade(int ocorrenciasNoBairro, int ambulanciasExistentes, 
+                                         int ambulanciasMesmoTipo, double distanciaMinimaProxima,
+                                         int conexoesDiretas, double tempoMedioResposta,
+                                         TipoAmbulancia tipoAmbulancia) {
         double score = 0.0;
         
         // 1. Ocorrências relevantes (peso: 50 pontos por ocorrência)
@@ -337,9 +367,9 @@ public class AnaliseEstrategicaServico {
      * Gera uma justificativa textual baseada nos dados do bairro, incluindo análise do Dijkstra.
      * Explica os critérios de priorização: mais conexões diretas, mais ocorrências, menor tempo médio, menos ambulâncias.
      */
-    private String gerarJustificativa(int ocorrenciasNoBairro, double tempoMedioResposta, int ambulanciasExistentes,
-                                     int ambulanciasMesmoTipo, double distanciaMinimaProxima, int conexoesDiretas, 
-                                     int totalBairros, TipoAmbulancia tipoAmbulancia) {
+    static String gerarJustificativa(int ocorrenciasNoBairro, double tempoMedioResposta, int ambulanciasExistentes,
+                                    int ambulanciasMesmoTipo, double distanciaMinimaProxima, int conexoesDiretas, 
+                                    int totalBairros, TipoAmbulancia tipoAmbulancia) {
         List<String> razoes = new ArrayList<>();
         List<String> criteriosPriorizacao = new ArrayList<>();
 
@@ -0,0 +1,24 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+/**
+ * Publicado por {@link OcorrenciaServico} quando um atendimento muda de etapa
+ * (despacho, chegada, conclusão da ocorrência ou retorno à base).
+ */
+public class AtendimentoAlteradoEvento {
+
+    private final Long idAtendimento;
+    private final Long idOcorrencia;
+
+    public AtendimentoAlteradoEvento(Long idAtendimento, Long idOcorrencia) {
+        this.idAtendimento = idAtendimento;
+        this.idOcorrencia = idOcorrencia;
+    }
+
+    public Long getIdAtendimento() {
+        return idAtendimento;
+    }
+
+    public Long getIdOcorrencia() {
+        return idOcorrencia;
+    }
+}
@@ -0,0 +1,251 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import com.vitalistech.sosrota.dominio.modelo.Atendimento;
+import com.vitalistech.sosrota.dominio.modelo.Gravidade;
+import com.vitalistech.sosrota.dominio.modelo.Ocorrencia;
+import com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia;
+import com.vitalistech.sosrota.dominio.modelo.TipoAmbulancia;
+import com.vitalistech.sosrota.dominio.modelo.Usuario;
+import com.vitalistech.sosrota.dominio.repositorio.OcorrenciaRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.UsuarioRepositorio;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Despacho automático (opcional, {@code sosrota.despacho-automatico.habilitado}).
+ *
+ * Mantém as ocorrências ABERTAS em uma fila de prioridade ordenada por gravidade (ALTA primeiro)
+ * e, dentro da mesma gravidade, pelo prazo do SLA (abertura + slaMinutos; quem tem menos tempo
+ * restante vem antes). Um executor de uma única thread tenta despachar a fila inteira, na ordem, sempre que:
+ * - uma ocorrência é registrada ({@link OcorrenciaAbertaEvento}, após o commit);
+ * - uma ambulância passa a estar apta ({@link AmbulanciaAptaEvento}: retorno, ativação, equipe completada);
+ * - passa o intervalo de segurança, para cobrir alterações feitas fora da aplicação.
+ *
+ * Ocorrências sem ambulância apta continuam na fila; as que deixaram de estar ABERTAS
+ * (despachadas manualmente ou canceladas) são descartadas.
+ *
+ * Os despachos são feitos em nome do usuário de sistema {@code sosrota.despacho-automatico.usuario-login},
+ * para que o atendimento e o DESPACHO no histórico tenham autor como os despachos manuais.
+ */
+@Service
+public class DespachoAutomaticoServico {
+
+    private static final Logger logger = LoggerFactory.getLogger(DespachoAutomaticoServico.class);
+
+    private static final Comparator<Pendente> ORDEM = Comparator
+            .comparingInt((Pendente p) -> prioridade(p.gravidade))
+            .thenComparing(p -> p.prazo, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(p -> p.idOcorrencia);
+
+    private final OcorrenciaServico ocorrenciaServico;
+    private final OcorrenciaRepositorio ocorrenciaRepositorio;
+    private final FrotaEstado frotaEstado;
+    private final UsuarioRepositorio usuarioRepositorio;
+    private final boolean habilitado;
+    private final String loginUsuario;
+    private final long intervaloMillis;
+
+    private final PriorityQueue<Pendente> fila = new PriorityQueue<>(ORDEM);
+    private final Set<Long> idsNaFila = new HashSet<>();
+    private final ScheduledExecutorService agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "despacho-automatico");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Evita empilhar revisões: eventos que chegam antes da revisão começar são atendidos por ela
+    private final AtomicBoolean revisaoAgendada = new AtomicBoolean();
+    private Usuario usuarioSistema;
+
+    public DespachoAutomaticoServico(OcorrenciaServico ocorrenciaServico,
+                                     OcorrenciaRepositorio ocorrenciaRepositorio,
+                                     FrotaEstado frotaEstado,
+                                     UsuarioRepositorio usuarioRepositorio,
+                                     @Value("${sosrota.despacho-automatico.habilitado:false}") boolean habilitado,
+                                     @Value("${sosrota.despacho-automatico.intervalo-segundos:30}") long intervaloSegundos,
+                                     @Value("${sosrota.despacho-automatico.usuario-login:sistema}") String loginUsuario) {
+        this.ocorrenciaServico = ocorrenciaServico;
+        this.ocorrenciaRepositorio = ocorrenciaRepositorio;
+        this.frotaEstado = frotaEstado;
+        this.usuarioRepositorio = usuarioRepositorio;
+        this.habilitado = habilitado;
+        this.loginUsuario = loginUsuario;
+        this.intervaloMillis = Math.max(1, intervaloSegundos) * 1000L;
+    }
+
+    /**
+     * Ocorrência aguardando despacho automático.
+     */
+    private static final class Pendente {
+        private final Long idOcorrencia;
+        private final Gravidade gravidade;
+        private final LocalDateTime prazo;
+
+        private Pendente(Long idOcorrencia, Gravidade gravidade, LocalDateTime abertura, Integer slaMinutos) {
+            this.idOcorrencia = idOcorrencia;
+            this.gravidade = gravidade;
+            this.prazo = abertura != null && slaMinutos != null ? abertura.plusMinutes(slaMinutos) : abertura;
+        }
+    }
+
+    private static int prioridade(Gravidade gravidade) {
+        if (gravidade == Gravidade.ALTA) return 0;
+        if (gravidade == Gravidade.MEDIA) return 1;
+        return 2;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        usuarioSistema = usuarioRepositorio.findByLogin(loginUsuario)
+                .orElseThrow(() -> new IllegalStateException("Usuário do despacho automático não encontrado: "
+                        + loginUsuario + " (sosrota.despacho-automatico.usuario-login)"));
+        for (Ocorrencia o : ocorrenciaRepositorio.findByStatus(StatusOcorrencia.ABERTA)) {
+            enfileirar(new Pendente(o.getId(), o.getGravidade(), o.getDataHoraAbertura(), o.getSlaMinutos()));
+        }
+
+        agendador.scheduleWithFixedDelay(this::revisar, intervaloMillis, intervaloMillis, TimeUnit.MILLISECONDS);
+        logger.info("Despacho automático habilitado com {} ocorrência(s) aberta(s) na fila", quantidadePendente());
+        sinalizar();
+    }
+
+    @PreDestroy
+    public void parar() {
+        agendador.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAbrirOcorrencia(OcorrenciaAbertaEvento evento) {
+        if (!habilitado) {
+            return;
+        }
+        enfileirar(new Pendente(evento.getIdOcorrencia(), evento.getGravidade(),
+                evento.getDataHoraAbertura(), evento.getSlaMinutos()));
+        sinalizar();
+    }
+
+    @EventListener
+    public void aoLiberarAmbulancia(AmbulanciaAptaEvento evento) {
+        if (habilitado) {
+            sinalizar();
+        }
+    }
+
+    /**
+     * Quantidade de ocorrências aguardando ambulância.
+     */
+    public int quantidadePendente() {
+        synchronized (fila) {
+            return fila.size();
+        }
+    }
+
+    private void enfileirar(Pendente pendente) {
+        synchronized (fila) {
+            if (idsNaFila.add(pendente.idOcorrencia)) {
+                fila.add(pendente);
+            }
+        }
+    }
+
+    /**
+     * Agenda uma revisão imediata da fila na thread do despacho automático.
+     */
+    private void sinalizar() {
+        if (!revisaoAgendada.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            agendador.execute(this::revisar);
+        } catch (RejectedExecutionException e) {
+            // Aplicação encerrando
+        }
+    }
+
+    private void revisar() {
+        revisaoAgendada.set(false);
+        try {
+            processarFila();
+        } catch (Exception e) {
+            // Uma exceção cancelaria a revisão periódica
+            logger.error("Erro no despacho automático", e);
+        }
+    }
+
+    /**
+     * Tenta despachar cada pendente, da maior para a menor prioridade. Uma ocorrência sem
+     * ambulância apta não bloqueia as seguintes (que podem precisar de outro tipo de ambulância).
+     * Pendentes de um tipo sem nenhuma ambulância apta no estado da frota nem chegam ao banco.
+     */
+    private void processarFila() {
+        List<Pendente> ordenadas;
+        synchronized (fila) {
+            ordenadas = new ArrayList<>(fila);
+        }
+        if (ordenadas.isEmpty()) {
+            return;
+        }
+        ordenadas.sort(ORDEM);
+
+        Map<TipoAmbulancia, Integer> aptasPorTipo = new EnumMap<>(TipoAmbulancia.class);
+        for (FrotaEstado.EstadoAmbulancia a : frotaEstado.aptas()) {
+            aptasPorTipo.merge(a.getTipo(), 1, Integer::sum);
+        }
+
+        for (Pendente pendente : ordenadas) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            TipoAmbulancia tipo = pendente.gravidade == Gravidade.ALTA ? TipoAmbulancia.UTI : TipoAmbulancia.BASICA;
+            if (aptasPorTipo.getOrDefault(tipo, 0) == 0) {
+                continue;
+            }
+            try {
+                Atendimento atendimento = ocorrenciaServico.despacharOcorrencia(pendente.idOcorrencia, usuarioSistema);
+                aptasPorTipo.merge(tipo, -1, Integer::sum);
+                remover(pendente);
+                logger.info("Ocorrência {} despachada automaticamente para a ambulância {}",
+                        pendente.idOcorrencia, atendimento.getAmbulancia().getPlaca());
+            } catch (IllegalArgumentException e) {
+                remover(pendente); // ocorrência não existe mais
+            } catch (IllegalStateException e) {
+                // Sem ambulância apta agora, ou a ocorrência já não está ABERTA
+                boolean aberta = ocorrenciaRepositorio.findById(pendente.idOcorrencia)
+                        .map(o -> o.getStatus() == StatusOcorrencia.ABERTA)
+                        .orElse(false);
+                if (!aberta) {
+                    remover(pendente);
+                }
+            }
+        }
+    }
+
+    private void remover(Pendente pendente) {
+        synchronized (fila) {
+            fila.remove(pendente);
+            idsNaFila.remove(pendente.idOcorrencia);
+        }
+    }
+}
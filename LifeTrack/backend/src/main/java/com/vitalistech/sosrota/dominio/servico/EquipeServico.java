@@ -20,15 +20,18 @@ public class EquipeServico {
     private final ProfissionalRepositorio profissionalRepositorio;
     private final AmbulanciaRepositorio ambulanciaRepositorio;
     private final AtendimentoRepositorio atendimentoRepositorio;
+    private final FrotaEstado frotaEstado;
 
     public EquipeServico(EquipeRepositorio equipeRepositorio,
                          ProfissionalRepositorio profissionalRepositorio,
                          AmbulanciaRepositorio ambulanciaRepositorio,
-                         AtendimentoRepositorio atendimentoRepositorio) {
+                         AtendimentoRepositorio atendimentoRepositorio,
+                         FrotaEstado frotaEstado) {
         this.equipeRepositorio = equipeRepositorio;
         this.profissionalRepositorio = profissionalRepositorio;
         this.ambulanciaRepositorio = ambulanciaRepositorio;
         this.atendimentoRepositorio = atendimentoRepositorio;
+        this.frotaEstado = frotaEstado;
     }
 
     @Transactional
@@ -133,7 +136,9 @@ public class EquipeServico {
             }
         }
 
-        return equipeRepositorio.save(equipe);
+        Equipe salva = equipeRepositorio.save(equipe);
+        frotaEstado.registrarEquipe(salva);
+        return salva;
     }
 
     /**
@@ -181,6 +186,7 @@ public class EquipeServico {
                     ambulanciaAntiga.setAtiva(false);
                     ambulanciaAntiga.setStatus(com.vitalistech.sosrota.dominio.modelo.StatusAmbulancia.INATIVA);
                     ambulanciaRepositorio.save(ambulanciaAntiga);
+                    frotaEstado.registrarSemEquipe(ambulanciaAntiga);
                 }
             }
             
@@ -316,7 +322,9 @@ public class EquipeServico {
             }
         }
 
-        return equipeRepositorio.save(equipe);
+        Equipe salva = equipeRepositorio.save(equipe);
+        frotaEstado.registrarEquipe(salva);
+        return salva;
     }
 
     /**
@@ -351,5 +359,6 @@ public class EquipeServico {
         ambulancia.setAtiva(false);
         ambulancia.setStatus(com.vitalistech.sosrota.dominio.modelo.StatusAmbulancia.INATIVA);
         ambulanciaRepositorio.save(ambulancia);
+        frotaEstado.registrarSemEquipe(ambulancia);
     }
 }
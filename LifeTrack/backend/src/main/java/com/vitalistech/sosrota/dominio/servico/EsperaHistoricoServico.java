@@ -0,0 +1,81 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Avisa quem está esperando (long polling do histórico) quando uma nova entrada é gravada no
+ * histórico de uma ocorrência. Cada espera é avisada uma vez e sai do registro; os avisos rodam
+ * em uma thread própria para não atrasar a gravação do histórico.
+ */
+@Service
+public class EsperaHistoricoServico {
+
+    private static final Logger logger = LoggerFactory.getLogger(EsperaHistoricoServico.class);
+
+    private final ConcurrentHashMap<Long, Set<Runnable>> esperas = new ConcurrentHashMap<>();
+    private final ExecutorService notificador = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "espera-historico");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Registra aoGravar para a próxima entrada gravada no histórico da ocorrência.
+     *
+     * @return ação que cancela a espera (sem efeito se ela já foi avisada)
+     */
+    public Runnable aguardar(Long idOcorrencia, Runnable aoGravar) {
+        esperas.compute(idOcorrencia, (id, aguardando) -> {
+            Set<Runnable> conjunto = aguardando != null ? aguardando : ConcurrentHashMap.newKeySet();
+            conjunto.add(aoGravar);
+            return conjunto;
+        });
+        return () -> esperas.computeIfPresent(idOcorrencia, (id, aguardando) -> {
+            aguardando.remove(aoGravar);
+            return aguardando.isEmpty() ? null : aguardando;
+        });
+    }
+
+    /**
+     * Quantidade de ocorrências com alguém esperando.
+     */
+    public int quantidadeOcorrenciasAguardadas() {
+        return esperas.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoRegistrarHistorico(HistoricoRegistradoEvento evento) {
+        Set<Runnable> aguardando = esperas.remove(evento.getIdOcorrencia());
+        if (aguardando == null) {
+            return;
+        }
+        for (Runnable aoGravar : aguardando) {
+            try {
+                notificador.execute(() -> {
+                    try {
+                        aoGravar.run();
+                    } catch (Exception e) {
+                        logger.error("Erro ao avisar espera do histórico da ocorrência " + evento.getIdOcorrencia(), e);
+                    }
+                });
+            } catch (Exception e) {
+                // Em encerramento: as esperas terminam pelo próprio timeout
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void parar() {
+        notificador.shutdownNow();
+    }
+}
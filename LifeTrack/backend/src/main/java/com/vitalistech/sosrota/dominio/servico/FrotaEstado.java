@@ -0,0 +1,272 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import com.vitalistech.sosrota.dominio.modelo.Ambulancia;
+import com.vitalistech.sosrota.dominio.modelo.Bairro;
+import com.vitalistech.sosrota.dominio.modelo.Equipe;
+import com.vitalistech.sosrota.dominio.modelo.EquipeProfissional;
+import com.vitalistech.sosrota.dominio.modelo.FuncaoProfissional;
+import com.vitalistech.sosrota.dominio.modelo.StatusAmbulancia;
+import com.vitalistech.sosrota.dominio.modelo.TipoAmbulancia;
+import com.vitalistech.sosrota.dominio.repositorio.AmbulanciaRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.EquipeRepositorio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Estado da frota mantido em memória para a seleção de candidatas no despacho:
+ * status, tipo, bairro-base e funções presentes na equipe ativa de cada ambulância.
+ *
+ * É carregado uma vez na inicialização (duas consultas, sem N+1) e atualizado por quem altera
+ * ambulâncias e equipes (EquipeServico, OcorrenciaServico e AmbulanciaControlador) através dos
+ * métodos {@code registrar*}. Dentro de uma transação a alteração só é aplicada após o commit,
+ * como no {@link com.vitalistech.sosrota.dominio.modelo.GrafoViarioListener}; um rollback
+ * não deixa o registro divergente do banco.
+ *
+ * As leituras não fazem SQL nem usam trava: cada entrada é imutável e substituída por inteiro.
+ * Quando uma ambulância passa a estar apta é publicado um {@link AmbulanciaAptaEvento}.
+ */
+@Service
+public class FrotaEstado {
+
+    private static final Logger logger = LoggerFactory.getLogger(FrotaEstado.class);
+
+    private static final int CONDUTOR = 1;
+    private static final int ENFERMEIRO = 1 << 1;
+    private static final int MEDICO = 1 << 2;
+
+    private final AmbulanciaRepositorio ambulanciaRepositorio;
+    private final EquipeRepositorio equipeRepositorio;
+    private final ApplicationEventPublisher eventos;
+
+    private final ConcurrentHashMap<Long, EstadoAmbulancia> estados = new ConcurrentHashMap<>();
+    private volatile boolean carregado;
+
+    public FrotaEstado(AmbulanciaRepositorio ambulanciaRepositorio,
+                       EquipeRepositorio equipeRepositorio,
+                       ApplicationEventPublisher eventos) {
+        this.ambulanciaRepositorio = ambulanciaRepositorio;
+        this.equipeRepositorio = equipeRepositorio;
+        this.eventos = eventos;
+    }
+
+    /**
+     * Situação de uma ambulância em um instante; imutável.
+     */
+    public static final class EstadoAmbulancia {
+
+        private final Long id;
+        private final String placa;
+        private final TipoAmbulancia tipo;
+        private final StatusAmbulancia status;
+        private final boolean ativa;
+        private final Bairro bairroBase;
+        private final int funcoesEquipe;
+
+        private EstadoAmbulancia(Ambulancia ambulancia, int funcoesEquipe) {
+            this.id = ambulancia.getId();
+            this.placa = ambulancia.getPlaca();
+            this.tipo = ambulancia.getTipo();
+            this.status = ambulancia.getStatus();
+            this.ativa = ambulancia.isAtiva();
+            this.bairroBase = ambulancia.getBairroBase();
+            this.funcoesEquipe = funcoesEquipe;
+        }
+
+        private EstadoAmbulancia(EstadoAmbulancia base, int funcoesEquipe) {
+            this.id = base.id;
+            this.placa = base.placa;
+            this.tipo = base.tipo;
+            this.status = base.status;
+            this.ativa = base.ativa;
+            this.bairroBase = base.bairroBase;
+            this.funcoesEquipe = funcoesEquipe;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getPlaca() {
+            return placa;
+        }
+
+        public TipoAmbulancia getTipo() {
+            return tipo;
+        }
+
+        public StatusAmbulancia getStatus() {
+            return status;
+        }
+
+        public boolean isAtiva() {
+            return ativa;
+        }
+
+        public Bairro getBairroBase() {
+            return bairroBase;
+        }
+
+        /**
+         * Equipe ativa com condutor e enfermeiro, mais médico se a ambulância for UTI.
+         */
+        public boolean isEquipeCompleta() {
+            int exigidas = tipo == TipoAmbulancia.UTI ? CONDUTOR | ENFERMEIRO | MEDICO : CONDUTOR | ENFERMEIRO;
+            return (funcoesEquipe & exigidas) == exigidas;
+        }
+
+        /**
+         * Ativa, DISPONIVEL e com equipe completa: pode ser despachada.
+         */
+        public boolean isApta() {
+            return ativa && status == StatusAmbulancia.DISPONIVEL && bairroBase != null && isEquipeCompleta();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarNaInicializacao() {
+        try {
+            recarregar();
+        } catch (Exception e) {
+            logger.error("Erro ao carregar o estado da frota; será carregado na primeira consulta", e);
+        }
+    }
+
+    /**
+     * Lê toda a frota e as equipes ativas do banco, substituindo o estado em memória.
+     */
+    public synchronized void recarregar() {
+        Map<Long, Integer> funcoesPorAmbulancia = new HashMap<>();
+        for (Equipe equipe : equipeRepositorio.findAtivasComProfissionais()) {
+            if (equipe.getAmbulancia() != null) {
+                funcoesPorAmbulancia.merge(equipe.getAmbulancia().getId(), funcoes(equipe), (a, b) -> a | b);
+            }
+        }
+
+        Map<Long, EstadoAmbulancia> novos = new HashMap<>();
+        for (Ambulancia ambulancia : ambulanciaRepositorio.findAllComBairroBase()) {
+            novos.put(ambulancia.getId(),
+                    new EstadoAmbulancia(ambulancia, funcoesPorAmbulancia.getOrDefault(ambulancia.getId(), 0)));
+        }
+
+        estados.clear();
+        estados.putAll(novos);
+        carregado = true;
+        logger.info("Estado da frota carregado: {} ambulância(s)", novos.size());
+    }
+
+    private void garantirCarregado() {
+        if (!carregado) {
+            synchronized (this) {
+                if (!carregado) {
+                    recarregar();
+                }
+            }
+        }
+    }
+
+    /**
+     * Ambulâncias aptas ao despacho (ativas, DISPONIVEIS e com equipe completa), sem acessar o banco.
+     */
+    public List<EstadoAmbulancia> aptas() {
+        garantirCarregado();
+        List<EstadoAmbulancia> aptas = new ArrayList<>();
+        for (EstadoAmbulancia estado : estados.values()) {
+            if (estado.isApta()) {
+                aptas.add(estado);
+            }
+        }
+        return aptas;
+    }
+
+    /**
+     * Estado atual de uma ambulância, ou null se não estiver registrada.
+     */
+    public EstadoAmbulancia obter(Long idAmbulancia) {
+        garantirCarregado();
+        return estados.get(idAmbulancia);
+    }
+
+    /**
+     * Registra alteração de status, tipo, base ou ativação da ambulância (a equipe é mantida).
+     */
+    public void registrarAmbulancia(Ambulancia ambulancia) {
+        EstadoAmbulancia novo = new EstadoAmbulancia(ambulancia, 0);
+        aplicar(ambulancia.getId(), atual -> new EstadoAmbulancia(novo, atual != null ? atual.funcoesEquipe : 0));
+    }
+
+    /**
+     * Registra a equipe (e o estado da sua ambulância). Equipe inativa equivale a ambulância sem equipe.
+     */
+    public void registrarEquipe(Equipe equipe) {
+        Ambulancia ambulancia = equipe.getAmbulancia();
+        if (ambulancia == null) {
+            return;
+        }
+        int funcoes = equipe.isAtiva() ? funcoes(equipe) : 0;
+        EstadoAmbulancia novo = new EstadoAmbulancia(ambulancia, funcoes);
+        aplicar(ambulancia.getId(), atual -> novo);
+    }
+
+    /**
+     * Registra que a ambulância deixou de ter equipe ativa.
+     */
+    public void registrarSemEquipe(Ambulancia ambulancia) {
+        EstadoAmbulancia novo = new EstadoAmbulancia(ambulancia, 0);
+        aplicar(ambulancia.getId(), atual -> novo);
+    }
+
+    /**
+     * Aplica a alteração após o commit da transação corrente, ou imediatamente se não houver transação.
+     */
+    private void aplicar(Long idAmbulancia, UnaryOperator<EstadoAmbulancia> alteracao) {
+        if (idAmbulancia == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    atualizar(idAmbulancia, alteracao);
+                }
+            });
+        } else {
+            atualizar(idAmbulancia, alteracao);
+        }
+    }
+
+    private void atualizar(Long idAmbulancia, UnaryOperator<EstadoAmbulancia> alteracao) {
+        boolean[] liberada = new boolean[1];
+        estados.compute(idAmbulancia, (id, atual) -> {
+            EstadoAmbulancia novo = alteracao.apply(atual);
+            liberada[0] = novo.isApta() && (atual == null || !atual.isApta());
+            return novo;
+        });
+        if (liberada[0]) {
+            eventos.publishEvent(new AmbulanciaAptaEvento(idAmbulancia));
+        }
+    }
+
+    private static int funcoes(Equipe equipe) {
+        int funcoes = 0;
+        for (EquipeProfissional ep : equipe.getProfissionais()) {
+            FuncaoProfissional f = ep.getProfissional().getFuncao();
+            if (f == FuncaoProfissional.CONDUTOR) funcoes |= CONDUTOR;
+            if (f == FuncaoProfissional.ENFERMEIRO) funcoes |= ENFERMEIRO;
+            if (f == FuncaoProfissional.MEDICO) funcoes |= MEDICO;
+        }
+        return funcoes;
+    }
+}
@@ -0,0 +1,53 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import com.vitalistech.sosrota.dominio.modelo.GrafoViarioListener;
+import com.vitalistech.sosrota.dominio.repositorio.BairroRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.RuaConexaoRepositorio;
+import com.vitalistech.sosrota.util.GrafoViario;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serviço que mantém em memória o snapshot do grafo viário usado pelo despacho
+ * e pela análise estratégica.
+ *
+ * O grafo é lido do banco apenas quando a versão das conexões muda
+ * (ver {@link GrafoViarioListener}); nas demais chamadas o mesmo snapshot imutável
+ * é devolvido para todas as requisições.
+ */
+@Service
+public class GrafoViarioServico {
+
+    private final BairroRepositorio bairroRepositorio;
+    private final RuaConexaoRepositorio ruaConexaoRepositorio;
+
+    private final AtomicReference<GrafoViario> grafoAtual = new AtomicReference<>();
+
+    public GrafoViarioServico(BairroRepositorio bairroRepositorio,
+                              RuaConexaoRepositorio ruaConexaoRepositorio) {
+        this.bairroRepositorio = bairroRepositorio;
+        this.ruaConexaoRepositorio = ruaConexaoRepositorio;
+    }
+
+    /**
+     * Retorna o snapshot atual do grafo viário, reconstruindo-o se as conexões mudaram.
+     */
+    public GrafoViario obterGrafo() {
+        long versao = GrafoViarioListener.versaoAtual();
+        GrafoViario grafo = grafoAtual.get();
+        if (grafo != null && grafo.getVersao() == versao) {
+            return grafo;
+        }
+
+        synchronized (this) {
+            grafo = grafoAtual.get();
+            if (grafo != null && grafo.getVersao() == versao) {
+                return grafo;
+            }
+            grafo = GrafoViario.construir(bairroRepositorio.findAll(), ruaConexaoRepositorio.findAll(), versao);
+            grafoAtual.set(grafo);
+            return grafo;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import com.vitalistech.sosrota.dominio.modelo.HistoricoOcorrencia;
+import com.vitalistech.sosrota.dominio.repositorio.HistoricoOcorrenciaRepositorio;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Grava as entradas do histórico de ocorrências na transação que as gerou e as sequencia e
+ * notifica fora dela.
+ *
+ * As entradas registradas em uma transação são acumuladas e gravadas juntas, com um INSERT em
+ * batch via JDBC, imediatamente antes do commit: o histórico é confirmado ou desfeito junto com
+ * a alteração que o gerou, sem nenhuma entrada confirmada vivendo só em memória. Fora de uma
+ * transação a entrada é gravada na hora.
+ *
+ * Só o trabalho posterior fica com a thread do gravador, acordada a cada commit (e a cada
+ * intervalo, para entradas de outras instâncias): ela atribui a sequência de confirmação às
+ * entradas confirmadas ainda sem sequência, em lotes e em ordem de id, e publica
+ * {@link HistoricoRegistradoEvento} (long polling, linha do tempo, SSE) para cada uma. Como só um
+ * sequenciador roda por vez (trava consultiva no banco), uma sequência visível implica que todas
+ * as menores já estão visíveis; por isso ela, e não o id, é o cursor das consultas incrementais.
+ * Uma queda do processo só atrasa a sequência e perde as notificações pendentes.
+ */
+@Service
+public class GravadorHistorico {
+
+    private static final Logger logger = LoggerFactory.getLogger(GravadorHistorico.class);
+
+    static final String SQL_INSERIR = "INSERT INTO historico_ocorrencias (id_ocorrencia, id_usuario, acao, "
+            + "status_anterior, status_novo, descricao_acao, data_hora, tipo_ocorrencia, gravidade, "
+            + "bairro_origem_nome, observacoes, usuario_nome, usuario_login, usuario_perfil, "
+            + "placa_ambulancia, acao_ambulancia) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Um sequenciador por vez em todas as instâncias; liberada no fim da transação
+    static final String SQL_TRAVAR = "SELECT pg_advisory_xact_lock(hashtext('historico_ocorrencias_sequencia'))";
+
+    static final String SQL_SEQUENCIAR = "WITH pendentes AS MATERIALIZED (SELECT id, data_hora "
+            + "FROM historico_ocorrencias WHERE sequencia IS NULL ORDER BY id LIMIT ? FOR UPDATE), "
+            + "numeradas AS MATERIALIZED (SELECT id, data_hora, "
+            + "nextval('historico_ocorrencias_sequencia_seq') AS sequencia FROM pendentes) "
+            + "UPDATE historico_ocorrencias h SET sequencia = n.sequencia FROM numeradas n "
+            + "WHERE h.id = n.id AND h.data_hora = n.data_hora RETURNING h.id, h.id_ocorrencia, h.sequencia";
+
+    private final HistoricoOcorrenciaRepositorio historicoRepositorio;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transacao;
+    private final ApplicationEventPublisher eventos;
+    private final int tamanhoLote;
+    private final long intervaloMillis;
+
+    private volatile boolean iniciado;
+    private final AtomicBoolean sequenciamentoAgendado = new AtomicBoolean();
+    private final ScheduledExecutorService gravador = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "gravador-historico");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public GravadorHistorico(HistoricoOcorrenciaRepositorio historicoRepositorio,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ApplicationEventPublisher eventos,
+                             @Value("${sosrota.historico.sequenciamento.tamanho-lote:500}") int tamanhoLote,
+                             @Value("${sosrota.historico.sequenciamento.intervalo-ms:1000}") long intervaloMillis) {
+        this.historicoRepositorio = historicoRepositorio;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transacao = transactionManager != null ? new TransactionTemplate(transactionManager) : null;
+        this.eventos = eventos;
+        this.tamanhoLote = Math.max(1, tamanhoLote);
+        this.intervaloMillis = Math.max(10, intervaloMillis);
+    }
+
+    /**
+     * Começa a sequenciar depois da inicialização (o script de setup cria a sequência e sequencia
+     * as entradas que ficaram sem).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        iniciado = true;
+        gravador.scheduleWithFixedDelay(this::sequenciarPendentes, 0, intervaloMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registra uma entrada do histórico. Dentro de uma transação o id só é preenchido no commit,
+     * quando as entradas da transação são gravadas; fora dela volta preenchido. A sequência é
+     * atribuída depois, pela thread do gravador.
+     */
+    public HistoricoOcorrencia registrar(HistoricoOcorrencia historico) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            inserirLote(List.of(historico));
+            avisar();
+            return historico;
+        }
+        pendentesDaTransacao().add(historico);
+        return historico;
+    }
+
+    /**
+     * Verifica se alguma entrada registrada na transação atual, e ainda não gravada, atende ao
+     * critério. Somada a uma consulta ao banco na mesma transação, cobre todas as entradas visíveis.
+     */
+    public boolean existeNaTransacao(Predicate<HistoricoOcorrencia> criterio) {
+        @SuppressWarnings("unchecked")
+        List<HistoricoOcorrencia> pendentes = (List<HistoricoOcorrencia>) TransactionSynchronizationManager.getResource(this);
+        if (pendentes != null) {
+            for (HistoricoOcorrencia historico : pendentes) {
+                if (criterio.test(historico)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void parar() {
+        gravador.shutdown();
+        try {
+            if (!gravador.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Gravador do histórico não terminou; entradas sem sequência serão sequenciadas na próxima inicialização");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (iniciado) {
+            sequenciarPendentes();
+        }
+    }
+
+    /**
+     * Lista das entradas da transação atual, criada no primeiro registro junto com a
+     * sincronização que as grava antes do commit.
+     */
+    @SuppressWarnings("unchecked")
+    private List<HistoricoOcorrencia> pendentesDaTransacao() {
+        List<HistoricoOcorrencia> pendentes = (List<HistoricoOcorrencia>) TransactionSynchronizationManager.getResource(this);
+        if (pendentes != null) {
+            return pendentes;
+        }
+        List<HistoricoOcorrencia> novas = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, novas);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                // Uma transação REQUIRES_NEW aninhada acumula as próprias entradas
+                TransactionSynchronizationManager.unbindResource(GravadorHistorico.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(GravadorHistorico.this, novas);
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                if (novas.isEmpty()) {
+                    return;
+                }
+                // O commit do JPA só descarrega a sessão depois das sincronizações: as ocorrências
+                // e usuários referenciados precisam estar no banco antes do INSERT
+                historicoRepositorio.flush();
+                inserirLote(novas);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(GravadorHistorico.this);
+                if (status == STATUS_COMMITTED && !novas.isEmpty()) {
+                    avisar();
+                }
+            }
+        });
+        return novas;
+    }
+
+    /**
+     * Acorda a thread do gravador para sequenciar as entradas recém-confirmadas.
+     */
+    private void avisar() {
+        if (!iniciado || !sequenciamentoAgendado.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            gravador.execute(this::sequenciarPendentes);
+        } catch (RejectedExecutionException e) {
+            // Em encerramento: as pendentes são sequenciadas por parar()
+            sequenciamentoAgendado.set(false);
+        }
+    }
+
+    /**
+     * Sequencia as entradas confirmadas sem sequência, em lotes, publicando os eventos de cada
+     * lote depois do seu commit.
+     */
+    void sequenciarPendentes() {
+        sequenciamentoAgendado.set(false);
+        try {
+            List<HistoricoRegistradoEvento> sequenciadas;
+            do {
+                sequenciadas = sequenciarLote();
+                for (HistoricoRegistradoEvento evento : sequenciadas) {
+                    try {
+                        eventos.publishEvent(evento);
+                    } catch (Exception e) {
+                        logger.error("Erro ao notificar a entrada do histórico " + evento.getIdHistorico(), e);
+                    }
+                }
+            } while (sequenciadas.size() >= tamanhoLote);
+        } catch (Exception e) {
+            logger.error("Erro ao sequenciar o histórico; nova tentativa no próximo aviso ou intervalo", e);
+        }
+    }
+
+    /**
+     * Atribui a sequência a até tamanhoLote entradas sem sequência, em ordem de id, em uma
+     * transação com a trava do sequenciador. Retorna os eventos das entradas, na ordem da sequência.
+     */
+    List<HistoricoRegistradoEvento> sequenciarLote() {
+        List<long[]> linhas = transacao.execute(status -> {
+            jdbcTemplate.execute(SQL_TRAVAR);
+            return jdbcTemplate.query(SQL_SEQUENCIAR,
+                    (rs, i) -> new long[]{rs.getLong("id"), rs.getLong("id_ocorrencia"), rs.getLong("sequencia")},
+                    tamanhoLote);
+        });
+        linhas.sort(Comparator.comparingLong(linha -> linha[2]));
+        List<HistoricoRegistradoEvento> eventosDoLote = new ArrayList<>(linhas.size());
+        for (long[] linha : linhas) {
+            eventosDoLote.add(new HistoricoRegistradoEvento(linha[0], linha[1]));
+        }
+        return eventosDoLote;
+    }
+
+    /**
+     * INSERT em batch do lote na transação corrente (ou em autocommit, fora de uma), preenchendo
+     * os ids gerados.
+     */
+    void inserirLote(List<HistoricoOcorrencia> lote) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) conexao -> {
+            try (PreparedStatement comando = conexao.prepareStatement(SQL_INSERIR, new String[]{"id"})) {
+                for (HistoricoOcorrencia historico : lote) {
+                    preencher(comando, historico);
+                    comando.addBatch();
+                }
+                comando.executeBatch();
+                try (ResultSet chaves = comando.getGeneratedKeys()) {
+                    for (HistoricoOcorrencia historico : lote) {
+                        if (!chaves.next()) {
+                            break;
+                        }
+                        historico.setId(chaves.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private static void preencher(PreparedStatement comando, HistoricoOcorrencia h) throws SQLException {
+        comando.setLong(1, idOcorrencia(h));
+        comando.setLong(2, h.getUsuario().getId());
+        comando.setString(3, h.getAcao().name());
+        comando.setString(4, h.getStatusAnterior() != null ? h.getStatusAnterior().name() : null);
+        comando.setString(5, h.getStatusNovo().name());
+        comando.setString(6, h.getDescricaoAcao());
+        comando.setTimestamp(7, Timestamp.valueOf(h.getDataHora()));
+        comando.setString(8, h.getTipoOcorrencia());
+        comando.setString(9, h.getGravidade() != null ? h.getGravidade().name() : null);
+        comando.setString(10, h.getBairroOrigemNome());
+        comando.setString(11, h.getObservacoes());
+        comando.setString(12, h.getUsuarioNome());
+        comando.setString(13, h.getUsuarioLogin());
+        comando.setString(14, h.getUsuarioPerfil());
+        comando.setString(15, h.getPlacaAmbulancia());
+        comando.setString(16, h.getAcaoAmbulancia());
+    }
+
+    private static Long idOcorrencia(HistoricoOcorrencia historico) {
+        return historico.getOcorrencia() != null ? historico.getOcorrencia().getId() : null;
+    }
+}
@@ -1,11 +1,18 @@
 package com.vitalistech.sosrota.dominio.servico;
 
 import com.vitalistech.sosrota.dominio.modelo.*;
+import com.vitalistech.sosrota.dominio.repositorio.HistoricoArquivoRepositorio;
 import com.vitalistech.sosrota.dominio.repositorio.HistoricoOcorrenciaRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.VersaoHistorico;
+import com.vitalistech.sosrota.web.dto.HistoricoOcorrenciaDTO;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Serviço responsável por registrar e consultar o histórico de ocorrências.
@@ -13,10 +20,22 @@ import java.time.LocalDateTime;
 @Service
 public class HistoricoOcorrenciaServico {
 
+    // Cursor da primeira página: posterior a qualquer data/hora registrada e aceito pelo banco
+    private static final LocalDateTime INICIO_SEM_CURSOR = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     private final HistoricoOcorrenciaRepositorio historicoRepositorio;
+    private final GravadorHistorico gravadorHistorico;
+    private final HistoricoArquivoRepositorio arquivoRepositorio;
+    private final ParticionamentoHistoricoServico particionamento;
 
-    public HistoricoOcorrenciaServico(HistoricoOcorrenciaRepositorio historicoRepositorio) {
+    public HistoricoOcorrenciaServico(HistoricoOcorrenciaRepositorio historicoRepositorio,
+                                      GravadorHistorico gravadorHistorico,
+                                      HistoricoArquivoRepositorio arquivoRepositorio,
+                                      ParticionamentoHistoricoServico particionamento) {
         this.historicoRepositorio = historicoRepositorio;
+        this.gravadorHistorico = gravadorHistorico;
+        this.arquivoRepositorio = arquivoRepositorio;
+        this.particionamento = particionamento;
     }
 
     /**
@@ -68,6 +87,8 @@ public class HistoricoOcorrenciaServico {
     /**
      * Registra uma ação no histórico de ocorrências com informações da ambulância e data/hora customizada.
      * Captura um snapshot completo das informações da ocorrência, do usuário e da ambulância.
+     * A gravação é feita pelo {@link GravadorHistorico} no commit da transação atual, junto com as
+     * demais entradas dela, então o id do registro retornado só é preenchido no commit.
      * 
      * @param ocorrencia A ocorrência relacionada
      * @param usuario O usuário que realizou a ação
@@ -116,7 +137,7 @@ public class HistoricoOcorrenciaServico {
         historico.setPlacaAmbulancia(placaAmbulancia);
         historico.setAcaoAmbulancia(acaoAmbulancia);
 
-        return historicoRepositorio.save(historico);
+        return gravadorHistorico.registrar(historico);
     }
 
     /**
@@ -176,25 +197,82 @@ public class HistoricoOcorrenciaServico {
     }
 
     /**
-     * Busca todo o histórico de uma ocorrência específica.
+     * Verifica se a ocorrência já tem uma entrada com a ação de ambulância informada,
+     * considerando também as entradas da transação atual que só são gravadas no commit.
      */
-    public java.util.List<HistoricoOcorrencia> buscarHistoricoPorOcorrencia(Long ocorrenciaId) {
-        return historicoRepositorio.findByOcorrenciaIdOrderByDataHoraDesc(ocorrenciaId);
+    public boolean existeAcaoAmbulancia(Long ocorrenciaId, String acaoAmbulancia) {
+        return gravadorHistorico.existeNaTransacao(h -> h.getOcorrencia() != null
+                        && ocorrenciaId.equals(h.getOcorrencia().getId())
+                        && acaoAmbulancia.equals(h.getAcaoAmbulancia()))
+                || historicoRepositorio.existsByOcorrenciaIdAndAcaoAmbulancia(ocorrenciaId, acaoAmbulancia);
     }
 
     /**
-     * Busca todo o histórico de ações de um usuário específico.
+     * Uma página do histórico, mais recentes primeiro, com filtros opcionais por usuário e
+     * ocorrência. A página começa depois de (antesDataHora, antesId), a última entrada da página
+     * anterior; sem cursor começa pela entrada mais recente.
+     *
+     * Se a tabela principal não completa a página e há histórico arquivado, o restante vem do
+     * arquivo com o mesmo cursor (todo o arquivo é mais antigo que a tabela principal, então a
+     * ordem se mantém e o cursor da página seguinte continua valendo).
      */
-    public java.util.List<HistoricoOcorrencia> buscarHistoricoPorUsuario(Long usuarioId) {
-        return historicoRepositorio.findByUsuarioIdOrderByDataHoraDesc(usuarioId);
+    @Transactional(readOnly = true)
+    public List<HistoricoOcorrenciaDTO> buscarPagina(Long usuarioId, Long ocorrenciaId,
+                                                     LocalDateTime antesDataHora, Long antesId, int limite) {
+        if (antesDataHora == null) {
+            antesDataHora = INICIO_SEM_CURSOR;
+            antesId = Long.MAX_VALUE;
+        }
+        Pageable pagina = PageRequest.of(0, limite);
+        List<HistoricoOcorrenciaDTO> entradas;
+        if (ocorrenciaId != null) {
+            entradas = historicoRepositorio.buscarPaginaPorOcorrencia(ocorrenciaId, usuarioId, antesDataHora, antesId, pagina);
+        } else if (usuarioId != null) {
+            entradas = historicoRepositorio.buscarPaginaPorUsuario(usuarioId, antesDataHora, antesId, pagina);
+        } else {
+            entradas = historicoRepositorio.buscarPagina(antesDataHora, antesId, pagina);
+        }
+        if (entradas.size() >= limite || particionamento == null || !particionamento.possuiArquivadas()) {
+            return entradas;
+        }
+
+        if (!entradas.isEmpty()) {
+            HistoricoOcorrenciaDTO ultima = entradas.get(entradas.size() - 1);
+            antesDataHora = ultima.getDataHora();
+            antesId = ultima.getId();
+        }
+        int restante = limite - entradas.size();
+        List<HistoricoOcorrenciaDTO> arquivadas;
+        if (ocorrenciaId != null) {
+            arquivadas = arquivoRepositorio.buscarPaginaPorOcorrencia(ocorrenciaId, usuarioId, antesDataHora, antesId, restante);
+        } else if (usuarioId != null) {
+            arquivadas = arquivoRepositorio.buscarPaginaPorUsuario(usuarioId, antesDataHora, antesId, restante);
+        } else {
+            arquivadas = arquivoRepositorio.buscarPagina(antesDataHora, antesId, restante);
+        }
+        if (arquivadas.isEmpty()) {
+            return entradas;
+        }
+        List<HistoricoOcorrenciaDTO> completa = new ArrayList<>(entradas);
+        completa.addAll(arquivadas);
+        return completa;
     }
 
     /**
-     * Busca histórico com filtros opcionais.
-     * Se ambos os parâmetros forem null, retorna todo o histórico.
+     * Entradas do histórico da ocorrência sequenciadas depois de aposSequencia, na ordem da sequência
+     * (no máximo limite; se vier a página cheia, repetir com a maior sequência recebida).
+     * Só consulta a tabela principal: entradas recentes nunca estão no arquivo.
      */
-    public java.util.List<HistoricoOcorrencia> buscarHistoricoComFiltros(Long usuarioId, Long ocorrenciaId) {
-        return historicoRepositorio.buscarComFiltros(usuarioId, ocorrenciaId);
+    @Transactional(readOnly = true)
+    public List<HistoricoOcorrenciaDTO> buscarNovasPorOcorrencia(Long ocorrenciaId, Long aposSequencia, int limite) {
+        return historicoRepositorio.buscarNovasPorOcorrencia(ocorrenciaId, aposSequencia, PageRequest.of(0, limite));
     }
-}
 
+    /**
+     * Versão atual do histórico da ocorrência (muda a cada entrada sequenciada).
+     */
+    @Transactional(readOnly = true)
+    public VersaoHistorico versaoPorOcorrencia(Long ocorrenciaId) {
+        return historicoRepositorio.buscarVersaoPorOcorrencia(ocorrenciaId);
+    }
+}
@@ -0,0 +1,23 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+/**
+ * Publicado por {@link HistoricoOcorrenciaServico} a cada entrada gravada no histórico.
+ */
+public class HistoricoRegistradoEvento {
+
+    private final Long idHistorico;
+    private final Long idOcorrencia;
+
+    public HistoricoRegistradoEvento(Long idHistorico, Long idOcorrencia) {
+        this.idHistorico = idHistorico;
+        this.idOcorrencia = idOcorrencia;
+    }
+
+    public Long getIdHistorico() {
+        return idHistorico;
+    }
+
+    public Long getIdOcorrencia() {
+        return idOcorrencia;
+    }
+}
@@ -0,0 +1,147 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia;
+import com.vitalistech.sosrota.dominio.repositorio.OcorrenciaRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.TimerOcorrenciaLinha;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mantém em memória a {@link OcorrenciaLinhaDoTempo} das ocorrências ativas.
+ *
+ * A entrada é regravada após o commit de cada mudança de etapa (abertura, despacho, chegada,
+ * conclusão, retorno, cancelamento), lendo o estado confirmado no banco com a consulta de
+ * projeção do timer. As leituras não gravam no cache: uma ocorrência fora dele (encerrada ou
+ * ainda não carregada) é lida do banco a cada vez, o que evita que uma leitura antiga
+ * sobrescreva uma mudança mais recente.
+ *
+ * Os ouvintes rodam antes dos demais ({@link Order}) para que quem publica o timer após a
+ * mesma mudança (ex.: {@link TransmissaoOcorrenciasServico}) já encontre a entrada atualizada.
+ */
+@Service
+public class LinhaDoTempoServico {
+
+    private static final Logger logger = LoggerFactory.getLogger(LinhaDoTempoServico.class);
+
+    private static final EnumSet<StatusOcorrencia> STATUS_ATIVOS = EnumSet.of(StatusOcorrencia.ABERTA,
+            StatusOcorrencia.DESPACHADA, StatusOcorrencia.EM_ATENDIMENTO, StatusOcorrencia.CONCLUIDA);
+
+    private final OcorrenciaRepositorio ocorrenciaRepositorio;
+    private final ConcurrentHashMap<Long, OcorrenciaLinhaDoTempo> ativas = new ConcurrentHashMap<>();
+    // Geração da leitura mais recente de cada ocorrência em atualização: só ela grava a entrada
+    private final ConcurrentHashMap<Long, AtomicLong> geracoes = new ConcurrentHashMap<>();
+
+    public LinhaDoTempoServico(OcorrenciaRepositorio ocorrenciaRepositorio) {
+        this.ocorrenciaRepositorio = ocorrenciaRepositorio;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarAtivas() {
+        try {
+            for (TimerOcorrenciaLinha linha : ocorrenciaRepositorio.buscarLinhasTimer(STATUS_ATIVOS)) {
+                OcorrenciaLinhaDoTempo linhaDoTempo = OcorrenciaLinhaDoTempo.de(linha);
+                if (linhaDoTempo.isAtiva()) {
+                    ativas.putIfAbsent(linha.getIdOcorrencia(), linhaDoTempo);
+                }
+            }
+            logger.info("Linha do tempo carregada para {} ocorrência(s) ativa(s)", ativas.size());
+        } catch (Exception e) {
+            logger.error("Erro ao carregar a linha do tempo das ocorrências ativas", e);
+        }
+    }
+
+    /**
+     * Linha do tempo atual da ocorrência (do cache se ativa, senão do banco).
+     *
+     * @throws IllegalArgumentException se a ocorrência não existir
+     */
+    public OcorrenciaLinhaDoTempo obter(Long idOcorrencia) {
+        OcorrenciaLinhaDoTempo linhaDoTempo = ativas.get(idOcorrencia);
+        if (linhaDoTempo != null) {
+            return linhaDoTempo;
+        }
+        return carregar(idOcorrencia);
+    }
+
+    /**
+     * Quantidade de ocorrências em cache.
+     */
+    public int quantidadeAtivas() {
+        return ativas.size();
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAbrirOcorrencia(OcorrenciaAbertaEvento evento) {
+        atualizar(evento.getIdOcorrencia());
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarAtendimento(AtendimentoAlteradoEvento evento) {
+        atualizar(evento.getIdOcorrencia());
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoRegistrarHistorico(HistoricoRegistradoEvento evento) {
+        // Mudanças sem atendimento (ex.: cancelamento de uma ABERTA) só chegam pelo histórico
+        if (evento.getIdOcorrencia() != null && ativas.containsKey(evento.getIdOcorrencia())) {
+            atualizar(evento.getIdOcorrencia());
+        }
+    }
+
+    /**
+     * Relê a ocorrência do banco (fora de qualquer trava) e regrava (ou remove) sua entrada.
+     *
+     * Cada leitura recebe a próxima geração da ocorrência antes de consultar o banco; como os
+     * eventos chegam após o commit, uma leitura de geração maior vê um estado pelo menos tão novo.
+     * Só grava quem ainda tem a geração mais recente, então uma leitura antiga que termina depois
+     * não sobrescreve a mais nova. O contador sai do mapa junto com a entrada: a ocorrência que
+     * deixa de estar ativa não volta a ficar.
+     */
+    void atualizar(Long idOcorrencia) {
+        if (idOcorrencia == null) {
+            return;
+        }
+        AtomicLong contador = geracoes.computeIfAbsent(idOcorrencia, id -> new AtomicLong());
+        long geracao = contador.incrementAndGet();
+        try {
+            List<TimerOcorrenciaLinha> linhas = ocorrenciaRepositorio.buscarLinhaTimer(idOcorrencia);
+            OcorrenciaLinhaDoTempo lida = linhas.isEmpty() ? null : OcorrenciaLinhaDoTempo.de(linhas.get(0));
+            OcorrenciaLinhaDoTempo nova = lida != null && lida.isAtiva() ? lida : null;
+            ativas.compute(idOcorrencia, (id, atual) -> {
+                if (geracoes.get(id) != contador || contador.get() != geracao) {
+                    return atual; // Uma leitura mais recente grava
+                }
+                if (nova == null) {
+                    geracoes.remove(id, contador);
+                }
+                return nova;
+            });
+        } catch (Exception e) {
+            ativas.remove(idOcorrencia);
+            geracoes.remove(idOcorrencia, contador);
+            logger.error("Erro ao atualizar a linha do tempo da ocorrência " + idOcorrencia, e);
+        }
+    }
+
+    private OcorrenciaLinhaDoTempo carregar(Long idOcorrencia) {
+        List<TimerOcorrenciaLinha> linhas = ocorrenciaRepositorio.buscarLinhaTimer(idOcorrencia);
+        if (linhas.isEmpty()) {
+            throw new IllegalArgumentException("Ocorrência não encontrada");
+        }
+        return OcorrenciaLinhaDoTempo.de(linhas.get(0));
+    }
+}
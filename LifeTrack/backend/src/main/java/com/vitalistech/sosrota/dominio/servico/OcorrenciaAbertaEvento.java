@@ -0,0 +1,40 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import com.vitalistech.sosrota.dominio.modelo.Gravidade;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publicado por {@link OcorrenciaServico#registrarOcorrencia} quando uma nova ocorrência é aberta.
+ */
+public class OcorrenciaAbertaEvento {
+
+    private final Long idOcorrencia;
+    private final Gravidade gravidade;
+    private final LocalDateTime dataHoraAbertura;
+    private final Integer slaMinutos;
+
+    public OcorrenciaAbertaEvento(Long idOcorrencia, Gravidade gravidade, LocalDateTime dataHoraAbertura,
+                                  Integer slaMinutos) {
+        this.idOcorrencia = idOcorrencia;
+        this.gravidade = gravidade;
+        this.dataHoraAbertura = dataHoraAbertura;
+        this.slaMinutos = slaMinutos;
+    }
+
+    public Long getIdOcorrencia() {
+        return idOcorrencia;
+    }
+
+    public Gravidade getGravidade() {
+        return gravidade;
+    }
+
+    public LocalDateTime getDataHoraAbertura() {
+        return dataHoraAbertura;
+    }
+
+    public Integer getSlaMinutos() {
+        return slaMinutos;
+    }
+}
@@ -0,0 +1,293 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia;
+import com.vitalistech.sosrota.dominio.repositorio.RelatorioOcorrenciaLinha;
+import com.vitalistech.sosrota.dominio.repositorio.TimerOcorrenciaLinha;
+import com.vitalistech.sosrota.web.dto.TimerOcorrenciaDTO;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Linha do tempo de uma ocorrência: os instantes fixos (abertura, despacho, chegada, fechamento,
+ * retorno) e todas as durações que não dependem do relógio, calculadas uma vez na construção.
+ *
+ * As leituras ({@link #paraTimer}, {@link #tempoTotalSegundos}) só somam o que falta até "agora".
+ * Os valores produzidos são exatamente os do cálculo anterior do timer (minutos truncados,
+ * estimativa de ida a 60 km/h arredondada para cima, retorno igual ao tempo real da ida).
+ * Imutável: é substituída por inteiro a cada mudança de etapa ({@link LinhaDoTempoServico}).
+ */
+public final class OcorrenciaLinhaDoTempo {
+
+    /**
+     * Situação do SLA em um instante: em risco com até 25% do prazo restante, excedido com o prazo
+     * esgotado.
+     */
+    public enum SituacaoSla {
+        NO_PRAZO, EM_RISCO, EXCEDIDO;
+
+        static SituacaoSla de(long restanteMinutos, int slaMinutos) {
+            if (restanteMinutos < 0) {
+                return EXCEDIDO;
+            }
+            return restanteMinutos <= (slaMinutos * 0.25) ? EM_RISCO : NO_PRAZO;
+        }
+    }
+
+    private final Long idOcorrencia;
+    private final StatusOcorrencia status;
+    private final LocalDateTime dataHoraAbertura;
+    private final LocalDateTime dataHoraFechamento;
+    private final Integer slaMinutos;
+    private final Long idAtendimento;
+    private final LocalDateTime dataHoraDespacho;
+    private final LocalDateTime dataHoraChegada;
+    private final LocalDateTime dataHoraRetorno;
+    private final Double distanciaKm;
+    private final String placaAmbulancia;
+
+    // Etapas
+    private final boolean foiDespachada;
+    private final boolean chegouLocal;
+    private final boolean foiConcluida;
+    private final boolean retornouBase;
+
+    // Durações fixas (null quando não se aplicam)
+    private final Long tempoEstimadoChegadaMinutos;   // pela distância
+    private final Long tempoIdaMinutos;               // despacho → chegada, real
+    private final Long tempoAteChegadaMinutos;        // real se chegou, senão estimado
+    private final Long tempoRetornoMinutos;           // estimativa do retorno (igual à ida)
+    private final Long tempoRetornoFinalMinutos;      // chegada → retorno, se retornou
+    private final Long tempoTotalFinalSegundos;       // abertura → retorno, se retornou
+    private final Long tempoAteChegadaSegundos;       // abertura → chegada, se chegou
+    private final Long slaDecorridoFinalMinutos;      // abertura → chegada (o SLA para na chegada)
+    private final Long minutosAteDespacho;            // abertura → despacho
+
+    private OcorrenciaLinhaDoTempo(Long idOcorrencia, StatusOcorrencia status, LocalDateTime dataHoraAbertura,
+                                   LocalDateTime dataHoraFechamento, Integer slaMinutos, Long idAtendimento,
+                                   LocalDateTime dataHoraDespacho, LocalDateTime dataHoraChegada,
+                                   LocalDateTime dataHoraRetorno, Double distanciaKm, String placaAmbulancia) {
+        boolean temAtendimento = idAtendimento != null;
+        this.idOcorrencia = idOcorrencia;
+        this.status = status;
+        this.dataHoraAbertura = dataHoraAbertura;
+        this.dataHoraFechamento = dataHoraFechamento;
+        this.slaMinutos = slaMinutos;
+        this.idAtendimento = idAtendimento;
+        this.dataHoraDespacho = temAtendimento ? dataHoraDespacho : null;
+        this.dataHoraChegada = temAtendimento ? dataHoraChegada : null;
+        this.dataHoraRetorno = temAtendimento ? dataHoraRetorno : null;
+        this.distanciaKm = temAtendimento ? distanciaKm : null;
+        this.placaAmbulancia = temAtendimento ? placaAmbulancia : null;
+
+        this.foiDespachada = this.dataHoraDespacho != null;
+        this.chegouLocal = this.dataHoraChegada != null;
+        this.foiConcluida = status == StatusOcorrencia.CONCLUIDA;
+        this.retornouBase = this.dataHoraRetorno != null;
+
+        boolean temDistancia = this.distanciaKm != null && this.distanciaKm > 0;
+        this.tempoEstimadoChegadaMinutos = temDistancia ? (long) Math.ceil((this.distanciaKm / 60.0) * 60) : null;
+        this.tempoIdaMinutos = chegouLocal && foiDespachada
+                ? segundos(this.dataHoraDespacho, this.dataHoraChegada) / 60 : null;
+
+        if (tempoIdaMinutos != null) {
+            this.tempoAteChegadaMinutos = tempoIdaMinutos;
+            this.tempoRetornoMinutos = tempoIdaMinutos;
+        } else {
+            this.tempoAteChegadaMinutos = tempoEstimadoChegadaMinutos;
+            // Antes da chegada a estimativa só vale despachada; voltando para a base, sempre
+            boolean voltando = chegouLocal && !retornouBase && foiConcluida;
+            this.tempoRetornoMinutos = foiDespachada || voltando ? tempoEstimadoChegadaMinutos : null;
+        }
+
+        this.tempoRetornoFinalMinutos = chegouLocal && retornouBase
+                ? segundos(this.dataHoraChegada, this.dataHoraRetorno) / 60 : null;
+        this.tempoTotalFinalSegundos = dataHoraAbertura != null && retornouBase
+                ? segundos(dataHoraAbertura, this.dataHoraRetorno) : null;
+        this.tempoAteChegadaSegundos = dataHoraAbertura != null && chegouLocal
+                ? segundos(dataHoraAbertura, this.dataHoraChegada) : null;
+        this.slaDecorridoFinalMinutos = tempoAteChegadaSegundos != null ? tempoAteChegadaSegundos / 60 : null;
+        this.minutosAteDespacho = dataHoraAbertura != null && foiDespachada
+                ? segundos(dataHoraAbertura, this.dataHoraDespacho) / 60 : null;
+    }
+
+    public static OcorrenciaLinhaDoTempo de(TimerOcorrenciaLinha linha) {
+        return new OcorrenciaLinhaDoTempo(linha.getIdOcorrencia(), linha.getStatus(), linha.getDataHoraAbertura(),
+                linha.getDataHoraFechamento(), linha.getSlaMinutos(), linha.getIdAtendimento(),
+                linha.getDataHoraDespacho(), linha.getDataHoraChegada(), linha.getDataHoraRetorno(),
+                linha.getDistanciaKm(), linha.getPlacaAmbulancia());
+    }
+
+    public static OcorrenciaLinhaDoTempo de(RelatorioOcorrenciaLinha linha) {
+        return new OcorrenciaLinhaDoTempo(linha.getIdOcorrencia(), linha.getStatus(), linha.getDataHoraAbertura(),
+                linha.getDataHoraFechamento(), linha.getSlaMinutos(), linha.getIdAtendimento(),
+                linha.getDataHoraDespacho(), linha.getDataHoraChegada(), linha.getDataHoraRetorno(),
+                linha.getDistanciaKm(), linha.getPlacaAmbulancia());
+    }
+
+    public Long getIdOcorrencia() {
+        return idOcorrencia;
+    }
+
+    public StatusOcorrencia getStatus() {
+        return status;
+    }
+
+    /**
+     * Ainda pode mudar de etapa: não cancelada e, se concluída, com a ambulância voltando para a base.
+     */
+    public boolean isAtiva() {
+        return status != StatusOcorrencia.CANCELADA && !(foiConcluida && (retornouBase || !chegouLocal));
+    }
+
+    /**
+     * Tempo total: até o retorno (fixo) quando retornou; até a chegada mais o retorno em curso
+     * quando chegou; senão, desde a abertura. Null sem data de abertura.
+     */
+    public Long tempoTotalSegundos(LocalDateTime agora) {
+        if (dataHoraAbertura == null) {
+            return null;
+        }
+        if (tempoTotalFinalSegundos != null) {
+            return tempoTotalFinalSegundos;
+        }
+        if (tempoAteChegadaSegundos != null) {
+            return tempoAteChegadaSegundos + (foiConcluida ? segundos(dataHoraChegada, agora) : 0);
+        }
+        return segundos(dataHoraAbertura, agora);
+    }
+
+    /**
+     * Minutos do SLA decorridos no instante informado: da abertura até a chegada (o retorno não
+     * conta); antes da chegada, até "agora". Null sem SLA ou sem data de abertura.
+     */
+    public Long slaDecorridoMinutos(LocalDateTime agora) {
+        if (slaMinutos == null || dataHoraAbertura == null) {
+            return null;
+        }
+        if (slaDecorridoFinalMinutos != null) {
+            return slaDecorridoFinalMinutos;
+        }
+        if (minutosAteDespacho != null) {
+            return minutosAteDespacho + segundos(dataHoraDespacho, agora) / 60;
+        }
+        return segundos(dataHoraAbertura, agora) / 60;
+    }
+
+    /**
+     * Situação do SLA no instante informado, ou null sem SLA ou sem data de abertura.
+     */
+    public SituacaoSla situacaoSla(LocalDateTime agora) {
+        Long slaDecorrido = slaDecorridoMinutos(agora);
+        return slaDecorrido == null ? null : SituacaoSla.de(slaMinutos - slaDecorrido, slaMinutos);
+    }
+
+    /**
+     * Timer no instante informado; mesmos campos e valores de {@link OcorrenciaServico#obterInformacoesTimer}.
+     */
+    public TimerOcorrenciaDTO paraTimer(LocalDateTime agora) {
+        TimerOcorrenciaDTO dto = new TimerOcorrenciaDTO();
+        dto.setIdOcorrencia(idOcorrencia);
+        dto.setStatus(status != null ? status.name() : null);
+        dto.setDataHoraAbertura(dataHoraAbertura);
+        if (idAtendimento != null) {
+            dto.setIdAtendimento(idAtendimento);
+            dto.setDataHoraDespacho(dataHoraDespacho);
+            dto.setDataHoraChegada(dataHoraChegada);
+            dto.setDataHoraRetorno(dataHoraRetorno);
+            dto.setPlacaAmbulancia(placaAmbulancia);
+            dto.setDistanciaKm(distanciaKm);
+        }
+        dto.setDataHoraFechamento(dataHoraFechamento);
+        dto.setSlaMinutos(slaMinutos);
+        dto.setDataHoraCalculo(agora);
+
+        dto.setFoiDespachada(foiDespachada);
+        dto.setChegouLocal(chegouLocal);
+        dto.setFoiConcluida(foiConcluida);
+        dto.setRetornouBase(retornouBase);
+
+        Long total = tempoTotalSegundos(agora);
+        if (total != null) {
+            dto.setTempoTotalDecorridoMinutos(total / 60);
+            dto.setTempoTotalFormatado(formatarTempo(total));
+        }
+
+        if (foiDespachada) {
+            dto.setTempoDespachoMinutos(segundos(dataHoraDespacho, agora) / 60);
+        }
+
+        // Ida: real se chegou; contagem regressiva da estimativa enquanto está a caminho
+        dto.setTempoAteChegadaMinutos(tempoAteChegadaMinutos);
+        if (tempoIdaMinutos == null && tempoEstimadoChegadaMinutos != null && foiDespachada) {
+            long desdeDespacho = segundos(dataHoraDespacho, agora) / 60;
+            dto.setTempoRestanteAteChegadaMinutos(Math.max(0, tempoEstimadoChegadaMinutos - desdeDespacho));
+        }
+
+        if (chegouLocal && !foiConcluida) {
+            dto.setTempoAposChegadaMinutos(segundos(dataHoraChegada, agora) / 60);
+        }
+
+        // Retorno: fixo se já retornou; contagem regressiva se a OS foi concluída e está voltando
+        dto.setTempoRetornoMinutos(tempoRetornoMinutos);
+        if (chegouLocal) {
+            if (retornouBase) {
+                dto.setTempoRetornoDecorridoMinutos(tempoRetornoFinalMinutos);
+            } else if (foiConcluida) {
+                long decorrido = segundos(dataHoraChegada, agora) / 60;
+                dto.setTempoRetornoDecorridoMinutos(decorrido);
+                if (tempoRetornoMinutos != null) {
+                    dto.setTempoRestanteRetornoMinutos(Math.max(0L, tempoRetornoMinutos - decorrido));
+                }
+            }
+        }
+
+        // SLA: da abertura até a chegada (o retorno não conta)
+        Long slaDecorrido = slaDecorridoMinutos(agora);
+        if (slaDecorrido != null) {
+            long restante = slaMinutos - slaDecorrido;
+            SituacaoSla situacao = SituacaoSla.de(restante, slaMinutos);
+            dto.setTempoSlaDecorridoMinutos(slaDecorrido);
+            dto.setTempoRestanteMinutos(restante);
+            dto.setSlaExcedido(situacao == SituacaoSla.EXCEDIDO);
+            dto.setSlaEmRisco(situacao == SituacaoSla.EM_RISCO);
+            dto.setTempoRestanteFormatado(formatarTempo((slaMinutos * 60) - (slaDecorrido * 60)));
+        }
+        return dto;
+    }
+
+    /**
+     * Formata tempo em segundos para uma string legível (ex: "15m 30s" ou "1h 25m").
+     */
+    public static String formatarTempo(long segundos) {
+        boolean negativo = segundos < 0;
+        segundos = Math.abs(segundos);
+
+        long horas = segundos / 3600;
+        long minutos = (segundos % 3600) / 60;
+        long seg = segundos % 60;
+
+        StringBuilder sb = new StringBuilder();
+        if (negativo) sb.append("-");
+
+        if (horas > 0) {
+            sb.append(horas).append("h");
+            if (minutos > 0) {
+                sb.append(" ").append(minutos).append("m");
+            }
+        } else if (minutos > 0) {
+            sb.append(minutos).append("m");
+            if (seg > 0) {
+                sb.append(" ").append(seg).append("s");
+            }
+        } else {
+            sb.append(seg).append("s");
+        }
+
+        return sb.toString();
+    }
+
+    private static long segundos(LocalDateTime inicio, LocalDateTime fim) {
+        return Duration.between(inicio, fim).getSeconds();
+    }
+}
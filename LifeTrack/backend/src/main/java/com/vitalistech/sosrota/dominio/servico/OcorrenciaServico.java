@@ -3,16 +3,22 @@ package com.vitalistech.sosrota.dominio.servico;
 import com.vitalistech.sosrota.dominio.modelo.*;
 import com.vitalistech.sosrota.dominio.repositorio.*;
 import com.vitalistech.sosrota.dominio.modelo.AtendimentoRotaConexao;
-import com.vitalistech.sosrota.util.AlgoritmoDijkstra;
+import com.vitalistech.sosrota.util.AlgoritmoHungaro;
+import com.vitalistech.sosrota.util.GrafoViario;
 import com.vitalistech.sosrota.util.ResultadoRota;
 import com.vitalistech.sosrota.web.dto.AmbulanciaSugeridaDTO;
+import com.vitalistech.sosrota.web.dto.DespachoLoteDTO;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -29,6 +35,10 @@ public class OcorrenciaServico {
     private final ProfissionalRepositorio profissionalRepositorio;
     private final AtendimentoRotaConexaoRepositorio atendimentoRotaConexaoRepositorio;
     private final HistoricoOcorrenciaServico historicoOcorrenciaServico;
+    private final RoteamentoServico roteamentoServico;
+    private final FrotaEstado frotaEstado;
+    private final LinhaDoTempoServico linhaDoTempoServico;
+    private final ApplicationEventPublisher eventos;
 
     public OcorrenciaServico(OcorrenciaRepositorio ocorrenciaRepositorio,
                              AmbulanciaRepositorio ambulanciaRepositorio,
@@ -37,7 +47,11 @@ public class OcorrenciaServico {
                              EquipeRepositorio equipeRepositorio,
                              ProfissionalRepositorio profissionalRepositorio,
                              AtendimentoRotaConexaoRepositorio atendimentoRotaConexaoRepositorio,
-                             HistoricoOcorrenciaServico historicoOcorrenciaServico) {
+                             HistoricoOcorrenciaServico historicoOcorrenciaServico,
+                             RoteamentoServico roteamentoServico,
+                             FrotaEstado frotaEstado,
+                             LinhaDoTempoServico linhaDoTempoServico,
+                             ApplicationEventPublisher eventos) {
         this.ocorrenciaRepositorio = ocorrenciaRepositorio;
         this.ambulanciaRepositorio = ambulanciaRepositorio;
         this.atendimentoRepositorio = atendimentoRepositorio;
@@ -46,6 +60,10 @@ public class OcorrenciaServico {
         this.profissionalRepositorio = profissionalRepositorio;
         this.atendimentoRotaConexaoRepositorio = atendimentoRotaConexaoRepositorio;
         this.historicoOcorrenciaServico = historicoOcorrenciaServico;
+        this.roteamentoServico = roteamentoServico;
+        this.frotaEstado = frotaEstado;
+        this.linhaDoTempoServico = linhaDoTempoServico;
+        this.eventos = eventos;
     }
 
     @Transactional
@@ -88,6 +106,9 @@ public class OcorrenciaServico {
             }
         }
 
+        eventos.publishEvent(new OcorrenciaAbertaEvento(ocorrencia.getId(), ocorrencia.getGravidade(),
+                ocorrencia.getDataHoraAbertura(), ocorrencia.getSlaMinutos()));
+
         return ocorrencia;
     }
 
@@ -127,54 +148,176 @@ public class OcorrenciaServico {
             slaMinutos = 30;
         }
 
-        // Buscar apenas ambulâncias DISPONIVEIS (garante que só faz um atendimento por vez)
-        List<Ambulancia> ambulanciasDisponiveis =
-                ambulanciaRepositorio.findByStatusAndAtivaTrue(StatusAmbulancia.DISPONIVEL);
+        // Apenas ambulâncias DISPONIVEIS com equipe completa (garante que só faz um atendimento por vez),
+        // lidas do estado da frota em memória, sem consultar equipe por ambulância
+        List<FrotaEstado.EstadoAmbulancia> candidatas = candidatasDoTipo(tipoNecessario);
+
+        // Descartar em O(1) as bases sem ligação viária com o local da ocorrência
+        List<FrotaEstado.EstadoAmbulancia> alcancaveis = filtrarConectadas(candidatas, ocorrencia.getBairroLocal());
+        if (!candidatas.isEmpty() && alcancaveis.isEmpty()) {
+            throw new IllegalStateException(diagnosticoBairroIsolado(ocorrencia.getBairroLocal(), candidatas.size()));
+        }
+        candidatas = alcancaveis;
+
+        // Rotas de todas as bases candidatas até o local da ocorrência em uma única consulta
+        Map<Long, ResultadoRota> rotasPorBase = roteamentoServico.distanciasAte(
+                ocorrencia.getBairroLocal(),
+                idsBairrosBase(candidatas)
+        );
+
+        // Candidatas com caminho até o local, da mais próxima para a mais distante (SEM verificar SLA)
+        List<FrotaEstado.EstadoAmbulancia> porDistancia = new ArrayList<>();
+        for (FrotaEstado.EstadoAmbulancia a : candidatas) {
+            if (rotasPorBase.containsKey(a.getBairroBase().getId())) {
+                porDistancia.add(a);
+            }
+        }
+        porDistancia.sort(Comparator.comparingDouble(a -> rotasPorBase.get(a.getBairroBase().getId()).getDistanciaKm()));
 
-        Ambulancia melhorAmbulancia = null;
-        double menorDistancia = Double.POSITIVE_INFINITY;
-        ResultadoRota melhorRota = null;
+        if (porDistancia.isEmpty()) {
+            throw new IllegalStateException("Nenhuma ambulância apta encontrada. Verifique se há ambulâncias disponíveis com equipe completa do tipo necessário.");
+        }
 
-        List<RuaConexao> todasConexoes = ruaConexaoRepositorio.findAll();
+        // Reivindicar a ocorrência antes da frota: o UPDATE condicional só a marca DESPACHADA se ela ainda
+        // estiver ABERTA, então dois despachos simultâneos da mesma ocorrência nunca levam duas ambulâncias.
+        if (ocorrenciaRepositorio.reivindicarAberta(ocorrencia.getId()) != 1) {
+            throw new IllegalStateException("A ocorrência já foi despachada por outro despacho simultâneo");
+        }
 
-        // Encontrar a ambulância mais próxima que atende aos critérios
-        for (Ambulancia a : ambulanciasDisponiveis) {
+        // Reivindicar a mais próxima: a atualização condicional só marca EM_ATENDIMENTO se ela ainda
+        // estiver DISPONIVEL, então dois despachos simultâneos nunca levam a mesma ambulância.
+        // Quem perde a disputa passa para a próxima candidata.
+        FrotaEstado.EstadoAmbulancia reivindicada = null;
+        for (FrotaEstado.EstadoAmbulancia a : porDistancia) {
+            if (ambulanciaRepositorio.reivindicarDisponivel(a.getId()) == 1) {
+                reivindicada = a;
+                break;
+            }
+        }
 
-            // Verificar tipo compatível
-            if (!tipoCompativel(a.getTipo(), tipoNecessario)) {
-                continue;
+        if (reivindicada == null) {
+            throw new IllegalStateException("Todas as " + porDistancia.size() + " ambulância(s) apta(s) foram despachadas "
+                    + "para outras ocorrências durante este despacho. Tente novamente.");
+        }
+
+        return efetivarDespacho(ocorrencia, reivindicada.getId(),
+                rotasPorBase.get(reivindicada.getBairroBase().getId()), slaMinutos, usuarioDespacho);
+    }
+
+    /**
+     * Despacha de uma vez todas as ocorrências ABERTAS, resolvendo uma atribuição de custo mínimo
+     * (soma das distâncias) entre ocorrências e ambulâncias aptas, em vez de dar a mais próxima a
+     * quem for despachado primeiro.
+     *
+     * A prioridade por gravidade é estrita: as ocorrências ALTA são atribuídas primeiro (às UTIs),
+     * depois as MÉDIA e por último as BAIXA, com as BÁSICAS que sobraram. Em cada nível a
+     * atribuição maximiza o número de ocorrências atendidas e, entre essas, minimiza a distância total.
+     * Tudo é gravado em uma única transação; ocorrências sem ambulância apta permanecem ABERTAS.
+     */
+    @Transactional
+    public DespachoLoteDTO despacharLote(Usuario usuarioDespacho) {
+        List<Ocorrencia> abertas = new ArrayList<>(ocorrenciaRepositorio.findByStatus(StatusOcorrencia.ABERTA));
+        abertas.sort(Comparator.comparing(Ocorrencia::getDataHoraAbertura,
+                Comparator.nullsLast(Comparator.naturalOrder())).thenComparing(Ocorrencia::getId));
+
+        List<Atendimento> atendimentos = new ArrayList<>();
+        Set<Long> idsDespachadas = new HashSet<>();
+        Set<Long> ambulanciasUsadas = new HashSet<>();
+
+        for (Gravidade gravidade : new Gravidade[]{Gravidade.ALTA, Gravidade.MEDIA, Gravidade.BAIXA}) {
+            List<Ocorrencia> doNivel = new ArrayList<>();
+            for (Ocorrencia o : abertas) {
+                if (o.getGravidade() == gravidade) {
+                    doNivel.add(o);
+                }
             }
 
-            // Verificar equipe completa (garante que equipe só faz um atendimento por vez)
-            if (!ambulanciaPossuiEquipeCompleta(a)) {
+            List<FrotaEstado.EstadoAmbulancia> candidatas = new ArrayList<>();
+            for (FrotaEstado.EstadoAmbulancia a : candidatasDoTipo(tipoNecessario(gravidade))) {
+                if (!ambulanciasUsadas.contains(a.getId())) {
+                    candidatas.add(a);
+                }
+            }
+            if (doNivel.isEmpty() || candidatas.isEmpty()) {
                 continue;
             }
 
-            // Calcular rota usando Dijkstra
-            ResultadoRota rota = AlgoritmoDijkstra.calcularRota(
-                    a.getBairroBase(),
-                    ocorrencia.getBairroLocal(),
-                    todasConexoes
-            );
+            // Matriz de custos ocorrência × ambulância: uma busca multi-alvo por ocorrência
+            double[][] custo = new double[doNivel.size()][candidatas.size()];
+            List<Map<Long, ResultadoRota>> rotasPorOcorrencia = new ArrayList<>();
+            for (int i = 0; i < doNivel.size(); i++) {
+                Bairro local = doNivel.get(i).getBairroLocal();
+                Map<Long, ResultadoRota> rotasPorBase = roteamentoServico.distanciasAte(
+                        local, idsBairrosBase(filtrarConectadas(candidatas, local)));
+                rotasPorOcorrencia.add(rotasPorBase);
+                for (int j = 0; j < candidatas.size(); j++) {
+                    ResultadoRota rota = rotasPorBase.get(candidatas.get(j).getBairroBase().getId());
+                    custo[i][j] = rota != null ? rota.getDistanciaKm() : Double.POSITIVE_INFINITY;
+                }
+            }
 
-            double distKm = rota.getDistanciaKm();
-            if (Double.isInfinite(distKm)) continue;
+            int[] atribuicao = AlgoritmoHungaro.resolver(custo);
 
-            // Escolher a ambulância mais próxima (SEM verificar SLA)
-            if (distKm < menorDistancia) {
-                menorDistancia = distKm;
-                melhorAmbulancia = a;
-                melhorRota = rota;
+            for (int i = 0; i < doNivel.size(); i++) {
+                if (atribuicao[i] < 0) {
+                    continue;
+                }
+                Ocorrencia ocorrencia = doNivel.get(i);
+                FrotaEstado.EstadoAmbulancia ambulancia = candidatas.get(atribuicao[i]);
+
+                // Um despacho individual concorrente pode ter levado a ocorrência (que já não está ABERTA
+                // e não entra nas não despachadas): a ambulância fica livre para os próximos níveis
+                if (ocorrenciaRepositorio.reivindicarAberta(ocorrencia.getId()) != 1) {
+                    idsDespachadas.add(ocorrencia.getId());
+                    continue;
+                }
+                ambulanciasUsadas.add(ambulancia.getId());
+
+                // ... ou a ambulância: a ocorrência volta a ficar ABERTA
+                if (ambulanciaRepositorio.reivindicarDisponivel(ambulancia.getId()) != 1) {
+                    ocorrenciaRepositorio.liberarReivindicada(ocorrencia.getId());
+                    continue;
+                }
+
+                ResultadoRota rota = rotasPorOcorrencia.get(i).get(ambulancia.getBairroBase().getId());
+                int slaMinutos = ocorrencia.getSlaMinutos() != null
+                        ? ocorrencia.getSlaMinutos()
+                        : calcularSlaPorGravidade(gravidade);
+                atendimentos.add(efetivarDespacho(ocorrencia, ambulancia.getId(), rota, slaMinutos, usuarioDespacho));
+                idsDespachadas.add(ocorrencia.getId());
             }
         }
 
-        if (melhorAmbulancia == null) {
-            throw new IllegalStateException("Nenhuma ambulância apta encontrada. Verifique se há ambulâncias disponíveis com equipe completa do tipo necessário.");
+        List<Long> naoDespachadas = new ArrayList<>();
+        for (Ocorrencia o : abertas) {
+            if (!idsDespachadas.contains(o.getId())) {
+                naoDespachadas.add(o.getId());
+            }
         }
+        return new DespachoLoteDTO(atendimentos, naoDespachadas);
+    }
+
+    /**
+     * Tipo de ambulância exigido pela gravidade: UTI para ALTA, BÁSICA para as demais.
+     */
+    private TipoAmbulancia tipoNecessario(Gravidade gravidade) {
+        return gravidade == Gravidade.ALTA ? TipoAmbulancia.UTI : TipoAmbulancia.BASICA;
+    }
 
-        // Marcar ambulância como EM_ATENDIMENTO (só pode fazer um atendimento por vez)
+    /**
+     * Grava o despacho de uma ocorrência e de uma ambulância já reivindicadas (DESPACHADA e
+     * EM_ATENDIMENTO no banco): equipe e profissionais em atendimento, atendimento, histórico e caminho da rota.
+     */
+    private Atendimento efetivarDespacho(Ocorrencia ocorrencia, Long idAmbulancia, ResultadoRota melhorRota,
+                                         int slaMinutos, Usuario usuarioDespacho) {
+        double menorDistancia = melhorRota.getDistanciaKm();
+
+        Ambulancia melhorAmbulancia = ambulanciaRepositorio.findById(idAmbulancia)
+                .orElseThrow(() -> new IllegalStateException("Ambulância selecionada não encontrada"));
+
+        // Ambulância já marcada como EM_ATENDIMENTO no banco (só pode fazer um atendimento por vez)
         melhorAmbulancia.setStatus(StatusAmbulancia.EM_ATENDIMENTO);
-        ambulanciaRepositorio.save(melhorAmbulancia);
+        frotaEstado.registrarAmbulancia(melhorAmbulancia);
 
         // Buscar a equipe associada à ambulância (obrigatória para atendimento)
         Equipe equipe = equipeRepositorio.findByAmbulanciaAndAtivaTrue(melhorAmbulancia)
@@ -226,7 +369,7 @@ public class OcorrenciaServico {
         // Salvar o caminho calculado pelo Dijkstra (conexões de rua utilizadas)
         if (melhorRota != null && melhorRota.getCaminho() != null && melhorRota.getCaminho().size() > 1) {
             try {
-                salvarCaminhoCalculado(atendimento, melhorRota.getCaminho(), todasConexoes);
+                salvarCaminhoCalculado(atendimento, melhorRota.getCaminho(), roteamentoServico.obterGrafo());
             } catch (Exception e) {
                 // Log do erro mas não interrompe o fluxo
                 System.err.println("Erro ao salvar caminho calculado: " + e.getMessage());
@@ -234,9 +377,65 @@ public class OcorrenciaServico {
             }
         }
 
+        eventos.publishEvent(new AtendimentoAlteradoEvento(atendimento.getId(), atendimento.getOcorrencia().getId()));
+
         return atendimento;
     }
 
+    /**
+     * Mantém apenas as ambulâncias cuja base está no mesmo componente conexo do grafo viário
+     * que o bairro informado (verificação O(1) por ambulância, sem busca de rotas).
+     */
+    private List<FrotaEstado.EstadoAmbulancia> filtrarConectadas(List<FrotaEstado.EstadoAmbulancia> ambulancias,
+                                                                 Bairro bairroLocal) {
+        GrafoViario grafo = roteamentoServico.obterGrafo();
+        List<FrotaEstado.EstadoAmbulancia> conectadas = new ArrayList<>();
+        for (FrotaEstado.EstadoAmbulancia a : ambulancias) {
+            if (grafo.conectados(a.getBairroBase().getId(), bairroLocal.getId())) {
+                conectadas.add(a);
+            }
+        }
+        return conectadas;
+    }
+
+    /**
+     * Mensagem de erro do despacho quando há ambulâncias aptas, mas nenhuma base alcança o local por ruas cadastradas.
+     */
+    private String diagnosticoBairroIsolado(Bairro bairroLocal, int quantidadeAptas) {
+        GrafoViario grafo = roteamentoServico.obterGrafo();
+        int indice = grafo.indiceDe(bairroLocal.getId());
+        String situacao = indice < 0 || grafo.grau(indice) == 0
+                ? "não possui nenhuma conexão viária cadastrada"
+                : "está em uma região da malha viária sem ligação com as bases";
+        return "O bairro " + bairroLocal.getNome() + " " + situacao + ": nenhuma das " + quantidadeAptas
+                + " ambulância(s) apta(s) disponível(is) consegue chegar até ele. Cadastre uma conexão viária "
+                + "ligando o bairro ao restante da malha.";
+    }
+
+    /**
+     * Ids dos bairros-base das ambulâncias informadas (origens da busca de rotas).
+     */
+    private Set<Long> idsBairrosBase(List<FrotaEstado.EstadoAmbulancia> ambulancias) {
+        Set<Long> ids = new HashSet<>();
+        for (FrotaEstado.EstadoAmbulancia a : ambulancias) {
+            ids.add(a.getBairroBase().getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Ambulâncias aptas (ativas, DISPONIVEIS e com equipe completa) de tipo compatível com o necessário.
+     */
+    private List<FrotaEstado.EstadoAmbulancia> candidatasDoTipo(TipoAmbulancia tipoNecessario) {
+        List<FrotaEstado.EstadoAmbulancia> candidatas = new ArrayList<>();
+        for (FrotaEstado.EstadoAmbulancia a : frotaEstado.aptas()) {
+            if (tipoCompativel(a.getTipo(), tipoNecessario)) {
+                candidatas.add(a);
+            }
+        }
+        return candidatas;
+    }
+
     /**
      * Verifica se o tipo de ambulância é compatível com o tipo necessário.
      * REGRA IMPORTANTE: Ocorrências BAIXAS nunca podem ser atendidas por UTI,
@@ -281,41 +480,30 @@ public class OcorrenciaServico {
             tipoNecessario = TipoAmbulancia.BASICA;
         }
 
-        // Buscar ambulâncias disponíveis
-        List<Ambulancia> ambulanciasDisponiveis =
-                ambulanciaRepositorio.findByStatusAndAtivaTrue(StatusAmbulancia.DISPONIVEL);
+        // Ambulâncias disponíveis, do tipo compatível e com equipe completa
+        List<FrotaEstado.EstadoAmbulancia> candidatas = candidatasDoTipo(tipoNecessario);
 
-        // Buscar todas as conexões para o Dijkstra
-        List<RuaConexao> todasConexoes = ruaConexaoRepositorio.findAll();
+        // Bases sem ligação viária com o local não podem ser sugeridas
+        candidatas = filtrarConectadas(candidatas, ocorrencia.getBairroLocal());
 
-        List<AmbulanciaSugeridaDTO> sugestoes = new ArrayList<>();
+        // Rotas de todas as bases candidatas até o local da ocorrência em uma única consulta
+        Map<Long, ResultadoRota> rotasPorBase = roteamentoServico.distanciasAte(
+                ocorrencia.getBairroLocal(),
+                idsBairrosBase(candidatas)
+        );
 
-        // Para cada ambulância disponível, calcular rota e verificar critérios
-        for (Ambulancia ambulancia : ambulanciasDisponiveis) {
-            // Verificar tipo compatível
-            if (!tipoCompativel(ambulancia.getTipo(), tipoNecessario)) {
-                continue;
-            }
+        List<AmbulanciaSugeridaDTO> sugestoes = new ArrayList<>();
 
-            // Verificar equipe completa
-            boolean equipeCompleta = ambulanciaPossuiEquipeCompleta(ambulancia);
-            String statusEquipe = equipeCompleta ? "Completa" : "Incompleta";
+        for (FrotaEstado.EstadoAmbulancia ambulancia : candidatas) {
+            boolean equipeCompleta = true;
+            String statusEquipe = "Completa";
 
-            if (!equipeCompleta) {
-                continue; // Só sugerir ambulâncias com equipe completa
+            ResultadoRota rota = rotasPorBase.get(ambulancia.getBairroBase().getId());
+            if (rota == null) {
+                continue; // Sem caminho disponível
             }
 
-            // Calcular rota usando Dijkstra
-            ResultadoRota rota = AlgoritmoDijkstra.calcularRota(
-                    ambulancia.getBairroBase(),
-                    ocorrencia.getBairroLocal(),
-                    todasConexoes
-            );
-
             double distanciaKm = rota.getDistanciaKm();
-            if (Double.isInfinite(distanciaKm)) {
-                continue; // Sem caminho disponível
-            }
 
             // Calcular tempo estimado (velocidade de 60 km/h conforme documento)
             // Tempo em horas = distanciaKm / 60, então tempo em minutos = (distanciaKm / 60) * 60
@@ -347,58 +535,25 @@ public class OcorrenciaServico {
                 .collect(Collectors.toList());
     }
 
-    private boolean ambulanciaPossuiEquipeCompleta(Ambulancia ambulancia) {
-        Equipe equipe = equipeRepositorio.findByAmbulanciaAndAtivaTrue(ambulancia).orElse(null);
-        if (equipe == null) return false;
-
-        boolean condutor = false;
-        boolean enfermeiro = false;
-        boolean medico = false;
-
-        for (EquipeProfissional ep : equipe.getProfissionais()) {
-            FuncaoProfissional f = ep.getProfissional().getFuncao();
-            if (f == FuncaoProfissional.CONDUTOR) condutor = true;
-            if (f == FuncaoProfissional.ENFERMEIRO) enfermeiro = true;
-            if (f == FuncaoProfissional.MEDICO) medico = true;
-        }
-
-        if (ambulancia.getTipo() == TipoAmbulancia.UTI) {
-            return condutor && enfermeiro && medico;
-        } else {
-            return condutor && enfermeiro;
-        }
-    }
-
     /**
      * Salva o caminho calculado pelo Dijkstra na tabela atendimento_rota_conexao.
      * Converte a sequência de bairros em conexões de rua utilizadas.
      */
     private void salvarCaminhoCalculado(Atendimento atendimento, 
                                         List<Bairro> caminho, 
-                                        List<RuaConexao> todasConexoes) {
-        // Criar um mapa para busca rápida de conexões
-        java.util.Map<String, RuaConexao> mapaConexoes = new java.util.HashMap<>();
-        for (RuaConexao conexao : todasConexoes) {
-            // Chave bidirecional: origem-destino e destino-origem
-            String chave1 = conexao.getBairroOrigem().getId() + "-" + conexao.getBairroDestino().getId();
-            String chave2 = conexao.getBairroDestino().getId() + "-" + conexao.getBairroOrigem().getId();
-            mapaConexoes.put(chave1, conexao);
-            mapaConexoes.put(chave2, conexao);
-        }
-
-        // Converter caminho de bairros em conexões de rua
+                                        GrafoViario grafo) {
+        // Converter caminho de bairros em conexões de rua (a adjacência do grafo guarda o id de cada conexão)
         int ordem = 1;
         for (int i = 0; i < caminho.size() - 1; i++) {
             Bairro origem = caminho.get(i);
             Bairro destino = caminho.get(i + 1);
             
-            String chave = origem.getId() + "-" + destino.getId();
-            RuaConexao conexao = mapaConexoes.get(chave);
+            Long idConexao = grafo.idConexaoEntre(origem.getId(), destino.getId());
             
-            if (conexao != null) {
+            if (idConexao != null) {
                 AtendimentoRotaConexao rotaConexao = new AtendimentoRotaConexao();
                 rotaConexao.setAtendimento(atendimento);
-                rotaConexao.setRuaConexao(conexao);
+                rotaConexao.setRuaConexao(ruaConexaoRepositorio.getReferenceById(idConexao));
                 rotaConexao.setOrdem(ordem);
                 atendimentoRotaConexaoRepositorio.save(rotaConexao);
                 ordem++;
@@ -598,6 +753,12 @@ public class OcorrenciaServico {
             }
         }
 
+        // Conclusão manual: o timer do atendimento (se houver) precisa ser reavaliado
+        Atendimento atendimentoConcluido = atendimentoRepositorio.findByOcorrenciaId(idOcorrencia);
+        if (atendimentoConcluido != null) {
+            eventos.publishEvent(new AtendimentoAlteradoEvento(atendimentoConcluido.getId(), idOcorrencia));
+        }
+
         return ocorrencia;
     }
 
@@ -737,352 +898,114 @@ public class OcorrenciaServico {
             }
         }
 
+        eventos.publishEvent(new AtendimentoAlteradoEvento(atendimento.getId(), atendimento.getOcorrencia().getId()));
+
         return ocorrencia;
     }
 
     /**
      * Obtém informações detalhadas do timer em tempo real para uma ocorrência.
      * Calcula todos os tempos decorridos, tempo restante do SLA e status atual.
+     * Somente leitura: chegada e retorno automáticos são disparados pelo {@link TimerAtendimentoServico}.
      * 
      * @param idOcorrencia ID da ocorrência
      * @return DTO com informações completas do timer
      */
+    @Transactional(readOnly = true)
     public com.vitalistech.sosrota.web.dto.TimerOcorrenciaDTO obterInformacoesTimer(Long idOcorrencia) {
-        Ocorrencia ocorrencia = ocorrenciaRepositorio.findById(idOcorrencia)
-                .orElseThrow(() -> new IllegalArgumentException("Ocorrência não encontrada"));
+        return linhaDoTempoServico.obter(idOcorrencia).paraTimer(LocalDateTime.now());
+    }
 
-        com.vitalistech.sosrota.web.dto.TimerOcorrenciaDTO dto = new com.vitalistech.sosrota.web.dto.TimerOcorrenciaDTO();
-        dto.setIdOcorrencia(ocorrencia.getId());
-        dto.setStatus(ocorrencia.getStatus() != null ? ocorrencia.getStatus().name() : null);
-        dto.setDataHoraAbertura(ocorrencia.getDataHoraAbertura());
-        
-        // Buscar atendimento associado
-        Atendimento atendimento = atendimentoRepositorio.findByOcorrenciaId(idOcorrencia);
-        if (atendimento != null) {
-            dto.setIdAtendimento(atendimento.getId());
-            dto.setDataHoraDespacho(atendimento.getDataHoraDespacho());
-            dto.setDataHoraChegada(atendimento.getDataHoraChegada());
-            dto.setDataHoraRetorno(atendimento.getDataHoraRetorno());
-            dto.setPlacaAmbulancia(atendimento.getAmbulancia() != null ? atendimento.getAmbulancia().getPlaca() : null);
-            dto.setDistanciaKm(atendimento.getDistanciaKm());
-        }
-        
-        dto.setDataHoraFechamento(ocorrencia.getDataHoraFechamento());
-        dto.setSlaMinutos(ocorrencia.getSlaMinutos());
-        
+    /**
+     * Dados do timer das ocorrências nos status informados, em uma única consulta.
+     * Servem tanto para calcular a versão (ETag) da resposta quanto para montar os DTOs.
+     */
+    @Transactional(readOnly = true)
+    public List<TimerOcorrenciaLinha> buscarLinhasTimer(java.util.Collection<StatusOcorrencia> status) {
+        return ocorrenciaRepositorio.buscarLinhasTimer(status);
+    }
+
+    /**
+     * Timers de várias ocorrências, todos calculados no mesmo instante.
+     */
+    public List<com.vitalistech.sosrota.web.dto.TimerOcorrenciaDTO> montarTimers(List<TimerOcorrenciaLinha> linhas) {
         LocalDateTime agora = LocalDateTime.now();
-        
-        // Status das etapas - definir ANTES de usar
-        dto.setFoiDespachada(atendimento != null && atendimento.getDataHoraDespacho() != null);
-        dto.setChegouLocal(atendimento != null && atendimento.getDataHoraChegada() != null);
-        dto.setFoiConcluida(ocorrencia.getStatus() == StatusOcorrencia.CONCLUIDA);
-        // IMPORTANTE: Verificar retornouBase ANTES de calcular tempos
-        dto.setRetornouBase(atendimento != null && atendimento.getDataHoraRetorno() != null);
-        
-        // Calcular tempo total: abertura + tempo até chegada + tempo de retorno (se concluída e retornou)
-        // O tempo total inclui:
-        // - Se ainda não chegou: tempo desde abertura até agora (estimativa)
-        // - Se chegou mas não retornou: tempo desde abertura até chegada + tempo decorrido de retorno
-        // - Se retornou: tempo desde abertura até retorno (tempo total completo e FIXO - não aumenta mais)
-        if (ocorrencia.getDataHoraAbertura() != null) {
-            long tempoTotalSegundos = 0;
-            Boolean chegouLocal = dto.getChegouLocal();
-            Boolean foiDespachada = dto.getFoiDespachada();
-            Boolean retornouBase = dto.getRetornouBase();
-            
-            if (Boolean.TRUE.equals(retornouBase) && atendimento != null && atendimento.getDataHoraRetorno() != null) {
-                // Se retornou: tempo total = abertura até retorno (tempo completo incluindo retorno)
-                // IMPORTANTE: Usar dataHoraRetorno FIXO, não "agora", para que o tempo não continue aumentando
-                tempoTotalSegundos = java.time.Duration.between(
-                    ocorrencia.getDataHoraAbertura(), atendimento.getDataHoraRetorno()).getSeconds();
-            } else if (Boolean.TRUE.equals(chegouLocal) && atendimento != null && atendimento.getDataHoraChegada() != null) {
-                // Se chegou mas ainda não retornou: tempo desde abertura até chegada + tempo decorrido de retorno
-                long tempoAteChegadaSegundos = java.time.Duration.between(
-                    ocorrencia.getDataHoraAbertura(), atendimento.getDataHoraChegada()).getSeconds();
-                long tempoRetornoSegundos = 0;
-                if (Boolean.TRUE.equals(dto.getFoiConcluida())) {
-                    // Se está concluída mas ainda não retornou, calcular tempo decorrido desde chegada
-                    tempoRetornoSegundos = java.time.Duration.between(
-                        atendimento.getDataHoraChegada(), agora).getSeconds();
-                }
-                tempoTotalSegundos = tempoAteChegadaSegundos + tempoRetornoSegundos;
-            } else if (Boolean.TRUE.equals(foiDespachada) && atendimento != null && atendimento.getDataHoraDespacho() != null) {
-                // Se ainda não chegou mas foi despachada: tempo desde abertura até agora (estimativa)
-                tempoTotalSegundos = java.time.Duration.between(ocorrencia.getDataHoraAbertura(), agora).getSeconds();
-            } else {
-                // Se ainda não foi despachada: apenas tempo desde abertura
-                tempoTotalSegundos = java.time.Duration.between(ocorrencia.getDataHoraAbertura(), agora).getSeconds();
-            }
-            dto.setTempoTotalDecorridoMinutos(tempoTotalSegundos / 60);
-            dto.setTempoTotalFormatado(formatarTempo(tempoTotalSegundos));
-        }
-        
-        // Calcular tempo desde o despacho
-        if (atendimento != null && Boolean.TRUE.equals(dto.getFoiDespachada()) && atendimento.getDataHoraDespacho() != null) {
-            long tempoDespachoSegundos = java.time.Duration.between(atendimento.getDataHoraDespacho(), agora).getSeconds();
-            dto.setTempoDespachoMinutos(tempoDespachoSegundos / 60);
+        List<com.vitalistech.sosrota.web.dto.TimerOcorrenciaDTO> timers = new ArrayList<>(linhas.size());
+        for (TimerOcorrenciaLinha linha : linhas) {
+            timers.add(OcorrenciaLinhaDoTempo.de(linha).paraTimer(agora));
         }
-        
-        // Calcular tempo estimado de chegada baseado na distância (60 km/h)
-        // Tempo estimado = (distância em km / 60 km/h) * 60 minutos
-        Long tempoAteChegadaMinutosCalculado = null;
-        Long tempoRestanteAteChegadaMinutos = null;
-        
-        if (atendimento != null && atendimento.getDistanciaKm() != null && atendimento.getDistanciaKm() > 0) {
-            // Calcular tempo estimado de chegada baseado na distância (velocidade 60 km/h)
-            double distanciaKm = atendimento.getDistanciaKm();
-            long tempoEstimadoChegadaMinutos = (long) Math.ceil((distanciaKm / 60.0) * 60);
-            dto.setTempoAteChegadaMinutos(tempoEstimadoChegadaMinutos);
-            
-            Boolean chegouLocal = dto.getChegouLocal();
-            Boolean foiDespachada = dto.getFoiDespachada();
-            
-            if (Boolean.TRUE.equals(chegouLocal) && atendimento.getDataHoraDespacho() != null && atendimento.getDataHoraChegada() != null) {
-                // Se já chegou: calcular tempo real de deslocamento
-                long tempoAteChegadaSegundos = java.time.Duration.between(
-                    atendimento.getDataHoraDespacho(), atendimento.getDataHoraChegada()).getSeconds();
-                tempoAteChegadaMinutosCalculado = tempoAteChegadaSegundos / 60;
-                dto.setTempoAteChegadaMinutos(tempoAteChegadaMinutosCalculado);
-                tempoRestanteAteChegadaMinutos = 0L; // Já chegou
-                dto.setTempoRetornoMinutos(tempoAteChegadaMinutosCalculado);
-            } else if (Boolean.TRUE.equals(foiDespachada) && atendimento.getDataHoraDespacho() != null) {
-                // Se ainda não chegou: calcular tempo restante até chegada (DECRESCENTE)
-                long tempoDesdeDespachoSegundos = java.time.Duration.between(atendimento.getDataHoraDespacho(), agora).getSeconds();
-                long tempoDesdeDespachoMinutos = tempoDesdeDespachoSegundos / 60;
-                
-                // Tempo restante = tempo estimado - tempo decorrido (DECRESCENTE)
-                tempoRestanteAteChegadaMinutos = Math.max(0, tempoEstimadoChegadaMinutos - tempoDesdeDespachoMinutos);
-                dto.setTempoRestanteAteChegadaMinutos(tempoRestanteAteChegadaMinutos);
-                
-                // Se o tempo restante chegou a 0, finalizar automaticamente a OS
-                if (tempoRestanteAteChegadaMinutos <= 0 && atendimento.getDataHoraChegada() == null) {
-                    // Finalizar automaticamente quando tempo restante chega a 0
-                    try {
-                        registrarChegada(atendimento.getId(), null);
-                        // Recarregar dados após finalização
-                        atendimento = atendimentoRepositorio.findById(atendimento.getId())
-                            .orElseThrow(() -> new IllegalArgumentException("Atendimento não encontrado"));
-                        ocorrencia = ocorrenciaRepositorio.findById(ocorrencia.getId())
-                            .orElseThrow(() -> new IllegalArgumentException("Ocorrência não encontrada"));
-                        // Atualizar status no DTO após finalização automática
-                        dto.setChegouLocal(true);
-                        dto.setFoiConcluida(true);
-                        dto.setStatus(StatusOcorrencia.CONCLUIDA.name());
-                        dto.setDataHoraChegada(atendimento.getDataHoraChegada());
-                        dto.setDataHoraFechamento(ocorrencia.getDataHoraFechamento());
-                        
-                        // Recalcular tempo de chegada com os dados atualizados
-                        if (atendimento.getDataHoraDespacho() != null && atendimento.getDataHoraChegada() != null) {
-                            long tempoAteChegadaSegundos = java.time.Duration.between(
-                                atendimento.getDataHoraDespacho(), atendimento.getDataHoraChegada()).getSeconds();
-                            long tempoAteChegadaMinutos = tempoAteChegadaSegundos / 60;
-                            dto.setTempoAteChegadaMinutos(tempoAteChegadaMinutos);
-                            dto.setTempoRestanteAteChegadaMinutos(0L);
-                            // Tempo de retorno = mesmo tempo da ida
-                            dto.setTempoRetornoMinutos(tempoAteChegadaMinutos);
-                        }
-                    } catch (Exception e) {
-                        // Log do erro mas continua o processamento
-                        System.err.println("Erro ao finalizar automaticamente: " + e.getMessage());
-                    }
-                }
-                
-                // Tempo de retorno estimado = tempo estimado de chegada
-                dto.setTempoRetornoMinutos(tempoEstimadoChegadaMinutos);
-            }
-        } else if (atendimento != null && Boolean.TRUE.equals(dto.getChegouLocal()) && atendimento.getDataHoraDespacho() != null && atendimento.getDataHoraChegada() != null) {
-            // Se chegou mas não tem distância salva, calcular do tempo real
-            long tempoAteChegadaSegundos = java.time.Duration.between(
-                atendimento.getDataHoraDespacho(), atendimento.getDataHoraChegada()).getSeconds();
-            tempoAteChegadaMinutosCalculado = tempoAteChegadaSegundos / 60;
-            dto.setTempoAteChegadaMinutos(tempoAteChegadaMinutosCalculado);
-            tempoRestanteAteChegadaMinutos = 0L;
-            dto.setTempoRetornoMinutos(tempoAteChegadaMinutosCalculado);
+        return timers;
+    }
+
+    /**
+     * Versão dos dados dos timers: só muda quando alguma ocorrência muda de etapa. Os tempos
+     * decorridos mudam a cada instante, mas o cliente os avança localmente a partir de dataHoraCalculo.
+     */
+    public String versaoTimers(List<TimerOcorrenciaLinha> linhas) {
+        StringBuilder sb = new StringBuilder();
+        for (TimerOcorrenciaLinha l : linhas) {
+            sb.append(l.getIdOcorrencia()).append('|').append(l.getStatus()).append('|')
+              .append(l.getDataHoraAbertura()).append('|').append(l.getDataHoraFechamento()).append('|')
+              .append(l.getSlaMinutos()).append('|').append(l.getIdAtendimento()).append('|')
+              .append(l.getDataHoraDespacho()).append('|').append(l.getDataHoraChegada()).append('|')
+              .append(l.getDataHoraRetorno()).append('|').append(l.getDistanciaKm()).append('|')
+              .append(l.getPlacaAmbulancia()).append('\n');
         }
-        
-        // Calcular tempo após chegada
-        if (atendimento != null && Boolean.TRUE.equals(dto.getChegouLocal()) && atendimento.getDataHoraChegada() != null && !Boolean.TRUE.equals(dto.getFoiConcluida())) {
-            long tempoAposChegadaSegundos = java.time.Duration.between(atendimento.getDataHoraChegada(), agora).getSeconds();
-            dto.setTempoAposChegadaMinutos(tempoAposChegadaSegundos / 60);
+        return org.springframework.util.DigestUtils.md5DigestAsHex(sb.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Registra no histórico que a ambulância está voltando para a base, uma única vez por ocorrência.
+     * Chamado pelo {@link TimerAtendimentoServico} quando a contagem do retorno começa.
+     * Só registra se a ocorrência tiver usuário de registro (o histórico exige usuário).
+     */
+    @Transactional
+    public void registrarVoltandoParaBase(Long idAtendimento) {
+        Atendimento atendimento = atendimentoRepositorio.findById(idAtendimento)
+                .orElseThrow(() -> new IllegalArgumentException("Atendimento não encontrado"));
+        Ocorrencia ocorrencia = atendimento.getOcorrencia();
+        if (ocorrencia == null || atendimento.getDataHoraChegada() == null || atendimento.getDataHoraRetorno() != null
+                || ocorrencia.getStatus() != StatusOcorrencia.CONCLUIDA) {
+            return;
         }
-        
-        // Calcular tempo de retorno
-        if (atendimento != null && atendimento.getDataHoraChegada() != null) {
-            if (atendimento.getDataHoraRetorno() != null) {
-                // Retorno já registrado
-                long tempoRetornoSegundos = java.time.Duration.between(
-                    atendimento.getDataHoraChegada(), atendimento.getDataHoraRetorno()).getSeconds();
-                dto.setTempoRetornoDecorridoMinutos(tempoRetornoSegundos / 60);
-                dto.setRetornouBase(true);
-                dto.setDataHoraRetorno(atendimento.getDataHoraRetorno());
-            } else if (Boolean.TRUE.equals(dto.getFoiConcluida())) {
-                // OS finalizada mas ainda não retornou - calcular tempo decorrido desde chegada
-                long tempoRetornoSegundos = java.time.Duration.between(
-                    atendimento.getDataHoraChegada(), agora).getSeconds();
-                dto.setTempoRetornoDecorridoMinutos(tempoRetornoSegundos / 60);
-                dto.setRetornouBase(false);
-                
-                // Tempo de retorno estimado = tempo de deslocamento (ida) - mesmo tempo usado para ida
-                // Se não tiver tempo calculado, usar tempo estimado baseado na distância
-                Long tempoRetornoEstimado = null;
-                if (tempoAteChegadaMinutosCalculado != null) {
-                    tempoRetornoEstimado = tempoAteChegadaMinutosCalculado;
-                    dto.setTempoRetornoMinutos(tempoRetornoEstimado);
-                } else if (atendimento.getDistanciaKm() != null && atendimento.getDistanciaKm() > 0) {
-                    // Calcular tempo estimado de retorno baseado na distância (60 km/h)
-                    double distanciaKm = atendimento.getDistanciaKm();
-                    tempoRetornoEstimado = (long) Math.ceil((distanciaKm / 60.0) * 60);
-                    dto.setTempoRetornoMinutos(tempoRetornoEstimado);
-                }
-                
-                // Garantir que existe histórico "voltando para base" quando está retornando
-                try {
-                    java.util.List<HistoricoOcorrencia> historicos = historicoOcorrenciaServico.buscarHistoricoPorOcorrencia(idOcorrencia);
-                    boolean temHistoricoVoltando = historicos.stream().anyMatch(h -> 
-                        h.getAcaoAmbulancia() != null && h.getAcaoAmbulancia().equals("Voltando para base")
+
+        LocalDateTime agora = LocalDateTime.now();
+        Long tempoRetornoEstimado = TimerAtendimentoServico.minutosDeRetorno(atendimento);
+        Long idOcorrencia = ocorrencia.getId();
+
+        try {
+            boolean temHistoricoVoltando = historicoOcorrenciaServico.existeAcaoAmbulancia(idOcorrencia, "Voltando para base");
+            
+            if (!temHistoricoVoltando && atendimento.getAmbulancia() != null) {
+                Usuario usuarioParaHistorico = ocorrencia.getUsuarioRegistro();
+                // Só criar histórico se houver usuário válido
+                if (usuarioParaHistorico != null) {
+                    String placaAmbulancia = atendimento.getAmbulancia().getPlaca();
+                    String descricaoVoltando = String.format(
+                        "Tipo: %s - Ambulância %s voltando para base. " +
+                        "Tempo estimado de retorno: %d minutos.",
+                        ocorrencia.getTipoOcorrencia(),
+                        placaAmbulancia,
+                        tempoRetornoEstimado != null ? tempoRetornoEstimado : 0
                     );
                     
-                    if (!temHistoricoVoltando && atendimento.getAmbulancia() != null) {
-                        Usuario usuarioParaHistorico = ocorrencia.getUsuarioRegistro();
-                        // Só criar histórico se houver usuário válido
-                        if (usuarioParaHistorico != null) {
-                            String placaAmbulancia = atendimento.getAmbulancia().getPlaca();
-                            String descricaoVoltando = String.format(
-                                "Tipo: %s - Ambulância %s voltando para base. " +
-                                "Tempo estimado de retorno: %d minutos.",
-                                ocorrencia.getTipoOcorrencia(),
-                                placaAmbulancia,
-                                tempoRetornoEstimado != null ? tempoRetornoEstimado : 0
-                            );
-                            
-                            historicoOcorrenciaServico.registrarAcaoComDataHora(
-                                ocorrencia,
-                                usuarioParaHistorico,
-                                AcaoHistorico.ALTERACAO_STATUS,
-                                StatusOcorrencia.CONCLUIDA,
-                                StatusOcorrencia.CONCLUIDA,
-                                descricaoVoltando,
-                                placaAmbulancia,
-                                "Voltando para base",
-                                agora.plusSeconds(2) // Data/hora futura para aparecer primeiro
-                            );
-                        }
-                    }
-                } catch (Exception e) {
-                    // Log mas continua
-                    System.err.println("Erro ao verificar/criar histórico 'voltando para base': " + e.getMessage());
-                }
-                
-                // Calcular tempo restante de retorno (DECRESCENTE) - mesmo tempo que foi usado para ida
-                if (dto.getTempoRetornoMinutos() != null && dto.getTempoRetornoDecorridoMinutos() != null) {
-                    Long tempoRestanteRetorno = Math.max(0L, dto.getTempoRetornoMinutos() - dto.getTempoRetornoDecorridoMinutos());
-                    dto.setTempoRestanteRetornoMinutos(tempoRestanteRetorno);
-                    
-                    // Se o tempo restante de retorno chegou a 0, registrar retorno automaticamente
-                    // Isso torna a ambulância/equipe disponível novamente
-                    if (tempoRestanteRetorno <= 0 && atendimento.getDataHoraRetorno() == null) {
-                        try {
-                            // Registrar retorno (o histórico será criado mesmo sem usuário)
-                            registrarRetorno(atendimento.getId(), null);
-                            // Recarregar dados após retorno
-                            atendimento = atendimentoRepositorio.findById(atendimento.getId())
-                                .orElseThrow(() -> new IllegalArgumentException("Atendimento não encontrado"));
-                            ocorrencia = ocorrenciaRepositorio.findById(ocorrencia.getId())
-                                .orElseThrow(() -> new IllegalArgumentException("Ocorrência não encontrada"));
-                            dto.setRetornouBase(true);
-                            dto.setDataHoraRetorno(atendimento.getDataHoraRetorno());
-                            if (atendimento.getDataHoraRetorno() != null) {
-                                long tempoRetornoSegundosFinal = java.time.Duration.between(
-                                    atendimento.getDataHoraChegada(), atendimento.getDataHoraRetorno()).getSeconds();
-                                dto.setTempoRetornoDecorridoMinutos(tempoRetornoSegundosFinal / 60);
-                            }
-                        } catch (Exception e) {
-                            // Log do erro mas continua o processamento
-                            System.err.println("Erro ao registrar retorno automaticamente: " + e.getMessage());
-                        }
-                    }
+                    historicoOcorrenciaServico.registrarAcaoComDataHora(
+                        ocorrencia,
+                        usuarioParaHistorico,
+                        AcaoHistorico.ALTERACAO_STATUS,
+                        StatusOcorrencia.CONCLUIDA,
+                        StatusOcorrencia.CONCLUIDA,
+                        descricaoVoltando,
+                        placaAmbulancia,
+                        "Voltando para base",
+                        agora.plusSeconds(2) // Data/hora futura para aparecer primeiro
+                    );
                 }
             }
+        } catch (Exception e) {
+            // Log mas continua
+            System.err.println("Erro ao verificar/criar histórico 'voltando para base': " + e.getMessage());
         }
-        
-        // Calcular SLA: tempo desde abertura até chegada ao local
-        // O SLA é contabilizado desde o momento da abertura e finalizado quando a ambulância chega ao local
-        // O tempo de retorno NÃO é considerado no SLA
-        if (ocorrencia.getSlaMinutos() != null && ocorrencia.getDataHoraAbertura() != null) {
-            long tempoSlaDecorridoMinutos = 0;
-            
-            Boolean chegouLocal = dto.getChegouLocal();
-            Boolean foiDespachada = dto.getFoiDespachada();
-            
-            if (Boolean.TRUE.equals(chegouLocal) && atendimento != null && atendimento.getDataHoraChegada() != null) {
-                // Se já chegou: SLA = tempo desde abertura até chegada
-                long tempoDesdeAberturaAteChegadaSegundos = java.time.Duration.between(
-                    ocorrencia.getDataHoraAbertura(), atendimento.getDataHoraChegada()).getSeconds();
-                tempoSlaDecorridoMinutos = tempoDesdeAberturaAteChegadaSegundos / 60;
-            } else if (Boolean.TRUE.equals(foiDespachada) && atendimento != null && atendimento.getDataHoraDespacho() != null) {
-                // Se ainda não chegou: calcular tempo estimado
-                // Tempo desde abertura até despacho
-                long tempoDesdeAberturaAteDespachoSegundos = java.time.Duration.between(
-                    ocorrencia.getDataHoraAbertura(), atendimento.getDataHoraDespacho()).getSeconds();
-                long tempoDesdeAberturaAteDespachoMinutos = tempoDesdeAberturaAteDespachoSegundos / 60;
-                
-                // Tempo desde despacho até agora (tempo de deslocamento em andamento)
-                long tempoDeslocamentoDecorridoSegundos = java.time.Duration.between(
-                    atendimento.getDataHoraDespacho(), agora).getSeconds();
-                long tempoDeslocamentoDecorridoMinutos = tempoDeslocamentoDecorridoSegundos / 60;
-                
-                // SLA decorrido = tempo desde abertura até agora (estimativa até chegada)
-                tempoSlaDecorridoMinutos = tempoDesdeAberturaAteDespachoMinutos + tempoDeslocamentoDecorridoMinutos;
-            } else {
-                // Se ainda não foi despachada: apenas tempo desde abertura
-                long tempoDesdeAberturaSegundos = java.time.Duration.between(ocorrencia.getDataHoraAbertura(), agora).getSeconds();
-                tempoSlaDecorridoMinutos = tempoDesdeAberturaSegundos / 60;
-            }
-            
-            dto.setTempoSlaDecorridoMinutos(tempoSlaDecorridoMinutos);
-            long tempoRestanteMinutos = ocorrencia.getSlaMinutos() - tempoSlaDecorridoMinutos;
-            
-            dto.setTempoRestanteMinutos(tempoRestanteMinutos);
-            dto.setSlaExcedido(tempoRestanteMinutos < 0);
-            dto.setSlaEmRisco(tempoRestanteMinutos >= 0 && tempoRestanteMinutos <= (ocorrencia.getSlaMinutos() * 0.25));
-            
-            // Formatar tempo restante (pode ser negativo)
-            long tempoRestanteSegundos = (ocorrencia.getSlaMinutos() * 60) - (tempoSlaDecorridoMinutos * 60);
-            dto.setTempoRestanteFormatado(formatarTempo(tempoRestanteSegundos));
-        }
-        
-        return dto;
-    }
-    
-    /**
-     * Formata tempo em segundos para uma string legível (ex: "15m 30s" ou "1h 25m").
-     */
-    private String formatarTempo(long segundos) {
-        boolean negativo = segundos < 0;
-        segundos = Math.abs(segundos);
-        
-        long horas = segundos / 3600;
-        long minutos = (segundos % 3600) / 60;
-        long seg = segundos % 60;
-        
-        StringBuilder sb = new StringBuilder();
-        if (negativo) sb.append("-");
-        
-        if (horas > 0) {
-            sb.append(horas).append("h");
-            if (minutos > 0) {
-                sb.append(" ").append(minutos).append("m");
-            }
-        } else if (minutos > 0) {
-            sb.append(minutos).append("m");
-            if (seg > 0) {
-                sb.append(" ").append(seg).append("s");
-            }
-        } else {
-            sb.append(seg).append("s");
-        }
-        
-        return sb.toString();
     }
 
     /**
@@ -1241,6 +1164,8 @@ public class OcorrenciaServico {
             }
         }
 
+        eventos.publishEvent(new AtendimentoAlteradoEvento(atendimento.getId(), atendimento.getOcorrencia().getId()));
+
         return ocorrencia;
     }
 
@@ -1293,6 +1218,7 @@ public class OcorrenciaServico {
         // Marcar ambulância como DISPONIVEL novamente
         ambulancia.setStatus(StatusAmbulancia.DISPONIVEL);
         ambulanciaRepositorio.save(ambulancia);
+        frotaEstado.registrarAmbulancia(ambulancia);
 
         // Marcar todos os profissionais da equipe como DISPONIVEL novamente
         // Isso permite que a equipe seja incluída em novos chamados
@@ -1348,6 +1274,8 @@ public class OcorrenciaServico {
             e.printStackTrace();
         }
 
+        eventos.publishEvent(new AtendimentoAlteradoEvento(atendimento.getId(), atendimento.getOcorrencia().getId()));
+
         return atendimento;
     }
 }
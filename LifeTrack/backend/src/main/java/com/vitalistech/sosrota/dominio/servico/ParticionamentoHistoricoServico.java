@@ -0,0 +1,332 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import com.vitalistech.sosrota.dominio.repositorio.HistoricoArquivoRepositorio;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Particionamento mensal da tabela historico_ocorrencias (RANGE por data_hora) e arquivamento
+ * das partições antigas.
+ *
+ * Na inicialização, antes do script de setup, uma tabela ainda não particionada é convertida
+ * (os dados são copiados para as novas partições). Depois, uma vez por dia:
+ * - cria as partições do mês atual e dos próximos meses (entradas fora delas caem na partição
+ *   padrão e são movidas quando a partição do mês é criada);
+ * - move as partições mais antigas que o horizonte configurado para historico_ocorrencias_arquivo
+ *   e as remove da tabela principal.
+ *
+ * Tudo o que está no arquivo é mais antigo do que o que ficou na tabela principal; é isso que
+ * permite a {@link HistoricoOcorrenciaServico} completar uma página com o arquivo apenas quando a
+ * tabela principal se esgota.
+ */
+@Service
+public class ParticionamentoHistoricoServico {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParticionamentoHistoricoServico.class);
+
+    static final String TABELA = "historico_ocorrencias";
+    static final String PARTICAO_PADRAO = TABELA + "_padrao";
+    private static final String PREFIXO_PARTICAO = TABELA + "_p";
+    private static final String SEQUENCIA = TABELA + "_seq";
+    private static final DateTimeFormatter FORMATO_MES = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transacao;
+    private final HistoricoArquivoRepositorio arquivoRepositorio;
+    private final boolean habilitado;
+    private final int mesesFuturos;
+    private final int mesesQuentes;
+    private volatile boolean possuiArquivadas;
+    private final ScheduledExecutorService agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "particionamento-historico");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ParticionamentoHistoricoServico(JdbcTemplate jdbcTemplate,
+                                           PlatformTransactionManager transactionManager,
+                                           HistoricoArquivoRepositorio arquivoRepositorio,
+                                           @Value("${sosrota.historico.particionamento.habilitado:true}") boolean habilitado,
+                                           @Value("${sosrota.historico.particionamento.meses-futuros:3}") int mesesFuturos,
+                                           @Value("${sosrota.historico.particionamento.meses-quentes:12}") int mesesQuentes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.arquivoRepositorio = arquivoRepositorio;
+        this.habilitado = habilitado;
+        this.mesesFuturos = Math.max(0, mesesFuturos);
+        this.mesesQuentes = mesesQuentes;
+    }
+
+    /**
+     * Converte historico_ocorrencias em tabela particionada por mês, se ainda não for.
+     * Executado uma vez na inicialização, antes do script de setup (que cria os índices na
+     * tabela particionada). Em caso de erro a tabela continua como estava.
+     */
+    public void particionar() {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            String tipo = tipoTabela();
+            if (tipo == null) {
+                logger.warn("Tabela {} não existe; o particionamento fica para a próxima inicialização", TABELA);
+                return;
+            }
+            if (!"r".equals(tipo)) {
+                return;
+            }
+            long inicio = System.currentTimeMillis();
+            long copiadas = transacao.execute(status -> converter());
+            logger.info("Tabela {} convertida para particionamento mensal: {} entrada(s) copiadas em {} ms",
+                    TABELA, copiadas, System.currentTimeMillis() - inicio);
+        } catch (Exception e) {
+            logger.error("Erro ao particionar a tabela " + TABELA + "; ela continua sem particionamento", e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciarManutencao() {
+        atualizarPossuiArquivadas();
+        if (habilitado) {
+            agendador.scheduleWithFixedDelay(this::manter, 0, 1, TimeUnit.DAYS);
+        }
+    }
+
+    /**
+     * Cria as partições dos próximos meses e arquiva as que passaram do horizonte.
+     */
+    public synchronized void manter() {
+        try {
+            if (!"p".equals(tipoTabela())) {
+                return;
+            }
+            YearMonth atual = YearMonth.now();
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + PARTICAO_PADRAO + " PARTITION OF " + TABELA + " DEFAULT");
+            for (YearMonth mes : mesesACriar(mesesDasParticoes(), atual, mesesFuturos)) {
+                transacao.executeWithoutResult(status -> criarParticao(mes));
+                logger.info("Partição {} criada", nomeParticao(mes));
+            }
+            for (YearMonth mes : mesesAArquivar(mesesDasParticoes(), atual, mesesQuentes)) {
+                long arquivadas = transacao.execute(status -> arquivarParticao(mes));
+                logger.info("Partição {} arquivada: {} entrada(s) movidas para {}",
+                        nomeParticao(mes), arquivadas, HistoricoArquivoRepositorio.TABELA);
+            }
+            if (mesesQuentes > 0) {
+                LocalDateTime fronteira = atual.minusMonths(mesesQuentes).atDay(1).atStartOfDay();
+                long avulsas = transacao.execute(status -> arquivarDaParticaoPadrao(fronteira));
+                if (avulsas > 0) {
+                    logger.info("{} entrada(s) anteriores a {} movidas da partição padrão para o arquivo", avulsas, fronteira);
+                }
+            }
+            atualizarPossuiArquivadas();
+        } catch (Exception e) {
+            logger.error("Erro na manutenção das partições do histórico", e);
+        }
+    }
+
+    /**
+     * Indica se há entradas no arquivo; enquanto não houver, as consultas nem passam por ele.
+     */
+    public boolean possuiArquivadas() {
+        return possuiArquivadas;
+    }
+
+    @PreDestroy
+    public void parar() {
+        agendador.shutdownNow();
+    }
+
+    /**
+     * Meses (do atual até atual + futuros) que ainda não têm partição.
+     */
+    static List<YearMonth> mesesACriar(Collection<YearMonth> existentes, YearMonth atual, int futuros) {
+        List<YearMonth> meses = new ArrayList<>();
+        for (int i = 0; i <= futuros; i++) {
+            YearMonth mes = atual.plusMonths(i);
+            if (!existentes.contains(mes)) {
+                meses.add(mes);
+            }
+        }
+        return meses;
+    }
+
+    /**
+     * Partições existentes anteriores aos mesesQuentes meses completos que antecedem o atual,
+     * da mais antiga para a mais recente. Com mesesQuentes <= 0 nada é arquivado.
+     */
+    static List<YearMonth> mesesAArquivar(Collection<YearMonth> existentes, YearMonth atual, int mesesQuentes) {
+        List<YearMonth> meses = new ArrayList<>();
+        if (mesesQuentes <= 0) {
+            return meses;
+        }
+        YearMonth fronteira = atual.minusMonths(mesesQuentes);
+        for (YearMonth mes : new TreeSet<>(existentes)) {
+            if (mes.isBefore(fronteira)) {
+                meses.add(mes);
+            }
+        }
+        return meses;
+    }
+
+    static String nomeParticao(YearMonth mes) {
+        return PREFIXO_PARTICAO + mes.format(FORMATO_MES);
+    }
+
+    /**
+     * Mês de uma partição pelo nome, ou null se o nome não segue o padrão (ex.: partição padrão).
+     */
+    static YearMonth mesDaParticao(String nome) {
+        if (nome == null || !nome.startsWith(PREFIXO_PARTICAO)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(nome.substring(PREFIXO_PARTICAO.length()), FORMATO_MES);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * relkind da tabela: "r" comum, "p" particionada, null se não existe.
+     */
+    private String tipoTabela() {
+        return jdbcTemplate.queryForObject(
+                "SELECT (SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?))", String.class, TABELA);
+    }
+
+    private Set<YearMonth> mesesDasParticoes() {
+        List<String> nomes = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = to_regclass(?)", String.class, TABELA);
+        Set<YearMonth> meses = new TreeSet<>();
+        for (String nome : nomes) {
+            YearMonth mes = mesDaParticao(nome);
+            if (mes != null) {
+                meses.add(mes);
+            }
+        }
+        return meses;
+    }
+
+    /**
+     * Renomeia a tabela atual, cria a particionada com as mesmas colunas e restrições, copia os
+     * dados e remove a antiga. O id passa a vir de uma sequência própria, ajustada ao maior id
+     * copiado; a chave primária inclui data_hora, como o PostgreSQL exige em tabelas particionadas.
+     *
+     * @return quantidade de entradas copiadas
+     */
+    private long converter() {
+        String legado = TABELA + "_legado";
+        jdbcTemplate.execute("LOCK TABLE " + TABELA + " IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("ALTER TABLE " + TABELA + " RENAME TO " + legado);
+        jdbcTemplate.execute("CREATE TABLE " + TABELA + " (LIKE " + legado + " INCLUDING CONSTRAINTS) "
+                + "PARTITION BY RANGE (data_hora)");
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCIA);
+        jdbcTemplate.execute("ALTER TABLE " + TABELA + " ALTER COLUMN id SET DEFAULT nextval('" + SEQUENCIA + "'), "
+                + "ALTER COLUMN data_hora SET DEFAULT CURRENT_TIMESTAMP");
+        jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCIA + " OWNED BY " + TABELA + ".id");
+        jdbcTemplate.execute("CREATE TABLE " + PARTICAO_PADRAO + " PARTITION OF " + TABELA + " DEFAULT");
+
+        LocalDateTime maisAntiga = jdbcTemplate.queryForObject("SELECT MIN(data_hora) FROM " + legado, LocalDateTime.class);
+        YearMonth atual = YearMonth.now();
+        YearMonth mes = maisAntiga != null && maisAntiga.isBefore(atual.atDay(1).atStartOfDay())
+                ? YearMonth.from(maisAntiga) : atual;
+        for (; !mes.isAfter(atual.plusMonths(mesesFuturos)); mes = mes.plusMonths(1)) {
+            jdbcTemplate.execute("CREATE TABLE " + nomeParticao(mes) + " PARTITION OF " + TABELA
+                    + " FOR VALUES FROM (" + literal(mes) + ") TO (" + literal(mes.plusMonths(1)) + ")");
+        }
+
+        long copiadas = jdbcTemplate.update("INSERT INTO " + TABELA + " (" + HistoricoArquivoRepositorio.COLUNAS + ") "
+                + "SELECT " + HistoricoArquivoRepositorio.COLUNAS + " FROM " + legado);
+        jdbcTemplate.execute("SELECT setval('" + SEQUENCIA + "', COALESCE((SELECT MAX(id) FROM " + TABELA + "), 0) + 1, false)");
+        jdbcTemplate.execute("DROP TABLE " + legado);
+
+        jdbcTemplate.execute("ALTER TABLE " + TABELA + " ADD CONSTRAINT " + TABELA + "_pkey PRIMARY KEY (id, data_hora)");
+        jdbcTemplate.execute("ALTER TABLE " + TABELA + " ADD CONSTRAINT fk_historico_ocorrencias_ocorrencia "
+                + "FOREIGN KEY (id_ocorrencia) REFERENCES ocorrencias(id) ON DELETE CASCADE");
+        jdbcTemplate.execute("ALTER TABLE " + TABELA + " ADD CONSTRAINT fk_historico_ocorrencias_usuario "
+                + "FOREIGN KEY (id_usuario) REFERENCES usuarios(id)");
+        return copiadas;
+    }
+
+    /**
+     * Cria a partição do mês fora da tabela, traz para ela as entradas do mês que estavam na
+     * partição padrão e só então a anexa (anexar com essas entradas ainda na padrão falharia).
+     *
+     * A partição padrão fica travada do começo ao fim da transação: uma entrada do mês gravada
+     * entre a cópia e o ATTACH cairia nela e faria o ATTACH falhar. As gravações do histórico
+     * esperam a transação terminar (e então já caem na partição nova).
+     */
+    private void criarParticao(YearMonth mes) {
+        String nome = nomeParticao(mes);
+        String intervalo = "data_hora >= " + literal(mes) + " AND data_hora < " + literal(mes.plusMonths(1));
+        jdbcTemplate.execute("LOCK TABLE " + PARTICAO_PADRAO + " IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("CREATE TABLE " + nome + " (LIKE " + TABELA + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        jdbcTemplate.execute("WITH movidas AS (DELETE FROM " + PARTICAO_PADRAO + " WHERE " + intervalo
+                + " RETURNING " + HistoricoArquivoRepositorio.COLUNAS + ") INSERT INTO " + nome
+                + " (" + HistoricoArquivoRepositorio.COLUNAS + ") SELECT " + HistoricoArquivoRepositorio.COLUNAS + " FROM movidas");
+        jdbcTemplate.execute("ALTER TABLE " + TABELA + " ATTACH PARTITION " + nome
+                + " FOR VALUES FROM (" + literal(mes) + ") TO (" + literal(mes.plusMonths(1)) + ")");
+    }
+
+    /**
+     * Copia a partição para o arquivo, desanexa e remove. Repetível: entradas já arquivadas são ignoradas.
+     *
+     * @return quantidade de entradas copiadas
+     */
+    private long arquivarParticao(YearMonth mes) {
+        String nome = nomeParticao(mes);
+        long copiadas = jdbcTemplate.update("INSERT INTO " + HistoricoArquivoRepositorio.TABELA
+                + " (" + HistoricoArquivoRepositorio.COLUNAS + ") SELECT " + HistoricoArquivoRepositorio.COLUNAS
+                + " FROM " + nome + " ON CONFLICT (id) DO NOTHING");
+        jdbcTemplate.execute("ALTER TABLE " + TABELA + " DETACH PARTITION " + nome);
+        jdbcTemplate.execute("DROP TABLE " + nome);
+        return copiadas;
+    }
+
+    /**
+     * Entradas antigas que caíram na partição padrão (data/hora informada fora das partições)
+     * também vão para o arquivo, para que nada na tabela principal seja anterior à fronteira.
+     */
+    private long arquivarDaParticaoPadrao(LocalDateTime fronteira) {
+        return jdbcTemplate.update("WITH movidas AS (DELETE FROM " + PARTICAO_PADRAO + " WHERE data_hora < ? RETURNING "
+                + HistoricoArquivoRepositorio.COLUNAS + ") INSERT INTO " + HistoricoArquivoRepositorio.TABELA
+                + " (" + HistoricoArquivoRepositorio.COLUNAS + ") SELECT " + HistoricoArquivoRepositorio.COLUNAS
+                + " FROM movidas ON CONFLICT (id) DO NOTHING", fronteira);
+    }
+
+    private void atualizarPossuiArquivadas() {
+        try {
+            possuiArquivadas = arquivoRepositorio.existeAlguma();
+        } catch (Exception e) {
+            logger.warn("Não foi possível consultar {}: {}", HistoricoArquivoRepositorio.TABELA, e.getMessage());
+        }
+    }
+
+    // Limite de partição como literal (valores gerados aqui, nunca vindos de fora)
+    private static String literal(YearMonth mes) {
+        LocalDate dia = mes.atDay(1);
+        return "'" + dia + " 00:00:00'";
+    }
+}
@@ -0,0 +1,158 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vitalistech.sosrota.dominio.modelo.Gravidade;
+import com.vitalistech.sosrota.dominio.repositorio.OcorrenciaRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.RelatorioOcorrenciaLinha;
+import com.vitalistech.sosrota.web.dto.RelatorioOcorrenciaDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exporta o relatório de ocorrências (CSV ou NDJSON) escrevendo cada linha assim que ela chega
+ * do banco. As linhas vêm de um cursor do servidor em lotes, então a memória usada não depende
+ * do tamanho do período exportado.
+ */
+@Service
+public class RelatorioExportacaoServico {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelatorioExportacaoServico.class);
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private static final String[] COLUNAS_CSV = {
+            "id", "dataHoraAbertura", "tipoOcorrencia", "gravidade", "status", "bairroNome", "observacoes",
+            "usuarioRegistroNome", "usuarioRegistroLogin", "usuarioDespachoNome", "usuarioDespachoLogin",
+            "dataHoraDespacho", "ambulanciaPlaca", "distanciaKm", "dataHoraFechamento", "tempoAtendimentoMinutos",
+            "slaMinutos", "slaCumprido", "tempoExcedidoMinutos", "tempoTotalDecorridoMinutos", "tempoTotalFormatado"
+    };
+
+    /**
+     * Formatos de exportação, com o tipo de conteúdo e a extensão do arquivo.
+     */
+    public enum Formato {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String tipoConteudo;
+        private final String extensao;
+
+        Formato(String tipoConteudo, String extensao) {
+            this.tipoConteudo = tipoConteudo;
+            this.extensao = extensao;
+        }
+
+        public String getTipoConteudo() {
+            return tipoConteudo;
+        }
+
+        public String getExtensao() {
+            return extensao;
+        }
+
+        /**
+         * @throws IllegalArgumentException se o formato não for csv nem ndjson
+         */
+        public static Formato de(String valor) {
+            for (Formato formato : values()) {
+                if (formato.name().equalsIgnoreCase(valor == null ? null : valor.trim())) {
+                    return formato;
+                }
+            }
+            throw new IllegalArgumentException("Formato inválido: " + valor + " (use csv ou ndjson)");
+        }
+    }
+
+    private final OcorrenciaRepositorio ocorrenciaRepositorio;
+    private final ObjectMapper objectMapper;
+
+    public RelatorioExportacaoServico(OcorrenciaRepositorio ocorrenciaRepositorio, ObjectMapper objectMapper) {
+        this.ocorrenciaRepositorio = ocorrenciaRepositorio;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Escreve no destino todas as ocorrências dos filtros (null = sem filtro), da mais recente para
+     * a mais antiga, com os mesmos campos do relatório paginado. O destino não é fechado.
+     *
+     * @return quantidade de ocorrências exportadas
+     */
+    @Transactional(readOnly = true)
+    public long exportar(LocalDateTime inicio, LocalDateTime fim, Gravidade gravidade, Long idBairro,
+                         Formato formato, OutputStream destino) throws IOException {
+        long inicioMillis = System.currentTimeMillis();
+        LocalDateTime agora = LocalDateTime.now();
+        long total = 0;
+
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(destino, StandardCharsets.UTF_8), TAMANHO_BUFFER);
+        try (Stream<RelatorioOcorrenciaLinha> linhas =
+                     ocorrenciaRepositorio.streamLinhasRelatorio(inicio, fim, gravidade, idBairro)) {
+            if (formato == Formato.CSV) {
+                escreverLinhaCsv(escritor, COLUNAS_CSV);
+            }
+            Iterator<RelatorioOcorrenciaLinha> iterador = linhas.iterator();
+            while (iterador.hasNext()) {
+                RelatorioOcorrenciaDTO dto = RelatorioOcorrenciaDTO.de(iterador.next(), agora);
+                if (formato == Formato.CSV) {
+                    escreverLinhaCsv(escritor, valoresCsv(dto));
+                } else {
+                    escritor.write(objectMapper.writeValueAsString(dto));
+                    escritor.write('\n');
+                }
+                total++;
+            }
+        }
+        escritor.flush();
+
+        logger.info("Relatório de ocorrências exportado em {}: {} linha(s) em {} ms",
+                formato, total, System.currentTimeMillis() - inicioMillis);
+        return total;
+    }
+
+    private static Object[] valoresCsv(RelatorioOcorrenciaDTO dto) {
+        return new Object[]{
+                dto.getId(), dto.getDataHoraAbertura(), dto.getTipoOcorrencia(), dto.getGravidade(), dto.getStatus(),
+                dto.getBairroNome(), dto.getObservacoes(), dto.getUsuarioRegistroNome(), dto.getUsuarioRegistroLogin(),
+                dto.getUsuarioDespachoNome(), dto.getUsuarioDespachoLogin(), dto.getDataHoraDespacho(),
+                dto.getAmbulanciaPlaca(), dto.getDistanciaKm(), dto.getDataHoraFechamento(),
+                dto.getTempoAtendimentoMinutos(), dto.getSlaMinutos(), dto.getSlaCumprido(),
+                dto.getTempoExcedidoMinutos(), dto.getTempoTotalDecorridoMinutos(), dto.getTempoTotalFormatado()
+        };
+    }
+
+    /**
+     * Uma linha CSV (RFC 4180): null vira campo vazio; campos com vírgula, aspas ou quebra de
+     * linha vão entre aspas, com as aspas internas duplicadas.
+     */
+    static void escreverLinhaCsv(Writer escritor, Object[] valores) throws IOException {
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                escritor.write(',');
+            }
+            if (valores[i] == null) {
+                continue;
+            }
+            String valor = valores[i].toString();
+            if (valor.indexOf(',') >= 0 || valor.indexOf('"') >= 0 || valor.indexOf('\n') >= 0 || valor.indexOf('\r') >= 0) {
+                escritor.write('"');
+                escritor.write(valor.replace("\"", "\"\""));
+                escritor.write('"');
+            } else {
+                escritor.write(valor);
+            }
+        }
+        escritor.write("\r\n");
+    }
+}
@@ -0,0 +1,280 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import com.vitalistech.sosrota.dominio.modelo.Bairro;
+import com.vitalistech.sosrota.util.AlgoritmoDijkstra;
+import com.vitalistech.sosrota.util.CacheRotas;
+import com.vitalistech.sosrota.util.GrafoViario;
+import com.vitalistech.sosrota.util.HierarquiaContracao;
+import com.vitalistech.sosrota.util.MatrizDistancias;
+import com.vitalistech.sosrota.util.ModoRoteamento;
+import com.vitalistech.sosrota.util.MotorDijkstra;
+import com.vitalistech.sosrota.util.MotorRoteamento;
+import com.vitalistech.sosrota.util.ResultadoRota;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Ponto único de consulta de rotas entre bairros.
+ *
+ * Enquanto o grafo viário tiver até {@code sosrota.roteamento.matriz.limite-bairros} bairros,
+ * as consultas são respondidas pela {@link MatrizDistancias} pré-calculada (O(1) por distância).
+ * A matriz é recalculada sempre que a versão do grafo muda. Acima do limite, ou seja, quando
+ * a matriz n×n ficaria grande demais, as consultas caem no Dijkstra sobre o snapshot do grafo,
+ * com um {@link CacheRotas} LRU na frente ({@code sosrota.roteamento.cache.capacidade} rotas).
+ * Nesse caso a estratégia de busca ponto a ponto é {@code sosrota.roteamento.modo}
+ * (DIJKSTRA, BIDIRECIONAL ou A_ESTRELA), podendo ser escolhida por chamada.
+ *
+ * Com {@code sosrota.roteamento.hierarquia-contracao.habilitada=true}, as consultas sem matriz
+ * usam a {@link HierarquiaContracao}, pré-processada na inicialização e a cada nova versão do grafo.
+ *
+ * Pares de bairros em componentes conexos diferentes do grafo são respondidos em O(1) como
+ * sem caminho, sem busca e sem ocupar o cache.
+ */
+@Service
+public class RoteamentoServico {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoteamentoServico.class);
+
+    private final GrafoViarioServico grafoViarioServico;
+    private final int limiteBairrosMatriz;
+    private final ModoRoteamento modoPadrao;
+    private final boolean hierarquiaHabilitada;
+
+    private final CacheRotas cacheRotas;
+
+    private final AtomicReference<MatrizDistancias> matrizAtual = new AtomicReference<>();
+    private final AtomicReference<HierarquiaContracao> hierarquiaAtual = new AtomicReference<>();
+
+    public RoteamentoServico(GrafoViarioServico grafoViarioServico,
+                             @Value("${sosrota.roteamento.matriz.limite-bairros:2000}") int limiteBairrosMatriz,
+                             @Value("${sosrota.roteamento.cache.capacidade:10000}") int capacidadeCache,
+                             @Value("${sosrota.roteamento.modo:DIJKSTRA}") ModoRoteamento modoPadrao,
+                             @Value("${sosrota.roteamento.hierarquia-contracao.habilitada:false}") boolean hierarquiaHabilitada) {
+        this.grafoViarioServico = grafoViarioServico;
+        this.limiteBairrosMatriz = limiteBairrosMatriz;
+        this.modoPadrao = modoPadrao;
+        this.hierarquiaHabilitada = hierarquiaHabilitada;
+        this.cacheRotas = new CacheRotas(capacidadeCache);
+    }
+
+    /**
+     * Pré-processa a hierarquia de contração na inicialização, para que a primeira
+     * ocorrência despachada não pague esse custo.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preprocessarNaInicializacao() {
+        if (!hierarquiaHabilitada) {
+            return;
+        }
+        try {
+            GrafoViario grafo = obterGrafo();
+            if (grafo.getQuantidadeBairros() > limiteBairrosMatriz) {
+                obterHierarquia(grafo);
+            }
+        } catch (Exception e) {
+            logger.error("Erro ao pré-processar a hierarquia de contração do grafo viário", e);
+        }
+    }
+
+    /**
+     * Cache de rotas usado quando a matriz não está disponível (expõe os contadores de acerto/falha/remoção).
+     */
+    public CacheRotas getCacheRotas() {
+        return cacheRotas;
+    }
+
+    /**
+     * Snapshot atual do grafo viário.
+     */
+    public GrafoViario obterGrafo() {
+        return grafoViarioServico.obterGrafo();
+    }
+
+    /**
+     * Indica, em O(1), se existe algum caminho entre os dois bairros (mesmo componente conexo).
+     */
+    public boolean conectados(Bairro origem, Bairro destino) {
+        return obterGrafo().conectados(origem.getId(), destino.getId());
+    }
+
+    /**
+     * Menor rota entre dois bairros; se não houver caminho, distanciaKm = POSITIVE_INFINITY.
+     */
+    public ResultadoRota calcularRota(Bairro origem, Bairro destino) {
+        return calcularRota(origem, destino, modoPadrao);
+    }
+
+    /**
+     * Menor rota entre dois bairros usando a estratégia de busca informada
+     * (relevante apenas quando nem a matriz nem a hierarquia de contração estão em uso).
+     */
+    public ResultadoRota calcularRota(Bairro origem, Bairro destino, ModoRoteamento modo) {
+        GrafoViario grafo = obterGrafo();
+        MatrizDistancias matriz = obterMatriz(grafo);
+        if (matriz != null) {
+            return matriz.rota(origem, destino);
+        }
+        if (!grafo.conectados(origem.getId(), destino.getId())) {
+            return new ResultadoRota(Double.POSITIVE_INFINITY, List.of());
+        }
+        MotorRoteamento motor = obterMotor(grafo, modo);
+        return cacheRotas.obterOuCalcular(grafo.getVersao(), origem.getId(), destino.getId(),
+                () -> motor.calcularRota(origem, destino));
+    }
+
+    /**
+     * Apenas a menor distância em km entre dois bairros (sem montar o caminho);
+     * POSITIVE_INFINITY se não houver caminho.
+     */
+    public double calcularDistanciaKm(Bairro origem, Bairro destino) {
+        GrafoViario grafo = obterGrafo();
+        MatrizDistancias matriz = obterMatriz(grafo);
+        if (matriz == null) {
+            return calcularRota(origem, destino).getDistanciaKm();
+        }
+
+        int indiceOrigem = grafo.indiceDe(origem.getId());
+        int indiceDestino = grafo.indiceDe(destino.getId());
+        if (indiceOrigem < 0 || indiceDestino < 0) {
+            return origem.getId().equals(destino.getId()) ? 0.0 : Double.POSITIVE_INFINITY;
+        }
+        return matriz.distancia(indiceOrigem, indiceDestino);
+    }
+
+    /**
+     * Menor rota de cada bairro de origem até o mesmo destino
+     * (mesma semântica de {@link AlgoritmoDijkstra#distanciasAte}).
+     */
+    public Map<Long, ResultadoRota> distanciasAte(Bairro destino, Set<Long> idsBairrosOrigem) {
+        GrafoViario grafo = obterGrafo();
+        MatrizDistancias matriz = obterMatriz(grafo);
+        if (matriz == null) {
+            return distanciasAteComCache(grafo, destino, idsBairrosOrigem);
+        }
+
+        Map<Long, ResultadoRota> resultado = new HashMap<>();
+        for (Long idOrigem : idsBairrosOrigem) {
+            int indice = grafo.indiceDe(idOrigem);
+            Bairro origem = indice >= 0 ? grafo.bairroNoIndice(indice) : null;
+            if (origem == null) {
+                if (idOrigem.equals(destino.getId())) {
+                    origem = destino;
+                } else {
+                    continue;
+                }
+            }
+            ResultadoRota rota = matriz.rota(origem, destino);
+            if (!Double.isInfinite(rota.getDistanciaKm())) {
+                resultado.put(idOrigem, rota);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Atende as origens já presentes no cache e calcula as demais com uma única busca.
+     */
+    private Map<Long, ResultadoRota> distanciasAteComCache(GrafoViario grafo, Bairro destino, Set<Long> idsBairrosOrigem) {
+        long versao = grafo.getVersao();
+        Map<Long, ResultadoRota> resultado = new HashMap<>();
+        Set<Long> pendentes = new HashSet<>();
+
+        for (Long idOrigem : idsBairrosOrigem) {
+            if (!grafo.conectados(idOrigem, destino.getId())) {
+                continue; // Outro componente conexo: sem caminho, nem consulta o cache
+            }
+            ResultadoRota rota = cacheRotas.buscar(versao, idOrigem, destino.getId());
+            if (rota == null) {
+                pendentes.add(idOrigem);
+            } else if (!Double.isInfinite(rota.getDistanciaKm())) {
+                resultado.put(idOrigem, rota);
+            }
+        }
+
+        if (!pendentes.isEmpty()) {
+            Map<Long, ResultadoRota> calculadas = obterMotor(grafo, modoPadrao).distanciasAte(destino, pendentes);
+            for (Long idOrigem : pendentes) {
+                ResultadoRota rota = calculadas.get(idOrigem);
+                if (rota != null) {
+                    resultado.put(idOrigem, rota);
+                } else {
+                    // Também guarda a ausência de caminho para não repetir a busca
+                    rota = new ResultadoRota(Double.POSITIVE_INFINITY, List.of());
+                }
+                cacheRotas.guardar(versao, idOrigem, destino.getId(), rota);
+            }
+        }
+
+        return resultado;
+    }
+
+    /**
+     * Motor usado quando a matriz não está disponível.
+     */
+    private MotorRoteamento obterMotor(GrafoViario grafo, ModoRoteamento modo) {
+        if (hierarquiaHabilitada) {
+            return obterHierarquia(grafo);
+        }
+        return new MotorDijkstra(grafo, modo);
+    }
+
+    /**
+     * Retorna a hierarquia de contração da versão do grafo informada, pré-processando-a se necessário.
+     */
+    private HierarquiaContracao obterHierarquia(GrafoViario grafo) {
+        HierarquiaContracao hierarquia = hierarquiaAtual.get();
+        if (hierarquia != null && hierarquia.getVersao() == grafo.getVersao()) {
+            return hierarquia;
+        }
+
+        synchronized (hierarquiaAtual) {
+            hierarquia = hierarquiaAtual.get();
+            if (hierarquia != null && hierarquia.getVersao() == grafo.getVersao()) {
+                return hierarquia;
+            }
+            long inicio = System.currentTimeMillis();
+            hierarquia = HierarquiaContracao.preprocessar(grafo);
+            logger.info("Hierarquia de contração pré-processada: {} bairros em {} ms",
+                    grafo.getQuantidadeBairros(), System.currentTimeMillis() - inicio);
+            hierarquiaAtual.set(hierarquia);
+            return hierarquia;
+        }
+    }
+
+    /**
+     * Retorna a matriz da versão do grafo informada, calculando-a se necessário,
+     * ou null quando o grafo excede o limite configurado.
+     */
+    private MatrizDistancias obterMatriz(GrafoViario grafo) {
+        if (grafo.getQuantidadeBairros() > limiteBairrosMatriz) {
+            return null;
+        }
+
+        MatrizDistancias matriz = matrizAtual.get();
+        if (matriz != null && matriz.getVersao() == grafo.getVersao()) {
+            return matriz;
+        }
+
+        synchronized (this) {
+            matriz = matrizAtual.get();
+            if (matriz != null && matriz.getVersao() == grafo.getVersao()) {
+                return matriz;
+            }
+            matriz = MatrizDistancias.calcular(grafo, ForkJoinPool.commonPool());
+            matrizAtual.set(matriz);
+            return matriz;
+        }
+    }
+}
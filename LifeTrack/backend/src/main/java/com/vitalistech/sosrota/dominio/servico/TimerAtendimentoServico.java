@@ -0,0 +1,196 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import com.vitalistech.sosrota.dominio.modelo.Atendimento;
+import com.vitalistech.sosrota.dominio.modelo.Ocorrencia;
+import com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia;
+import com.vitalistech.sosrota.dominio.repositorio.AtendimentoRepositorio;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Transições automáticas de chegada e retorno dos atendimentos.
+ *
+ * Antes eram feitas dentro do GET do timer, que só as disparava quando alguém consultava a tela.
+ * Agora cada atendimento em andamento tem um agendamento para o instante em que o tempo estimado
+ * termina, com as mesmas regras de antes:
+ * - chegada: despacho + tempo estimado pela distância (60 km/h, minutos arredondados para cima);
+ * - retorno (OS CONCLUIDA e chegada registrada): chegada + o mesmo tempo gasto na ida.
+ *
+ * O agendamento é refeito sempre que o atendimento muda ({@link AtendimentoAlteradoEvento},
+ * após o commit) e, na inicialização, para todos os atendimentos sem retorno.
+ */
+@Service
+public class TimerAtendimentoServico {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimerAtendimentoServico.class);
+
+    private final OcorrenciaServico ocorrenciaServico;
+    private final AtendimentoRepositorio atendimentoRepositorio;
+
+    private final ScheduledExecutorService agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "timer-atendimentos");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ConcurrentHashMap<Long, ScheduledFuture<?>> agendados = new ConcurrentHashMap<>();
+
+    public TimerAtendimentoServico(OcorrenciaServico ocorrenciaServico,
+                                   AtendimentoRepositorio atendimentoRepositorio) {
+        this.ocorrenciaServico = ocorrenciaServico;
+        this.atendimentoRepositorio = atendimentoRepositorio;
+    }
+
+    /**
+     * Minutos estimados de deslocamento até o local (60 km/h), ou null sem distância.
+     */
+    static Long minutosDeChegada(Atendimento atendimento) {
+        Double distanciaKm = atendimento.getDistanciaKm();
+        if (distanciaKm == null || distanciaKm <= 0) {
+            return null;
+        }
+        return (long) Math.ceil((distanciaKm / 60.0) * 60);
+    }
+
+    /**
+     * Minutos estimados de retorno: o tempo real da ida, se a chegada já foi registrada,
+     * senão a estimativa pela distância.
+     */
+    static Long minutosDeRetorno(Atendimento atendimento) {
+        if (atendimento.getDataHoraDespacho() != null && atendimento.getDataHoraChegada() != null) {
+            return Duration.between(atendimento.getDataHoraDespacho(), atendimento.getDataHoraChegada()).getSeconds() / 60;
+        }
+        return minutosDeChegada(atendimento);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void armarPendentes() {
+        try {
+            int quantidade = 0;
+            for (Atendimento atendimento : atendimentoRepositorio.findPendentesDeTimer()) {
+                armar(atendimento);
+                quantidade++;
+            }
+            logger.info("Timers de atendimento armados: {} atendimento(s) em andamento", quantidade);
+        } catch (Exception e) {
+            logger.error("Erro ao armar os timers de atendimento", e);
+        }
+    }
+
+    @PreDestroy
+    public void parar() {
+        agendador.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarAtendimento(AtendimentoAlteradoEvento evento) {
+        if (evento.getIdAtendimento() == null) {
+            return;
+        }
+        atendimentoRepositorio.findById(evento.getIdAtendimento())
+                .ifPresentOrElse(this::armar, () -> cancelar(evento.getIdAtendimento()));
+    }
+
+    /**
+     * Agenda (ou reagenda) a próxima transição automática do atendimento; cancela se não houver.
+     */
+    void armar(Atendimento atendimento) {
+        Long idAtendimento = atendimento.getId();
+        Ocorrencia ocorrencia = atendimento.getOcorrencia();
+        if (ocorrencia == null || atendimento.getDataHoraDespacho() == null || atendimento.getDataHoraRetorno() != null) {
+            cancelar(idAtendimento);
+            return;
+        }
+
+        StatusOcorrencia status = ocorrencia.getStatus();
+        if (atendimento.getDataHoraChegada() == null) {
+            Long minutos = minutosDeChegada(atendimento);
+            if (minutos == null || (status != StatusOcorrencia.DESPACHADA && status != StatusOcorrencia.EM_ATENDIMENTO)) {
+                cancelar(idAtendimento);
+                return;
+            }
+            agendar(idAtendimento, atendimento.getDataHoraDespacho().plusMinutes(minutos), this::disparaChegada);
+        } else if (status == StatusOcorrencia.CONCLUIDA) {
+            Long minutos = minutosDeRetorno(atendimento);
+            // Na thread do agendador: após o commit, uma transação nova não pode reaproveitar a anterior
+            agendador.execute(() -> registrarVoltandoParaBase(idAtendimento));
+            agendar(idAtendimento, atendimento.getDataHoraChegada().plusMinutes(minutos), this::disparaRetorno);
+        } else {
+            cancelar(idAtendimento);
+        }
+    }
+
+    /**
+     * Quantidade de atendimentos com transição agendada.
+     */
+    public int quantidadeAgendada() {
+        return agendados.size();
+    }
+
+    private void agendar(Long idAtendimento, LocalDateTime quando, Consumer<Long> acao) {
+        long atrasoMillis = Math.max(0, Duration.between(LocalDateTime.now(), quando).toMillis());
+        ScheduledFuture<?>[] novo = new ScheduledFuture<?>[1];
+        agendados.compute(idAtendimento, (id, anterior) -> {
+            if (anterior != null) {
+                anterior.cancel(false);
+            }
+            novo[0] = agendador.schedule(() -> {
+                // novo[0] é lido sob a trava da chave, depois que o compute que o atribuiu terminou
+                agendados.computeIfPresent(id, (chave, atual) -> atual == novo[0] ? null : atual);
+                acao.accept(id);
+            }, atrasoMillis, TimeUnit.MILLISECONDS);
+            return novo[0];
+        });
+    }
+
+    private void cancelar(Long idAtendimento) {
+        ScheduledFuture<?> anterior = agendados.remove(idAtendimento);
+        if (anterior != null) {
+            anterior.cancel(false);
+        }
+    }
+
+    private void registrarVoltandoParaBase(Long idAtendimento) {
+        try {
+            ocorrenciaServico.registrarVoltandoParaBase(idAtendimento);
+        } catch (Exception e) {
+            logger.warn("Erro ao registrar 'voltando para base' do atendimento {}: {}", idAtendimento, e.getMessage());
+        }
+    }
+
+    private void disparaChegada(Long idAtendimento) {
+        try {
+            ocorrenciaServico.registrarChegada(idAtendimento, null);
+            logger.info("Chegada registrada automaticamente para o atendimento {}", idAtendimento);
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            // Já registrada manualmente, ocorrência cancelada ou atendimento removido
+            logger.debug("Chegada automática ignorada para o atendimento {}: {}", idAtendimento, e.getMessage());
+        } catch (Exception e) {
+            logger.error("Erro ao registrar chegada automaticamente para o atendimento " + idAtendimento, e);
+        }
+    }
+
+    private void disparaRetorno(Long idAtendimento) {
+        try {
+            ocorrenciaServico.registrarRetorno(idAtendimento, null);
+            logger.info("Retorno registrado automaticamente para o atendimento {}", idAtendimento);
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            logger.debug("Retorno automático ignorado para o atendimento {}: {}", idAtendimento, e.getMessage());
+        } catch (Exception e) {
+            logger.error("Erro ao registrar retorno automaticamente para o atendimento " + idAtendimento, e);
+        }
+    }
+}
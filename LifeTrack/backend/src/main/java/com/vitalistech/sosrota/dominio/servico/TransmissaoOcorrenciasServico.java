@@ -0,0 +1,466 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vitalistech.sosrota.dominio.modelo.Ocorrencia;
+import com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia;
+import com.vitalistech.sosrota.dominio.repositorio.HistoricoOcorrenciaRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.OcorrenciaRepositorio;
+import com.vitalistech.sosrota.web.dto.HistoricoOcorrenciaDTO;
+import com.vitalistech.sosrota.web.dto.TimerOcorrenciaDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transmissão (Server-Sent Events) das mudanças nas ocorrências, no lugar do polling do frontend.
+ *
+ * Tipos de evento enviados:
+ * - {@code timer}: {@link TimerOcorrenciaDTO} recalculado quando a ocorrência muda de etapa
+ *   (abertura, despacho, chegada, conclusão, retorno, cancelamento) ou quando o SLA passa a estar
+ *   em risco ou excedido. Entre dois eventos o cliente avança a contagem localmente a partir de
+ *   {@code dataHoraCalculo};
+ * - {@code historico}: cada nova entrada do histórico ({@link HistoricoOcorrenciaDTO});
+ * - {@code reinicio}: o cliente pediu para retomar de um evento que já saiu do buffer e deve
+ *   recarregar o estado completo.
+ *
+ * Cada evento recebe um id sequencial e fica em um buffer circular; o cliente que reconecta com
+ * {@code Last-Event-ID} recebe o que perdeu. O JSON de cada evento é gerado uma única vez e
+ * entregue a todos os clientes cujo filtro (ocorrências e tipos) o aceita.
+ *
+ * Três estágios, para que nem o banco nem um cliente lento atrasem os demais:
+ * - leitura (uma thread): consultas do timer e do histórico, verificação do SLA e serialização;
+ * - distribuição (uma thread): numeração, buffer e cópia do evento para a fila de cada cliente,
+ *   o que mantém a ordem dos eventos;
+ * - envio (pool limitado): cada cliente esvazia a própria fila, um lote por vez. O cliente cuja
+ *   fila passa do limite não acompanha os eventos e tem a conexão encerrada; ao reconectar, o
+ *   {@code Last-Event-ID} o leva à retomada ou ao {@code reinicio}.
+ */
+@Service
+public class TransmissaoOcorrenciasServico {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransmissaoOcorrenciasServico.class);
+
+    public static final String TIPO_TIMER = "timer";
+    public static final String TIPO_HISTORICO = "historico";
+    public static final String TIPO_REINICIO = "reinicio";
+
+    // Eventos enviados a um cliente antes de dar a vez aos outros na mesma thread de envio
+    private static final int LOTE_ENVIO = 64;
+    private static final EventoTransmitido HEARTBEAT = new EventoTransmitido(0, null, null, null);
+
+    private final LinhaDoTempoServico linhaDoTempoServico;
+    private final OcorrenciaRepositorio ocorrenciaRepositorio;
+    private final HistoricoOcorrenciaRepositorio historicoRepositorio;
+    private final ObjectMapper objectMapper;
+    private final int capacidadeBuffer;
+    private final int capacidadeFilaCliente;
+    private final long timeoutMillis;
+
+    private final ScheduledExecutorService leitura =
+            Executors.newSingleThreadScheduledExecutor(threads("transmissao-ocorrencias-leitura"));
+    private final ScheduledExecutorService distribuicao =
+            Executors.newSingleThreadScheduledExecutor(threads("transmissao-ocorrencias"));
+    private final ExecutorService envio;
+    private final List<Cliente> clientes = new CopyOnWriteArrayList<>();
+    // Acessados apenas pela thread de distribuição
+    private final ArrayDeque<EventoTransmitido> buffer = new ArrayDeque<>();
+    private long ultimoId;
+    // Ocorrências ainda sem chegada, para detectar a virada do SLA sem consultar o banco
+    private final ConcurrentHashMap<Long, SlaAcompanhado> slaAcompanhados = new ConcurrentHashMap<>();
+    // Ocorrências com recálculo do timer já enfileirado (eventos em sequência geram um só recálculo)
+    private final Set<Long> timersPendentes = ConcurrentHashMap.newKeySet();
+
+    public TransmissaoOcorrenciasServico(LinhaDoTempoServico linhaDoTempoServico,
+                                         OcorrenciaRepositorio ocorrenciaRepositorio,
+                                         HistoricoOcorrenciaRepositorio historicoRepositorio,
+                                         ObjectMapper objectMapper,
+                                         @Value("${sosrota.transmissao.buffer-eventos:1000}") int capacidadeBuffer,
+                                         @Value("${sosrota.transmissao.heartbeat-segundos:15}") long heartbeatSegundos,
+                                         @Value("${sosrota.transmissao.verificacao-sla-segundos:5}") long verificacaoSlaSegundos,
+                                         @Value("${sosrota.transmissao.timeout-minutos:30}") long timeoutMinutos,
+                                         @Value("${sosrota.transmissao.fila-cliente:256}") int capacidadeFilaCliente,
+                                         @Value("${sosrota.transmissao.threads-envio:4}") int threadsEnvio) {
+        this.linhaDoTempoServico = linhaDoTempoServico;
+        this.ocorrenciaRepositorio = ocorrenciaRepositorio;
+        this.historicoRepositorio = historicoRepositorio;
+        this.objectMapper = objectMapper;
+        this.capacidadeBuffer = Math.max(1, capacidadeBuffer);
+        this.capacidadeFilaCliente = Math.max(1, capacidadeFilaCliente);
+        this.envio = Executors.newFixedThreadPool(Math.max(1, threadsEnvio), threads("transmissao-ocorrencias-envio"));
+        this.timeoutMillis = Math.max(1, timeoutMinutos) * 60_000L;
+        // Ids começam no instante da inicialização: um Last-Event-ID de antes de um reinício
+        // do servidor nunca coincide com um evento novo e leva ao evento de reinício
+        this.ultimoId = System.currentTimeMillis() * 1000;
+
+        long heartbeat = Math.max(1, heartbeatSegundos);
+        distribuicao.scheduleAtFixedRate(this::enviarHeartbeat, heartbeat, heartbeat, TimeUnit.SECONDS);
+        long verificacao = Math.max(1, verificacaoSlaSegundos);
+        leitura.scheduleAtFixedRate(this::verificarSla, verificacao, verificacao, TimeUnit.SECONDS);
+    }
+
+    private static ThreadFactory threads(String nome) {
+        return r -> {
+            Thread thread = new Thread(r, nome);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Evento já serializado, mantido no buffer para retomada.
+     */
+    private static final class EventoTransmitido {
+        private final long id;
+        private final String tipo;
+        private final Long idOcorrencia;
+        private final String json;
+
+        private EventoTransmitido(long id, String tipo, Long idOcorrencia, String json) {
+            this.id = id;
+            this.tipo = tipo;
+            this.idOcorrencia = idOcorrencia;
+            this.json = json;
+        }
+    }
+
+    /**
+     * Conexão aberta, o filtro pedido por ela (null = sem filtro) e os eventos ainda não enviados.
+     */
+    private static final class Cliente {
+        private final SseEmitter emitter;
+        private final Set<Long> ocorrencias;
+        private final Set<String> tipos;
+        private final Queue<EventoTransmitido> fila = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger tamanhoFila = new AtomicInteger();
+        // Uma única tarefa de envio por cliente: mantém a ordem e não ocupa mais de uma thread
+        private final AtomicBoolean enviando = new AtomicBoolean();
+        private final AtomicBoolean fechado = new AtomicBoolean();
+        private volatile boolean encerrado;
+
+        private Cliente(SseEmitter emitter, Set<Long> ocorrencias, Set<String> tipos) {
+            this.emitter = emitter;
+            this.ocorrencias = ocorrencias;
+            this.tipos = tipos;
+        }
+
+        private boolean aceita(EventoTransmitido evento) {
+            return (tipos == null || tipos.contains(evento.tipo) || TIPO_REINICIO.equals(evento.tipo))
+                    && (ocorrencias == null || evento.idOcorrencia == null || ocorrencias.contains(evento.idOcorrencia));
+        }
+    }
+
+    /**
+     * Linha do tempo de uma ocorrência ainda sem chegada e a situação do SLA no último timer transmitido.
+     */
+    private static final class SlaAcompanhado {
+        private final OcorrenciaLinhaDoTempo linhaDoTempo;
+        private final OcorrenciaLinhaDoTempo.SituacaoSla situacao;
+
+        private SlaAcompanhado(OcorrenciaLinhaDoTempo linhaDoTempo, LocalDateTime calculadoEm) {
+            this.linhaDoTempo = linhaDoTempo;
+            this.situacao = linhaDoTempo.situacaoSla(calculadoEm);
+        }
+
+        private boolean mudou(LocalDateTime agora) {
+            return linhaDoTempo.situacaoSla(agora) != situacao;
+        }
+    }
+
+    /**
+     * Abre uma conexão. Com {@code ultimoEventoId}, reenvia os eventos posteriores que ainda estão no buffer.
+     *
+     * @param ocorrencias ids das ocorrências de interesse (null ou vazio = todas)
+     * @param tipos tipos de evento de interesse (null ou vazio = todos)
+     * @param ultimoEventoId último evento recebido pelo cliente (cabeçalho Last-Event-ID), ou null
+     */
+    public SseEmitter conectar(Set<Long> ocorrencias, Set<String> tipos, Long ultimoEventoId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Cliente cliente = new Cliente(emitter,
+                ocorrencias == null || ocorrencias.isEmpty() ? null : Set.copyOf(ocorrencias),
+                tipos == null || tipos.isEmpty() ? null : Set.copyOf(tipos));
+        emitter.onCompletion(() -> desconectado(cliente));
+        emitter.onTimeout(() -> desconectado(cliente));
+        emitter.onError(e -> desconectado(cliente));
+
+        // Na thread de distribuição: nenhum evento publicado entre a retomada e o registro se perde
+        distribuicao.execute(() -> {
+            if (ultimoEventoId != null) {
+                retomar(cliente, ultimoEventoId);
+            }
+            if (!cliente.encerrado) {
+                clientes.add(cliente);
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * Quantidade de conexões abertas.
+     */
+    public int quantidadeClientes() {
+        return clientes.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void acompanharAtivas() {
+        leitura.execute(() -> {
+            try {
+                for (StatusOcorrencia status : List.of(StatusOcorrencia.ABERTA, StatusOcorrencia.DESPACHADA,
+                        StatusOcorrencia.EM_ATENDIMENTO)) {
+                    for (Ocorrencia ocorrencia : ocorrenciaRepositorio.findByStatus(status)) {
+                        OcorrenciaLinhaDoTempo linhaDoTempo = linhaDoTempoServico.obter(ocorrencia.getId());
+                        acompanharSla(linhaDoTempo, linhaDoTempo.paraTimer(LocalDateTime.now()));
+                    }
+                }
+            } catch (Exception e) {
+                logger.error("Erro ao carregar as ocorrências ativas para a transmissão", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void parar() {
+        leitura.shutdownNow();
+        distribuicao.shutdownNow();
+        envio.shutdownNow();
+        for (Cliente cliente : clientes) {
+            cliente.emitter.complete();
+        }
+        clientes.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAbrirOcorrencia(OcorrenciaAbertaEvento evento) {
+        agendarTimer(evento.getIdOcorrencia());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarAtendimento(AtendimentoAlteradoEvento evento) {
+        agendarTimer(evento.getIdOcorrencia());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoRegistrarHistorico(HistoricoRegistradoEvento evento) {
+        leitura.execute(() -> {
+            historicoRepositorio.findById(evento.getIdHistorico()).ifPresent(historico -> {
+                publicar(TIPO_HISTORICO, evento.getIdOcorrencia(), HistoricoOcorrenciaDTO.de(historico));
+                // Mudança de status sem atendimento (ex.: cancelamento) também altera o timer
+                if (historico.getStatusNovo() != null && historico.getStatusNovo() != historico.getStatusAnterior()) {
+                    agendarTimer(evento.getIdOcorrencia());
+                }
+            });
+        });
+    }
+
+    private void agendarTimer(Long idOcorrencia) {
+        if (idOcorrencia == null || !timersPendentes.add(idOcorrencia)) {
+            return;
+        }
+        leitura.execute(() -> {
+            timersPendentes.remove(idOcorrencia);
+            try {
+                OcorrenciaLinhaDoTempo linhaDoTempo = linhaDoTempoServico.obter(idOcorrencia);
+                TimerOcorrenciaDTO timer = linhaDoTempo.paraTimer(LocalDateTime.now());
+                acompanharSla(linhaDoTempo, timer);
+                publicar(TIPO_TIMER, idOcorrencia, timer);
+            } catch (IllegalArgumentException e) {
+                slaAcompanhados.remove(idOcorrencia);
+            } catch (Exception e) {
+                logger.error("Erro ao calcular o timer da ocorrência " + idOcorrencia + " para a transmissão", e);
+            }
+        });
+    }
+
+    private void acompanharSla(OcorrenciaLinhaDoTempo linhaDoTempo, TimerOcorrenciaDTO timer) {
+        boolean semChegada = !Boolean.TRUE.equals(timer.getChegouLocal())
+                && !StatusOcorrencia.CANCELADA.name().equals(timer.getStatus())
+                && !StatusOcorrencia.CONCLUIDA.name().equals(timer.getStatus());
+        if (semChegada && timer.getSlaMinutos() != null && timer.getDataHoraAbertura() != null) {
+            slaAcompanhados.put(timer.getIdOcorrencia(), new SlaAcompanhado(linhaDoTempo, timer.getDataHoraCalculo()));
+        } else {
+            slaAcompanhados.remove(timer.getIdOcorrencia());
+        }
+    }
+
+    private void verificarSla() {
+        try {
+            LocalDateTime agora = LocalDateTime.now();
+            slaAcompanhados.forEach((idOcorrencia, sla) -> {
+                if (sla.mudou(agora)) {
+                    agendarTimer(idOcorrencia);
+                }
+            });
+        } catch (Exception e) {
+            logger.error("Erro ao verificar o SLA das ocorrências transmitidas", e);
+        }
+    }
+
+    /**
+     * Serializa uma vez (thread de leitura) e passa o evento à distribuição.
+     */
+    private void publicar(String tipo, Long idOcorrencia, Object dados) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(dados);
+        } catch (IOException e) {
+            logger.error("Erro ao serializar evento {} da ocorrência {}", tipo, idOcorrencia, e);
+            return;
+        }
+        distribuicao.execute(() -> distribuir(tipo, idOcorrencia, json));
+    }
+
+    /**
+     * Numera, guarda no buffer e coloca na fila de cada cliente interessado. Thread de distribuição.
+     */
+    private void distribuir(String tipo, Long idOcorrencia, String json) {
+        EventoTransmitido evento = new EventoTransmitido(++ultimoId, tipo, idOcorrencia, json);
+        buffer.addLast(evento);
+        while (buffer.size() > capacidadeBuffer) {
+            buffer.removeFirst();
+        }
+        for (Cliente cliente : clientes) {
+            if (cliente.aceita(evento)) {
+                enfileirar(cliente, evento);
+            }
+        }
+    }
+
+    /**
+     * Coloca na fila do cliente os eventos posteriores a {@code ultimoEventoId}; se parte deles já
+     * saiu do buffer (ou o servidor reiniciou), ou se não cabem na fila, envia {@code reinicio}.
+     */
+    private void retomar(Cliente cliente, long ultimoEventoId) {
+        EventoTransmitido primeiro = buffer.peekFirst();
+        boolean lacuna = ultimoEventoId > ultimoId
+                || (primeiro != null && primeiro.id > ultimoEventoId + 1)
+                || (primeiro == null && ultimoEventoId < ultimoId);
+        List<EventoTransmitido> perdidos = lacuna ? List.of() : buffer.stream()
+                .filter(evento -> evento.id > ultimoEventoId && cliente.aceita(evento))
+                .toList();
+        if (lacuna || perdidos.size() > capacidadeFilaCliente) {
+            enfileirar(cliente, new EventoTransmitido(ultimoId, TIPO_REINICIO, null, "{}"));
+            return;
+        }
+        perdidos.forEach(evento -> enfileirar(cliente, evento));
+    }
+
+    private void enviarHeartbeat() {
+        for (Cliente cliente : clientes) {
+            enfileirar(cliente, HEARTBEAT);
+        }
+    }
+
+    /**
+     * Acrescenta o evento à fila do cliente e agenda o envio. Fila cheia: o cliente não acompanha
+     * os eventos e a conexão é encerrada, sem bloquear a distribuição.
+     */
+    private void enfileirar(Cliente cliente, EventoTransmitido evento) {
+        if (cliente.encerrado) {
+            return;
+        }
+        if (cliente.tamanhoFila.incrementAndGet() > capacidadeFilaCliente) {
+            logger.warn("Cliente da transmissão com {} eventos pendentes; conexão encerrada", capacidadeFilaCliente);
+            encerrar(cliente);
+            return;
+        }
+        cliente.fila.add(evento);
+        agendarEnvio(cliente);
+    }
+
+    private void encerrar(Cliente cliente) {
+        cliente.encerrado = true;
+        clientes.remove(cliente);
+        // O emitter é fechado pela tarefa de envio: um send bloqueado segura o emitter
+        agendarEnvio(cliente);
+    }
+
+    private void desconectado(Cliente cliente) {
+        cliente.fechado.set(true);
+        cliente.encerrado = true;
+        clientes.remove(cliente);
+        cliente.fila.clear();
+    }
+
+    private void agendarEnvio(Cliente cliente) {
+        if (!cliente.enviando.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            envio.execute(() -> esvaziar(cliente));
+        } catch (RejectedExecutionException e) {
+            // Encerrando a aplicação
+            cliente.enviando.set(false);
+        }
+    }
+
+    /**
+     * Envia um lote da fila do cliente e, se ainda restar algo, volta ao fim da fila do pool.
+     * Thread de envio.
+     */
+    private void esvaziar(Cliente cliente) {
+        try {
+            for (int enviados = 0; enviados < LOTE_ENVIO && !cliente.encerrado; enviados++) {
+                EventoTransmitido evento = cliente.fila.poll();
+                if (evento == null) {
+                    break;
+                }
+                cliente.tamanhoFila.decrementAndGet();
+                enviar(cliente, evento);
+            }
+            if (cliente.encerrado) {
+                cliente.fila.clear();
+                if (cliente.fechado.compareAndSet(false, true)) {
+                    cliente.emitter.complete();
+                }
+            }
+        } finally {
+            cliente.enviando.set(false);
+        }
+        // Evento ou encerramento chegado enquanto esta tarefa terminava
+        if (cliente.encerrado ? !cliente.fechado.get() : !cliente.fila.isEmpty()) {
+            agendarEnvio(cliente);
+        }
+    }
+
+    private void enviar(Cliente cliente, EventoTransmitido evento) {
+        try {
+            if (evento == HEARTBEAT) {
+                cliente.emitter.send(SseEmitter.event().comment("heartbeat"));
+                return;
+            }
+            cliente.emitter.send(SseEmitter.event()
+                    .id(Long.toString(evento.id))
+                    .name(evento.tipo)
+                    .data(evento.json, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado
+            desconectado(cliente);
+            cliente.emitter.completeWithError(e);
+        }
+    }
+}
@@ -8,9 +8,60 @@ import java.util.*;
 /**
  * Implementação do algoritmo de Dijkstra para calcular a menor rota
  * entre dois bairros utilizando as conexões viárias cadastradas.
+ *
+ * A busca usa um {@link HeapIndexado} com prioridades double exatas e vetores de
+ * trabalho (dist, anterior, visitados) reaproveitados por thread, sem alocação por relaxamento.
+ * Para rotas ponto a ponto também há os modos bidirecional e A* (ver {@link ModoRoteamento}).
  */
 public class AlgoritmoDijkstra {
 
+    /**
+     * Área de trabalho reutilizada entre buscas da mesma thread.
+     */
+    private static final class EspacoBusca {
+        double[] dist = new double[0];
+        int[] anterior = new int[0];
+        boolean[] visitados = new boolean[0];
+        boolean[] alvos = new boolean[0];
+        final HeapIndexado heap = new HeapIndexado(16);
+
+        // Busca reversa (a partir do destino) do modo bidirecional
+        double[] distReversa = new double[0];
+        int[] proximo = new int[0];
+        boolean[] visitadosReversa = new boolean[0];
+        final HeapIndexado heapReversa = new HeapIndexado(16);
+
+        void preparar(int n) {
+            if (dist.length < n) {
+                dist = new double[n];
+                anterior = new int[n];
+                visitados = new boolean[n];
+                alvos = new boolean[n];
+            }
+            heap.garantirCapacidade(n);
+            heap.limpar();
+            Arrays.fill(dist, 0, n, Double.POSITIVE_INFINITY);
+            Arrays.fill(anterior, 0, n, -1);
+            Arrays.fill(visitados, 0, n, false);
+            Arrays.fill(alvos, 0, n, false);
+        }
+
+        void prepararReversa(int n) {
+            if (distReversa.length < n) {
+                distReversa = new double[n];
+                proximo = new int[n];
+                visitadosReversa = new boolean[n];
+            }
+            heapReversa.garantirCapacidade(n);
+            heapReversa.limpar();
+            Arrays.fill(distReversa, 0, n, Double.POSITIVE_INFINITY);
+            Arrays.fill(proximo, 0, n, -1);
+            Arrays.fill(visitadosReversa, 0, n, false);
+        }
+    }
+
+    private static final ThreadLocal<EspacoBusca> ESPACO = ThreadLocal.withInitial(EspacoBusca::new);
+
     /**
      * Calcula a menor rota entre dois bairros.
      *
@@ -22,75 +73,346 @@ public class AlgoritmoDijkstra {
     public static ResultadoRota calcularRota(Bairro bairroOrigem,
                                              Bairro bairroDestino,
                                              List<RuaConexao> todasConexoes) {
+        return calcularRota(GrafoViario.construir(todasConexoes), bairroOrigem, bairroDestino);
+    }
 
-        Map<Long, List<RuaConexao>> adj = new HashMap<>();
-        Map<Long, Bairro> mapaBairros = new HashMap<>();
+    /**
+     * Calcula a menor rota entre dois bairros sobre um snapshot já montado do grafo viário.
+     *
+     * @param grafo          snapshot do grafo viário
+     * @param bairroOrigem   bairro de partida
+     * @param bairroDestino  bairro de chegada
+     * @return ResultadoRota contendo distância total e caminho; se não houver caminho, distanciaKm = POSITIVE_INFINITY
+     */
+    public static ResultadoRota calcularRota(GrafoViario grafo,
+                                             Bairro bairroOrigem,
+                                             Bairro bairroDestino) {
+        return calcularRota(grafo, bairroOrigem, bairroDestino, ModoRoteamento.DIJKSTRA);
+    }
 
-        for (RuaConexao c : todasConexoes) {
-            mapaBairros.put(c.getBairroOrigem().getId(), c.getBairroOrigem());
-            mapaBairros.put(c.getBairroDestino().getId(), c.getBairroDestino());
+    /**
+     * Calcula a menor rota entre dois bairros usando a estratégia de busca informada.
+     * Todas as estratégias retornam a mesma distância mínima.
+     *
+     * @param grafo          snapshot do grafo viário
+     * @param bairroOrigem   bairro de partida
+     * @param bairroDestino  bairro de chegada
+     * @param modo           estratégia de busca
+     * @return ResultadoRota contendo distância total e caminho; se não houver caminho, distanciaKm = POSITIVE_INFINITY
+     */
+    public static ResultadoRota calcularRota(GrafoViario grafo,
+                                             Bairro bairroOrigem,
+                                             Bairro bairroDestino,
+                                             ModoRoteamento modo) {
 
-            adj.computeIfAbsent(c.getBairroOrigem().getId(), k -> new ArrayList<>()).add(c);
+        int origem = grafo.indiceDe(bairroOrigem.getId());
+        int destino = grafo.indiceDe(bairroDestino.getId());
 
-            RuaConexao reversa = new RuaConexao();
-            reversa.setBairroOrigem(c.getBairroDestino());
-            reversa.setBairroDestino(c.getBairroOrigem());
-            reversa.setDistanciaKm(c.getDistanciaKm());
-            adj.computeIfAbsent(reversa.getBairroOrigem().getId(), k -> new ArrayList<>()).add(reversa);
+        if (origem < 0 || destino < 0) {
+            if (bairroOrigem.getId().equals(bairroDestino.getId())) {
+                return new ResultadoRota(0.0, List.of(bairroOrigem));
+            }
+            return new ResultadoRota(Double.POSITIVE_INFINITY, List.of());
         }
 
-        Map<Long, Double> dist = new HashMap<>();
-        Map<Long, Long> anterior = new HashMap<>();
-        Set<Long> visitados = new HashSet<>();
+        // Componentes conexos diferentes: não há caminho, então nem inicia a busca
+        if (!grafo.conectados(origem, destino)) {
+            return new ResultadoRota(Double.POSITIVE_INFINITY, List.of());
+        }
 
-        for (Long id : mapaBairros.keySet()) {
-            dist.put(id, Double.POSITIVE_INFINITY);
+        if (modo == ModoRoteamento.BIDIRECIONAL && origem != destino) {
+            return calcularRotaBidirecional(grafo, origem, destino);
         }
 
-        dist.put(bairroOrigem.getId(), 0.0);
+        EspacoBusca espaco = ESPACO.get();
+        espaco.preparar(grafo.getQuantidadeBairros());
+        espaco.alvos[destino] = true;
+
+        if (modo == ModoRoteamento.A_ESTRELA && grafo.possuiCoordenadas()) {
+            buscar(grafo, origem, 1, destino, espaco);
+        } else {
+            buscar(grafo, origem, 1, espaco);
+        }
 
-        PriorityQueue<long[]> fila = new PriorityQueue<>(Comparator.comparingDouble(a -> a[1]));
-        fila.offer(new long[]{bairroOrigem.getId(), 0L});
+        double[] dist = espaco.dist;
+        int[] anterior = espaco.anterior;
+        double distanciaFinal = dist[destino];
+        if (Double.isInfinite(distanciaFinal)) {
+            return new ResultadoRota(Double.POSITIVE_INFINITY, List.of());
+        }
 
-        while (!fila.isEmpty()) {
-            long[] atual = fila.poll();
-            Long idAtual = atual[0];
+        List<Bairro> caminho = new ArrayList<>();
+        for (int atual = destino; atual >= 0; atual = anterior[atual]) {
+            caminho.add(grafo.bairroNoIndice(atual));
+        }
+        Collections.reverse(caminho);
+
+        return new ResultadoRota(distanciaFinal, caminho);
+    }
+
+    /**
+     * Dijkstra bidirecional: expande alternadamente a partir da origem e do destino
+     * (o grafo é não direcionado, então a busca reversa usa a mesma adjacência) e termina
+     * quando a soma dos menores rótulos das duas filas não pode mais melhorar o melhor
+     * caminho encontrado.
+     */
+    private static ResultadoRota calcularRotaBidirecional(GrafoViario grafo, int origem, int destino) {
+        int n = grafo.getQuantidadeBairros();
+        EspacoBusca espaco = ESPACO.get();
+        espaco.preparar(n);
+        espaco.prepararReversa(n);
 
-            if (visitados.contains(idAtual)) continue;
-            visitados.add(idAtual);
+        double[] dist = espaco.dist;
+        int[] anterior = espaco.anterior;
+        boolean[] visitados = espaco.visitados;
+        HeapIndexado fila = espaco.heap;
 
-            if (idAtual.equals(bairroDestino.getId())) break;
+        double[] distReversa = espaco.distReversa;
+        int[] proximo = espaco.proximo;
+        boolean[] visitadosReversa = espaco.visitadosReversa;
+        HeapIndexado filaReversa = espaco.heapReversa;
 
-            List<RuaConexao> vizinhos = adj.getOrDefault(idAtual, List.of());
-            for (RuaConexao c : vizinhos) {
-                Long idVizinho = c.getBairroDestino().getId();
-                if (visitados.contains(idVizinho)) continue;
+        dist[origem] = 0.0;
+        fila.inserirOuDiminuir(origem, 0.0);
+        distReversa[destino] = 0.0;
+        filaReversa.inserirOuDiminuir(destino, 0.0);
 
-                double novaDist = dist.get(idAtual) + c.getDistanciaKm();
-                if (novaDist < dist.getOrDefault(idVizinho, Double.POSITIVE_INFINITY)) {
-                    dist.put(idVizinho, novaDist);
-                    anterior.put(idVizinho, idAtual);
-                    fila.offer(new long[]{idVizinho, (long) novaDist});
+        double melhor = Double.POSITIVE_INFINITY;
+        int encontro = -1;
+
+        while (!fila.isVazio() && !filaReversa.isVazio()) {
+            if (fila.menorPrioridade() + filaReversa.menorPrioridade() >= melhor) {
+                break;
+            }
+
+            // Expande o lado com a fila menor, equilibrando as duas buscas
+            boolean direta = fila.tamanho() <= filaReversa.tamanho();
+            double[] d = direta ? dist : distReversa;
+            double[] dOutro = direta ? distReversa : dist;
+            int[] pred = direta ? anterior : proximo;
+            boolean[] vis = direta ? visitados : visitadosReversa;
+            HeapIndexado f = direta ? fila : filaReversa;
+
+            int atual = f.removerMinimo();
+            vis[atual] = true;
+
+            for (int arco = grafo.inicioAdjacencia(atual); arco < grafo.fimAdjacencia(atual); arco++) {
+                int vizinho = grafo.destinoDoArco(arco);
+                if (vis[vizinho]) continue;
+
+                double novaDist = d[atual] + grafo.pesoDoArco(arco);
+                if (novaDist < d[vizinho]) {
+                    d[vizinho] = novaDist;
+                    pred[vizinho] = atual;
+                    f.inserirOuDiminuir(vizinho, novaDist);
+
+                    if (d[vizinho] + dOutro[vizinho] < melhor) {
+                        melhor = d[vizinho] + dOutro[vizinho];
+                        encontro = vizinho;
+                    }
                 }
             }
         }
 
-        double distanciaFinal = dist.getOrDefault(bairroDestino.getId(), Double.POSITIVE_INFINITY);
-        if (Double.isInfinite(distanciaFinal)) {
+        if (encontro < 0) {
             return new ResultadoRota(Double.POSITIVE_INFINITY, List.of());
         }
 
         List<Bairro> caminho = new ArrayList<>();
-        Long atual = bairroDestino.getId();
-        while (atual != null) {
-            Bairro b = mapaBairros.get(atual);
-            if (b != null) {
-                caminho.add(b);
-            }
-            atual = anterior.get(atual);
+        for (int atual = encontro; atual >= 0; atual = anterior[atual]) {
+            caminho.add(grafo.bairroNoIndice(atual));
         }
         Collections.reverse(caminho);
+        for (int atual = proximo[encontro]; atual >= 0; atual = proximo[atual]) {
+            caminho.add(grafo.bairroNoIndice(atual));
+        }
 
-        return new ResultadoRota(distanciaFinal, caminho);
+        return new ResultadoRota(melhor, caminho);
+    }
+
+    /**
+     * Calcula, com uma única execução do Dijkstra, a menor rota de cada bairro de origem
+     * informado até o mesmo destino (ex.: bases das ambulâncias candidatas até o local da ocorrência).
+     *
+     * Como o grafo é não direcionado, a busca parte do destino e é interrompida assim que
+     * todas as origens solicitadas forem definitivamente visitadas.
+     *
+     * @param grafo            snapshot do grafo viário
+     * @param bairroDestino    bairro de chegada comum a todas as rotas
+     * @param idsBairrosOrigem ids dos bairros de partida
+     * @return mapa id do bairro de origem -> ResultadoRota (caminho no sentido origem -> destino);
+     *         origens sem caminho até o destino não aparecem no mapa
+     */
+    public static Map<Long, ResultadoRota> distanciasAte(GrafoViario grafo,
+                                                         Bairro bairroDestino,
+                                                         Set<Long> idsBairrosOrigem) {
+        Map<Long, ResultadoRota> resultado = new HashMap<>();
+        if (idsBairrosOrigem.isEmpty()) {
+            return resultado;
+        }
+
+        int destino = grafo.indiceDe(bairroDestino.getId());
+        if (destino < 0) {
+            // Destino fora do grafo: só alcançável a partir dele mesmo
+            if (idsBairrosOrigem.contains(bairroDestino.getId())) {
+                resultado.put(bairroDestino.getId(), new ResultadoRota(0.0, List.of(bairroDestino)));
+            }
+            return resultado;
+        }
+
+        int n = grafo.getQuantidadeBairros();
+        EspacoBusca espaco = ESPACO.get();
+        espaco.preparar(n);
+        double[] dist = espaco.dist;
+        int[] anterior = espaco.anterior;
+        boolean[] alvos = espaco.alvos;
+        int quantidadeAlvos = 0;
+
+        for (Long idOrigem : idsBairrosOrigem) {
+            int indice = grafo.indiceDe(idOrigem);
+            // Origens de outro componente nunca seriam alcançadas e fariam a busca percorrer
+            // todo o componente do destino; ficam de fora já aqui
+            if (indice >= 0 && !alvos[indice] && grafo.conectados(indice, destino)) {
+                alvos[indice] = true;
+                quantidadeAlvos++;
+            }
+        }
+
+        if (quantidadeAlvos == 0) {
+            return resultado;
+        }
+
+        buscar(grafo, destino, quantidadeAlvos, espaco);
+
+        for (int origem = 0; origem < n; origem++) {
+            if (!alvos[origem] || Double.isInfinite(dist[origem])) continue;
+
+            // A árvore de predecessores aponta para o destino, então percorrê-la
+            // a partir da origem já produz o caminho no sentido origem -> destino
+            List<Bairro> caminho = new ArrayList<>();
+            for (int atual = origem; atual >= 0; atual = anterior[atual]) {
+                caminho.add(grafo.bairroNoIndice(atual));
+            }
+            resultado.put(grafo.bairroNoIndice(origem).getId(), new ResultadoRota(dist[origem], caminho));
+        }
+
+        return resultado;
+    }
+
+    /**
+     * Calcula a árvore de caminhos mínimos completa a partir de um vértice do grafo
+     * (índices internos do {@link GrafoViario}).
+     *
+     * @param grafo         snapshot do grafo viário
+     * @param origem        índice do vértice de partida
+     * @param distSaida     recebe a distância de cada vértice até a origem (POSITIVE_INFINITY se inalcançável)
+     * @param anteriorSaida recebe o predecessor de cada vértice na árvore (-1 para a origem e inalcançáveis)
+     */
+    public static void arvoreCaminhosMinimos(GrafoViario grafo,
+                                             int origem,
+                                             double[] distSaida,
+                                             int[] anteriorSaida) {
+        int n = grafo.getQuantidadeBairros();
+        EspacoBusca espaco = ESPACO.get();
+        espaco.preparar(n);
+
+        // Sem alvos marcados: a busca só termina ao esgotar a componente da origem
+        buscar(grafo, origem, 0, espaco);
+
+        System.arraycopy(espaco.dist, 0, distSaida, 0, n);
+        System.arraycopy(espaco.anterior, 0, anteriorSaida, 0, n);
+    }
+
+    /**
+     * Calcula, com uma única busca a partir de várias origens ao mesmo tempo, a distância de cada
+     * vértice até a origem mais próxima (ex.: distância de cada bairro à base de ambulância mais próxima).
+     *
+     * O resultado é exatamente o menor valor entre as árvores de caminhos mínimos de cada origem
+     * ({@link #arvoreCaminhosMinimos}), pois as distâncias só crescem ao longo do caminho.
+     *
+     * @param grafo     snapshot do grafo viário
+     * @param origens   índices dos vértices de partida (repetições são ignoradas)
+     * @param distSaida recebe a distância de cada vértice até a origem mais próxima
+     *                  (POSITIVE_INFINITY se nenhuma origem o alcança)
+     */
+    public static void distanciasDaOrigemMaisProxima(GrafoViario grafo, int[] origens, double[] distSaida) {
+        int n = grafo.getQuantidadeBairros();
+        EspacoBusca espaco = ESPACO.get();
+        espaco.preparar(n);
+
+        for (int origem : origens) {
+            if (espaco.dist[origem] != 0.0) {
+                espaco.dist[origem] = 0.0;
+                espaco.heap.inserirOuDiminuir(origem, 0.0);
+            }
+        }
+        expandir(grafo, 0, -1, espaco);
+
+        System.arraycopy(espaco.dist, 0, distSaida, 0, n);
+    }
+
+    /**
+     * Executa o Dijkstra a partir de {@code origem}, preenchendo dist/anterior do espaço de trabalho,
+     * até que todos os vértices marcados em {@code espaco.alvos} estejam definitivamente visitados
+     * (ou a componente da origem tenha sido esgotada).
+     */
+    private static void buscar(GrafoViario grafo,
+                               int origem,
+                               int quantidadeAlvos,
+                               EspacoBusca espaco) {
+        buscar(grafo, origem, quantidadeAlvos, -1, espaco);
+    }
+
+    /**
+     * Mesmo que {@link #buscar(GrafoViario, int, int, EspacoBusca)}; se {@code alvoHeuristica >= 0}
+     * executa A*, ordenando a fila por dist + limite inferior até esse vértice.
+     */
+    private static void buscar(GrafoViario grafo,
+                               int origem,
+                               int quantidadeAlvos,
+                               int alvoHeuristica,
+                               EspacoBusca espaco) {
+        espaco.dist[origem] = 0.0;
+        espaco.heap.inserirOuDiminuir(origem, heuristica(grafo, origem, alvoHeuristica));
+        expandir(grafo, quantidadeAlvos, alvoHeuristica, espaco);
+    }
+
+    /**
+     * Laço principal do Dijkstra/A* sobre a fila já semeada com a(s) origem(ns).
+     */
+    private static void expandir(GrafoViario grafo,
+                                 int quantidadeAlvos,
+                                 int alvoHeuristica,
+                                 EspacoBusca espaco) {
+        double[] dist = espaco.dist;
+        int[] anterior = espaco.anterior;
+        boolean[] visitados = espaco.visitados;
+        boolean[] alvos = espaco.alvos;
+        HeapIndexado fila = espaco.heap;
+
+        int alvosRestantes = quantidadeAlvos;
+
+        while (!fila.isVazio()) {
+            int atual = fila.removerMinimo();
+            visitados[atual] = true;
+
+            if (alvos[atual] && --alvosRestantes == 0) break;
+
+            for (int arco = grafo.inicioAdjacencia(atual); arco < grafo.fimAdjacencia(atual); arco++) {
+                int vizinho = grafo.destinoDoArco(arco);
+                if (visitados[vizinho]) continue;
+
+                double novaDist = dist[atual] + grafo.pesoDoArco(arco);
+                if (novaDist < dist[vizinho]) {
+                    dist[vizinho] = novaDist;
+                    anterior[vizinho] = atual;
+                    fila.inserirOuDiminuir(vizinho, novaDist + heuristica(grafo, vizinho, alvoHeuristica));
+                }
+            }
+        }
+    }
+
+    private static double heuristica(GrafoViario grafo, int vertice, int alvo) {
+        return alvo >= 0 ? grafo.limiteInferiorKm(vertice, alvo) : 0.0;
     }
 }
@@ -0,0 +1,124 @@
+package com.vitalistech.sosrota.util;
+
+import java.util.Arrays;
+
+/**
+ * Atribuição de custo mínimo (algoritmo húngaro com potenciais, O(n² · m)).
+ *
+ * Recebe uma matriz de custos linhas × colunas (por exemplo, ocorrências × ambulâncias) e
+ * associa cada linha a no máximo uma coluna, e vice-versa, minimizando a soma dos custos
+ * das associações feitas. Se houver mais linhas que colunas, só {@code colunas} linhas
+ * recebem associação, e vice-versa.
+ *
+ * Custos infinitos (sem rota) marcam pares proibidos: nunca aparecem no resultado, mesmo que
+ * isso deixe a linha sem associação.
+ */
+public final class AlgoritmoHungaro {
+
+    private AlgoritmoHungaro() {
+    }
+
+    /**
+     * @param custo matriz retangular de custos não negativos; {@code Double.POSITIVE_INFINITY} proíbe o par
+     * @return para cada linha, o índice da coluna associada, ou -1 se a linha ficou sem associação
+     */
+    public static int[] resolver(double[][] custo) {
+        int linhas = custo.length;
+        int colunas = linhas == 0 ? 0 : custo[0].length;
+        int[] resultado = new int[linhas];
+        Arrays.fill(resultado, -1);
+        if (linhas == 0 || colunas == 0) {
+            return resultado;
+        }
+
+        // Pares proibidos recebem um custo maior que qualquer atribuição só com pares permitidos
+        double somaFinitos = 0.0;
+        for (double[] linha : custo) {
+            if (linha.length != colunas) {
+                throw new IllegalArgumentException("A matriz de custos deve ser retangular");
+            }
+            for (double c : linha) {
+                if (Double.isNaN(c) || c < 0) {
+                    throw new IllegalArgumentException("Custos devem ser não negativos");
+                }
+                if (!Double.isInfinite(c)) {
+                    somaFinitos += c;
+                }
+            }
+        }
+        double proibido = (somaFinitos + 1.0) * (Math.min(linhas, colunas) + 1);
+
+        // O algoritmo abaixo exige linhas <= colunas; caso contrário, resolve a transposta
+        boolean transposta = linhas > colunas;
+        int n = transposta ? colunas : linhas;
+        int m = transposta ? linhas : colunas;
+        double[][] a = new double[n + 1][m + 1];
+        for (int i = 1; i <= n; i++) {
+            for (int j = 1; j <= m; j++) {
+                double c = transposta ? custo[j - 1][i - 1] : custo[i - 1][j - 1];
+                a[i][j] = Double.isInfinite(c) ? proibido : c;
+            }
+        }
+
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] p = new int[m + 1];      // p[j] = linha associada à coluna j (0 = nenhuma)
+        int[] caminho = new int[m + 1];
+        double[] minimo = new double[m + 1];
+        boolean[] usada = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minimo, Double.POSITIVE_INFINITY);
+            Arrays.fill(usada, false);
+            do {
+                usada[j0] = true;
+                int i0 = p[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (!usada[j]) {
+                        double reduzido = a[i0][j] - u[i0] - v[j];
+                        if (reduzido < minimo[j]) {
+                            minimo[j] = reduzido;
+                            caminho[j] = j0;
+                        }
+                        if (minimo[j] < delta) {
+                            delta = minimo[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (usada[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minimo[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+
+            // Inverte o caminho aumentante
+            do {
+                int j1 = caminho[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        for (int j = 1; j <= m; j++) {
+            if (p[j] == 0) {
+                continue;
+            }
+            int linha = transposta ? j - 1 : p[j] - 1;
+            int coluna = transposta ? p[j] - 1 : j - 1;
+            if (!Double.isInfinite(custo[linha][coluna])) {
+                resultado[linha] = coluna;
+            }
+        }
+        return resultado;
+    }
+}
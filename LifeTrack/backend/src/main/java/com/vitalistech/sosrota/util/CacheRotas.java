@@ -0,0 +1,138 @@
+package com.vitalistech.sosrota.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Cache LRU limitado de rotas calculadas, indexado por (bairro de origem, bairro de destino).
+ *
+ * Todas as entradas pertencem a uma única versão do grafo viário: ao receber uma consulta
+ * de versão diferente o cache é esvaziado, de modo que nunca devolve rota de um grafo antigo.
+ * As rotas guardadas são {@link ResultadoRota} imutáveis e podem ser compartilhadas entre threads.
+ */
+public final class CacheRotas {
+
+    private final int capacidade;
+    private final LinkedHashMap<Chave, ResultadoRota> entradas;
+
+    private long versao = Long.MIN_VALUE;
+    private long acertos;
+    private long falhas;
+    private long remocoes;
+    private long invalidacoes;
+
+    public CacheRotas(int capacidade) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("Capacidade do cache de rotas deve ser positiva");
+        }
+        this.capacidade = capacidade;
+        // accessOrder = true: a entrada menos usada recentemente é a primeira a sair
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Chave, ResultadoRota> maisAntiga) {
+                if (size() > CacheRotas.this.capacidade) {
+                    remocoes++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Retorna a rota em cache ou null, contabilizando acerto/falha.
+     */
+    public synchronized ResultadoRota buscar(long versaoGrafo, long idOrigem, long idDestino) {
+        sincronizarVersao(versaoGrafo);
+        ResultadoRota rota = entradas.get(new Chave(idOrigem, idDestino));
+        if (rota != null) {
+            acertos++;
+        } else {
+            falhas++;
+        }
+        return rota;
+    }
+
+    /**
+     * Guarda a rota calculada para a versão informada do grafo.
+     */
+    public synchronized void guardar(long versaoGrafo, long idOrigem, long idDestino, ResultadoRota rota) {
+        sincronizarVersao(versaoGrafo);
+        if (versaoGrafo != versao) {
+            return;
+        }
+        entradas.put(new Chave(idOrigem, idDestino), rota);
+    }
+
+    /**
+     * Retorna a rota em cache ou calcula, guarda e retorna. O cálculo é feito fora do lock.
+     */
+    public ResultadoRota obterOuCalcular(long versaoGrafo, long idOrigem, long idDestino,
+                                         Supplier<ResultadoRota> calculo) {
+        ResultadoRota rota = buscar(versaoGrafo, idOrigem, idDestino);
+        if (rota == null) {
+            rota = calculo.get();
+            guardar(versaoGrafo, idOrigem, idDestino, rota);
+        }
+        return rota;
+    }
+
+    private void sincronizarVersao(long versaoGrafo) {
+        // Só avança: uma consulta atrasada com snapshot antigo não apaga o cache da versão nova
+        if (versaoGrafo > versao) {
+            if (!entradas.isEmpty()) {
+                invalidacoes++;
+            }
+            entradas.clear();
+            versao = versaoGrafo;
+        }
+    }
+
+    public synchronized int tamanho() {
+        return entradas.size();
+    }
+
+    public int getCapacidade() {
+        return capacidade;
+    }
+
+    public synchronized long getAcertos() {
+        return acertos;
+    }
+
+    public synchronized long getFalhas() {
+        return falhas;
+    }
+
+    public synchronized long getRemocoes() {
+        return remocoes;
+    }
+
+    public synchronized long getInvalidacoes() {
+        return invalidacoes;
+    }
+
+    private static final class Chave {
+        private final long idOrigem;
+        private final long idDestino;
+
+        Chave(long idOrigem, long idDestino) {
+            this.idOrigem = idOrigem;
+            this.idDestino = idDestino;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Chave)) return false;
+            Chave outra = (Chave) o;
+            return idOrigem == outra.idOrigem && idDestino == outra.idDestino;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(idOrigem) * 31 + Long.hashCode(idDestino);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.vitalistech.sosrota.util;
+
+import com.vitalistech.sosrota.dominio.modelo.Ambulancia;
+import com.vitalistech.sosrota.dominio.modelo.Bairro;
+import com.vitalistech.sosrota.dominio.modelo.Equipe;
+import com.vitalistech.sosrota.dominio.modelo.Ocorrencia;
+import com.vitalistech.sosrota.dominio.modelo.Profissional;
+import com.vitalistech.sosrota.dominio.modelo.RuaConexao;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Cidade gerada pelo {@link GeradorCidadeSintetica}: bairros, ruas, frota, profissionais,
+ * equipes e um fluxo de ocorrências ordenado pela data/hora de abertura.
+ *
+ * As entidades já vêm com ids preenchidos (1..n em cada lista) para uso direto em memória;
+ * {@link #escreverCsv(Path)} grava os mesmos dados nos formatos lidos por
+ * {@code CarregamentoDadosIniciaisModel}, que identifica os registros por nome, placa e contato.
+ */
+public final class CidadeSintetica {
+
+    public static final String ARQUIVO_BAIRROS = "bairros.csv";
+    public static final String ARQUIVO_RUAS = "ruas_conexoes.csv";
+    public static final String ARQUIVO_AMBULANCIAS = "ambulancias.csv";
+    public static final String ARQUIVO_PROFISSIONAIS = "profissionais.csv";
+    public static final String ARQUIVO_EQUIPES = "equipes.csv";
+    public static final String ARQUIVO_OCORRENCIAS = "ocorrencias.csv";
+
+    private final List<Bairro> bairros = new ArrayList<>();
+    private final List<RuaConexao> conexoes = new ArrayList<>();
+    private final List<Ambulancia> ambulancias = new ArrayList<>();
+    private final List<Profissional> profissionais = new ArrayList<>();
+    private final List<Equipe> equipes = new ArrayList<>();
+    private final List<Ocorrencia> ocorrencias = new ArrayList<>();
+
+    CidadeSintetica() {
+    }
+
+    /**
+     * Grava a cidade no diretório informado (criado se não existir), um arquivo por tipo de registro.
+     *
+     * Formatos (separador ';', sem cabeçalho):
+     * - bairros.csv: nome;latitude;longitude
+     * - ruas_conexoes.csv: bairroOrigem;bairroDestino;distanciaKm
+     * - ambulancias.csv: placa;tipo;bairroBase
+     * - profissionais.csv: nome;funcao;contato;turno
+     * - equipes.csv: descricao;placaAmbulancia;contatos dos profissionais separados por ','
+     * - ocorrencias.csv: dataHoraAbertura;bairro;gravidade;tipoOcorrencia
+     */
+    public void escreverCsv(Path diretorio) throws IOException {
+        Files.createDirectories(diretorio);
+
+        escrever(diretorio.resolve(ARQUIVO_BAIRROS), bairros.stream()
+                .map(b -> String.format(Locale.ROOT, "%s;%.6f;%.6f", b.getNome(), b.getLatitude(), b.getLongitude()))
+                .collect(Collectors.toList()));
+
+        escrever(diretorio.resolve(ARQUIVO_RUAS), conexoes.stream()
+                .map(c -> c.getBairroOrigem().getNome() + ";" + c.getBairroDestino().getNome() + ";" + c.getDistanciaKm())
+                .collect(Collectors.toList()));
+
+        escrever(diretorio.resolve(ARQUIVO_AMBULANCIAS), ambulancias.stream()
+                .map(a -> a.getPlaca() + ";" + a.getTipo().name() + ";" + a.getBairroBase().getNome())
+                .collect(Collectors.toList()));
+
+        escrever(diretorio.resolve(ARQUIVO_PROFISSIONAIS), profissionais.stream()
+                .map(p -> p.getNome() + ";" + p.getFuncao().name() + ";" + p.getContato() + ";" + p.getTurno().name())
+                .collect(Collectors.toList()));
+
+        escrever(diretorio.resolve(ARQUIVO_EQUIPES), equipes.stream()
+                .map(e -> e.getDescricao() + ";" + e.getAmbulancia().getPlaca() + ";" + e.getProfissionais().stream()
+                        .map(ep -> ep.getProfissional().getContato())
+                        .sorted()
+                        .collect(Collectors.joining(",")))
+                .collect(Collectors.toList()));
+
+        escrever(diretorio.resolve(ARQUIVO_OCORRENCIAS), ocorrencias.stream()
+                .map(o -> o.getDataHoraAbertura() + ";" + o.getBairroLocal().getNome() + ";"
+                        + o.getGravidade().name() + ";" + o.getTipoOcorrencia())
+                .collect(Collectors.toList()));
+    }
+
+    private static void escrever(Path arquivo, List<String> linhas) throws IOException {
+        Files.write(arquivo, linhas, StandardCharsets.UTF_8);
+    }
+
+    public List<Bairro> getBairros() {
+        return bairros;
+    }
+
+    public List<RuaConexao> getConexoes() {
+        return conexoes;
+    }
+
+    public List<Ambulancia> getAmbulancias() {
+        return ambulancias;
+    }
+
+    public List<Profissional> getProfissionais() {
+        return profissionais;
+    }
+
+    public List<Equipe> getEquipes() {
+        return equipes;
+    }
+
+    /**
+     * Ocorrências em ordem crescente de data/hora de abertura, todas ABERTAS.
+     */
+    public List<Ocorrencia> getOcorrencias() {
+        return ocorrencias;
+    }
+}
@@ -0,0 +1,25 @@
+package com.vitalistech.sosrota.util;
+
+/**
+ * Cálculos de distância sobre coordenadas geográficas.
+ */
+public final class DistanciaGeografica {
+
+    /** Raio médio da Terra em km. */
+    private static final double RAIO_TERRA_KM = 6371.0088;
+
+    private DistanciaGeografica() {
+    }
+
+    /**
+     * Distância em linha reta (ortodrômica) entre dois pontos, em km, pela fórmula de haversine.
+     */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * RAIO_TERRA_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
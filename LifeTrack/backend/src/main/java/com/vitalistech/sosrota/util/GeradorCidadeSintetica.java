@@ -0,0 +1,311 @@
+package com.vitalistech.sosrota.util;
+
+import com.vitalistech.sosrota.dominio.modelo.Ambulancia;
+import com.vitalistech.sosrota.dominio.modelo.Bairro;
+import com.vitalistech.sosrota.dominio.modelo.Equipe;
+import com.vitalistech.sosrota.dominio.modelo.EquipeProfissional;
+import com.vitalistech.sosrota.dominio.modelo.FuncaoProfissional;
+import com.vitalistech.sosrota.dominio.modelo.Gravidade;
+import com.vitalistech.sosrota.dominio.modelo.Ocorrencia;
+import com.vitalistech.sosrota.dominio.modelo.Profissional;
+import com.vitalistech.sosrota.dominio.modelo.RuaConexao;
+import com.vitalistech.sosrota.dominio.modelo.StatusAmbulancia;
+import com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia;
+import com.vitalistech.sosrota.dominio.modelo.StatusProfissional;
+import com.vitalistech.sosrota.dominio.modelo.TipoAmbulancia;
+import com.vitalistech.sosrota.dominio.modelo.Turno;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Gera cidades sintéticas reprodutíveis para testes de escala: malha viária aproximadamente
+ * planar, frota com equipes completas e um fluxo de ocorrências com chegadas de Poisson.
+ *
+ * A malha é uma grade de ~1 km com pequenas variações de posição. Todas as ruas horizontais e a
+ * primeira coluna vertical são mantidas, então o grafo é sempre conexo; as demais ruas verticais
+ * existem com probabilidade {@code conectividade} e cada quarteirão ganha uma diagonal com
+ * probabilidade {@code proporcaoDiagonais}. Cada rua mede entre 1,1 e 1,5 vez a distância em
+ * linha reta entre os bairros, o que mantém a heurística do A* válida.
+ *
+ * A mesma semente e os mesmos parâmetros sempre produzem exatamente a mesma cidade.
+ */
+public class GeradorCidadeSintetica {
+
+    /** Centro aproximado de Anápolis/GO, mesmo referencial de data/bairros.csv. */
+    private static final double LATITUDE_CENTRO = -16.33;
+    private static final double LONGITUDE_CENTRO = -48.95;
+    /** Espaçamento da grade em graus (~1 km). */
+    private static final double PASSO_GRAUS = 0.009;
+
+    private static final String[] TIPOS_OCORRENCIA = {
+            "Acidente de trânsito", "Mal súbito", "Queda", "Dificuldade respiratória",
+            "Dor no peito", "Convulsão", "Ferimento", "Intoxicação"
+    };
+
+    private final long semente;
+
+    private int quantidadeBairros = 100;
+    private double conectividade = 0.85;
+    private double proporcaoDiagonais = 0.10;
+    private int quantidadeAmbulancias = 10;
+    private double proporcaoUti = 0.25;
+    private int quantidadeOcorrencias = 0;
+    private double ocorrenciasPorHora = 12.0;
+    private double proporcaoAlta = 0.2;
+    private double proporcaoMedia = 0.5;
+    private LocalDateTime inicioOcorrencias = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    public GeradorCidadeSintetica(long semente) {
+        this.semente = semente;
+    }
+
+    /**
+     * Gera a cidade com os parâmetros atuais.
+     */
+    public CidadeSintetica gerar() {
+        validarParametros();
+
+        Random aleatorio = new Random(semente);
+        CidadeSintetica cidade = new CidadeSintetica();
+
+        gerarMalha(cidade, aleatorio);
+        gerarFrota(cidade, aleatorio);
+        gerarOcorrencias(cidade, aleatorio);
+
+        return cidade;
+    }
+
+    private void validarParametros() {
+        if (quantidadeBairros <= 0) {
+            throw new IllegalArgumentException("A cidade sintética precisa de pelo menos um bairro");
+        }
+        if (quantidadeAmbulancias < 0 || quantidadeOcorrencias < 0) {
+            throw new IllegalArgumentException("Quantidades de ambulâncias e ocorrências não podem ser negativas");
+        }
+        if (conectividade < 0 || conectividade > 1 || proporcaoDiagonais < 0 || proporcaoDiagonais > 1
+                || proporcaoUti < 0 || proporcaoUti > 1) {
+            throw new IllegalArgumentException("Proporções devem estar entre 0 e 1");
+        }
+        if (proporcaoAlta < 0 || proporcaoMedia < 0 || proporcaoAlta + proporcaoMedia > 1) {
+            throw new IllegalArgumentException("Proporções de gravidade ALTA e MEDIA devem somar no máximo 1");
+        }
+        if (ocorrenciasPorHora <= 0) {
+            throw new IllegalArgumentException("Taxa de ocorrências por hora deve ser positiva");
+        }
+    }
+
+    private void gerarMalha(CidadeSintetica cidade, Random aleatorio) {
+        List<Bairro> bairros = cidade.getBairros();
+        int lado = (int) Math.ceil(Math.sqrt(quantidadeBairros));
+
+        for (int i = 0; i < quantidadeBairros; i++) {
+            int linha = i / lado;
+            int coluna = i % lado;
+            Bairro bairro = new Bairro();
+            bairro.setId((long) (i + 1));
+            bairro.setNome("Bairro Sintético " + (i + 1));
+            bairro.setLatitude(LATITUDE_CENTRO + (linha - lado / 2.0 + (aleatorio.nextDouble() - 0.5) * 0.6) * PASSO_GRAUS);
+            bairro.setLongitude(LONGITUDE_CENTRO + (coluna - lado / 2.0 + (aleatorio.nextDouble() - 0.5) * 0.6) * PASSO_GRAUS);
+            bairros.add(bairro);
+        }
+
+        for (int i = 0; i < quantidadeBairros; i++) {
+            int coluna = i % lado;
+            int direita = i + 1;
+            int abaixo = i + lado;
+            int diagonal = i + lado + 1;
+
+            if (coluna + 1 < lado && direita < quantidadeBairros) {
+                conectar(cidade, i, direita, aleatorio);
+            }
+            if (abaixo < quantidadeBairros && (coluna == 0 || aleatorio.nextDouble() < conectividade)) {
+                conectar(cidade, i, abaixo, aleatorio);
+            }
+            if (coluna + 1 < lado && diagonal < quantidadeBairros && aleatorio.nextDouble() < proporcaoDiagonais) {
+                conectar(cidade, i, diagonal, aleatorio);
+            }
+        }
+    }
+
+    private void conectar(CidadeSintetica cidade, int origem, int destino, Random aleatorio) {
+        Bairro a = cidade.getBairros().get(origem);
+        Bairro b = cidade.getBairros().get(destino);
+        double linhaReta = DistanciaGeografica.haversineKm(a.getLatitude(), a.getLongitude(),
+                b.getLatitude(), b.getLongitude());
+
+        RuaConexao conexao = new RuaConexao();
+        conexao.setId((long) (cidade.getConexoes().size() + 1));
+        conexao.setBairroOrigem(a);
+        conexao.setBairroDestino(b);
+        // Arredondado para cima em 3 casas: nunca fica menor que a linha reta
+        conexao.setDistanciaKm(Math.ceil(linhaReta * (1.1 + 0.4 * aleatorio.nextDouble()) * 1000.0) / 1000.0);
+        cidade.getConexoes().add(conexao);
+    }
+
+    /**
+     * Uma equipe completa por ambulância: condutor e enfermeiro, mais médico nas UTI,
+     * todos no mesmo turno (mesmas regras do EquipeServico).
+     */
+    private void gerarFrota(CidadeSintetica cidade, Random aleatorio) {
+        Turno[] turnos = Turno.values();
+
+        for (int i = 0; i < quantidadeAmbulancias; i++) {
+            Ambulancia ambulancia = new Ambulancia();
+            ambulancia.setId((long) (i + 1));
+            ambulancia.setPlaca(String.format("SIM%05d", i + 1));
+            ambulancia.setTipo(aleatorio.nextDouble() < proporcaoUti ? TipoAmbulancia.UTI : TipoAmbulancia.BASICA);
+            ambulancia.setStatus(StatusAmbulancia.DISPONIVEL);
+            ambulancia.setAtiva(true);
+            ambulancia.setBairroBase(cidade.getBairros().get(aleatorio.nextInt(quantidadeBairros)));
+            cidade.getAmbulancias().add(ambulancia);
+
+            Equipe equipe = new Equipe();
+            equipe.setId((long) (i + 1));
+            equipe.setDescricao("Equipe " + ambulancia.getPlaca());
+            equipe.setAmbulancia(ambulancia);
+            equipe.setAtiva(true);
+
+            Turno turno = turnos[aleatorio.nextInt(turnos.length)];
+            adicionarMembro(cidade, equipe, FuncaoProfissional.CONDUTOR, turno);
+            adicionarMembro(cidade, equipe, FuncaoProfissional.ENFERMEIRO, turno);
+            if (ambulancia.getTipo() == TipoAmbulancia.UTI) {
+                adicionarMembro(cidade, equipe, FuncaoProfissional.MEDICO, turno);
+            }
+            cidade.getEquipes().add(equipe);
+        }
+    }
+
+    private void adicionarMembro(CidadeSintetica cidade, Equipe equipe, FuncaoProfissional funcao, Turno turno) {
+        int numero = cidade.getProfissionais().size() + 1;
+
+        Profissional profissional = new Profissional();
+        profissional.setId((long) numero);
+        profissional.setNome("Profissional Sintético " + numero);
+        profissional.setFuncao(funcao);
+        // Contato único: (62) 9 seguido do número do profissional com 8 dígitos
+        profissional.setContato(String.format("(62) 9%04d-%04d", numero / 10000, numero % 10000));
+        profissional.setTurno(turno);
+        profissional.setStatus(StatusProfissional.DISPONIVEL);
+        profissional.setAtivo(true);
+        cidade.getProfissionais().add(profissional);
+
+        EquipeProfissional membro = new EquipeProfissional();
+        membro.setId((long) numero);
+        membro.setEquipe(equipe);
+        membro.setProfissional(profissional);
+        equipe.getProfissionais().add(membro);
+    }
+
+    /**
+     * Chegadas de Poisson com taxa {@code ocorrenciasPorHora} a partir de {@code inicioOcorrencias}.
+     */
+    private void gerarOcorrencias(CidadeSintetica cidade, Random aleatorio) {
+        double segundos = 0.0;
+        for (int i = 0; i < quantidadeOcorrencias; i++) {
+            segundos += -Math.log(1.0 - aleatorio.nextDouble()) * 3600.0 / ocorrenciasPorHora;
+
+            double sorteio = aleatorio.nextDouble();
+            Gravidade gravidade = sorteio < proporcaoAlta ? Gravidade.ALTA
+                    : sorteio < proporcaoAlta + proporcaoMedia ? Gravidade.MEDIA
+                    : Gravidade.BAIXA;
+
+            Ocorrencia ocorrencia = new Ocorrencia();
+            ocorrencia.setId((long) (i + 1));
+            ocorrencia.setBairroLocal(cidade.getBairros().get(aleatorio.nextInt(quantidadeBairros)));
+            ocorrencia.setTipoOcorrencia(TIPOS_OCORRENCIA[aleatorio.nextInt(TIPOS_OCORRENCIA.length)]);
+            ocorrencia.setGravidade(gravidade);
+            ocorrencia.setDataHoraAbertura(inicioOcorrencias.plusSeconds((long) segundos));
+            ocorrencia.setStatusOcorrencia(StatusOcorrencia.ABERTA);
+            cidade.getOcorrencias().add(ocorrencia);
+        }
+    }
+
+    public long getSemente() {
+        return semente;
+    }
+
+    public int getQuantidadeBairros() {
+        return quantidadeBairros;
+    }
+
+    public void setQuantidadeBairros(int quantidadeBairros) {
+        this.quantidadeBairros = quantidadeBairros;
+    }
+
+    public double getConectividade() {
+        return conectividade;
+    }
+
+    /**
+     * Probabilidade (0 a 1) de cada rua vertical da grade existir, fora a coluna que garante a conexidade.
+     */
+    public void setConectividade(double conectividade) {
+        this.conectividade = conectividade;
+    }
+
+    public double getProporcaoDiagonais() {
+        return proporcaoDiagonais;
+    }
+
+    public void setProporcaoDiagonais(double proporcaoDiagonais) {
+        this.proporcaoDiagonais = proporcaoDiagonais;
+    }
+
+    public int getQuantidadeAmbulancias() {
+        return quantidadeAmbulancias;
+    }
+
+    public void setQuantidadeAmbulancias(int quantidadeAmbulancias) {
+        this.quantidadeAmbulancias = quantidadeAmbulancias;
+    }
+
+    public double getProporcaoUti() {
+        return proporcaoUti;
+    }
+
+    public void setProporcaoUti(double proporcaoUti) {
+        this.proporcaoUti = proporcaoUti;
+    }
+
+    public int getQuantidadeOcorrencias() {
+        return quantidadeOcorrencias;
+    }
+
+    public void setQuantidadeOcorrencias(int quantidadeOcorrencias) {
+        this.quantidadeOcorrencias = quantidadeOcorrencias;
+    }
+
+    public double getOcorrenciasPorHora() {
+        return ocorrenciasPorHora;
+    }
+
+    public void setOcorrenciasPorHora(double ocorrenciasPorHora) {
+        this.ocorrenciasPorHora = ocorrenciasPorHora;
+    }
+
+    public double getProporcaoAlta() {
+        return proporcaoAlta;
+    }
+
+    public void setProporcaoAlta(double proporcaoAlta) {
+        this.proporcaoAlta = proporcaoAlta;
+    }
+
+    public double getProporcaoMedia() {
+        return proporcaoMedia;
+    }
+
+    public void setProporcaoMedia(double proporcaoMedia) {
+        this.proporcaoMedia = proporcaoMedia;
+    }
+
+    public LocalDateTime getInicioOcorrencias() {
+        return inicioOcorrencias;
+    }
+
+    public void setInicioOcorrencias(LocalDateTime inicioOcorrencias) {
+        this.inicioOcorrencias = inicioOcorrencias;
+    }
+}
@@ -0,0 +1,362 @@
+package com.vitalistech.sosrota.util;
+
+import com.vitalistech.sosrota.dominio.modelo.Bairro;
+import com.vitalistech.sosrota.dominio.modelo.RuaConexao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot imutável do grafo viário (bairros = vértices, ruas_conexoes = arestas).
+ *
+ * Os vértices são indexados de 0 a n-1 e a adjacência é armazenada em formato CSR
+ * (Compressed Sparse Row): os vizinhos do vértice i ficam nas posições
+ * [inicioAdjacencia[i], inicioAdjacencia[i + 1]) dos vetores destinos/pesos/idsConexao.
+ * Cada conexão cadastrada gera dois arcos (ida e volta), pois o grafo é não direcionado.
+ *
+ * Quando todos os bairros têm latitude/longitude, o grafo também guarda as coordenadas e um
+ * fator de escala que torna a distância haversine um limite inferior válido das distâncias
+ * cadastradas (usado pelo A*, ver {@link #limiteInferiorKm(int, int)}).
+ *
+ * Cada vértice também recebe o id do seu componente conexo, calculado por união-busca ao montar
+ * o snapshot (que é remontado a cada inclusão/remoção de conexão, ver {@code GrafoViarioListener}).
+ * Com isso, pares de bairros sem nenhum caminho entre si são descartados em O(1), sem busca.
+ *
+ * Por ser imutável, a mesma instância pode ser compartilhada entre todas as requisições.
+ */
+public final class GrafoViario {
+
+    private final long versao;
+    private final Bairro[] bairros;
+    private final Map<Long, Integer> indicePorId;
+    private final int[] inicioAdjacencia;
+    private final int[] destinos;
+    private final double[] pesos;
+    private final long[] idsConexao;
+    private final int[] componentes;
+    private final int quantidadeComponentes;
+
+    // Coordenadas por vértice (null se algum bairro não tiver coordenadas)
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double fatorHeuristica;
+
+    private GrafoViario(long versao,
+                        Bairro[] bairros,
+                        Map<Long, Integer> indicePorId,
+                        int[] inicioAdjacencia,
+                        int[] destinos,
+                        double[] pesos,
+                        long[] idsConexao,
+                        int[] componentes,
+                        int quantidadeComponentes) {
+        this.versao = versao;
+        this.bairros = bairros;
+        this.indicePorId = indicePorId;
+        this.inicioAdjacencia = inicioAdjacencia;
+        this.destinos = destinos;
+        this.pesos = pesos;
+        this.idsConexao = idsConexao;
+        this.componentes = componentes;
+        this.quantidadeComponentes = quantidadeComponentes;
+
+        int n = bairros.length;
+        boolean todasCoordenadas = n > 0;
+        for (Bairro b : bairros) {
+            if (b.getLatitude() == null || b.getLongitude() == null) {
+                todasCoordenadas = false;
+                break;
+            }
+        }
+
+        if (todasCoordenadas) {
+            latitudes = new double[n];
+            longitudes = new double[n];
+            for (int i = 0; i < n; i++) {
+                latitudes[i] = bairros[i].getLatitude();
+                longitudes[i] = bairros[i].getLongitude();
+            }
+
+            // Menor razão (distância cadastrada / linha reta) entre as conexões, limitada a 1.
+            // Multiplicar a haversine por esse fator garante que ela nunca supere o
+            // comprimento de um caminho no grafo (heurística admissível e consistente).
+            double fator = 1.0;
+            for (int u = 0; u < n; u++) {
+                for (int arco = inicioAdjacencia[u]; arco < inicioAdjacencia[u + 1]; arco++) {
+                    int v = destinos[arco];
+                    double linhaReta = DistanciaGeografica.haversineKm(
+                            latitudes[u], longitudes[u], latitudes[v], longitudes[v]);
+                    if (linhaReta > 0) {
+                        fator = Math.min(fator, pesos[arco] / linhaReta);
+                    }
+                }
+            }
+            // Pequena folga para que arredondamentos não tornem a heurística inconsistente
+            fatorHeuristica = Math.max(fator * (1.0 - 1e-9), 0.0);
+        } else {
+            latitudes = null;
+            longitudes = null;
+            fatorHeuristica = 0.0;
+        }
+    }
+
+    /**
+     * Monta o grafo apenas a partir das conexões (vértices = bairros que aparecem em alguma conexão).
+     */
+    public static GrafoViario construir(List<RuaConexao> conexoes) {
+        return construir(List.of(), conexoes, 0L);
+    }
+
+    /**
+     * Monta o grafo a partir dos bairros e das conexões cadastradas.
+     *
+     * @param todosBairros bairros cadastrados (vértices isolados também entram no grafo)
+     * @param conexoes     conexões viárias (arestas)
+     * @param versao       versão do grafo viário no momento da leitura
+     */
+    public static GrafoViario construir(List<Bairro> todosBairros, List<RuaConexao> conexoes, long versao) {
+        Map<Long, Integer> indicePorId = new HashMap<>();
+        List<Bairro> listaBairros = new ArrayList<>();
+
+        for (Bairro b : todosBairros) {
+            registrarBairro(b, indicePorId, listaBairros);
+        }
+        for (RuaConexao c : conexoes) {
+            registrarBairro(c.getBairroOrigem(), indicePorId, listaBairros);
+            registrarBairro(c.getBairroDestino(), indicePorId, listaBairros);
+        }
+
+        int n = listaBairros.size();
+
+        // Primeira passada: grau de cada vértice
+        int[] inicio = new int[n + 1];
+        for (RuaConexao c : conexoes) {
+            int u = indicePorId.get(c.getBairroOrigem().getId());
+            int v = indicePorId.get(c.getBairroDestino().getId());
+            inicio[u + 1]++;
+            if (u != v) {
+                inicio[v + 1]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            inicio[i + 1] += inicio[i];
+        }
+
+        // Segunda passada: preenche os arcos
+        int totalArcos = inicio[n];
+        int[] destinos = new int[totalArcos];
+        double[] pesos = new double[totalArcos];
+        long[] idsConexao = new long[totalArcos];
+        int[] proximaPosicao = Arrays.copyOf(inicio, n);
+        int[] pai = new int[n];
+        int[] tamanho = new int[n];
+        for (int i = 0; i < n; i++) {
+            pai[i] = i;
+            tamanho[i] = 1;
+        }
+
+        for (RuaConexao c : conexoes) {
+            int u = indicePorId.get(c.getBairroOrigem().getId());
+            int v = indicePorId.get(c.getBairroDestino().getId());
+            double peso = c.getDistanciaKm();
+            long idConexao = c.getId() != null ? c.getId() : -1L;
+
+            int p = proximaPosicao[u]++;
+            destinos[p] = v;
+            pesos[p] = peso;
+            idsConexao[p] = idConexao;
+
+            if (u != v) {
+                int q = proximaPosicao[v]++;
+                destinos[q] = u;
+                pesos[q] = peso;
+                idsConexao[q] = idConexao;
+                unir(pai, tamanho, u, v);
+            }
+        }
+
+        // Renumera as raízes da união-busca como 0..k-1
+        int[] componentes = new int[n];
+        int[] idPorRaiz = new int[n];
+        Arrays.fill(idPorRaiz, -1);
+        int quantidadeComponentes = 0;
+        for (int i = 0; i < n; i++) {
+            int raiz = raiz(pai, i);
+            if (idPorRaiz[raiz] < 0) {
+                idPorRaiz[raiz] = quantidadeComponentes++;
+            }
+            componentes[i] = idPorRaiz[raiz];
+        }
+
+        return new GrafoViario(
+                versao,
+                listaBairros.toArray(new Bairro[0]),
+                Collections.unmodifiableMap(indicePorId),
+                inicio,
+                destinos,
+                pesos,
+                idsConexao,
+                componentes,
+                quantidadeComponentes
+        );
+    }
+
+    /**
+     * Raiz do conjunto de x na união-busca (com compressão de caminho por halving).
+     */
+    private static int raiz(int[] pai, int x) {
+        while (pai[x] != x) {
+            pai[x] = pai[pai[x]];
+            x = pai[x];
+        }
+        return x;
+    }
+
+    /**
+     * Une os conjuntos de a e b pendurando a árvore menor na maior.
+     */
+    private static void unir(int[] pai, int[] tamanho, int a, int b) {
+        int ra = raiz(pai, a);
+        int rb = raiz(pai, b);
+        if (ra == rb) {
+            return;
+        }
+        if (tamanho[ra] < tamanho[rb]) {
+            int t = ra;
+            ra = rb;
+            rb = t;
+        }
+        pai[rb] = ra;
+        tamanho[ra] += tamanho[rb];
+    }
+
+    private static void registrarBairro(Bairro b, Map<Long, Integer> indicePorId, List<Bairro> listaBairros) {
+        if (b == null || b.getId() == null || indicePorId.containsKey(b.getId())) {
+            return;
+        }
+        indicePorId.put(b.getId(), listaBairros.size());
+        listaBairros.add(b);
+    }
+
+    public long getVersao() {
+        return versao;
+    }
+
+    /**
+     * Quantidade de vértices (bairros) do grafo.
+     */
+    public int getQuantidadeBairros() {
+        return bairros.length;
+    }
+
+    /**
+     * Retorna o índice interno do bairro ou -1 se o bairro não fizer parte do grafo.
+     */
+    public int indiceDe(Long idBairro) {
+        if (idBairro == null) return -1;
+        Integer indice = indicePorId.get(idBairro);
+        return indice != null ? indice : -1;
+    }
+
+    public Bairro bairroNoIndice(int indice) {
+        return bairros[indice];
+    }
+
+    public int inicioAdjacencia(int indice) {
+        return inicioAdjacencia[indice];
+    }
+
+    public int fimAdjacencia(int indice) {
+        return inicioAdjacencia[indice + 1];
+    }
+
+    public int destinoDoArco(int arco) {
+        return destinos[arco];
+    }
+
+    public double pesoDoArco(int arco) {
+        return pesos[arco];
+    }
+
+    /**
+     * Quantidade de conexões diretas do bairro (cada conexão cadastrada conta uma vez).
+     */
+    public int grau(int indice) {
+        return inicioAdjacencia[indice + 1] - inicioAdjacencia[indice];
+    }
+
+    /**
+     * Id (0 a getQuantidadeComponentes() - 1) do componente conexo do vértice.
+     */
+    public int componenteDe(int indice) {
+        return componentes[indice];
+    }
+
+    public int getQuantidadeComponentes() {
+        return quantidadeComponentes;
+    }
+
+    /**
+     * Indica se existe algum caminho entre os dois vértices (mesmo componente conexo), em O(1).
+     */
+    public boolean conectados(int u, int v) {
+        return componentes[u] == componentes[v];
+    }
+
+    /**
+     * Versão por id de bairro de {@link #conectados(int, int)}. Um bairro fora do grafo
+     * só está conectado a ele mesmo.
+     */
+    public boolean conectados(Long idOrigem, Long idDestino) {
+        int u = indiceDe(idOrigem);
+        int v = indiceDe(idDestino);
+        if (u < 0 || v < 0) {
+            return idOrigem != null && idOrigem.equals(idDestino);
+        }
+        return componentes[u] == componentes[v];
+    }
+
+    /**
+     * Indica se todos os bairros do grafo têm coordenadas (pré-requisito do A*).
+     */
+    public boolean possuiCoordenadas() {
+        return latitudes != null;
+    }
+
+    /**
+     * Limite inferior, em km, da menor distância pelo grafo entre dois vértices:
+     * haversine entre as coordenadas multiplicada pelo fator de escala do grafo.
+     * Retorna 0 quando o grafo não tem coordenadas.
+     */
+    public double limiteInferiorKm(int u, int v) {
+        if (latitudes == null || fatorHeuristica == 0.0) {
+            return 0.0;
+        }
+        return fatorHeuristica * DistanciaGeografica.haversineKm(
+                latitudes[u], longitudes[u], latitudes[v], longitudes[v]);
+    }
+
+    /**
+     * Retorna o id da conexão (ruas_conexoes) de menor distância entre dois bairros vizinhos,
+     * ou null se não houver conexão direta entre eles.
+     */
+    public Long idConexaoEntre(Long idOrigem, Long idDestino) {
+        int u = indiceDe(idOrigem);
+        int v = indiceDe(idDestino);
+        if (u < 0 || v < 0) return null;
+
+        long melhorId = -1L;
+        double menorPeso = Double.POSITIVE_INFINITY;
+        for (int arco = inicioAdjacencia[u]; arco < inicioAdjacencia[u + 1]; arco++) {
+            if (destinos[arco] == v && pesos[arco] < menorPeso) {
+                menorPeso = pesos[arco];
+                melhorId = idsConexao[arco];
+            }
+        }
+        return melhorId >= 0 ? melhorId : null;
+    }
+}
@@ -0,0 +1,157 @@
+package com.vitalistech.sosrota.util;
+
+import java.util.Arrays;
+
+/**
+ * Heap mínimo d-ário indexado, especializado em vértices {@code int} e prioridades {@code double}.
+ *
+ * Cada vértice aparece no máximo uma vez no heap; {@link #inserirOuDiminuir(int, double)}
+ * insere o vértice ou reduz sua prioridade (decrease-key) sem criar novas entradas.
+ * Não há boxing nem alocação por operação, de modo que a mesma instância pode ser
+ * reutilizada em várias buscas (ver {@link #limpar()}).
+ */
+public final class HeapIndexado {
+
+    /** Aridade do heap: 4 filhos por nó reduz a altura e melhora a localidade de cache. */
+    private static final int ARIDADE = 4;
+
+    private int[] heap;      // posição -> vértice
+    private int[] posicao;   // vértice -> posição no heap (-1 se ausente)
+    private double[] chave;  // vértice -> prioridade atual
+    private int tamanho;
+
+    public HeapIndexado(int capacidade) {
+        heap = new int[Math.max(capacidade, 1)];
+        posicao = new int[Math.max(capacidade, 1)];
+        chave = new double[Math.max(capacidade, 1)];
+        Arrays.fill(posicao, -1);
+    }
+
+    /**
+     * Garante espaço para vértices de 0 a capacidade-1, preservando o conteúdo atual.
+     */
+    public void garantirCapacidade(int capacidade) {
+        if (capacidade <= posicao.length) {
+            return;
+        }
+        int novaCapacidade = Math.max(capacidade, posicao.length * 2);
+        int antiga = posicao.length;
+        heap = Arrays.copyOf(heap, novaCapacidade);
+        posicao = Arrays.copyOf(posicao, novaCapacidade);
+        chave = Arrays.copyOf(chave, novaCapacidade);
+        Arrays.fill(posicao, antiga, novaCapacidade, -1);
+    }
+
+    /**
+     * Esvazia o heap em O(tamanho), sem percorrer toda a capacidade.
+     */
+    public void limpar() {
+        for (int i = 0; i < tamanho; i++) {
+            posicao[heap[i]] = -1;
+        }
+        tamanho = 0;
+    }
+
+    public boolean isVazio() {
+        return tamanho == 0;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    public boolean contem(int vertice) {
+        return vertice < posicao.length && posicao[vertice] >= 0;
+    }
+
+    /**
+     * Insere o vértice com a prioridade informada ou, se ele já estiver no heap
+     * com prioridade maior, reduz a prioridade. Prioridades maiores são ignoradas.
+     */
+    public void inserirOuDiminuir(int vertice, double prioridade) {
+        int p = posicao[vertice];
+        if (p < 0) {
+            p = tamanho++;
+            heap[p] = vertice;
+            posicao[vertice] = p;
+            chave[vertice] = prioridade;
+            subir(p);
+        } else if (prioridade < chave[vertice]) {
+            chave[vertice] = prioridade;
+            subir(p);
+        }
+    }
+
+    /**
+     * Prioridade do vértice de menor prioridade (o heap não pode estar vazio).
+     */
+    public double menorPrioridade() {
+        return chave[heap[0]];
+    }
+
+    /**
+     * Remove e retorna o vértice de menor prioridade (o heap não pode estar vazio).
+     */
+    public int removerMinimo() {
+        if (tamanho == 0) {
+            throw new IllegalStateException("Heap vazio");
+        }
+        int minimo = heap[0];
+        posicao[minimo] = -1;
+        tamanho--;
+        if (tamanho > 0) {
+            int ultimo = heap[tamanho];
+            heap[0] = ultimo;
+            posicao[ultimo] = 0;
+            descer(0);
+        }
+        return minimo;
+    }
+
+    private void subir(int p) {
+        int vertice = heap[p];
+        double k = chave[vertice];
+        while (p > 0) {
+            int pai = (p - 1) / ARIDADE;
+            int verticePai = heap[pai];
+            if (chave[verticePai] <= k) {
+                break;
+            }
+            heap[p] = verticePai;
+            posicao[verticePai] = p;
+            p = pai;
+        }
+        heap[p] = vertice;
+        posicao[vertice] = p;
+    }
+
+    private void descer(int p) {
+        int vertice = heap[p];
+        double k = chave[vertice];
+        while (true) {
+            int primeiroFilho = p * ARIDADE + 1;
+            if (primeiroFilho >= tamanho) {
+                break;
+            }
+            int ultimoFilho = Math.min(primeiroFilho + ARIDADE, tamanho);
+            int menorFilho = primeiroFilho;
+            double menorChave = chave[heap[primeiroFilho]];
+            for (int f = primeiroFilho + 1; f < ultimoFilho; f++) {
+                double c = chave[heap[f]];
+                if (c < menorChave) {
+                    menorChave = c;
+                    menorFilho = f;
+                }
+            }
+            if (menorChave >= k) {
+                break;
+            }
+            int verticeFilho = heap[menorFilho];
+            heap[p] = verticeFilho;
+            posicao[verticeFilho] = p;
+            p = menorFilho;
+        }
+        heap[p] = vertice;
+        posicao[vertice] = p;
+    }
+}
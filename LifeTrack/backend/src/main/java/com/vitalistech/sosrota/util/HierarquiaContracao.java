@@ -0,0 +1,550 @@
+package com.vitalistech.sosrota.util;
+
+import com.vitalistech.sosrota.dominio.modelo.Bairro;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Motor de roteamento por hierarquia de contração (Contraction Hierarchies).
+ *
+ * Pré-processamento ({@link #preprocessar(GrafoViario)}): os vértices são contraídos um a um,
+ * em ordem de importância crescente. Ao contrair v, para cada par de vizinhos ainda não
+ * contraídos (u, w) cujo menor caminho passa obrigatoriamente por v é criado um atalho u-w
+ * com o peso u-v-w. Cada vértice guarda apenas as arestas para vértices de nível maior.
+ *
+ * Consulta: como o grafo é não direcionado, a origem e o destino fazem buscas "só para cima"
+ * no mesmo grafo de arestas ascendentes; a menor soma sobre os vértices alcançados pelas duas
+ * buscas é a distância mínima. Os atalhos são então desempacotados no caminho original de bairros.
+ *
+ * Imutável depois de construída; vale apenas para a versão do grafo de origem.
+ */
+public final class HierarquiaContracao implements MotorRoteamento {
+
+    /** Limite de vértices visitados em cada busca de caminho alternativo (witness search). */
+    private static final int LIMITE_BUSCA_TESTEMUNHA = 500;
+
+    private final GrafoViario grafo;
+    private final int[] nivel;
+
+    // Grafo ascendente em formato CSR
+    private final int[] inicioAcima;
+    private final int[] destinoAcima;
+    private final double[] pesoAcima;
+
+    // Vértice intermediário de cada atalho, indexado pelo par (menor, maior)
+    private final Map<Long, Integer> meioDoAtalho;
+
+    private HierarquiaContracao(GrafoViario grafo, int[] nivel, int[] inicioAcima, int[] destinoAcima,
+                                double[] pesoAcima, Map<Long, Integer> meioDoAtalho) {
+        this.grafo = grafo;
+        this.nivel = nivel;
+        this.inicioAcima = inicioAcima;
+        this.destinoAcima = destinoAcima;
+        this.pesoAcima = pesoAcima;
+        this.meioDoAtalho = meioDoAtalho;
+    }
+
+    // ---------------------------------------------------------------------
+    // Pré-processamento
+    // ---------------------------------------------------------------------
+
+    /**
+     * Aresta (original ou atalho) entre um vértice e um vizinho no grafo em contração.
+     */
+    private static final class Aresta {
+        double peso;
+        int meio; // -1 para conexão original
+
+        Aresta(double peso, int meio) {
+            this.peso = peso;
+            this.meio = meio;
+        }
+    }
+
+    /**
+     * Contrai todo o grafo e monta a hierarquia.
+     */
+    public static HierarquiaContracao preprocessar(GrafoViario grafo) {
+        return new Contracao(grafo).executar();
+    }
+
+    /**
+     * Estado mutável usado apenas durante o pré-processamento.
+     */
+    private static final class Contracao {
+
+        private final GrafoViario grafo;
+        private final int n;
+        private final List<Map<Integer, Aresta>> vizinhos;
+        private final boolean[] contraido;
+        private final int[] vizinhosContraidos;
+
+        // Busca de testemunha: vetores reaproveitados com lista de vértices tocados
+        private final double[] distTestemunha;
+        private final int[] tocados;
+        private int quantidadeTocados;
+        private final HeapIndexado filaTestemunha;
+
+        Contracao(GrafoViario grafo) {
+            this.grafo = grafo;
+            this.n = grafo.getQuantidadeBairros();
+            this.vizinhos = new ArrayList<>(n);
+            this.contraido = new boolean[n];
+            this.vizinhosContraidos = new int[n];
+            this.distTestemunha = new double[n];
+            this.tocados = new int[n];
+            this.filaTestemunha = new HeapIndexado(n);
+            Arrays.fill(distTestemunha, Double.POSITIVE_INFINITY);
+
+            for (int v = 0; v < n; v++) {
+                vizinhos.add(new HashMap<>());
+            }
+            // Mantém apenas a menor conexão entre cada par e descarta laços
+            for (int u = 0; u < n; u++) {
+                for (int arco = grafo.inicioAdjacencia(u); arco < grafo.fimAdjacencia(u); arco++) {
+                    int v = grafo.destinoDoArco(arco);
+                    if (u == v) continue;
+                    double peso = grafo.pesoDoArco(arco);
+                    Aresta existente = vizinhos.get(u).get(v);
+                    if (existente == null || peso < existente.peso) {
+                        vizinhos.get(u).put(v, new Aresta(peso, -1));
+                    }
+                }
+            }
+        }
+
+        HierarquiaContracao executar() {
+            int[] nivel = new int[n];
+            // Arestas ascendentes de cada vértice: vizinho -> peso, registradas na contração
+            List<Map<Integer, Aresta>> acima = new ArrayList<>(n);
+            for (int v = 0; v < n; v++) {
+                acima.add(Collections.emptyMap());
+            }
+            Map<Long, Integer> meioDoAtalho = new HashMap<>();
+
+            // Fila por prioridade com atualização preguiçosa: {prioridade, vértice}
+            PriorityQueue<double[]> fila = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+            for (int v = 0; v < n; v++) {
+                fila.offer(new double[]{prioridade(v), v});
+            }
+
+            int proximoNivel = 0;
+            while (!fila.isEmpty()) {
+                int v = (int) fila.poll()[1];
+                if (contraido[v]) continue;
+
+                // Recalcula; se deixou de ser a menor, volta para a fila
+                double atual = prioridade(v);
+                if (!fila.isEmpty() && atual > fila.peek()[0]) {
+                    fila.offer(new double[]{atual, v});
+                    continue;
+                }
+
+                // As arestas restantes de v apontam todas para vértices de nível maior
+                acima.set(v, new HashMap<>(vizinhos.get(v)));
+                for (Map.Entry<Integer, Aresta> e : vizinhos.get(v).entrySet()) {
+                    if (e.getValue().meio >= 0) {
+                        meioDoAtalho.put(chavePar(v, e.getKey(), n), e.getValue().meio);
+                    }
+                }
+
+                contrair(v, true);
+                nivel[v] = proximoNivel++;
+            }
+
+            int[] inicio = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                inicio[v + 1] = inicio[v] + acima.get(v).size();
+            }
+            int[] destino = new int[inicio[n]];
+            double[] peso = new double[inicio[n]];
+            for (int v = 0; v < n; v++) {
+                int p = inicio[v];
+                for (Map.Entry<Integer, Aresta> e : acima.get(v).entrySet()) {
+                    destino[p] = e.getKey();
+                    peso[p] = e.getValue().peso;
+                    p++;
+                }
+            }
+
+            return new HierarquiaContracao(grafo, nivel, inicio, destino, peso, meioDoAtalho);
+        }
+
+        /**
+         * Diferença de arestas (atalhos necessários - arestas removidas) mais vizinhos já contraídos,
+         * o que espalha as contrações uniformemente pelo grafo.
+         */
+        private double prioridade(int v) {
+            int atalhos = contrair(v, false);
+            return atalhos - vizinhos.get(v).size() + vizinhosContraidos[v];
+        }
+
+        /**
+         * Simula ({@code aplicar = false}) ou executa a contração de v.
+         *
+         * @return quantidade de atalhos necessários
+         */
+        private int contrair(int v, boolean aplicar) {
+            Map<Integer, Aresta> adj = vizinhos.get(v);
+            int[] viz = new int[adj.size()];
+            double[] pesos = new double[adj.size()];
+            int k = 0;
+            double maiorPeso = 0.0;
+            for (Map.Entry<Integer, Aresta> e : adj.entrySet()) {
+                viz[k] = e.getKey();
+                pesos[k] = e.getValue().peso;
+                maiorPeso = Math.max(maiorPeso, pesos[k]);
+                k++;
+            }
+
+            int atalhos = 0;
+            for (int i = 0; i < k; i++) {
+                int u = viz[i];
+                buscarTestemunhas(u, v, pesos[i] + maiorPeso);
+
+                for (int j = i + 1; j < k; j++) {
+                    int w = viz[j];
+                    double viaV = pesos[i] + pesos[j];
+                    if (distTestemunha[w] <= viaV) {
+                        continue; // existe caminho tão curto quanto sem passar por v
+                    }
+                    atalhos++;
+                    if (aplicar) {
+                        adicionarAtalho(u, w, viaV, v);
+                    }
+                }
+                limparTestemunhas();
+            }
+
+            if (aplicar) {
+                contraido[v] = true;
+                for (int i = 0; i < k; i++) {
+                    vizinhos.get(viz[i]).remove(v);
+                    vizinhosContraidos[viz[i]]++;
+                }
+            }
+            return atalhos;
+        }
+
+        private void adicionarAtalho(int u, int w, double peso, int meio) {
+            Aresta existente = vizinhos.get(u).get(w);
+            if (existente == null) {
+                vizinhos.get(u).put(w, new Aresta(peso, meio));
+                vizinhos.get(w).put(u, new Aresta(peso, meio));
+            } else if (peso < existente.peso) {
+                existente.peso = peso;
+                existente.meio = meio;
+                Aresta reversa = vizinhos.get(w).get(u);
+                reversa.peso = peso;
+                reversa.meio = meio;
+            }
+        }
+
+        /**
+         * Dijkstra limitado a partir de u, ignorando v e vértices já contraídos.
+         */
+        private void buscarTestemunhas(int u, int ignorado, double limite) {
+            distTestemunha[u] = 0.0;
+            tocados[quantidadeTocados++] = u;
+            filaTestemunha.inserirOuDiminuir(u, 0.0);
+
+            int visitados = 0;
+            while (!filaTestemunha.isVazio()) {
+                if (filaTestemunha.menorPrioridade() > limite || visitados >= LIMITE_BUSCA_TESTEMUNHA) {
+                    break;
+                }
+                int atual = filaTestemunha.removerMinimo();
+                visitados++;
+
+                for (Map.Entry<Integer, Aresta> e : vizinhos.get(atual).entrySet()) {
+                    int x = e.getKey();
+                    if (x == ignorado || contraido[x]) continue;
+                    double nd = distTestemunha[atual] + e.getValue().peso;
+                    if (nd < distTestemunha[x]) {
+                        if (Double.isInfinite(distTestemunha[x])) {
+                            tocados[quantidadeTocados++] = x;
+                        }
+                        distTestemunha[x] = nd;
+                        filaTestemunha.inserirOuDiminuir(x, nd);
+                    }
+                }
+            }
+        }
+
+        private void limparTestemunhas() {
+            for (int i = 0; i < quantidadeTocados; i++) {
+                distTestemunha[tocados[i]] = Double.POSITIVE_INFINITY;
+            }
+            quantidadeTocados = 0;
+            filaTestemunha.limpar();
+        }
+    }
+
+    private static long chavePar(int a, int b, int n) {
+        int menor = Math.min(a, b);
+        int maior = Math.max(a, b);
+        return (long) menor * n + maior;
+    }
+
+    // ---------------------------------------------------------------------
+    // Consulta
+    // ---------------------------------------------------------------------
+
+    /**
+     * Vetores de uma busca ascendente, reaproveitados por thread e limpos via lista de vértices tocados.
+     */
+    private static final class BuscaAscendente {
+        double[] dist = new double[0];
+        int[] anterior = new int[0];
+        int[] tocados = new int[0];
+        int quantidadeTocados;
+
+        void preparar(int n) {
+            if (dist.length < n) {
+                dist = new double[n];
+                anterior = new int[n];
+                tocados = new int[n];
+                Arrays.fill(dist, Double.POSITIVE_INFINITY);
+                Arrays.fill(anterior, -1);
+                quantidadeTocados = 0;
+            }
+        }
+
+        void tocar(int v) {
+            if (Double.isInfinite(dist[v])) {
+                tocados[quantidadeTocados++] = v;
+            }
+        }
+
+        void limpar() {
+            for (int i = 0; i < quantidadeTocados; i++) {
+                dist[tocados[i]] = Double.POSITIVE_INFINITY;
+                anterior[tocados[i]] = -1;
+            }
+            quantidadeTocados = 0;
+        }
+    }
+
+    private static final class EspacoConsulta {
+        final BuscaAscendente daOrigem = new BuscaAscendente();
+        final BuscaAscendente doDestino = new BuscaAscendente();
+        final HeapIndexado fila = new HeapIndexado(16);
+    }
+
+    private static final ThreadLocal<EspacoConsulta> ESPACO = ThreadLocal.withInitial(EspacoConsulta::new);
+
+    /**
+     * Busca ascendente a partir de {@code inicio}. Se {@code outra} for informada, calcula o melhor
+     * vértice de encontro com ela e interrompe quando a fila não pode mais melhorar esse valor.
+     *
+     * Usa "stall-on-demand": um vértice cujo rótulo pode ser melhorado por um vizinho de nível maior
+     * não é expandido (seu rótulo não é a distância real, então expandi-lo seria inútil).
+     *
+     * @return {melhor distância, vértice de encontro} quando {@code outra != null}
+     */
+    private double[] buscarParaCima(int inicio, BuscaAscendente busca, BuscaAscendente outra, HeapIndexado fila) {
+        fila.garantirCapacidade(grafo.getQuantidadeBairros());
+        fila.limpar();
+
+        double melhor = Double.POSITIVE_INFINITY;
+        int encontro = -1;
+
+        busca.tocar(inicio);
+        busca.dist[inicio] = 0.0;
+        fila.inserirOuDiminuir(inicio, 0.0);
+
+        while (!fila.isVazio()) {
+            double d = fila.menorPrioridade();
+            if (outra != null && d >= melhor) {
+                break;
+            }
+            int atual = fila.removerMinimo();
+
+            if (outra != null && d + outra.dist[atual] < melhor) {
+                melhor = d + outra.dist[atual];
+                encontro = atual;
+            }
+
+            boolean parado = false;
+            for (int arco = inicioAcima[atual]; arco < inicioAcima[atual + 1]; arco++) {
+                if (busca.dist[destinoAcima[arco]] + pesoAcima[arco] < d) {
+                    parado = true;
+                    break;
+                }
+            }
+            if (parado) continue;
+
+            for (int arco = inicioAcima[atual]; arco < inicioAcima[atual + 1]; arco++) {
+                int w = destinoAcima[arco];
+                double nd = d + pesoAcima[arco];
+                if (nd < busca.dist[w]) {
+                    busca.tocar(w);
+                    busca.dist[w] = nd;
+                    busca.anterior[w] = atual;
+                    fila.inserirOuDiminuir(w, nd);
+                }
+            }
+        }
+        fila.limpar();
+        return new double[]{melhor, encontro};
+    }
+
+    @Override
+    public long getVersao() {
+        return grafo.getVersao();
+    }
+
+    /**
+     * Nível (ordem de contração) do vértice; vértices contraídos por último são os mais "importantes".
+     */
+    public int nivel(int vertice) {
+        return nivel[vertice];
+    }
+
+    @Override
+    public ResultadoRota calcularRota(Bairro bairroOrigem, Bairro bairroDestino) {
+        int origem = grafo.indiceDe(bairroOrigem.getId());
+        int destino = grafo.indiceDe(bairroDestino.getId());
+
+        if (origem < 0 || destino < 0) {
+            if (bairroOrigem.getId().equals(bairroDestino.getId())) {
+                return new ResultadoRota(0.0, List.of(bairroOrigem));
+            }
+            return new ResultadoRota(Double.POSITIVE_INFINITY, List.of());
+        }
+        if (!grafo.conectados(origem, destino)) {
+            return new ResultadoRota(Double.POSITIVE_INFINITY, List.of());
+        }
+
+        EspacoConsulta espaco = prepararEspaco();
+        try {
+            buscarParaCima(destino, espaco.doDestino, null, espaco.fila);
+            return consultarOrigem(origem, espaco);
+        } finally {
+            espaco.doDestino.limpar();
+        }
+    }
+
+    @Override
+    public Map<Long, ResultadoRota> distanciasAte(Bairro bairroDestino, Set<Long> idsBairrosOrigem) {
+        Map<Long, ResultadoRota> resultado = new HashMap<>();
+        int destino = grafo.indiceDe(bairroDestino.getId());
+        if (destino < 0) {
+            if (idsBairrosOrigem.contains(bairroDestino.getId())) {
+                resultado.put(bairroDestino.getId(), new ResultadoRota(0.0, List.of(bairroDestino)));
+            }
+            return resultado;
+        }
+
+        // Só origens do mesmo componente conexo do destino podem ter caminho
+        List<Long> idsConectados = new ArrayList<>();
+        for (Long idOrigem : idsBairrosOrigem) {
+            int origem = grafo.indiceDe(idOrigem);
+            if (origem >= 0 && grafo.conectados(origem, destino)) {
+                idsConectados.add(idOrigem);
+            }
+        }
+        if (idsConectados.isEmpty()) {
+            return resultado;
+        }
+
+        EspacoConsulta espaco = prepararEspaco();
+        try {
+            // A busca ascendente do destino é feita uma única vez e combinada com a de cada origem
+            buscarParaCima(destino, espaco.doDestino, null, espaco.fila);
+            for (Long idOrigem : idsConectados) {
+                int origem = grafo.indiceDe(idOrigem);
+                ResultadoRota rota = consultarOrigem(origem, espaco);
+                if (!Double.isInfinite(rota.getDistanciaKm())) {
+                    resultado.put(idOrigem, rota);
+                }
+            }
+        } finally {
+            espaco.doDestino.limpar();
+        }
+        return resultado;
+    }
+
+    private EspacoConsulta prepararEspaco() {
+        EspacoConsulta espaco = ESPACO.get();
+        int n = grafo.getQuantidadeBairros();
+        espaco.daOrigem.preparar(n);
+        espaco.doDestino.preparar(n);
+        return espaco;
+    }
+
+    /**
+     * Busca ascendente da origem contra a busca do destino já calculada em {@code espaco.doDestino};
+     * desempacota o caminho origem -> encontro -> destino.
+     */
+    private ResultadoRota consultarOrigem(int origem, EspacoConsulta espaco) {
+        BuscaAscendente daOrigem = espaco.daOrigem;
+        BuscaAscendente doDestino = espaco.doDestino;
+        try {
+            double[] encontro = buscarParaCima(origem, daOrigem, doDestino, espaco.fila);
+            double melhor = encontro[0];
+            int meio = (int) encontro[1];
+
+            if (meio < 0) {
+                return new ResultadoRota(Double.POSITIVE_INFINITY, List.of());
+            }
+
+            // Sequência de vértices da hierarquia: origem ... encontro ... destino
+            List<Integer> subida = new ArrayList<>();
+            for (int v = meio; v >= 0; v = daOrigem.anterior[v]) {
+                subida.add(v);
+            }
+            Collections.reverse(subida);
+            for (int v = doDestino.anterior[meio]; v >= 0; v = doDestino.anterior[v]) {
+                subida.add(v);
+            }
+
+            List<Bairro> caminho = new ArrayList<>();
+            caminho.add(grafo.bairroNoIndice(subida.get(0)));
+            for (int i = 0; i + 1 < subida.size(); i++) {
+                desempacotar(subida.get(i), subida.get(i + 1), caminho);
+            }
+
+            return new ResultadoRota(melhor, caminho);
+        } finally {
+            daOrigem.limpar();
+        }
+    }
+
+    /**
+     * Acrescenta ao caminho os vértices originais da aresta a-b (exceto a), expandindo atalhos.
+     */
+    private void desempacotar(int a, int b, List<Bairro> caminho) {
+        int n = grafo.getQuantidadeBairros();
+        // Pilha explícita de pares para não depender da profundidade de recursão
+        int[] pilha = new int[16];
+        int topo = 0;
+        pilha[topo++] = a;
+        pilha[topo++] = b;
+
+        while (topo > 0) {
+            int y = pilha[--topo];
+            int x = pilha[--topo];
+            Integer meio = meioDoAtalho.get(chavePar(x, y, n));
+            if (meio == null) {
+                caminho.add(grafo.bairroNoIndice(y));
+                continue;
+            }
+            if (topo + 4 > pilha.length) {
+                pilha = Arrays.copyOf(pilha, pilha.length * 2);
+            }
+            // Empilha (meio, y) antes de (x, meio) para processar x-meio primeiro
+            pilha[topo++] = meio;
+            pilha[topo++] = y;
+            pilha[topo++] = x;
+            pilha[topo++] = meio;
+        }
+    }
+}
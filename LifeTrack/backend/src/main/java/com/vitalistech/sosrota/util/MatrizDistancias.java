@@ -0,0 +1,137 @@
+package com.vitalistech.sosrota.util;
+
+import com.vitalistech.sosrota.dominio.modelo.Bairro;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Matriz pré-calculada de menores distâncias e próximo salto entre todos os pares de bairros.
+ *
+ * As tabelas são vetores planos n×n indexados por {@code origem * n + destino}, usando os
+ * índices internos do {@link GrafoViario} de onde foram calculadas. Consultas de distância
+ * são O(1) e o caminho é reconstruído seguindo a tabela de próximo salto.
+ *
+ * Imutável depois de calculada; vale apenas para a versão do grafo informada em {@link #getVersao()}.
+ */
+public final class MatrizDistancias {
+
+    private final GrafoViario grafo;
+    private final int n;
+    private final double[] distancias;
+    private final int[] proximoSalto;
+
+    private MatrizDistancias(GrafoViario grafo, double[] distancias, int[] proximoSalto) {
+        this.grafo = grafo;
+        this.n = grafo.getQuantidadeBairros();
+        this.distancias = distancias;
+        this.proximoSalto = proximoSalto;
+    }
+
+    /**
+     * Calcula a matriz executando um Dijkstra completo por bairro de origem,
+     * cada um em uma tarefa do pool informado.
+     */
+    public static MatrizDistancias calcular(GrafoViario grafo, ForkJoinPool pool) {
+        int n = grafo.getQuantidadeBairros();
+        double[] distancias = new double[n * n];
+        int[] proximoSalto = new int[n * n];
+
+        pool.invoke(new CalculoOrigens(grafo, 0, n, distancias, proximoSalto));
+
+        return new MatrizDistancias(grafo, distancias, proximoSalto);
+    }
+
+    /**
+     * Divide o intervalo de origens até chegar a uma origem por tarefa.
+     */
+    private static final class CalculoOrigens extends RecursiveAction {
+
+        private final GrafoViario grafo;
+        private final int inicio;
+        private final int fim;
+        private final double[] distancias;
+        private final int[] proximoSalto;
+
+        CalculoOrigens(GrafoViario grafo, int inicio, int fim, double[] distancias, int[] proximoSalto) {
+            this.grafo = grafo;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.distancias = distancias;
+            this.proximoSalto = proximoSalto;
+        }
+
+        @Override
+        protected void compute() {
+            if (fim - inicio > 1) {
+                int meio = (inicio + fim) >>> 1;
+                invokeAll(new CalculoOrigens(grafo, inicio, meio, distancias, proximoSalto),
+                          new CalculoOrigens(grafo, meio, fim, distancias, proximoSalto));
+                return;
+            }
+            if (fim == inicio) {
+                return;
+            }
+
+            int s = inicio;
+            int n = grafo.getQuantidadeBairros();
+            double[] dist = new double[n];
+            int[] anterior = new int[n];
+            AlgoritmoDijkstra.arvoreCaminhosMinimos(grafo, s, dist, anterior);
+
+            // Grafo não direcionado: na árvore enraizada em s, o predecessor de t é
+            // exatamente o próximo salto de t em direção a s. Cada tarefa escreve só a coluna s.
+            for (int t = 0; t < n; t++) {
+                distancias[t * n + s] = dist[t];
+                proximoSalto[t * n + s] = anterior[t];
+            }
+        }
+    }
+
+    public long getVersao() {
+        return grafo.getVersao();
+    }
+
+    public GrafoViario getGrafo() {
+        return grafo;
+    }
+
+    /**
+     * Menor distância em km entre dois vértices (índices internos); POSITIVE_INFINITY se não houver caminho.
+     */
+    public double distancia(int origem, int destino) {
+        return distancias[origem * n + destino];
+    }
+
+    /**
+     * Calcula a menor rota entre dois bairros com a mesma semântica de
+     * {@link AlgoritmoDijkstra#calcularRota(GrafoViario, Bairro, Bairro)}.
+     */
+    public ResultadoRota rota(Bairro bairroOrigem, Bairro bairroDestino) {
+        int origem = grafo.indiceDe(bairroOrigem.getId());
+        int destino = grafo.indiceDe(bairroDestino.getId());
+
+        if (origem < 0 || destino < 0) {
+            if (bairroOrigem.getId().equals(bairroDestino.getId())) {
+                return new ResultadoRota(0.0, List.of(bairroOrigem));
+            }
+            return new ResultadoRota(Double.POSITIVE_INFINITY, List.of());
+        }
+
+        double distancia = distancia(origem, destino);
+        if (Double.isInfinite(distancia)) {
+            return new ResultadoRota(Double.POSITIVE_INFINITY, List.of());
+        }
+
+        List<Bairro> caminho = new ArrayList<>();
+        caminho.add(grafo.bairroNoIndice(origem));
+        for (int atual = origem; atual != destino; ) {
+            atual = proximoSalto[atual * n + destino];
+            caminho.add(grafo.bairroNoIndice(atual));
+        }
+
+        return new ResultadoRota(distancia, caminho);
+    }
+}
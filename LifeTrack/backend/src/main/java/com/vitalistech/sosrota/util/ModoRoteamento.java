@@ -0,0 +1,19 @@
+package com.vitalistech.sosrota.util;
+
+/**
+ * Estratégia de busca usada no cálculo de rota ponto a ponto.
+ */
+public enum ModoRoteamento {
+
+    /** Dijkstra unidirecional a partir da origem. */
+    DIJKSTRA,
+
+    /** Duas buscas simultâneas (a partir da origem e do destino) que se encontram no meio. */
+    BIDIRECIONAL,
+
+    /**
+     * A* com limite inferior pela distância haversine entre as coordenadas dos bairros.
+     * Se o grafo não tiver coordenadas, equivale ao Dijkstra.
+     */
+    A_ESTRELA
+}
@@ -0,0 +1,35 @@
+package com.vitalistech.sosrota.util;
+
+import com.vitalistech.sosrota.dominio.modelo.Bairro;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Motor de roteamento que executa o {@link AlgoritmoDijkstra} diretamente sobre o snapshot do grafo.
+ */
+public final class MotorDijkstra implements MotorRoteamento {
+
+    private final GrafoViario grafo;
+    private final ModoRoteamento modo;
+
+    public MotorDijkstra(GrafoViario grafo, ModoRoteamento modo) {
+        this.grafo = grafo;
+        this.modo = modo;
+    }
+
+    @Override
+    public long getVersao() {
+        return grafo.getVersao();
+    }
+
+    @Override
+    public ResultadoRota calcularRota(Bairro origem, Bairro destino) {
+        return AlgoritmoDijkstra.calcularRota(grafo, origem, destino, modo);
+    }
+
+    @Override
+    public Map<Long, ResultadoRota> distanciasAte(Bairro destino, Set<Long> idsBairrosOrigem) {
+        return AlgoritmoDijkstra.distanciasAte(grafo, destino, idsBairrosOrigem);
+    }
+}
@@ -0,0 +1,32 @@
+package com.vitalistech.sosrota.util;
+
+import com.vitalistech.sosrota.dominio.modelo.Bairro;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Motor de cálculo de rotas sobre uma versão específica do grafo viário.
+ *
+ * Implementações: {@link MotorDijkstra} (busca direta sobre o snapshot) e
+ * {@link HierarquiaContracao} (consulta sobre o grafo pré-processado).
+ * Todas retornam as mesmas distâncias mínimas e caminhos compostos apenas por conexões cadastradas.
+ */
+public interface MotorRoteamento {
+
+    /**
+     * Versão do grafo viário sobre a qual o motor foi montado.
+     */
+    long getVersao();
+
+    /**
+     * Menor rota entre dois bairros; se não houver caminho, distanciaKm = POSITIVE_INFINITY.
+     */
+    ResultadoRota calcularRota(Bairro origem, Bairro destino);
+
+    /**
+     * Menor rota de cada bairro de origem até o mesmo destino;
+     * origens sem caminho até o destino não aparecem no mapa.
+     */
+    Map<Long, ResultadoRota> distanciasAte(Bairro destino, Set<Long> idsBairrosOrigem);
+}
@@ -7,30 +7,25 @@ import java.util.List;
 /**
  * Representa o resultado do cálculo de rota:
  * distância total em km e lista ordenada de bairros.
+ *
+ * Imutável, para que a mesma instância possa ser compartilhada pelo cache de rotas
+ * entre requisições concorrentes.
  */
-public class ResultadoRota {
+public final class ResultadoRota {
 
-    private double distanciaKm;
-    private List<Bairro> caminho;
+    private final double distanciaKm;
+    private final List<Bairro> caminho;
 
     public ResultadoRota(double distanciaKm, List<Bairro> caminho) {
         this.distanciaKm = distanciaKm;
-        this.caminho = caminho;
+        this.caminho = List.copyOf(caminho);
     }
 
     public double getDistanciaKm() {
         return distanciaKm;
     }
 
-    public void setDistanciaKm(double distanciaKm) {
-        this.distanciaKm = distanciaKm;
-    }
-
     public List<Bairro> getCaminho() {
         return caminho;
     }
-
-    public void setCaminho(List<Bairro> caminho) {
-        this.caminho = caminho;
-    }
 }
@@ -7,6 +7,7 @@ import com.vitalistech.sosrota.dominio.repositorio.AmbulanciaRepositorio;
 import com.vitalistech.sosrota.dominio.repositorio.AtendimentoRepositorio;
 import com.vitalistech.sosrota.dominio.repositorio.BairroRepositorio;
 import com.vitalistech.sosrota.dominio.repositorio.EquipeRepositorio;
+import com.vitalistech.sosrota.dominio.servico.FrotaEstado;
 import com.vitalistech.sosrota.web.dto.CriarAmbulanciaDTO;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -26,15 +27,18 @@ public class AmbulanciaControlador {
     private final BairroRepositorio bairroRepositorio;
     private final AtendimentoRepositorio atendimentoRepositorio;
     private final EquipeRepositorio equipeRepositorio;
+    private final FrotaEstado frotaEstado;
 
     public AmbulanciaControlador(AmbulanciaRepositorio ambulanciaRepositorio,
                                  BairroRepositorio bairroRepositorio,
                                  AtendimentoRepositorio atendimentoRepositorio,
-                                 EquipeRepositorio equipeRepositorio) {
+                                 EquipeRepositorio equipeRepositorio,
+                                 FrotaEstado frotaEstado) {
         this.ambulanciaRepositorio = ambulanciaRepositorio;
         this.bairroRepositorio = bairroRepositorio;
         this.atendimentoRepositorio = atendimentoRepositorio;
         this.equipeRepositorio = equipeRepositorio;
+        this.frotaEstado = frotaEstado;
     }
 
     @GetMapping
@@ -62,7 +66,9 @@ public class AmbulanciaControlador {
         ambulancia.setStatus(StatusAmbulancia.INATIVA);
         ambulancia.setAtiva(false);
 
-        return ResponseEntity.ok(ambulanciaRepositorio.save(ambulancia));
+        Ambulancia salva = ambulanciaRepositorio.save(ambulancia);
+        frotaEstado.registrarAmbulancia(salva);
+        return ResponseEntity.ok(salva);
     }
 
     @PutMapping("/{id}")
@@ -80,10 +86,19 @@ public class AmbulanciaControlador {
                 "Não é possível editar uma ambulância que está em atendimento. Finalize o atendimento antes de editar.");
         }
         
+        // O corpo pode trazer só o id do bairro-base; o estado da frota precisa do bairro completo
+        Bairro bairroBase = dados.getBairroBase();
+        if (bairroBase != null && bairroBase.getId() != null) {
+            bairroBase = bairroRepositorio.findById(bairroBase.getId())
+                    .orElseThrow(() -> new IllegalArgumentException("Bairro não encontrado"));
+        }
+
         a.setPlaca(dados.getPlaca());
         a.setTipo(dados.getTipo());
-        a.setBairroBase(dados.getBairroBase());
-        return ResponseEntity.ok(ambulanciaRepositorio.save(a));
+        a.setBairroBase(bairroBase);
+        Ambulancia salva = ambulanciaRepositorio.save(a);
+        frotaEstado.registrarAmbulancia(salva);
+        return ResponseEntity.ok(salva);
     }
 
     @PutMapping("/{id}/ativar")
@@ -102,7 +117,7 @@ public class AmbulanciaControlador {
         
         a.setAtiva(true);
         a.setStatus(StatusAmbulancia.DISPONIVEL);
-        ambulanciaRepositorio.save(a);
+        frotaEstado.registrarAmbulancia(ambulanciaRepositorio.save(a));
         return ResponseEntity.ok().build();
     }
 
@@ -137,7 +152,7 @@ public class AmbulanciaControlador {
         
         a.setAtiva(false);
         a.setStatus(StatusAmbulancia.INATIVA);
-        ambulanciaRepositorio.save(a);
+        frotaEstado.registrarAmbulancia(ambulanciaRepositorio.save(a));
         return ResponseEntity.ok().build();
     }
 }
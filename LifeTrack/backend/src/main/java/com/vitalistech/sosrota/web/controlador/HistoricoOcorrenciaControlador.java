@@ -1,137 +1,280 @@
 package com.vitalistech.sosrota.web.controlador;
 
-import com.vitalistech.sosrota.dominio.modelo.HistoricoOcorrencia;
+import com.vitalistech.sosrota.dominio.repositorio.VersaoHistorico;
+import com.vitalistech.sosrota.dominio.servico.EsperaHistoricoServico;
 import com.vitalistech.sosrota.dominio.servico.HistoricoOcorrenciaServico;
 import com.vitalistech.sosrota.web.dto.HistoricoOcorrenciaDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Controlador para consulta do histórico de ocorrências.
  * Permite que usuários e administradores consultem o histórico de ações realizadas.
+ *
+ * Todas as consultas são paginadas, das ações mais recentes para as mais antigas. Para a próxima
+ * página, repetir a chamada com antesDe igual ao valor do cabeçalho X-Proximo-Cursor
+ * ("dataHora,id" da última entrada entregue); o cabeçalho não vem na última página.
+ *
+ * O histórico de uma ocorrência também pode ser acompanhado de forma incremental: aposSequencia traz só
+ * as entradas confirmadas depois dela (sequência de confirmação, não o id), o ETag identifica a versão do histórico (If-None-Match com a
+ * versão atual recebe 304 sem consultar as entradas) e esperarSegundos segura a resposta até
+ * surgir uma entrada nova.
  */
 @RestController
 @RequestMapping("/api/historico-ocorrencias")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {HistoricoOcorrenciaControlador.CABECALHO_PROXIMO_CURSOR, HttpHeaders.ETAG})
 public class HistoricoOcorrenciaControlador {
 
+    /** Cabeçalho com o cursor (antesDe) da próxima página; ausente na última página. */
+    public static final String CABECALHO_PROXIMO_CURSOR = "X-Proximo-Cursor";
+
     private final HistoricoOcorrenciaServico historicoOcorrenciaServico;
+    private final EsperaHistoricoServico esperaHistoricoServico;
+    private final int limitePadrao;
+    private final int limiteMaximo;
+    private final int esperaMaximaSegundos;
 
-    public HistoricoOcorrenciaControlador(HistoricoOcorrenciaServico historicoOcorrenciaServico) {
+    public HistoricoOcorrenciaControlador(HistoricoOcorrenciaServico historicoOcorrenciaServico,
+                                          EsperaHistoricoServico esperaHistoricoServico,
+                                          @Value("${sosrota.historico.limite-padrao:100}") int limitePadrao,
+                                          @Value("${sosrota.historico.limite-maximo:1000}") int limiteMaximo,
+                                          @Value("${sosrota.historico.espera-maxima-segundos:30}") int esperaMaximaSegundos) {
         this.historicoOcorrenciaServico = historicoOcorrenciaServico;
+        this.esperaHistoricoServico = esperaHistoricoServico;
+        this.limiteMaximo = Math.max(1, limiteMaximo);
+        this.limitePadrao = Math.min(Math.max(1, limitePadrao), this.limiteMaximo);
+        this.esperaMaximaSegundos = Math.max(0, esperaMaximaSegundos);
     }
 
     /**
-     * Busca o histórico completo de uma ocorrência específica.
+     * Busca o histórico de uma ocorrência específica.
      * Disponível para usuários e administradores.
-     * 
-     * GET /api/historico-ocorrencias/ocorrencia/{idOcorrencia}
+     * Com aposSequencia retorna só as entradas sequenciadas depois dela, na ordem da sequência (se
+     * vier a página cheia, repetir com a maior sequência recebida). Entradas recém-confirmadas
+     * podem aparecer numa página sem sequência e depois de novo pela sequência: o cliente descarta
+     * as repetidas pelo id. Responde 304 quando If-None-Match traz o ETag da versão atual.
+     *
+     * GET /api/historico-ocorrencias/ocorrencia/{idOcorrencia}?antesDe={dataHora,id}&aposSequencia={n}&limite={n}
      */
     @GetMapping("/ocorrencia/{idOcorrencia}")
-    public ResponseEntity<List<HistoricoOcorrenciaDTO>> buscarPorOcorrencia(@PathVariable Long idOcorrencia) {
+    public ResponseEntity<?> buscarPorOcorrencia(@PathVariable Long idOcorrencia,
+                                                 @RequestParam(required = false) String antesDe,
+                                                 @RequestParam(required = false) Long aposSequencia,
+                                                 @RequestParam(required = false) Integer limite,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            List<HistoricoOcorrencia> historicos = historicoOcorrenciaServico.buscarHistoricoPorOcorrencia(idOcorrencia);
-            List<HistoricoOcorrenciaDTO> dtos = historicos.stream()
-                    .map(this::converterParaDTO)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(dtos);
+            return consultarOcorrencia(idOcorrencia, antesDe, aposSequencia, limite, ifNoneMatch, false);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(500).body(null);
         }
     }
 
+    /**
+     * Long polling do histórico de uma ocorrência: responde como a consulta acima assim que houver
+     * novidade (entradas depois de aposSequencia, ou versão diferente do If-None-Match) ou, passados
+     * esperarSegundos sem novidade, com 304 (se veio If-None-Match) ou lista vazia. Com
+     * esperarSegundos=0 equivale à consulta acima.
+     *
+     * GET /api/historico-ocorrencias/ocorrencia/{idOcorrencia}?aposSequencia={n}&esperarSegundos={n}
+     */
+    @GetMapping(value = "/ocorrencia/{idOcorrencia}", params = "esperarSegundos")
+    public DeferredResult<ResponseEntity<?>> aguardarPorOcorrencia(
+            @PathVariable Long idOcorrencia,
+            @RequestParam(required = false) Long aposSequencia,
+            @RequestParam(required = false) Integer limite,
+            @RequestParam int esperarSegundos,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (esperarSegundos <= 0 || esperarSegundos > esperaMaximaSegundos) {
+            DeferredResult<ResponseEntity<?>> imediato = new DeferredResult<>();
+            imediato.setResult(esperarSegundos == 0
+                    ? buscarPorOcorrencia(idOcorrencia, null, aposSequencia, limite, ifNoneMatch)
+                    : ResponseEntity.badRequest().body("Erro: esperarSegundos deve estar entre 0 e " + esperaMaximaSegundos));
+            return imediato;
+        }
+        ResponseEntity<?> semNovidade = ifNoneMatch != null
+                ? ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ifNoneMatch).build()
+                : ResponseEntity.ok(List.of());
+        DeferredResult<ResponseEntity<?>> resultado = new DeferredResult<>(esperarSegundos * 1000L, semNovidade);
+        aguardarNovidade(idOcorrencia, aposSequencia, limite, ifNoneMatch, resultado);
+        return resultado;
+    }
+
     /**
      * Busca o histórico de ações realizadas por um usuário específico.
      * Disponível para o próprio usuário e para administradores.
-     * 
-     * GET /api/historico-ocorrencias/usuario/{idUsuario}
+     *
+     * GET /api/historico-ocorrencias/usuario/{idUsuario}?antesDe={dataHora,id}&limite={n}
      */
     @GetMapping("/usuario/{idUsuario}")
-    public ResponseEntity<List<HistoricoOcorrenciaDTO>> buscarPorUsuario(@PathVariable Long idUsuario) {
-        try {
-            List<HistoricoOcorrencia> historicos = historicoOcorrenciaServico.buscarHistoricoPorUsuario(idUsuario);
-            List<HistoricoOcorrenciaDTO> dtos = historicos.stream()
-                    .map(this::converterParaDTO)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(dtos);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(500).body(null);
-        }
+    public ResponseEntity<?> buscarPorUsuario(@PathVariable Long idUsuario,
+                                              @RequestParam(required = false) String antesDe,
+                                              @RequestParam(required = false) Integer limite) {
+        return pagina(idUsuario, null, antesDe, limite);
     }
 
     /**
      * Busca histórico com filtros opcionais.
-     * Se nenhum filtro for fornecido, retorna todo o histórico (apenas para admin).
-     * 
-     * GET /api/historico-ocorrencias?usuarioId={id}&ocorrenciaId={id}
+     * Se nenhum filtro for fornecido, pagina todo o histórico (apenas para admin).
+     *
+     * GET /api/historico-ocorrencias?usuarioId={id}&ocorrenciaId={id}&antesDe={dataHora,id}&limite={n}
      */
     @GetMapping
-    public ResponseEntity<List<HistoricoOcorrenciaDTO>> buscarComFiltros(
+    public ResponseEntity<?> buscarComFiltros(
             @RequestParam(required = false) Long usuarioId,
-            @RequestParam(required = false) Long ocorrenciaId) {
-        try {
-            List<HistoricoOcorrencia> historicos = historicoOcorrenciaServico.buscarHistoricoComFiltros(usuarioId, ocorrenciaId);
-            List<HistoricoOcorrenciaDTO> dtos = historicos.stream()
-                    .map(this::converterParaDTO)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(dtos);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(500).body(null);
-        }
+            @RequestParam(required = false) Long ocorrenciaId,
+            @RequestParam(required = false) String antesDe,
+            @RequestParam(required = false) Integer limite) {
+        return pagina(usuarioId, ocorrenciaId, antesDe, limite);
     }
 
     /**
      * Busca o histórico do usuário logado.
-     * 
-     * GET /api/historico-ocorrencias/meu-historico
+     *
+     * GET /api/historico-ocorrencias/meu-historico?antesDe={dataHora,id}&limite={n}
      */
     @GetMapping("/meu-historico")
-    public ResponseEntity<List<HistoricoOcorrenciaDTO>> buscarMeuHistorico(
-            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+    public ResponseEntity<?> buscarMeuHistorico(
+            @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            @RequestParam(required = false) String antesDe,
+            @RequestParam(required = false) Integer limite) {
+        if (userId == null) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        return pagina(userId, null, antesDe, limite);
+    }
+
+    /**
+     * Espera a próxima entrada gravada no histórico da ocorrência e então tenta responder; se a
+     * entrada não muda a resposta (ex.: já era conhecida pelo cliente), volta a esperar.
+     * A espera é registrada antes da consulta para não perder uma entrada gravada entre as duas.
+     */
+    private void aguardarNovidade(Long idOcorrencia, Long aposSequencia, Integer limite, String ifNoneMatch,
+                                  DeferredResult<ResponseEntity<?>> resultado) {
+        if (resultado.isSetOrExpired()) {
+            return;
+        }
+        Runnable cancelar = esperaHistoricoServico.aguardar(idOcorrencia,
+                () -> aguardarNovidade(idOcorrencia, aposSequencia, limite, ifNoneMatch, resultado));
+        resultado.onCompletion(cancelar);
         try {
-            if (userId == null) {
-                return ResponseEntity.badRequest().body(null);
+            ResponseEntity<?> resposta = consultarOcorrencia(idOcorrencia, null, aposSequencia, limite, ifNoneMatch, true);
+            if (resposta != null) {
+                cancelar.run();
+                resultado.setResult(resposta);
             }
-            List<HistoricoOcorrencia> historicos = historicoOcorrenciaServico.buscarHistoricoPorUsuario(userId);
-            List<HistoricoOcorrenciaDTO> dtos = historicos.stream()
-                    .map(this::converterParaDTO)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(dtos);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            cancelar.run();
+            resultado.setResult(ResponseEntity.badRequest().body("Erro: " + e.getMessage()));
         } catch (Exception e) {
             e.printStackTrace();
-            return ResponseEntity.status(500).body(null);
+            cancelar.run();
+            resultado.setResult(ResponseEntity.status(500).body(null));
         }
     }
 
     /**
-     * Converte um HistoricoOcorrencia para DTO.
+     * Consulta do histórico da ocorrência com o ETag da versão atual; If-None-Match igual à versão
+     * atual recebe 304 sem consultar as entradas.
+     *
+     * @param aguardando retorna null em vez de responder quando não há novidade (304 ou nenhuma
+     *                   entrada depois de aposSequencia)
      */
-    private HistoricoOcorrenciaDTO converterParaDTO(HistoricoOcorrencia historico) {
-        HistoricoOcorrenciaDTO dto = new HistoricoOcorrenciaDTO();
-        dto.setId(historico.getId());
-        dto.setOcorrenciaId(historico.getOcorrencia() != null ? historico.getOcorrencia().getId() : null);
-        dto.setUsuarioId(historico.getUsuario() != null ? historico.getUsuario().getId() : null);
-        dto.setAcao(historico.getAcao() != null ? historico.getAcao().name() : null);
-        dto.setStatusAnterior(historico.getStatusAnterior() != null ? historico.getStatusAnterior().name() : null);
-        dto.setStatusNovo(historico.getStatusNovo() != null ? historico.getStatusNovo().name() : null);
-        dto.setDescricaoAcao(historico.getDescricaoAcao());
-        dto.setDataHora(historico.getDataHora());
-        dto.setTipoOcorrencia(historico.getTipoOcorrencia());
-        dto.setGravidade(historico.getGravidade() != null ? historico.getGravidade().name() : null);
-        dto.setBairroOrigemNome(historico.getBairroOrigemNome());
-        dto.setObservacoes(historico.getObservacoes());
-        dto.setUsuarioNome(historico.getUsuarioNome());
-        dto.setUsuarioLogin(historico.getUsuarioLogin());
-        dto.setUsuarioPerfil(historico.getUsuarioPerfil());
-        dto.setPlacaAmbulancia(historico.getPlacaAmbulancia());
-        dto.setAcaoAmbulancia(historico.getAcaoAmbulancia());
-        return dto;
+    private ResponseEntity<?> consultarOcorrencia(Long idOcorrencia, String antesDe, Long aposSequencia,
+                                                  Integer limite, String ifNoneMatch, boolean aguardando) {
+        if (aposSequencia != null && antesDe != null && !antesDe.isBlank()) {
+            throw new IllegalArgumentException("Use antesDe ou aposSequencia, não os dois");
+        }
+        String etag = etag(idOcorrencia, historicoOcorrenciaServico.versaoPorOcorrencia(idOcorrencia));
+        if (correspondeEtag(ifNoneMatch, etag)) {
+            return aguardando ? null : ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        if (aposSequencia == null) {
+            return pagina(null, idOcorrencia, antesDe, limite, etag);
+        }
+        List<HistoricoOcorrenciaDTO> novas =
+                historicoOcorrenciaServico.buscarNovasPorOcorrencia(idOcorrencia, aposSequencia, tamanhoPagina(limite));
+        return novas.isEmpty() && aguardando ? null : ResponseEntity.ok().eTag(etag).body(novas);
     }
-}
 
+    private static String etag(Long idOcorrencia, VersaoHistorico versao) {
+        Long ultimaSequencia = versao.getUltimaSequencia() != null ? versao.getUltimaSequencia() : 0L;
+        return "\"" + idOcorrencia + "-" + versao.getQuantidade() + "-" + ultimaSequencia + "\"";
+    }
+
+    /**
+     * If-None-Match com o ETag informado, "*" ou uma lista que o contenha (comparação fraca).
+     */
+    static boolean correspondeEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidato : ifNoneMatch.split(",")) {
+            candidato = candidato.trim();
+            if (candidato.startsWith("W/")) {
+                candidato = candidato.substring(2);
+            }
+            if (candidato.equals("*") || candidato.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int tamanhoPagina(Integer limite) {
+        int tamanho = limite != null ? limite : limitePadrao;
+        if (tamanho < 1 || tamanho > limiteMaximo) {
+            throw new IllegalArgumentException("Limite deve estar entre 1 e " + limiteMaximo);
+        }
+        return tamanho;
+    }
+
+    private ResponseEntity<?> pagina(Long usuarioId, Long ocorrenciaId, String antesDe, Integer limite) {
+        try {
+            return pagina(usuarioId, ocorrenciaId, antesDe, limite, null);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body(null);
+        }
+    }
+
+    private ResponseEntity<?> pagina(Long usuarioId, Long ocorrenciaId, String antesDe, Integer limite, String etag) {
+        int tamanho = tamanhoPagina(limite);
+
+        LocalDateTime antesDataHora = null;
+        Long antesId = null;
+        if (antesDe != null && !antesDe.isBlank()) {
+            int separador = antesDe.lastIndexOf(',');
+            if (separador < 0) {
+                throw new IllegalArgumentException("antesDe deve ter o formato dataHora,id");
+            }
+            antesDataHora = LocalDateTime.parse(antesDe.substring(0, separador).trim());
+            antesId = Long.valueOf(antesDe.substring(separador + 1).trim());
+        }
+
+        List<HistoricoOcorrenciaDTO> historicos = historicoOcorrenciaServico.buscarPagina(
+                usuarioId, ocorrenciaId, antesDataHora, antesId, tamanho);
+
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok();
+        if (etag != null) {
+            resposta.eTag(etag);
+        }
+        if (historicos.size() == tamanho) {
+            HistoricoOcorrenciaDTO ultimo = historicos.get(historicos.size() - 1);
+            resposta.header(CABECALHO_PROXIMO_CURSOR, ultimo.getDataHora() + "," + ultimo.getId());
+        }
+        return resposta.body(historicos);
+    }
+}
@@ -3,20 +3,30 @@ package com.vitalistech.sosrota.web.controlador;
 import com.vitalistech.sosrota.dominio.modelo.Atendimento;
 import com.vitalistech.sosrota.dominio.modelo.Bairro;
 import com.vitalistech.sosrota.dominio.modelo.Ocorrencia;
+import com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia;
 import com.vitalistech.sosrota.dominio.modelo.Usuario;
 import com.vitalistech.sosrota.dominio.repositorio.BairroRepositorio;
 import com.vitalistech.sosrota.dominio.repositorio.OcorrenciaRepositorio;
 import com.vitalistech.sosrota.dominio.repositorio.UsuarioRepositorio;
 import com.vitalistech.sosrota.dominio.repositorio.AtendimentoRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.TimerOcorrenciaLinha;
 import com.vitalistech.sosrota.dominio.servico.OcorrenciaServico;
+import com.vitalistech.sosrota.dominio.servico.TransmissaoOcorrenciasServico;
 import com.vitalistech.sosrota.web.dto.AmbulanciaSugeridaDTO;
+import com.vitalistech.sosrota.web.dto.DespachoLoteDTO;
 import com.vitalistech.sosrota.web.dto.DespachoResponseDTO;
 import com.vitalistech.sosrota.web.dto.RegistrarOcorrenciaDTO;
 import com.vitalistech.sosrota.web.dto.TimerOcorrenciaDTO;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -32,17 +42,20 @@ public class OcorrenciaControlador {
     private final OcorrenciaRepositorio ocorrenciaRepositorio;
     private final UsuarioRepositorio usuarioRepositorio;
     private final AtendimentoRepositorio atendimentoRepositorio;
+    private final TransmissaoOcorrenciasServico transmissaoOcorrenciasServico;
 
     public OcorrenciaControlador(OcorrenciaServico ocorrenciaServico,
                                  BairroRepositorio bairroRepositorio,
                                  OcorrenciaRepositorio ocorrenciaRepositorio,
                                  UsuarioRepositorio usuarioRepositorio,
-                                 AtendimentoRepositorio atendimentoRepositorio) {
+                                 AtendimentoRepositorio atendimentoRepositorio,
+                                 TransmissaoOcorrenciasServico transmissaoOcorrenciasServico) {
         this.ocorrenciaServico = ocorrenciaServico;
         this.bairroRepositorio = bairroRepositorio;
         this.ocorrenciaRepositorio = ocorrenciaRepositorio;
         this.usuarioRepositorio = usuarioRepositorio;
         this.atendimentoRepositorio = atendimentoRepositorio;
+        this.transmissaoOcorrenciasServico = transmissaoOcorrenciasServico;
     }
 
     @GetMapping
@@ -124,6 +137,29 @@ public class OcorrenciaControlador {
         }
     }
 
+    /**
+     * Despacha todas as ocorrências ABERTAS de uma vez, com atribuição ótima de ambulâncias.
+     */
+    @PostMapping("/despachar-lote")
+    public ResponseEntity<?> despacharLote(
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        try {
+            Usuario usuarioDespacho = null;
+            if (userId != null) {
+                usuarioDespacho = usuarioRepositorio.findById(userId)
+                        .orElse(null);
+            }
+
+            DespachoLoteDTO resultado = ocorrenciaServico.despacharLote(usuarioDespacho);
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body("Erro interno: " + e.getMessage());
+        }
+    }
+
     @PostMapping("/{id}/cancelar")
     public ResponseEntity<?> cancelar(
             @PathVariable Long id,
@@ -166,6 +202,61 @@ public class OcorrenciaControlador {
         }
     }
 
+    /**
+     * Server-Sent Events com as mudanças de status/timer ({@code timer}) e as novas entradas do
+     * histórico ({@code historico}). Filtros opcionais: {@code ocorrencias=1,2} e {@code tipos=timer}.
+     * O EventSource reconecta sozinho enviando Last-Event-ID e recebe o que perdeu; o cliente que
+     * abre uma conexão nova (ex.: para trocar o filtro) informa o último evento em {@code ultimoEventoId}.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestParam(value = "ocorrencias", required = false) List<Long> ocorrencias,
+            @RequestParam(value = "tipos", required = false) List<String> tipos,
+            @RequestParam(value = "ultimoEventoId", required = false) Long ultimoEventoIdParametro,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEventoId) {
+        return transmissaoOcorrenciasServico.conectar(
+                ocorrencias != null ? new HashSet<>(ocorrencias) : null,
+                tipos != null ? new HashSet<>(tipos) : null,
+                ultimoEventoId != null ? ultimoEventoId : ultimoEventoIdParametro);
+    }
+
+    /**
+     * Timers de todas as ocorrências ativas em uma requisição (uma consulta no banco).
+     * Padrão: ABERTA, DESPACHADA, EM_ATENDIMENTO e CONCLUIDA ainda sem retorno à base.
+     * Responde 304 quando nenhuma ocorrência mudou de etapa desde o ETag enviado em If-None-Match.
+     */
+    @GetMapping("/timers")
+    public ResponseEntity<?> obterTimers(
+            @RequestParam(value = "status", required = false) List<String> status,
+            WebRequest request) {
+        try {
+            EnumSet<StatusOcorrencia> filtro = EnumSet.noneOf(StatusOcorrencia.class);
+            if (status == null || status.isEmpty()) {
+                filtro.addAll(EnumSet.of(StatusOcorrencia.ABERTA, StatusOcorrencia.DESPACHADA,
+                        StatusOcorrencia.EM_ATENDIMENTO, StatusOcorrencia.CONCLUIDA));
+            } else {
+                for (String s : status) {
+                    filtro.add(StatusOcorrencia.valueOf(s.trim().toUpperCase()));
+                }
+            }
+
+            List<TimerOcorrenciaLinha> linhas = ocorrenciaServico.buscarLinhasTimer(filtro);
+            String etag = "\"" + ocorrenciaServico.versaoTimers(linhas) + "\"";
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(ocorrenciaServico.montarTimers(linhas));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body("Erro interno: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}/timer")
     public ResponseEntity<?> obterTimer(@PathVariable Long id) {
         try {
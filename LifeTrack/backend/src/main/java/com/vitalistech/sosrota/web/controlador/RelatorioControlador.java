@@ -1,160 +1,182 @@
 package com.vitalistech.sosrota.web.controlador;
 
-import com.vitalistech.sosrota.dominio.modelo.Atendimento;
-import com.vitalistech.sosrota.dominio.modelo.Ocorrencia;
-import com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia;
-import com.vitalistech.sosrota.dominio.repositorio.AtendimentoRepositorio;
+import com.vitalistech.sosrota.dominio.modelo.Gravidade;
 import com.vitalistech.sosrota.dominio.repositorio.OcorrenciaRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.RelatorioOcorrenciaLinha;
+import com.vitalistech.sosrota.dominio.servico.RelatorioExportacaoServico;
 import com.vitalistech.sosrota.web.dto.RelatorioOcorrenciaDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Endpoints para relatórios administrativos.
  */
 @RestController
 @RequestMapping("/api/relatorios")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = RelatorioControlador.CABECALHO_PROXIMO_CURSOR)
 public class RelatorioControlador {
 
+    /** Cabeçalho com o cursor da próxima página; ausente na última página. */
+    public static final String CABECALHO_PROXIMO_CURSOR = "X-Proximo-Cursor";
+
+    private static final Logger logger = LoggerFactory.getLogger(RelatorioControlador.class);
+
     private final OcorrenciaRepositorio ocorrenciaRepositorio;
-    private final AtendimentoRepositorio atendimentoRepositorio;
+    private final RelatorioExportacaoServico relatorioExportacaoServico;
+    private final int limitePadrao;
+    private final int limiteMaximo;
 
     public RelatorioControlador(OcorrenciaRepositorio ocorrenciaRepositorio,
-                                AtendimentoRepositorio atendimentoRepositorio) {
+                                RelatorioExportacaoServico relatorioExportacaoServico,
+                                @Value("${sosrota.relatorio.limite-padrao:500}") int limitePadrao,
+                                @Value("${sosrota.relatorio.limite-maximo:5000}") int limiteMaximo) {
         this.ocorrenciaRepositorio = ocorrenciaRepositorio;
-        this.atendimentoRepositorio = atendimentoRepositorio;
+        this.relatorioExportacaoServico = relatorioExportacaoServico;
+        this.limiteMaximo = Math.max(1, limiteMaximo);
+        this.limitePadrao = Math.min(Math.max(1, limitePadrao), this.limiteMaximo);
     }
 
+    /**
+     * Relatório de ocorrências, da mais recente para a mais antiga, paginado por cursor.
+     * Filtros opcionais: período de abertura [inicio, fim), gravidade e bairro de origem.
+     * Para a próxima página, repetir a chamada com os mesmos filtros e o cursor recebido no
+     * cabeçalho X-Proximo-Cursor.
+     */
     @GetMapping("/ocorrencias")
-    public List<RelatorioOcorrenciaDTO> relatorioOcorrencias() {
-        List<Ocorrencia> ocorrencias = ocorrenciaRepositorio.findAll();
-        
-        return ocorrencias.stream().map(ocorrencia -> {
-            RelatorioOcorrenciaDTO dto = new RelatorioOcorrenciaDTO();
-            dto.setId(ocorrencia.getId());
-            dto.setDataHoraAbertura(ocorrencia.getDataHoraAbertura());
-            dto.setTipoOcorrencia(ocorrencia.getTipoOcorrencia());
-            dto.setGravidade(ocorrencia.getGravidade() != null ? ocorrencia.getGravidade().name() : null);
-            dto.setStatus(ocorrencia.getStatus() != null ? ocorrencia.getStatus().name() : null);
-            dto.setBairroNome(ocorrencia.getBairroLocal() != null ? ocorrencia.getBairroLocal().getNome() : null);
-            dto.setObservacoes(ocorrencia.getObservacoes());
-            
-            // Informações de SLA e tempo de atendimento
-            dto.setDataHoraFechamento(ocorrencia.getDataHoraFechamento());
-            dto.setTempoAtendimentoMinutos(ocorrencia.getTempoAtendimentoMinutos());
-            dto.setSlaMinutos(ocorrencia.getSlaMinutos());
-            dto.setSlaCumprido(ocorrencia.getSlaCumprido());
-            dto.setTempoExcedidoMinutos(ocorrencia.getTempoExcedidoMinutos());
-            
-            // Informações do usuário que registrou
-            if (ocorrencia.getUsuarioRegistro() != null) {
-                dto.setUsuarioRegistroNome(ocorrencia.getUsuarioRegistro().getNome() != null 
-                    ? ocorrencia.getUsuarioRegistro().getNome() 
-                    : ocorrencia.getUsuarioRegistro().getLogin());
-                dto.setUsuarioRegistroLogin(ocorrencia.getUsuarioRegistro().getLogin());
+    public ResponseEntity<?> relatorioOcorrencias(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
+            @RequestParam(required = false) String gravidade,
+            @RequestParam(required = false) Long idBairro,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        try {
+            Gravidade gravidadeFiltro = converterGravidade(gravidade);
+            int tamanho = limite != null ? limite : limitePadrao;
+            if (tamanho < 1 || tamanho > limiteMaximo) {
+                throw new IllegalArgumentException("Limite deve estar entre 1 e " + limiteMaximo);
             }
-            
-            // Informações do atendimento (se houver)
-            // Buscar atendimento relacionado à ocorrência (para qualquer status que tenha atendimento)
-            List<Atendimento> atendimentos = atendimentoRepositorio.findAll().stream()
-                .filter(a -> a.getOcorrencia() != null && a.getOcorrencia().getId().equals(ocorrencia.getId()))
-                .collect(Collectors.toList());
-            
-            if (!atendimentos.isEmpty()) {
-                Atendimento atendimento = atendimentos.get(0);
-                dto.setDataHoraDespacho(atendimento.getDataHoraDespacho());
-                dto.setAmbulanciaPlaca(atendimento.getAmbulancia() != null 
-                    ? atendimento.getAmbulancia().getPlaca() 
-                    : null);
-                dto.setDistanciaKm(atendimento.getDistanciaKm());
-                
-                if (atendimento.getUsuarioDespacho() != null) {
-                    dto.setUsuarioDespachoNome(atendimento.getUsuarioDespacho().getNome() != null 
-                        ? atendimento.getUsuarioDespacho().getNome() 
-                        : atendimento.getUsuarioDespacho().getLogin());
-                    dto.setUsuarioDespachoLogin(atendimento.getUsuarioDespacho().getLogin());
-                }
-                
-                // Calcular tempo total de forma FIXA quando retornou à base
-                if (ocorrencia.getDataHoraAbertura() != null) {
-                    LocalDateTime agora = LocalDateTime.now();
-                    long tempoTotalSegundos = 0;
-                    boolean retornouBase = atendimento.getDataHoraRetorno() != null;
-                    boolean chegouLocal = atendimento.getDataHoraChegada() != null;
-                    boolean foiDespachada = atendimento.getDataHoraDespacho() != null;
-                    boolean foiConcluida = ocorrencia.getStatus() == StatusOcorrencia.CONCLUIDA;
-                    
-                    if (retornouBase && atendimento.getDataHoraRetorno() != null) {
-                        // Se retornou: tempo total = abertura até retorno (tempo completo e FIXO - não aumenta mais)
-                        tempoTotalSegundos = java.time.Duration.between(
-                            ocorrencia.getDataHoraAbertura(), atendimento.getDataHoraRetorno()).getSeconds();
-                    } else if (chegouLocal && atendimento.getDataHoraChegada() != null) {
-                        // Se chegou mas ainda não retornou: tempo desde abertura até chegada + tempo decorrido de retorno
-                        long tempoAteChegadaSegundos = java.time.Duration.between(
-                            ocorrencia.getDataHoraAbertura(), atendimento.getDataHoraChegada()).getSeconds();
-                        long tempoRetornoSegundos = 0;
-                        if (foiConcluida) {
-                            // Se está concluída mas ainda não retornou, calcular tempo decorrido desde chegada
-                            tempoRetornoSegundos = java.time.Duration.between(
-                                atendimento.getDataHoraChegada(), agora).getSeconds();
-                        }
-                        tempoTotalSegundos = tempoAteChegadaSegundos + tempoRetornoSegundos;
-                    } else if (foiDespachada && atendimento.getDataHoraDespacho() != null) {
-                        // Se ainda não chegou mas foi despachada: tempo desde abertura até agora (estimativa)
-                        tempoTotalSegundos = java.time.Duration.between(ocorrencia.getDataHoraAbertura(), agora).getSeconds();
-                    } else {
-                        // Se ainda não foi despachada: apenas tempo desde abertura
-                        tempoTotalSegundos = java.time.Duration.between(ocorrencia.getDataHoraAbertura(), agora).getSeconds();
-                    }
-                    
-                    dto.setTempoTotalDecorridoMinutos(tempoTotalSegundos / 60);
-                    dto.setTempoTotalFormatado(formatarTempo(tempoTotalSegundos));
-                }
-            } else if (ocorrencia.getDataHoraAbertura() != null) {
-                // Se não há atendimento mas há data de abertura, calcular tempo desde abertura
-                LocalDateTime agora = LocalDateTime.now();
-                long tempoTotalSegundos = java.time.Duration.between(ocorrencia.getDataHoraAbertura(), agora).getSeconds();
-                dto.setTempoTotalDecorridoMinutos(tempoTotalSegundos / 60);
-                dto.setTempoTotalFormatado(formatarTempo(tempoTotalSegundos));
+
+            LocalDateTime cursorAbertura = null;
+            Long cursorId = null;
+            if (cursor != null && !cursor.isBlank()) {
+                String[] partes = decodificarCursor(cursor);
+                cursorAbertura = LocalDateTime.parse(partes[0]);
+                cursorId = Long.valueOf(partes[1]);
             }
-            
-            return dto;
-        }).collect(Collectors.toList());
+
+            List<RelatorioOcorrenciaLinha> linhas = ocorrenciaRepositorio.buscarLinhasRelatorio(
+                    inicio, fim, gravidadeFiltro, idBairro, cursorAbertura, cursorId, PageRequest.of(0, tamanho));
+
+            LocalDateTime agora = LocalDateTime.now();
+            List<RelatorioOcorrenciaDTO> relatorio = new ArrayList<>(linhas.size());
+            for (RelatorioOcorrenciaLinha linha : linhas) {
+                relatorio.add(RelatorioOcorrenciaDTO.de(linha, agora));
+            }
+
+            ResponseEntity.BodyBuilder resposta = ResponseEntity.ok();
+            if (linhas.size() == tamanho) {
+                RelatorioOcorrenciaLinha ultima = linhas.get(linhas.size() - 1);
+                resposta.header(CABECALHO_PROXIMO_CURSOR, codificarCursor(ultima.getDataHoraAbertura(), ultima.getIdOcorrencia()));
+            }
+            return resposta.body(relatorio);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body("Erro interno: " + e.getMessage());
+        }
     }
-    
+
     /**
-     * Formata tempo em segundos para uma string legível (ex: "15m 30s" ou "1h 25m").
+     * Exporta todas as ocorrências dos filtros (mesmos do relatório paginado) em um arquivo CSV ou
+     * NDJSON, opcionalmente compactado com gzip. A resposta é escrita à medida que as linhas são
+     * lidas do banco, sem montar o relatório inteiro em memória.
      */
-    private String formatarTempo(long segundos) {
-        boolean negativo = segundos < 0;
-        segundos = Math.abs(segundos);
-        
-        long horas = segundos / 3600;
-        long minutos = (segundos % 3600) / 60;
-        long seg = segundos % 60;
-        
-        StringBuilder sb = new StringBuilder();
-        if (negativo) sb.append("-");
-        
-        if (horas > 0) {
-            sb.append(horas).append("h");
-            if (minutos > 0) {
-                sb.append(" ").append(minutos).append("m");
-            }
-        } else if (minutos > 0) {
-            sb.append(minutos).append("m");
-            if (seg > 0) {
-                sb.append(" ").append(seg).append("s");
+    @GetMapping("/ocorrencias/export")
+    public ResponseEntity<StreamingResponseBody> exportarOcorrencias(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
+            @RequestParam(required = false) String gravidade,
+            @RequestParam(required = false) Long idBairro,
+            @RequestParam(defaultValue = "csv") String formato,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        RelatorioExportacaoServico.Formato formatoExportacao;
+        Gravidade gravidadeFiltro;
+        try {
+            formatoExportacao = RelatorioExportacaoServico.Formato.de(formato);
+            gravidadeFiltro = converterGravidade(gravidade);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(saida -> saida.write(("Erro: " + e.getMessage()).getBytes(StandardCharsets.UTF_8)));
+        }
+
+        String nomeArquivo = "ocorrencias-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))
+                + "." + formatoExportacao.getExtensao() + (gzip ? ".gz" : "");
+        StreamingResponseBody corpo = saida -> {
+            OutputStream destino = gzip ? new GZIPOutputStream(saida, 64 * 1024) : saida;
+            try {
+                relatorioExportacaoServico.exportar(inicio, fim, gravidadeFiltro, idBairro, formatoExportacao, destino);
+                if (destino instanceof GZIPOutputStream compactado) {
+                    compactado.finish();
+                }
+            } catch (IOException e) {
+                // Normalmente o cliente fechou a conexão no meio do download
+                logger.warn("Exportação do relatório interrompida: {}", e.getMessage());
+                throw e;
             }
-        } else {
-            sb.append(seg).append("s");
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : formatoExportacao.getTipoConteudo() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(nomeArquivo).build().toString())
+                .body(corpo);
+    }
+
+    private static Gravidade converterGravidade(String gravidade) {
+        return gravidade != null && !gravidade.isBlank() ? Gravidade.valueOf(gravidade.trim().toUpperCase()) : null;
+    }
+
+    /**
+     * Cursor opaco para o cliente: "abertura|id" da última linha entregue, em Base64 de URL.
+     */
+    static String codificarCursor(LocalDateTime dataHoraAbertura, Long id) {
+        String valor = dataHoraAbertura + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decodificarCursor(String cursor) {
+        String valor;
+        try {
+            valor = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        String[] partes = valor.split("\\|");
+        if (partes.length != 2) {
+            throw new IllegalArgumentException("Cursor inválido");
         }
-        
-        return sb.toString();
+        return partes;
     }
 }
-
@@ -0,0 +1,39 @@
+package com.vitalistech.sosrota.web.dto;
+
+import com.vitalistech.sosrota.dominio.modelo.Atendimento;
+
+import java.util.List;
+
+/**
+ * DTO para resposta do despacho em lote: atendimentos criados e
+ * ocorrências que continuaram ABERTAS por falta de ambulância apta.
+ */
+public class DespachoLoteDTO {
+
+    private List<Atendimento> atendimentos;
+    private List<Long> idsOcorrenciasNaoDespachadas;
+
+    public DespachoLoteDTO() {
+    }
+
+    public DespachoLoteDTO(List<Atendimento> atendimentos, List<Long> idsOcorrenciasNaoDespachadas) {
+        this.atendimentos = atendimentos;
+        this.idsOcorrenciasNaoDespachadas = idsOcorrenciasNaoDespachadas;
+    }
+
+    public List<Atendimento> getAtendimentos() {
+        return atendimentos;
+    }
+
+    public void setAtendimentos(List<Atendimento> atendimentos) {
+        this.atendimentos = atendimentos;
+    }
+
+    public List<Long> getIdsOcorrenciasNaoDespachadas() {
+        return idsOcorrenciasNaoDespachadas;
+    }
+
+    public void setIdsOcorrenciasNaoDespachadas(List<Long> idsOcorrenciasNaoDespachadas) {
+        this.idsOcorrenciasNaoDespachadas = idsOcorrenciasNaoDespachadas;
+    }
+}
@@ -1,5 +1,10 @@
 package com.vitalistech.sosrota.web.dto;
 
+import com.vitalistech.sosrota.dominio.modelo.AcaoHistorico;
+import com.vitalistech.sosrota.dominio.modelo.Gravidade;
+import com.vitalistech.sosrota.dominio.modelo.HistoricoOcorrencia;
+import com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia;
+
 import java.time.LocalDateTime;
 
 /**
@@ -30,6 +35,9 @@ public class HistoricoOcorrenciaDTO {
     private String placaAmbulancia;
     private String acaoAmbulancia;
 
+    // Cursor das consultas incrementais (aposSequencia); null enquanto a entrada não foi sequenciada
+    private Long sequencia;
+
     public HistoricoOcorrenciaDTO() {
     }
 
@@ -55,6 +63,40 @@ public class HistoricoOcorrenciaDTO {
         this.usuarioPerfil = usuarioPerfil;
     }
 
+    /**
+     * Construtor usado pelas consultas do repositório (SELECT new), que montam o DTO direto
+     * das colunas da tabela.
+     */
+    public HistoricoOcorrenciaDTO(Long id, Long ocorrenciaId, Long usuarioId, AcaoHistorico acao,
+                                  StatusOcorrencia statusAnterior, StatusOcorrencia statusNovo, String descricaoAcao,
+                                  LocalDateTime dataHora, String tipoOcorrencia, Gravidade gravidade,
+                                  String bairroOrigemNome, String observacoes, String usuarioNome,
+                                  String usuarioLogin, String usuarioPerfil, String placaAmbulancia,
+                                  String acaoAmbulancia, Long sequencia) {
+        this(id, ocorrenciaId, usuarioId, acao != null ? acao.name() : null,
+                statusAnterior != null ? statusAnterior.name() : null,
+                statusNovo != null ? statusNovo.name() : null, descricaoAcao, dataHora, tipoOcorrencia,
+                gravidade != null ? gravidade.name() : null, bairroOrigemNome, observacoes, usuarioNome,
+                usuarioLogin, usuarioPerfil);
+        this.placaAmbulancia = placaAmbulancia;
+        this.acaoAmbulancia = acaoAmbulancia;
+        this.sequencia = sequencia;
+    }
+
+    /**
+     * Converte um HistoricoOcorrencia para DTO.
+     */
+    public static HistoricoOcorrenciaDTO de(HistoricoOcorrencia historico) {
+        return new HistoricoOcorrenciaDTO(historico.getId(),
+                historico.getOcorrencia() != null ? historico.getOcorrencia().getId() : null,
+                historico.getUsuario() != null ? historico.getUsuario().getId() : null,
+                historico.getAcao(), historico.getStatusAnterior(), historico.getStatusNovo(),
+                historico.getDescricaoAcao(), historico.getDataHora(), historico.getTipoOcorrencia(),
+                historico.getGravidade(), historico.getBairroOrigemNome(), historico.getObservacoes(),
+                historico.getUsuarioNome(), historico.getUsuarioLogin(), historico.getUsuarioPerfil(),
+                historico.getPlacaAmbulancia(), historico.getAcaoAmbulancia(), historico.getSequencia());
+    }
+
     // Getters e Setters
     public Long getId() {
         return id;
@@ -191,5 +233,13 @@ public class HistoricoOcorrenciaDTO {
     public void setAcaoAmbulancia(String acaoAmbulancia) {
         this.acaoAmbulancia = acaoAmbulancia;
     }
+
+    public Long getSequencia() {
+        return sequencia;
+    }
+
+    public void setSequencia(Long sequencia) {
+        this.sequencia = sequencia;
+    }
 }
 
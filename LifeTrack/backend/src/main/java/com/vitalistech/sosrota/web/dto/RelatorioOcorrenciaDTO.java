@@ -1,5 +1,8 @@
 package com.vitalistech.sosrota.web.dto;
 
+import com.vitalistech.sosrota.dominio.repositorio.RelatorioOcorrenciaLinha;
+import com.vitalistech.sosrota.dominio.servico.OcorrenciaLinhaDoTempo;
+
 import java.time.LocalDateTime;
 
 /**
@@ -59,6 +62,58 @@ public class RelatorioOcorrenciaDTO {
         this.tempoExcedidoMinutos = tempoExcedidoMinutos;
     }
 
+    /**
+     * Linha do relatório com o tempo total calculado no instante informado.
+     */
+    public static RelatorioOcorrenciaDTO de(RelatorioOcorrenciaLinha linha, LocalDateTime agora) {
+        RelatorioOcorrenciaDTO dto = new RelatorioOcorrenciaDTO();
+        dto.setId(linha.getIdOcorrencia());
+        dto.setDataHoraAbertura(linha.getDataHoraAbertura());
+        dto.setTipoOcorrencia(linha.getTipoOcorrencia());
+        dto.setGravidade(linha.getGravidade() != null ? linha.getGravidade().name() : null);
+        dto.setStatus(linha.getStatus() != null ? linha.getStatus().name() : null);
+        dto.setBairroNome(linha.getBairroNome());
+        dto.setObservacoes(linha.getObservacoes());
+
+        // Informações de SLA e tempo de atendimento
+        dto.setDataHoraFechamento(linha.getDataHoraFechamento());
+        dto.setTempoAtendimentoMinutos(linha.getTempoAtendimentoMinutos());
+        dto.setSlaMinutos(linha.getSlaMinutos());
+        dto.setSlaCumprido(linha.getSlaCumprido());
+        dto.setTempoExcedidoMinutos(linha.getTempoExcedidoMinutos());
+
+        // Informações do usuário que registrou
+        if (linha.getUsuarioRegistroLogin() != null) {
+            dto.setUsuarioRegistroNome(linha.getUsuarioRegistroNome() != null
+                ? linha.getUsuarioRegistroNome()
+                : linha.getUsuarioRegistroLogin());
+            dto.setUsuarioRegistroLogin(linha.getUsuarioRegistroLogin());
+        }
+
+        // Informações do atendimento (se houver)
+        if (linha.getIdAtendimento() != null) {
+            dto.setDataHoraDespacho(linha.getDataHoraDespacho());
+            dto.setAmbulanciaPlaca(linha.getPlacaAmbulancia());
+            dto.setDistanciaKm(linha.getDistanciaKm());
+
+            if (linha.getUsuarioDespachoLogin() != null) {
+                dto.setUsuarioDespachoNome(linha.getUsuarioDespachoNome() != null
+                    ? linha.getUsuarioDespachoNome()
+                    : linha.getUsuarioDespachoLogin());
+                dto.setUsuarioDespachoLogin(linha.getUsuarioDespachoLogin());
+            }
+        }
+
+        // Tempo total (FIXO depois do retorno à base), mesma conta do timer da ocorrência
+        Long tempoTotalSegundos = OcorrenciaLinhaDoTempo.de(linha).tempoTotalSegundos(agora);
+        if (tempoTotalSegundos != null) {
+            dto.setTempoTotalDecorridoMinutos(tempoTotalSegundos / 60);
+            dto.setTempoTotalFormatado(OcorrenciaLinhaDoTempo.formatarTempo(tempoTotalSegundos));
+        }
+
+        return dto;
+    }
+
     // Getters e Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -49,6 +49,9 @@ public class TimerOcorrenciaDTO {
     private String tempoTotalFormatado; // Ex: "15m 30s" ou "1h 25m"
     private String tempoRestanteFormatado; // Ex: "5m 15s" ou "-3m 20s" (negativo se excedido)
 
+    // Instante (no servidor) em que os tempos acima foram calculados; o cliente avança a partir dele
+    private LocalDateTime dataHoraCalculo;
+
     public TimerOcorrenciaDTO() {
     }
 
@@ -284,5 +287,12 @@ public class TimerOcorrenciaDTO {
     public void setTempoRestanteRetornoMinutos(Long tempoRestanteRetornoMinutos) {
         this.tempoRestanteRetornoMinutos = tempoRestanteRetornoMinutos;
     }
-}
 
+    public LocalDateTime getDataHoraCalculo() {
+        return dataHoraCalculo;
+    }
+
+    public void setDataHoraCalculo(LocalDateTime dataHoraCalculo) {
+        this.dataHoraCalculo = dataHoraCalculo;
+    }
+}
@@ -19,9 +19,15 @@
 -- Tabela de bairros (vértices do grafo)
 CREATE TABLE IF NOT EXISTS bairros (
     id BIGSERIAL PRIMARY KEY,
-    nome VARCHAR(255) NOT NULL UNIQUE
+    nome VARCHAR(255) NOT NULL UNIQUE,
+    latitude DOUBLE PRECISION,
+    longitude DOUBLE PRECISION
 );
 
+-- Coordenadas dos bairros (bancos criados antes da inclusão das colunas)
+ALTER TABLE bairros ADD COLUMN IF NOT EXISTS latitude DOUBLE PRECISION;
+ALTER TABLE bairros ADD COLUMN IF NOT EXISTS longitude DOUBLE PRECISION;
+
 -- Tabela de ruas/conexões (arestas do grafo)
 CREATE TABLE IF NOT EXISTS ruas_conexoes (
     id BIGSERIAL PRIMARY KEY,
@@ -128,6 +134,8 @@ CREATE TABLE IF NOT EXISTS atendimentos (
 );
 
 -- Tabela de histórico de ocorrências (auditoria)
+-- Criada pelo Hibernate e convertida na inicialização em tabela particionada por mês de data_hora
+-- (chave primária (id, data_hora)); ver ParticionamentoHistoricoServico
 CREATE TABLE IF NOT EXISTS historico_ocorrencias (
     id BIGSERIAL PRIMARY KEY,
     id_ocorrencia BIGINT NOT NULL,
@@ -149,10 +157,46 @@ CREATE TABLE IF NOT EXISTS historico_ocorrencias (
     -- Informações da ambulância no momento da ação
     placa_ambulancia VARCHAR(20),
     acao_ambulancia VARCHAR(100),
+    -- Ordem de confirmação (cursor das consultas incrementais), atribuída depois do commit
+    sequencia BIGINT,
     FOREIGN KEY (id_ocorrencia) REFERENCES ocorrencias(id) ON DELETE CASCADE,
     FOREIGN KEY (id_usuario) REFERENCES usuarios(id)
 );
 
+-- Sequência de confirmação do histórico: só o GravadorHistorico a usa, uma rodada por vez, então
+-- uma sequência visível implica que todas as menores também estão (o que não vale para o id)
+ALTER TABLE historico_ocorrencias ADD COLUMN IF NOT EXISTS sequencia BIGINT;
+CREATE SEQUENCE IF NOT EXISTS historico_ocorrencias_sequencia_seq;
+-- Entradas anteriores à coluna (ou confirmadas sem ser sequenciadas antes de uma queda) recebem a sua
+-- na inicialização, antes de o gravador começar
+UPDATE historico_ocorrencias SET sequencia = nextval('historico_ocorrencias_sequencia_seq') WHERE sequencia IS NULL;
+
+-- Histórico arquivado: partições mensais além do horizonte (sosrota.historico.particionamento.meses-quentes)
+-- são copiadas para cá e removidas de historico_ocorrencias. Só recebe inserções, por isso fillfactor 100
+CREATE TABLE IF NOT EXISTS historico_ocorrencias_arquivo (
+    id BIGINT PRIMARY KEY,
+    id_ocorrencia BIGINT NOT NULL,
+    id_usuario BIGINT NOT NULL,
+    acao VARCHAR(50) NOT NULL,
+    status_anterior VARCHAR(20),
+    status_novo VARCHAR(20) NOT NULL,
+    descricao_acao TEXT,
+    data_hora TIMESTAMP NOT NULL,
+    tipo_ocorrencia VARCHAR(255),
+    gravidade VARCHAR(20),
+    bairro_origem_nome VARCHAR(255),
+    observacoes VARCHAR(1000),
+    usuario_nome VARCHAR(255),
+    usuario_login VARCHAR(100),
+    usuario_perfil VARCHAR(50),
+    placa_ambulancia VARCHAR(20),
+    acao_ambulancia VARCHAR(100),
+    sequencia BIGINT,
+    FOREIGN KEY (id_ocorrencia) REFERENCES ocorrencias(id) ON DELETE CASCADE,
+    FOREIGN KEY (id_usuario) REFERENCES usuarios(id)
+) WITH (fillfactor = 100);
+ALTER TABLE historico_ocorrencias_arquivo ADD COLUMN IF NOT EXISTS sequencia BIGINT;
+
 -- Tabela de rota de conexão do atendimento (caminho calculado pelo Dijkstra)
 CREATE TABLE IF NOT EXISTS atendimento_rota_conexao (
     id BIGSERIAL PRIMARY KEY,
@@ -220,11 +264,43 @@ CREATE INDEX IF NOT EXISTS idx_ocorrencias_gravidade ON ocorrencias(gravidade);
 CREATE INDEX IF NOT EXISTS idx_ocorrencias_equipe ON ocorrencias(id_equipe_atribuida);
 CREATE INDEX IF NOT EXISTS idx_ocorrencias_usuario_registro ON ocorrencias(id_usuario_registro);
 CREATE INDEX IF NOT EXISTS idx_ocorrencias_data_abertura ON ocorrencias(data_hora_abertura);
+-- Paginação por chave do relatório (mais recentes primeiro, desempate por id)
+CREATE INDEX IF NOT EXISTS idx_ocorrencias_abertura_id ON ocorrencias(data_hora_abertura DESC, id DESC);
 CREATE INDEX IF NOT EXISTS idx_ocorrencias_data_fechamento ON ocorrencias(data_hora_fechamento);
 CREATE INDEX IF NOT EXISTS idx_ocorrencias_sla_cumprido ON ocorrencias(sla_cumprido);
 
 -- Índices para atendimentos
 CREATE INDEX IF NOT EXISTS idx_atendimentos_ocorrencia ON atendimentos(id_ocorrencia);
+-- Uma ocorrência tem no máximo um atendimento: garantia final contra despachos simultâneos da mesma ocorrência.
+-- Bancos anteriores ao índice podem ter atendimentos duplicados, e com eles o CREATE falharia em silêncio
+-- (o script continua após erros). Fica o atendimento de menor id, o mesmo que o relatório e o timer exibem;
+-- os demais saem com a rota, e ambulância e profissionais que só estavam presos a eles voltam a DISPONIVEL.
+DELETE FROM atendimento_rota_conexao r
+USING atendimentos a
+WHERE r.id_atendimento = a.id
+  AND a.id > (SELECT MIN(a2.id) FROM atendimentos a2 WHERE a2.id_ocorrencia = a.id_ocorrencia);
+WITH removidos AS (
+    DELETE FROM atendimentos a
+    WHERE a.id > (SELECT MIN(a2.id) FROM atendimentos a2 WHERE a2.id_ocorrencia = a.id_ocorrencia)
+    RETURNING a.id, a.id_ambulancia, a.id_equipe
+), ambulancias_liberadas AS (
+    UPDATE ambulancias amb SET status = 'DISPONIVEL'
+    WHERE amb.status = 'EM_ATENDIMENTO'
+      AND amb.id IN (SELECT id_ambulancia FROM removidos)
+      AND NOT EXISTS (SELECT 1 FROM atendimentos outro
+                      WHERE outro.id_ambulancia = amb.id AND outro.data_hora_retorno IS NULL
+                        AND outro.id NOT IN (SELECT id FROM removidos))
+    RETURNING amb.id
+)
+UPDATE profissionais p SET status = 'DISPONIVEL'
+WHERE p.status = 'EM_ATENDIMENTO'
+  AND p.id IN (SELECT ep.id_profissional FROM equipes_profissionais ep
+               WHERE ep.id_equipe IN (SELECT id_equipe FROM removidos))
+  AND NOT EXISTS (SELECT 1 FROM atendimentos outro
+                  JOIN equipes_profissionais ep2 ON ep2.id_equipe = outro.id_equipe
+                  WHERE ep2.id_profissional = p.id AND outro.data_hora_retorno IS NULL
+                    AND outro.id NOT IN (SELECT id FROM removidos));
+CREATE UNIQUE INDEX IF NOT EXISTS idx_atendimentos_ocorrencia_unique ON atendimentos(id_ocorrencia);
 CREATE INDEX IF NOT EXISTS idx_atendimentos_ambulancia ON atendimentos(id_ambulancia);
 CREATE INDEX IF NOT EXISTS idx_atendimentos_equipe ON atendimentos(id_equipe);
 CREATE INDEX IF NOT EXISTS idx_atendimentos_usuario_despacho ON atendimentos(id_usuario_despacho);
@@ -233,10 +309,24 @@ CREATE INDEX IF NOT EXISTS idx_atendimentos_data_chegada ON atendimentos(data_ho
 CREATE INDEX IF NOT EXISTS idx_atendimentos_data_retorno ON atendimentos(data_hora_retorno);
 
 -- Índices para histórico de ocorrências
-CREATE INDEX IF NOT EXISTS idx_historico_ocorrencia_id_ocorrencia ON historico_ocorrencias(id_ocorrencia);
-CREATE INDEX IF NOT EXISTS idx_historico_ocorrencia_id_usuario ON historico_ocorrencias(id_usuario);
-CREATE INDEX IF NOT EXISTS idx_historico_ocorrencia_data_hora ON historico_ocorrencias(data_hora DESC);
+-- Paginação por chave (mais recentes primeiro, desempate por id) por ocorrência, por usuário e geral;
+-- os compostos também atendem às buscas só por id_ocorrencia / id_usuario, que tinham índices próprios
+DROP INDEX IF EXISTS idx_historico_ocorrencia_id_ocorrencia;
+DROP INDEX IF EXISTS idx_historico_ocorrencia_id_usuario;
+DROP INDEX IF EXISTS idx_historico_ocorrencia_data_hora;
+CREATE INDEX IF NOT EXISTS idx_historico_ocorrencia_ocorrencia_data_hora_id ON historico_ocorrencias(id_ocorrencia, data_hora DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_historico_ocorrencia_usuario_data_hora_id ON historico_ocorrencias(id_usuario, data_hora DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_historico_ocorrencia_data_hora_id ON historico_ocorrencias(data_hora DESC, id DESC);
 CREATE INDEX IF NOT EXISTS idx_historico_ocorrencia_acao ON historico_ocorrencias(acao);
+-- Consultas incrementais (aposSequencia) e versão (ETag) do histórico de uma ocorrência
+CREATE INDEX IF NOT EXISTS idx_historico_ocorrencia_ocorrencia_sequencia ON historico_ocorrencias(id_ocorrencia, sequencia);
+-- Entradas confirmadas aguardando sequência (normalmente só as da última fração de segundo)
+CREATE INDEX IF NOT EXISTS idx_historico_ocorrencia_sem_sequencia ON historico_ocorrencias(id) WHERE sequencia IS NULL;
+
+-- Índices para o histórico arquivado (mesma paginação da tabela principal)
+CREATE INDEX IF NOT EXISTS idx_historico_arquivo_ocorrencia_data_hora_id ON historico_ocorrencias_arquivo(id_ocorrencia, data_hora DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_historico_arquivo_usuario_data_hora_id ON historico_ocorrencias_arquivo(id_usuario, data_hora DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_historico_arquivo_data_hora_id ON historico_ocorrencias_arquivo(data_hora DESC, id DESC);
 
 -- Índices para atendimento_rota_conexao
 CREATE INDEX IF NOT EXISTS idx_atendimento_rota_conexao_atendimento ON atendimento_rota_conexao(id_atendimento);
@@ -260,6 +350,19 @@ VALUES (
 )
 ON CONFLICT (login) DO NOTHING;
 
+-- Usuário de sistema do despacho automático (autor dos despachos e do histórico).
+-- Inativo e sem senha válida: não consegue fazer login
+INSERT INTO usuarios (login, senha_hash, perfil, nome, email, ativo)
+VALUES (
+    'sistema',
+    '!',
+    'SISTEMA',
+    'Despacho automático',
+    'sistema@sistema.local',
+    false
+)
+ON CONFLICT (login) DO NOTHING;
+
 -- ============================================================================
 -- SEÇÃO 4: COMENTÁRIOS E DOCUMENTAÇÃO
 -- ============================================================================
@@ -274,6 +377,7 @@ COMMENT ON TABLE usuarios IS 'Tabela de usuários do sistema (autenticação e a
 COMMENT ON TABLE ocorrencias IS 'Tabela de ocorrências de emergência registradas';
 COMMENT ON TABLE atendimentos IS 'Tabela de atendimentos realizados pelas ambulâncias';
 COMMENT ON TABLE historico_ocorrencias IS 'Tabela de histórico/auditoria de ações em ocorrências';
+COMMENT ON TABLE historico_ocorrencias_arquivo IS 'Histórico de ocorrências arquivado (partições mensais antigas)';
 COMMENT ON TABLE atendimento_rota_conexao IS 'Tabela que armazena o caminho calculado pelo algoritmo Dijkstra para cada atendimento';
 
 COMMENT ON COLUMN usuarios.telefone IS 'Telefone de contato do usuário';
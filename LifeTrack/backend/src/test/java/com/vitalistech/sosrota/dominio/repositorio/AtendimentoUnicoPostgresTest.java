@@ -0,0 +1,116 @@
+package com.vitalistech.sosrota.dominio.repositorio;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Índice único de atendimentos por ocorrência em um banco que já tem duplicados: o script de
+ * setup mantém o atendimento de menor id, libera o que só o duplicado prendia e cria o índice.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class AtendimentoUnicoPostgresTest {
+
+    private static final String INDICE = "idx_atendimentos_ocorrencia_unique";
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private OcorrenciaRepositorio ocorrenciaRepositorio;
+
+    @Test
+    void setupRemoveDuplicadosECriaOIndice() {
+        executarSetup();
+        jdbcTemplate.execute("DROP INDEX " + INDICE);
+
+        long idBairro = jdbcTemplate.queryForObject(
+                "INSERT INTO bairros (nome) VALUES ('Centro') RETURNING id", Long.class);
+        long idOcorrencia = jdbcTemplate.queryForObject("INSERT INTO ocorrencias "
+                + "(descricao, tipo_ocorrencia, gravidade, status, id_bairro_origem, data_hora_abertura) "
+                + "VALUES ('Queda de moto', 'Trauma', 'MEDIA', 'DESPACHADA', ?, ?) RETURNING id",
+                Long.class, idBairro, LocalDateTime.now());
+        long primeira = ambulancia("TST0A01", idBairro);
+        long segunda = ambulancia("TST0A02", idBairro);
+        long condutor = jdbcTemplate.queryForObject("INSERT INTO profissionais "
+                + "(nome, funcao, contato, turno, status, ativo) "
+                + "VALUES ('Joao', 'CONDUTOR', '0000', 'MANHA', 'EM_ATENDIMENTO', true) RETURNING id", Long.class);
+        long equipeSegunda = equipe(segunda, condutor);
+        long mantido = atendimento(idOcorrencia, primeira, equipe(primeira, null));
+        atendimento(idOcorrencia, segunda, equipeSegunda);
+
+        executarSetup();
+
+        assertEquals(List.of(mantido), jdbcTemplate.queryForList(
+                "SELECT id FROM atendimentos WHERE id_ocorrencia = ?", Long.class, idOcorrencia));
+        assertNotNull(jdbcTemplate.queryForObject("SELECT to_regclass(?)::text", String.class, INDICE));
+        assertEquals("EM_ATENDIMENTO", status("ambulancias", primeira));
+        assertEquals("DISPONIVEL", status("ambulancias", segunda), "ambulância presa só ao duplicado é liberada");
+        assertEquals("DISPONIVEL", status("profissionais", condutor));
+
+        List<TimerOcorrenciaLinha> linhas = ocorrenciaRepositorio.buscarLinhaTimer(idOcorrencia);
+        assertEquals(1, linhas.size());
+        assertEquals(mantido, linhas.get(0).getIdAtendimento());
+    }
+
+    // Mesmo modo de execução do InicializadorBancoDados
+    private void executarSetup() {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("db/migration/setup.sql"));
+        populator.setSeparator(";");
+        populator.setContinueOnError(true);
+        populator.setCommentPrefix("--");
+        populator.execute(dataSource);
+    }
+
+    private long ambulancia(String placa, long idBairro) {
+        return jdbcTemplate.queryForObject("INSERT INTO ambulancias (placa, tipo, status, id_bairro_base, ativa) "
+                + "VALUES (?, 'BASICA', 'EM_ATENDIMENTO', ?, true) RETURNING id", Long.class, placa, idBairro);
+    }
+
+    private long equipe(long idAmbulancia, Long idProfissional) {
+        long idEquipe = jdbcTemplate.queryForObject("INSERT INTO equipes (descricao, id_ambulancia, ativa) "
+                + "VALUES ('Equipe', ?, true) RETURNING id", Long.class, idAmbulancia);
+        if (idProfissional != null) {
+            jdbcTemplate.update("INSERT INTO equipes_profissionais (id_equipe, id_profissional) VALUES (?, ?)",
+                    idEquipe, idProfissional);
+        }
+        return idEquipe;
+    }
+
+    private long atendimento(long idOcorrencia, long idAmbulancia, long idEquipe) {
+        return jdbcTemplate.queryForObject("INSERT INTO atendimentos "
+                + "(id_ocorrencia, id_ambulancia, id_equipe, data_hora_despacho) "
+                + "VALUES (?, ?, ?, ?) RETURNING id", Long.class, idOcorrencia, idAmbulancia, idEquipe,
+                LocalDateTime.now());
+    }
+
+    private String status(String tabela, long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM " + tabela + " WHERE id = ?", String.class, id);
+    }
+}
@@ -0,0 +1,146 @@
+package com.vitalistech.sosrota.dominio.repositorio;
+
+import com.vitalistech.sosrota.dominio.modelo.Ambulancia;
+import com.vitalistech.sosrota.dominio.modelo.Bairro;
+import com.vitalistech.sosrota.dominio.modelo.Gravidade;
+import com.vitalistech.sosrota.dominio.modelo.Ocorrencia;
+import com.vitalistech.sosrota.dominio.modelo.StatusAmbulancia;
+import com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia;
+import com.vitalistech.sosrota.dominio.modelo.TipoAmbulancia;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reivindicações condicionais do despacho ({@code UPDATE ... WHERE status = ...}) executadas por
+ * várias transações ao mesmo tempo contra um PostgreSQL real: a trava de linha e a reavaliação
+ * do WHERE após o commit da vencedora garantem que só uma delas recebe 1.
+ *
+ * Os testes não rodam dentro de uma transação do próprio teste: cada thread abre e confirma a sua.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class ReivindicacaoDespachoPostgresTest {
+
+    private static final int TRANSACOES = 8;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private AmbulanciaRepositorio ambulanciaRepositorio;
+
+    @Autowired
+    private OcorrenciaRepositorio ocorrenciaRepositorio;
+
+    @Autowired
+    private BairroRepositorio bairroRepositorio;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Ambulancia ambulancia;
+    private Ocorrencia ocorrencia;
+
+    @BeforeEach
+    void popular() {
+        Bairro bairro = new Bairro();
+        bairro.setNome("Centro");
+        bairro = bairroRepositorio.save(bairro);
+
+        Ambulancia nova = new Ambulancia();
+        nova.setPlaca("ABC1D23");
+        nova.setTipo(TipoAmbulancia.BASICA);
+        nova.setStatus(StatusAmbulancia.DISPONIVEL);
+        nova.setBairroBase(bairro);
+        ambulancia = ambulanciaRepositorio.save(nova);
+
+        Ocorrencia aberta = new Ocorrencia();
+        aberta.setBairroLocal(bairro);
+        aberta.setTipoOcorrencia("Trauma");
+        aberta.setGravidade(Gravidade.MEDIA);
+        aberta.setDataHoraAbertura(LocalDateTime.now());
+        aberta.setStatusOcorrencia(StatusOcorrencia.ABERTA);
+        aberta.setDescricao("Queda de moto");
+        ocorrencia = ocorrenciaRepositorio.save(aberta);
+    }
+
+    @AfterEach
+    void limpar() {
+        ocorrenciaRepositorio.deleteAll();
+        ambulanciaRepositorio.deleteAll();
+        bairroRepositorio.deleteAll();
+    }
+
+    @Test
+    void soUmaTransacaoReivindicaAAmbulanciaDisponivel() throws Exception {
+        assertEquals(1, vencedoras(() -> ambulanciaRepositorio.reivindicarDisponivel(ambulancia.getId())));
+
+        assertEquals(StatusAmbulancia.EM_ATENDIMENTO,
+                ambulanciaRepositorio.findById(ambulancia.getId()).orElseThrow().getStatus());
+        assertEquals(Integer.valueOf(0), new TransactionTemplate(transactionManager)
+                        .execute(status -> ambulanciaRepositorio.reivindicarDisponivel(ambulancia.getId())),
+                "ambulância em atendimento não é reivindicada de novo");
+    }
+
+    @Test
+    void soUmaTransacaoReivindicaAMesmaOcorrencia() throws Exception {
+        assertEquals(1, vencedoras(() -> ocorrenciaRepositorio.reivindicarAberta(ocorrencia.getId())));
+
+        assertEquals(StatusOcorrencia.DESPACHADA,
+                ocorrenciaRepositorio.findById(ocorrencia.getId()).orElseThrow().getStatus());
+    }
+
+    /**
+     * Executa a reivindicação em várias transações liberadas ao mesmo tempo e devolve quantas
+     * receberam 1.
+     */
+    private int vencedoras(IntSupplier reivindicacao) throws Exception {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(TRANSACOES);
+        try {
+            List<Future<Integer>> resultados = new ArrayList<>();
+            for (int i = 0; i < TRANSACOES; i++) {
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    return transacao.execute(status -> reivindicacao.getAsInt());
+                }));
+            }
+            largada.countDown();
+            int vencedoras = 0;
+            for (Future<Integer> resultado : resultados) {
+                vencedoras += resultado.get(30, TimeUnit.SECONDS);
+            }
+            return vencedoras;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import com.vitalistech.sosrota.dominio.modelo.Ambulancia;
+import com.vitalistech.sosrota.dominio.modelo.Bairro;
+import com.vitalistech.sosrota.dominio.modelo.Gravidade;
+import com.vitalistech.sosrota.dominio.modelo.Ocorrencia;
+import com.vitalistech.sosrota.dominio.modelo.RuaConexao;
+import com.vitalistech.sosrota.dominio.modelo.TipoAmbulancia;
+import com.vitalistech.sosrota.dominio.repositorio.AmbulanciaRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.BairroRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.OcorrenciaRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.RuaConexaoRepositorio;
+import com.vitalistech.sosrota.util.CidadeSintetica;
+import com.vitalistech.sosrota.util.GeradorCidadeSintetica;
+import com.vitalistech.sosrota.util.GrafoViario;
+import com.vitalistech.sosrota.util.ModoRoteamento;
+import com.vitalistech.sosrota.web.dto.BairroSugeridoDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ranking de bairros sugeridos comparado, campo a campo e na mesma ordem, com o cálculo anterior
+ * (contagens por stream para cada bairro e uma consulta de rota por par de bairros), mantido
+ * aqui como referência.
+ *
+ * A cidade sintética perde as ruas de alguns bairros (ficam isolados, sem rota) e parte da frota
+ * é desativada, para cobrir distâncias infinitas, bairros sem ocorrências e empates no score.
+ */
+class AnaliseEstrategicaServicoTest {
+
+    @Test
+    void rankingIgualAoCalculoAnterior() {
+        GeradorCidadeSintetica gerador = new GeradorCidadeSintetica(20250317L);
+        gerador.setQuantidadeBairros(300);
+        gerador.setQuantidadeAmbulancias(30);
+        gerador.setQuantidadeOcorrencias(400);
+        CidadeSintetica cidade = gerador.gerar();
+
+        List<RuaConexao> conexoes = cidade.getConexoes().stream()
+                .filter(c -> c.getBairroOrigem().getId() % 37 != 0 && c.getBairroDestino().getId() % 37 != 0)
+                .collect(Collectors.toList());
+        for (int i = 0; i < cidade.getAmbulancias().size(); i += 4) {
+            cidade.getAmbulancias().get(i).setAtiva(false);
+        }
+
+        RoteamentoServico roteamentoServico = new RoteamentoServico(
+                new GrafoViarioServico(
+                        bairroRepositorio(cidade.getBairros()),
+                        ruaConexaoRepositorio(conexoes)),
+                2000, 10000, ModoRoteamento.DIJKSTRA, false);
+        AnaliseEstrategicaServico servico = new AnaliseEstrategicaServico(
+                bairroRepositorio(cidade.getBairros()),
+                ocorrenciaRepositorio(cidade.getOcorrencias()),
+                ambulanciaRepositorio(cidade.getAmbulancias()),
+                roteamentoServico);
+
+        for (TipoAmbulancia tipo : Arrays.asList(null, TipoAmbulancia.UTI, TipoAmbulancia.BASICA)) {
+            List<BairroSugeridoDTO> esperado = rankingAnterior(cidade.getBairros(), cidade.getOcorrencias(),
+                    cidade.getAmbulancias(), roteamentoServico, tipo);
+            List<BairroSugeridoDTO> obtido = servico.obterBairrosSugeridos(tipo);
+
+            assertEquals(esperado.size(), obtido.size());
+            for (int i = 0; i < esperado.size(); i++) {
+                BairroSugeridoDTO e = esperado.get(i);
+                BairroSugeridoDTO o = obtido.get(i);
+                String posicao = "tipo " + tipo + ", posição " + i;
+                assertEquals(e.getId(), o.getId(), posicao);
+                assertEquals(e.getNome(), o.getNome(), posicao);
+                assertEquals(e.getJustificativa(), o.getJustificativa(), posicao);
+                assertEquals(e.getOcorrenciasNoBairro(), o.getOcorrenciasNoBairro(), posicao);
+                assertEquals(Double.valueOf(e.getTempoMedioResposta()), Double.valueOf(o.getTempoMedioResposta()), posicao);
+                assertEquals(e.getAmbulanciasExistentes(), o.getAmbulanciasExistentes(), posicao);
+                assertEquals(e.getBairrosAlcancaveis(), o.getBairrosAlcancaveis(), posicao);
+            }
+        }
+    }
+
+    /**
+     * Cálculo anterior de {@link AnaliseEstrategicaServico#obterBairrosSugeridos(TipoAmbulancia)},
+     * incluindo o comparador encadeado com reversed().
+     */
+    private static List<BairroSugeridoDTO> rankingAnterior(List<Bairro> todosBairros,
+                                                           List<Ocorrencia> todasOcorrencias,
+                                                           List<Ambulancia> ambulancias,
+                                                           RoteamentoServico roteamentoServico,
+                                                           TipoAmbulancia tipoAmbulancia) {
+        List<Ambulancia> todasAmbulancias = ambulancias.stream().filter(Ambulancia::isAtiva).collect(Collectors.toList());
+        GrafoViario grafo = roteamentoServico.obterGrafo();
+        List<Ocorrencia> ocorrenciasRelevantes = todasOcorrencias.stream()
+                .filter(o -> tipoAmbulancia == null
+                        || (tipoAmbulancia == TipoAmbulancia.UTI
+                            ? o.getGravidade() == Gravidade.ALTA
+                            : o.getGravidade() == Gravidade.MEDIA || o.getGravidade() == Gravidade.BAIXA))
+                .collect(Collectors.toList());
+        List<Bairro> bairrosComOcorrencias = ocorrenciasRelevantes.stream()
+                .map(Ocorrencia::getBairroLocal)
+                .distinct()
+                .collect(Collectors.toList());
+
+        List<BairroSugeridoDTO> sugestoes = new ArrayList<>();
+        Map<Long, Double> scorePorId = new HashMap<>();
+        for (Bairro bairro : todosBairros) {
+            int ocorrenciasNoBairro = (int) ocorrenciasRelevantes.stream()
+                    .filter(o -> o.getBairroLocal().getId().equals(bairro.getId()))
+                    .count();
+            int ambulanciasExistentes = (int) todasAmbulancias.stream()
+                    .filter(a -> a.getBairroBase().getId().equals(bairro.getId()))
+                    .filter(a -> tipoAmbulancia == null || a.getTipo() == tipoAmbulancia)
+                    .count();
+            int ambulanciasMesmoTipo = (int) todasAmbulancias.stream()
+                    .filter(a -> a.getBairroBase().getId().equals(bairro.getId()))
+                    .filter(a -> tipoAmbulancia != null && a.getTipo() == tipoAmbulancia)
+                    .count();
+
+            double distanciaMinimaProxima = Double.POSITIVE_INFINITY;
+            for (Ambulancia ambulancia : todasAmbulancias) {
+                if (tipoAmbulancia != null && ambulancia.getTipo() != tipoAmbulancia) {
+                    continue;
+                }
+                if (bairro.getId().equals(ambulancia.getBairroBase().getId())) {
+                    distanciaMinimaProxima = 0.0;
+                    break;
+                }
+                double distanciaKm = roteamentoServico.calcularDistanciaKm(bairro, ambulancia.getBairroBase());
+                if (!Double.isInfinite(distanciaKm) && distanciaKm < distanciaMinimaProxima) {
+                    distanciaMinimaProxima = distanciaKm;
+                }
+            }
+
+            double somaTempos = 0.0;
+            int rotasValidas = 0;
+            for (Bairro destino : bairrosComOcorrencias) {
+                if (bairro.getId().equals(destino.getId())) {
+                    continue;
+                }
+                double distanciaKm = roteamentoServico.calcularDistanciaKm(bairro, destino);
+                if (!Double.isInfinite(distanciaKm)) {
+                    somaTempos += (distanciaKm / 60.0) * 60.0;
+                    rotasValidas++;
+                }
+            }
+            double tempoMedioResposta = rotasValidas > 0 ? somaTempos / rotasValidas : 0.0;
+
+            int conexoesDiretas = AnaliseEstrategicaServico.calcularConexoesDiretas(bairro, grafo);
+            scorePorId.put(bairro.getId(), AnaliseEstrategicaServico.calcularScorePrioridade(ocorrenciasNoBairro,
+                    ambulanciasExistentes, ambulanciasMesmoTipo, distanciaMinimaProxima, conexoesDiretas,
+                    tempoMedioResposta, tipoAmbulancia));
+            String justificativa = AnaliseEstrategicaServico.gerarJustificativa(ocorrenciasNoBairro,
+                    tempoMedioResposta, ambulanciasExistentes, ambulanciasMesmoTipo, distanciaMinimaProxima,
+                    conexoesDiretas, todosBairros.size(), tipoAmbulancia);
+            sugestoes.add(new BairroSugeridoDTO(bairro.getId(), bairro.getNome(), justificativa,
+                    ocorrenciasNoBairro, tempoMedioResposta, ambulanciasExistentes, conexoesDiretas));
+        }
+
+        return sugestoes.stream()
+                .sorted(Comparator
+                        .comparingDouble((BairroSugeridoDTO dto) -> scorePorId.get(dto.getId())).reversed()
+                        .thenComparingInt((BairroSugeridoDTO dto) -> dto.getBairrosAlcancaveis()).reversed()
+                        .thenComparingInt((BairroSugeridoDTO dto) -> dto.getOcorrenciasNoBairro()).reversed())
+                .collect(Collectors.toList());
+    }
+
+    // Repositórios que respondem findAll com a lista informada
+
+    private static BairroRepositorio bairroRepositorio(List<Bairro> todos) {
+        BairroRepositorio repositorio = mock(BairroRepositorio.class);
+        when(repositorio.findAll()).thenReturn(todos);
+        return repositorio;
+    }
+
+    private static RuaConexaoRepositorio ruaConexaoRepositorio(List<RuaConexao> todas) {
+        RuaConexaoRepositorio repositorio = mock(RuaConexaoRepositorio.class);
+        when(repositorio.findAll()).thenReturn(todas);
+        return repositorio;
+    }
+
+    private static OcorrenciaRepositorio ocorrenciaRepositorio(List<Ocorrencia> todas) {
+        OcorrenciaRepositorio repositorio = mock(OcorrenciaRepositorio.class);
+        when(repositorio.findAll()).thenReturn(todas);
+        return repositorio;
+    }
+
+    private static AmbulanciaRepositorio ambulanciaRepositorio(List<Ambulancia> todas) {
+        AmbulanciaRepositorio repositorio = mock(AmbulanciaRepositorio.class);
+        when(repositorio.findAll()).thenReturn(todas);
+        return repositorio;
+    }
+}
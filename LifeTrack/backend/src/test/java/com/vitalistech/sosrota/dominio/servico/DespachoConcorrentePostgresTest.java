@@ -0,0 +1,194 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import com.vitalistech.sosrota.dominio.repositorio.AmbulanciaRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.AtendimentoRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.AtendimentoRotaConexaoRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.BairroRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.EquipeRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.OcorrenciaRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.ProfissionalRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.RuaConexaoRepositorio;
+import com.vitalistech.sosrota.util.ModoRoteamento;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Centenas de despachos simultâneos pelo {@link OcorrenciaServico} real, cada um na sua transação,
+ * contra um PostgreSQL real: nenhuma ambulância recebe dois atendimentos, nenhuma ocorrência é
+ * despachada duas vezes e a frota inteira acaba sendo usada.
+ *
+ * Ambulâncias e ocorrências ficam no mesmo bairro: todas as rotas empatam e os despachos disputam
+ * as ambulâncias na mesma ordem, o pior caso para as reivindicações. O script de setup não roda
+ * aqui, então o resultado não depende do índice único de atendimentos.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class DespachoConcorrentePostgresTest {
+
+    private static final int AMBULANCIAS = 40;
+    private static final int OCORRENCIAS = 300;
+    private static final int THREADS = 32;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private OcorrenciaRepositorio ocorrenciaRepositorio;
+
+    @Autowired
+    private AmbulanciaRepositorio ambulanciaRepositorio;
+
+    @Autowired
+    private AtendimentoRepositorio atendimentoRepositorio;
+
+    @Autowired
+    private RuaConexaoRepositorio ruaConexaoRepositorio;
+
+    @Autowired
+    private EquipeRepositorio equipeRepositorio;
+
+    @Autowired
+    private ProfissionalRepositorio profissionalRepositorio;
+
+    @Autowired
+    private AtendimentoRotaConexaoRepositorio rotaConexaoRepositorio;
+
+    @Autowired
+    private BairroRepositorio bairroRepositorio;
+
+    private final List<Long> idsOcorrencias = new ArrayList<>();
+
+    @BeforeEach
+    void popular() {
+        long idBairro = jdbcTemplate.queryForObject(
+                "INSERT INTO bairros (nome) VALUES ('Centro') RETURNING id", Long.class);
+        for (int i = 0; i < AMBULANCIAS; i++) {
+            long idAmbulancia = jdbcTemplate.queryForObject("INSERT INTO ambulancias "
+                    + "(placa, tipo, status, id_bairro_base, ativa) VALUES (?, 'BASICA', 'DISPONIVEL', ?, true) "
+                    + "RETURNING id", Long.class, String.format("TST%04d", i), idBairro);
+            long idEquipe = jdbcTemplate.queryForObject("INSERT INTO equipes (descricao, id_ambulancia, ativa) "
+                    + "VALUES (?, ?, true) RETURNING id", Long.class, "Equipe " + i, idAmbulancia);
+            for (String funcao : List.of("CONDUTOR", "ENFERMEIRO")) {
+                long idProfissional = jdbcTemplate.queryForObject("INSERT INTO profissionais "
+                        + "(nome, funcao, contato, turno, status, ativo) "
+                        + "VALUES (?, ?, '0000', 'MANHA', 'DISPONIVEL', true) RETURNING id",
+                        Long.class, funcao + " " + i, funcao);
+                jdbcTemplate.update("INSERT INTO equipes_profissionais (id_equipe, id_profissional) VALUES (?, ?)",
+                        idEquipe, idProfissional);
+            }
+        }
+        for (int i = 0; i < OCORRENCIAS; i++) {
+            idsOcorrencias.add(jdbcTemplate.queryForObject("INSERT INTO ocorrencias "
+                    + "(descricao, tipo_ocorrencia, gravidade, status, id_bairro_origem, data_hora_abertura) "
+                    + "VALUES (?, 'Trauma', 'MEDIA', 'ABERTA', ?, ?) RETURNING id",
+                    Long.class, "Ocorrência " + i, idBairro, LocalDateTime.now()));
+        }
+    }
+
+    @AfterEach
+    void limpar() {
+        for (String tabela : List.of("atendimento_rota_conexao", "atendimentos", "equipes_profissionais",
+                "equipes", "profissionais", "ocorrencias", "ambulancias", "bairros")) {
+            jdbcTemplate.update("DELETE FROM " + tabela);
+        }
+    }
+
+    @Test
+    void despachosSimultaneosNuncaCompartilhamAmbulancia() throws Exception {
+        OcorrenciaServico servico = criarServico();
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        CountDownLatch largada = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Throwable> falhasInesperadas = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (Long idOcorrencia : idsOcorrencias) {
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    try {
+                        transacao.executeWithoutResult(status -> servico.despacharOcorrencia(idOcorrencia, null));
+                    } catch (IllegalStateException esperada) {
+                        // Recusa do despacho (frota esgotada)
+                    } catch (Throwable t) {
+                        falhasInesperadas.add(t);
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(falhasInesperadas.isEmpty(), () -> "falhas inesperadas: " + falhasInesperadas);
+
+        assertEquals(List.of(), jdbcTemplate.queryForList("SELECT id_ambulancia FROM atendimentos "
+                + "GROUP BY id_ambulancia HAVING COUNT(*) > 1", Long.class), "ambulâncias com dois atendimentos");
+        assertEquals(List.of(), jdbcTemplate.queryForList("SELECT id_ocorrencia FROM atendimentos "
+                + "GROUP BY id_ocorrencia HAVING COUNT(*) > 1", Long.class), "ocorrências despachadas duas vezes");
+        // Há muito mais ocorrências do que ambulâncias: a frota inteira deve ter sido usada
+        assertEquals(AMBULANCIAS, contar("SELECT COUNT(*) FROM atendimentos"));
+        assertEquals(AMBULANCIAS, contar("SELECT COUNT(*) FROM ambulancias WHERE status = 'EM_ATENDIMENTO'"));
+        assertEquals(AMBULANCIAS, contar("SELECT COUNT(*) FROM ocorrencias WHERE status = 'DESPACHADA'"),
+                "despachos recusados devolvem a ocorrência a ABERTA");
+    }
+
+    private OcorrenciaServico criarServico() {
+        RoteamentoServico roteamentoServico = new RoteamentoServico(
+                new GrafoViarioServico(bairroRepositorio, ruaConexaoRepositorio),
+                2000, 10000, ModoRoteamento.DIJKSTRA, false);
+        return new OcorrenciaServico(
+                ocorrenciaRepositorio,
+                ambulanciaRepositorio,
+                atendimentoRepositorio,
+                ruaConexaoRepositorio,
+                equipeRepositorio,
+                profissionalRepositorio,
+                rotaConexaoRepositorio,
+                null, // sem usuário de despacho o histórico não é registrado
+                roteamentoServico,
+                new FrotaEstado(ambulanciaRepositorio, equipeRepositorio, evento -> { }),
+                new LinhaDoTempoServico(ocorrenciaRepositorio),
+                evento -> { });
+    }
+
+    private int contar(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+}
@@ -0,0 +1,246 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import com.vitalistech.sosrota.dominio.modelo.Ambulancia;
+import com.vitalistech.sosrota.dominio.modelo.Atendimento;
+import com.vitalistech.sosrota.dominio.modelo.Equipe;
+import com.vitalistech.sosrota.dominio.modelo.Ocorrencia;
+import com.vitalistech.sosrota.dominio.modelo.RuaConexao;
+import com.vitalistech.sosrota.dominio.modelo.StatusAmbulancia;
+import com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia;
+import com.vitalistech.sosrota.dominio.repositorio.AmbulanciaRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.AtendimentoRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.AtendimentoRotaConexaoRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.BairroRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.EquipeRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.OcorrenciaRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.ProfissionalRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.RuaConexaoRepositorio;
+import com.vitalistech.sosrota.util.CidadeSintetica;
+import com.vitalistech.sosrota.util.GeradorCidadeSintetica;
+import com.vitalistech.sosrota.util.ModoRoteamento;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Teste rápido (sem banco) do fluxo de despacho concorrente: nenhuma ambulância recebe dois
+ * atendimentos e despachos simultâneos da mesma ocorrência resultam em um único atendimento.
+ *
+ * Os repositórios são mocks que guardam o estado em memória, com as reivindicações condicionais
+ * ({@code reivindicarAberta} e {@code reivindicarDisponivel}) reproduzidas como verificação e
+ * escrita atômicas por linha; por isso o teste só confirma que o serviço depende delas. A garantia
+ * de verdade, com as transações e travas do PostgreSQL, é verificada por
+ * {@link DespachoConcorrentePostgresTest} e {@code ReivindicacaoDespachoPostgresTest}.
+ */
+class DespachoConcorrenteTest {
+
+    private static final int THREADS = 32;
+
+    @Test
+    void despachosSimultaneosNuncaCompartilhamAmbulancia() throws Exception {
+        CidadeSintetica cidade = cidade();
+        List<Atendimento> atendimentos = new ArrayList<>();
+        OcorrenciaServico servico = criarServico(cidade, atendimentos);
+
+        List<Throwable> falhasInesperadas = disparar(servico,
+                cidade.getOcorrencias().stream().map(Ocorrencia::getId).toList());
+        assertTrue(falhasInesperadas.isEmpty(), () -> "falhas inesperadas: " + falhasInesperadas);
+
+        Set<Long> ambulanciasDespachadas = new HashSet<>();
+        Set<Long> ocorrenciasDespachadas = new HashSet<>();
+        synchronized (atendimentos) {
+            for (Atendimento atendimento : atendimentos) {
+                assertTrue(ambulanciasDespachadas.add(atendimento.getAmbulancia().getId()),
+                        "ambulância " + atendimento.getAmbulancia().getPlaca() + " recebeu dois atendimentos");
+                assertTrue(ocorrenciasDespachadas.add(atendimento.getOcorrencia().getId()));
+            }
+        }
+
+        // Há muito mais ocorrências de cada tipo do que ambulâncias: a frota inteira deve ter sido usada
+        assertEquals(cidade.getAmbulancias().size(), ambulanciasDespachadas.size());
+        for (Ambulancia ambulancia : cidade.getAmbulancias()) {
+            assertEquals(StatusAmbulancia.EM_ATENDIMENTO, ambulancia.getStatus());
+        }
+    }
+
+    @Test
+    void despachosSimultaneosDaMesmaOcorrenciaGeramUmAtendimento() throws Exception {
+        CidadeSintetica cidade = cidade();
+        List<Atendimento> atendimentos = new ArrayList<>();
+        OcorrenciaServico servico = criarServico(cidade, atendimentos);
+        Ocorrencia ocorrencia = cidade.getOcorrencias().get(0);
+
+        List<Throwable> falhasInesperadas = disparar(servico, Collections.nCopies(THREADS * 4, ocorrencia.getId()));
+        assertTrue(falhasInesperadas.isEmpty(), () -> "falhas inesperadas: " + falhasInesperadas);
+
+        assertEquals(1, atendimentos.size());
+        assertEquals(StatusOcorrencia.DESPACHADA, ocorrencia.getStatus());
+        // Os despachos perdedores desistem antes de tocar na frota
+        assertEquals(1, cidade.getAmbulancias().stream()
+                .filter(a -> a.getStatus() == StatusAmbulancia.EM_ATENDIMENTO)
+                .count());
+    }
+
+    // ---------------------------------------------------------------------
+    // Auxiliares
+    // ---------------------------------------------------------------------
+
+    private static CidadeSintetica cidade() {
+        GeradorCidadeSintetica gerador = new GeradorCidadeSintetica(20240601L);
+        gerador.setQuantidadeBairros(400);
+        gerador.setQuantidadeAmbulancias(40);
+        gerador.setQuantidadeOcorrencias(500);
+        return gerador.gerar();
+    }
+
+    /**
+     * Despacha as ocorrências informadas a partir de várias threads liberadas ao mesmo tempo.
+     * IllegalStateException é recusa normal (frota esgotada, ocorrência já despachada); as demais
+     * falhas são devolvidas.
+     */
+    private static List<Throwable> disparar(OcorrenciaServico servico, List<Long> idsOcorrencias) throws Exception {
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        ConcurrentLinkedQueue<Throwable> falhasInesperadas = new ConcurrentLinkedQueue<>();
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (Long idOcorrencia : idsOcorrencias) {
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    try {
+                        servico.despacharOcorrencia(idOcorrencia, null);
+                    } catch (IllegalStateException esperada) {
+                        // Recusa do despacho
+                    } catch (Throwable t) {
+                        falhasInesperadas.add(t);
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return new ArrayList<>(falhasInesperadas);
+    }
+
+    private static OcorrenciaServico criarServico(CidadeSintetica cidade, List<Atendimento> atendimentos) {
+        Map<Long, Ocorrencia> ocorrencias = new HashMap<>();
+        cidade.getOcorrencias().forEach(o -> ocorrencias.put(o.getId(), o));
+        Map<Long, Ambulancia> ambulancias = new HashMap<>();
+        cidade.getAmbulancias().forEach(a -> ambulancias.put(a.getId(), a));
+        Map<Long, Equipe> equipesPorAmbulancia = new HashMap<>();
+        cidade.getEquipes().forEach(e -> equipesPorAmbulancia.put(e.getAmbulancia().getId(), e));
+        Map<Long, Object> ocorrenciasSalvas = new ConcurrentHashMap<>();
+        AtomicInteger proximoAtendimento = new AtomicInteger();
+
+        OcorrenciaRepositorio ocorrenciaRepositorio = mock(OcorrenciaRepositorio.class);
+        when(ocorrenciaRepositorio.findById(anyLong()))
+                .thenAnswer(i -> Optional.ofNullable(ocorrencias.get(i.<Long>getArgument(0))));
+        when(ocorrenciaRepositorio.reivindicarAberta(anyLong())).thenAnswer(i -> {
+            // Mesma semântica do UPDATE condicional: trava apenas a linha da ocorrência
+            Ocorrencia o = ocorrencias.get(i.<Long>getArgument(0));
+            synchronized (o) {
+                if (o.getStatus() == StatusOcorrencia.ABERTA) {
+                    o.setStatusOcorrencia(StatusOcorrencia.DESPACHADA);
+                    return 1;
+                }
+            }
+            return 0;
+        });
+        when(ocorrenciaRepositorio.save(any(Ocorrencia.class))).thenAnswer(i -> {
+            Ocorrencia o = i.getArgument(0);
+            assertNull(ocorrenciasSalvas.put(o.getId(), o), "ocorrência despachada duas vezes");
+            return o;
+        });
+
+        AmbulanciaRepositorio ambulanciaRepositorio = mock(AmbulanciaRepositorio.class);
+        when(ambulanciaRepositorio.findAllComBairroBase()).thenReturn(cidade.getAmbulancias());
+        when(ambulanciaRepositorio.findById(anyLong()))
+                .thenAnswer(i -> Optional.ofNullable(ambulancias.get(i.<Long>getArgument(0))));
+        when(ambulanciaRepositorio.reivindicarDisponivel(anyLong())).thenAnswer(i -> {
+            // Mesma semântica do UPDATE condicional: trava apenas a linha da ambulância
+            Ambulancia a = ambulancias.get(i.<Long>getArgument(0));
+            synchronized (a) {
+                if (a.isAtiva() && a.getStatus() == StatusAmbulancia.DISPONIVEL) {
+                    a.setStatus(StatusAmbulancia.EM_ATENDIMENTO);
+                    return 1;
+                }
+            }
+            return 0;
+        });
+
+        EquipeRepositorio equipeRepositorio = mock(EquipeRepositorio.class);
+        when(equipeRepositorio.findAtivasComProfissionais()).thenReturn(cidade.getEquipes());
+        when(equipeRepositorio.findByAmbulanciaAndAtivaTrue(any(Ambulancia.class)))
+                .thenAnswer(i -> Optional.ofNullable(equipesPorAmbulancia.get(i.<Ambulancia>getArgument(0).getId())));
+
+        AtendimentoRepositorio atendimentoRepositorio = mock(AtendimentoRepositorio.class);
+        when(atendimentoRepositorio.save(any(Atendimento.class))).thenAnswer(i -> {
+            Atendimento atendimento = i.getArgument(0);
+            atendimento.setId((long) proximoAtendimento.incrementAndGet());
+            synchronized (atendimentos) {
+                atendimentos.add(atendimento);
+            }
+            return atendimento;
+        });
+
+        RuaConexaoRepositorio ruaConexaoRepositorio = mock(RuaConexaoRepositorio.class);
+        when(ruaConexaoRepositorio.findAll()).thenReturn(cidade.getConexoes());
+        when(ruaConexaoRepositorio.getReferenceById(anyLong())).thenAnswer(i -> {
+            RuaConexao conexao = new RuaConexao();
+            conexao.setId(i.getArgument(0));
+            return conexao;
+        });
+
+        BairroRepositorio bairroRepositorio = mock(BairroRepositorio.class);
+        when(bairroRepositorio.findAll()).thenReturn(cidade.getBairros());
+
+        ProfissionalRepositorio profissionalRepositorio = mock(ProfissionalRepositorio.class);
+        when(profissionalRepositorio.save(any())).thenAnswer(i -> i.getArgument(0));
+        AtendimentoRotaConexaoRepositorio rotaConexaoRepositorio = mock(AtendimentoRotaConexaoRepositorio.class);
+        when(rotaConexaoRepositorio.save(any())).thenAnswer(i -> i.getArgument(0));
+
+        RoteamentoServico roteamentoServico = new RoteamentoServico(
+                new GrafoViarioServico(bairroRepositorio, ruaConexaoRepositorio),
+                2000, 10000, ModoRoteamento.DIJKSTRA, false);
+
+        return new OcorrenciaServico(
+                ocorrenciaRepositorio,
+                ambulanciaRepositorio,
+                atendimentoRepositorio,
+                ruaConexaoRepositorio,
+                equipeRepositorio,
+                profissionalRepositorio,
+                rotaConexaoRepositorio,
+                null, // sem usuário de despacho o histórico não é registrado
+                roteamentoServico,
+                new FrotaEstado(ambulanciaRepositorio, equipeRepositorio, evento -> { }),
+                new LinhaDoTempoServico(ocorrenciaRepositorio),
+                evento -> { });
+    }
+}
@@ -0,0 +1,65 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Esperas do long polling do histórico: avisadas uma vez só para a ocorrência certa, e a espera
+ * cancelada sai do registro.
+ */
+class EsperaHistoricoServicoTest {
+
+    private final EsperaHistoricoServico servico = new EsperaHistoricoServico();
+
+    @AfterEach
+    void encerrar() {
+        servico.parar();
+    }
+
+    @Test
+    void avisaUmaVezSoAsEsperasDaOcorrencia() throws Exception {
+        CountDownLatch avisada = new CountDownLatch(1);
+        AtomicInteger avisosOcorrencia1 = new AtomicInteger();
+        AtomicInteger avisosOcorrencia2 = new AtomicInteger();
+        servico.aguardar(1L, () -> {
+            avisosOcorrencia1.incrementAndGet();
+            avisada.countDown();
+        });
+        servico.aguardar(2L, avisosOcorrencia2::incrementAndGet);
+
+        servico.aoRegistrarHistorico(new HistoricoRegistradoEvento(10L, 1L));
+        assertTrue(avisada.await(5, TimeUnit.SECONDS));
+
+        servico.aoRegistrarHistorico(new HistoricoRegistradoEvento(11L, 1L));
+        sincronizarNotificador();
+        assertEquals(1, avisosOcorrencia1.get());
+        assertEquals(0, avisosOcorrencia2.get());
+        assertEquals(1, servico.quantidadeOcorrenciasAguardadas());
+    }
+
+    @Test
+    void esperaCanceladaNaoEhAvisada() throws Exception {
+        AtomicInteger avisos = new AtomicInteger();
+        Runnable cancelar = servico.aguardar(1L, avisos::incrementAndGet);
+        cancelar.run();
+        assertEquals(0, servico.quantidadeOcorrenciasAguardadas());
+
+        servico.aoRegistrarHistorico(new HistoricoRegistradoEvento(10L, 1L));
+        sincronizarNotificador();
+        assertEquals(0, avisos.get());
+    }
+
+    // Os avisos rodam em ordem numa única thread: quando este for avisado, os anteriores já foram
+    private void sincronizarNotificador() throws InterruptedException {
+        CountDownLatch fim = new CountDownLatch(1);
+        servico.aguardar(99L, fim::countDown);
+        servico.aoRegistrarHistorico(new HistoricoRegistradoEvento(12L, 99L));
+        assertTrue(fim.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,220 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import com.vitalistech.sosrota.dominio.modelo.AcaoHistorico;
+import com.vitalistech.sosrota.dominio.modelo.HistoricoOcorrencia;
+import com.vitalistech.sosrota.dominio.modelo.Ocorrencia;
+import com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia;
+import com.vitalistech.sosrota.dominio.modelo.Usuario;
+import com.vitalistech.sosrota.dominio.repositorio.HistoricoOcorrenciaRepositorio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Gravação do histórico na transação do chamador: as entradas de uma transação são gravadas juntas
+ * imediatamente antes do commit (depois de descarregar a sessão JPA) e somem em rollback; só a
+ * sequência e os eventos ficam para depois, com a thread do gravador.
+ *
+ * O INSERT em batch e o UPDATE da sequência são substituídos por listas em memória; o
+ * sequenciamento é acionado diretamente pelo teste para o resultado não depender de tempo.
+ */
+class GravadorHistoricoTest {
+
+    private final List<List<HistoricoOcorrencia>> lotesGravados = new ArrayList<>();
+    private final List<HistoricoRegistradoEvento> eventosPublicados = new ArrayList<>();
+    private final AtomicLong proximoId = new AtomicLong();
+    private final AtomicLong proximaSequencia = new AtomicLong();
+    // Entradas gravadas ainda sem sequência, em ordem de id
+    private final List<HistoricoOcorrencia> semSequencia = new ArrayList<>();
+
+    private HistoricoOcorrenciaRepositorio repositorio;
+    private GravadorHistorico gravador;
+
+    @BeforeEach
+    void criarGravador() {
+        repositorio = mock(HistoricoOcorrenciaRepositorio.class);
+        ApplicationEventPublisher publicador = evento -> eventosPublicados.add((HistoricoRegistradoEvento) evento);
+        gravador = new GravadorHistorico(repositorio, null, null, publicador, 2, 3_600_000L) {
+            @Override
+            void inserirLote(List<HistoricoOcorrencia> lote) {
+                for (HistoricoOcorrencia historico : lote) {
+                    if (historico.getOcorrencia().getId() == null) {
+                        throw new DataIntegrityViolationException("id_ocorrencia não pode ser nulo");
+                    }
+                }
+                for (HistoricoOcorrencia historico : lote) {
+                    historico.setId(proximoId.incrementAndGet());
+                }
+                lotesGravados.add(List.copyOf(lote));
+                semSequencia.addAll(lote);
+            }
+
+            @Override
+            List<HistoricoRegistradoEvento> sequenciarLote() {
+                List<HistoricoRegistradoEvento> lote = new ArrayList<>();
+                while (!semSequencia.isEmpty() && lote.size() < 2) {
+                    HistoricoOcorrencia historico = semSequencia.remove(0);
+                    historico.setSequencia(proximaSequencia.incrementAndGet());
+                    lote.add(new HistoricoRegistradoEvento(historico.getId(), historico.getOcorrencia().getId()));
+                }
+                return lote;
+            }
+        };
+    }
+
+    @AfterEach
+    void encerrar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(gravador);
+        gravador.parar();
+    }
+
+    @Test
+    void entradasDaTransacaoSaoGravadasJuntasNoCommit() {
+        HistoricoOcorrencia despacho = historico(1L, "Indo até o local");
+        HistoricoOcorrencia chegada = historico(1L, "No local");
+
+        TransactionSynchronizationManager.initSynchronization();
+        gravador.registrar(despacho);
+        gravador.registrar(chegada);
+        assertTrue(lotesGravados.isEmpty(), "nada é gravado antes do commit");
+        assertTrue(gravador.existeNaTransacao(h -> "No local".equals(h.getAcaoAmbulancia())));
+
+        concluir(true);
+
+        assertEquals(List.of(List.of(despacho, chegada)), lotesGravados, "um único INSERT em batch");
+        verify(repositorio).flush();
+        assertNotNull(despacho.getId());
+        assertNull(despacho.getSequencia(), "a sequência só é atribuída depois do commit");
+        assertFalse(gravador.existeNaTransacao(h -> true));
+        assertTrue(eventosPublicados.isEmpty(), "eventos só na thread do gravador");
+
+        gravador.sequenciarPendentes();
+        assertEquals(List.of(despacho.getId(), chegada.getId()),
+                eventosPublicados.stream().map(HistoricoRegistradoEvento::getIdHistorico).toList());
+        assertEquals(Long.valueOf(1L), eventosPublicados.get(0).getIdOcorrencia());
+        assertTrue(despacho.getSequencia() < chegada.getSequencia());
+    }
+
+    @Test
+    void sequenciaEmLotesAteEsvaziar() {
+        HistoricoOcorrencia primeira = gravador.registrar(historico(1L, null));
+        HistoricoOcorrencia segunda = gravador.registrar(historico(2L, null));
+        HistoricoOcorrencia terceira = gravador.registrar(historico(3L, null));
+
+        gravador.sequenciarPendentes();
+
+        assertEquals(List.of(primeira.getId(), segunda.getId(), terceira.getId()),
+                eventosPublicados.stream().map(HistoricoRegistradoEvento::getIdHistorico).toList(),
+                "lote cheio (2) leva a mais uma rodada, na ordem de id");
+        assertEquals(List.of(1L, 2L, 3L),
+                List.of(primeira.getSequencia(), segunda.getSequencia(), terceira.getSequencia()));
+        assertTrue(semSequencia.isEmpty());
+    }
+
+    @Test
+    void rollbackDescartaEntradasSemGravarNemPublicar() {
+        TransactionSynchronizationManager.initSynchronization();
+        HistoricoOcorrencia desfeita = gravador.registrar(historico(1L, null));
+
+        concluir(false);
+        gravador.sequenciarPendentes();
+
+        assertTrue(lotesGravados.isEmpty());
+        assertNull(desfeita.getId());
+        assertTrue(eventosPublicados.isEmpty());
+        verify(repositorio, never()).flush();
+    }
+
+    @Test
+    void entradaRejeitadaFalhaOCommitDoChamador() {
+        TransactionSynchronizationManager.initSynchronization();
+        gravador.registrar(historico(1L, null));
+        gravador.registrar(historico(null, null));
+
+        List<TransactionSynchronization> sincronizacoes = TransactionSynchronizationManager.getSynchronizations();
+        assertThrows(DataIntegrityViolationException.class,
+                () -> sincronizacoes.forEach(s -> s.beforeCommit(false)));
+        sincronizacoes.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        gravador.sequenciarPendentes();
+
+        assertTrue(lotesGravados.isEmpty());
+        assertTrue(eventosPublicados.isEmpty());
+    }
+
+    @Test
+    void foraDeTransacaoGravaNaHora() {
+        HistoricoOcorrencia historico = gravador.registrar(historico(2L, null));
+
+        assertNotNull(historico.getId());
+        assertEquals(1, lotesGravados.size());
+        assertNull(historico.getSequencia());
+
+        gravador.sequenciarPendentes();
+        assertEquals(1, eventosPublicados.size());
+    }
+
+    @Test
+    void entradasDaTransacaoContamNaVerificacaoDeAcaoDaAmbulancia() {
+        HistoricoOcorrenciaServico servico = new HistoricoOcorrenciaServico(repositorio, gravador, null, null);
+        Usuario usuario = new Usuario();
+        usuario.setId(7L);
+        usuario.setLogin("maria");
+
+        TransactionSynchronizationManager.initSynchronization();
+        servico.registrarAcao(ocorrencia(5L), usuario, AcaoHistorico.ALTERACAO_STATUS, StatusOcorrencia.CONCLUIDA,
+                StatusOcorrencia.CONCLUIDA, "retorno", "ABC1D23", "Voltando para base");
+
+        assertTrue(servico.existeAcaoAmbulancia(5L, "Voltando para base"));
+        verify(repositorio, never()).existsByOcorrenciaIdAndAcaoAmbulancia(anyLong(), any());
+        assertFalse(servico.existeAcaoAmbulancia(6L, "Voltando para base"));
+        verify(repositorio).existsByOcorrenciaIdAndAcaoAmbulancia(6L, "Voltando para base");
+    }
+
+    private void concluir(boolean confirmar) {
+        List<TransactionSynchronization> sincronizacoes = TransactionSynchronizationManager.getSynchronizations();
+        try {
+            if (confirmar) {
+                sincronizacoes.forEach(s -> s.beforeCommit(false));
+            }
+            int status = confirmar ? TransactionSynchronization.STATUS_COMMITTED
+                    : TransactionSynchronization.STATUS_ROLLED_BACK;
+            sincronizacoes.forEach(s -> s.afterCompletion(status));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static HistoricoOcorrencia historico(Long idOcorrencia, String acaoAmbulancia) {
+        HistoricoOcorrencia historico = new HistoricoOcorrencia();
+        historico.setOcorrencia(ocorrencia(idOcorrencia));
+        historico.setAcao(AcaoHistorico.DESPACHO);
+        historico.setStatusNovo(StatusOcorrencia.DESPACHADA);
+        historico.setDataHora(LocalDateTime.of(2024, 5, 2, 14, 30));
+        historico.setAcaoAmbulancia(acaoAmbulancia);
+        return historico;
+    }
+
+    private static Ocorrencia ocorrencia(Long id) {
+        Ocorrencia ocorrencia = new Ocorrencia();
+        ocorrencia.setId(id);
+        ocorrencia.setTipoOcorrencia("Trauma");
+        return ocorrencia;
+    }
+}
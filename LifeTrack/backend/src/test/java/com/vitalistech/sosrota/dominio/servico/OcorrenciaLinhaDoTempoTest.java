@@ -0,0 +1,446 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia;
+import com.vitalistech.sosrota.dominio.repositorio.OcorrenciaRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.TimerOcorrenciaLinha;
+import com.vitalistech.sosrota.web.dto.TimerOcorrenciaDTO;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Confere a {@link OcorrenciaLinhaDoTempo} com o cálculo anterior do timer (copiado abaixo como
+ * referência) em cenários aleatórios de todas as etapas, campo a campo, e o cache de ativas,
+ * inclusive com leituras concorrentes da mesma ocorrência.
+ */
+class OcorrenciaLinhaDoTempoTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 10, 8, 0, 0);
+    private static final StatusOcorrencia[] STATUS = StatusOcorrencia.values();
+
+    @Test
+    void timerIgualAoCalculoAnteriorEmTodasAsEtapas() throws Exception {
+        Random random = new Random(18);
+        List<Method> getters = getters();
+        for (int execucao = 0; execucao < 5000; execucao++) {
+            TimerOcorrenciaLinha linha = linhaAleatoria(random, (long) execucao);
+            OcorrenciaLinhaDoTempo linhaDoTempo = OcorrenciaLinhaDoTempo.de(linha);
+            for (int i = 0; i < 4; i++) {
+                LocalDateTime agora = BASE.plusSeconds(random.nextInt(4 * 3600));
+                TimerOcorrenciaDTO esperado = timerAnterior(linha, agora);
+                TimerOcorrenciaDTO obtido = linhaDoTempo.paraTimer(agora);
+                for (Method getter : getters) {
+                    assertEquals(getter.invoke(esperado), getter.invoke(obtido),
+                            getter.getName() + " em " + descrever(linha) + " agora=" + agora);
+                }
+                Long total = linhaDoTempo.tempoTotalSegundos(agora);
+                assertEquals(esperado.getTempoTotalDecorridoMinutos(), total == null ? null : total / 60);
+                assertEquals(esperado.getTempoTotalFormatado(),
+                        total == null ? null : OcorrenciaLinhaDoTempo.formatarTempo(total));
+                OcorrenciaLinhaDoTempo.SituacaoSla situacao = linhaDoTempo.situacaoSla(agora);
+                assertEquals(esperado.getSlaExcedido(),
+                        situacao == null ? null : situacao == OcorrenciaLinhaDoTempo.SituacaoSla.EXCEDIDO);
+                assertEquals(esperado.getSlaEmRisco(),
+                        situacao == null ? null : situacao == OcorrenciaLinhaDoTempo.SituacaoSla.EM_RISCO);
+            }
+        }
+    }
+
+    @Test
+    void formatacaoIgualAAnterior() {
+        for (long segundos = -8000; segundos <= 8000; segundos += 7) {
+            assertEquals(formatarTempo(segundos), OcorrenciaLinhaDoTempo.formatarTempo(segundos));
+        }
+    }
+
+    @Test
+    void cacheGuardaApenasOcorrenciasAtivas() {
+        Map<Long, TimerOcorrenciaLinha> banco = new ConcurrentHashMap<>();
+        OcorrenciaRepositorio repositorio = mock(OcorrenciaRepositorio.class);
+        when(repositorio.buscarLinhaTimer(anyLong())).thenAnswer(i -> {
+            TimerOcorrenciaLinha linha = banco.get(i.<Long>getArgument(0));
+            return linha == null ? List.of() : List.of(linha);
+        });
+        LinhaDoTempoServico servico = new LinhaDoTempoServico(repositorio);
+
+        banco.put(1L, linha(1L, StatusOcorrencia.ABERTA, null, null, null));
+        servico.atualizar(1L);
+        assertEquals(1, servico.quantidadeAtivas());
+        clearInvocations(repositorio);
+        assertEquals(StatusOcorrencia.ABERTA, servico.obter(1L).getStatus());
+        verify(repositorio, never().description("ocorrência ativa deve vir do cache")).buscarLinhaTimer(anyLong());
+
+        // Despacho e chegada substituem a entrada; retorno à base a remove
+        banco.put(1L, linha(1L, StatusOcorrencia.DESPACHADA, BASE.plusMinutes(2), null, null));
+        servico.atualizar(1L);
+        assertEquals(StatusOcorrencia.DESPACHADA, servico.obter(1L).getStatus());
+        banco.put(1L, linha(1L, StatusOcorrencia.CONCLUIDA, BASE.plusMinutes(2), BASE.plusMinutes(9), null));
+        servico.atualizar(1L);
+        assertTrue(servico.obter(1L).isAtiva());
+        assertEquals(1, servico.quantidadeAtivas());
+        banco.put(1L, linha(1L, StatusOcorrencia.CONCLUIDA, BASE.plusMinutes(2), BASE.plusMinutes(9), BASE.plusMinutes(16)));
+        servico.atualizar(1L);
+        assertEquals(0, servico.quantidadeAtivas());
+
+        // Leitura de ocorrência encerrada vai ao banco e não entra no cache
+        clearInvocations(repositorio);
+        assertFalse(servico.obter(1L).isAtiva());
+        verify(repositorio).buscarLinhaTimer(1L);
+        assertEquals(0, servico.quantidadeAtivas());
+
+        assertThrows(IllegalArgumentException.class, () -> servico.obter(2L));
+    }
+
+    @Test
+    void leituraAntigaQueTerminaDepoisNaoSobrescreveAMaisNova() throws Exception {
+        // Cada chamada devolve a próxima linha; as pares só terminam depois que a seguinte gravou
+        List<TimerOcorrenciaLinha> respostas = List.of(
+                linha(1L, StatusOcorrencia.DESPACHADA, BASE.plusMinutes(2), null, null),
+                linha(1L, StatusOcorrencia.CONCLUIDA, BASE.plusMinutes(2), BASE.plusMinutes(9), null),
+                linha(1L, StatusOcorrencia.ABERTA, null, null, null),
+                linha(1L, StatusOcorrencia.CONCLUIDA, BASE.plusMinutes(2), BASE.plusMinutes(9), BASE.plusMinutes(16)));
+        List<CountDownLatch> lendo = List.of(new CountDownLatch(1), new CountDownLatch(1));
+        List<CountDownLatch> liberar = List.of(new CountDownLatch(1), new CountDownLatch(1));
+        AtomicInteger chamadas = new AtomicInteger();
+        OcorrenciaRepositorio repositorio = mock(OcorrenciaRepositorio.class);
+        when(repositorio.buscarLinhaTimer(anyLong())).thenAnswer(i -> {
+            int chamada = chamadas.getAndIncrement();
+            if (chamada % 2 == 0) {
+                lendo.get(chamada / 2).countDown();
+                assertTrue(liberar.get(chamada / 2).await(10, TimeUnit.SECONDS));
+            }
+            return List.of(respostas.get(chamada));
+        });
+        LinhaDoTempoServico servico = new LinhaDoTempoServico(repositorio);
+
+        // Leitura antiga ativa x mais nova ativa: fica a mais nova
+        concorrer(servico, lendo.get(0), liberar.get(0));
+        assertEquals(StatusOcorrencia.CONCLUIDA, servico.obter(1L).getStatus());
+        assertEquals(1, servico.quantidadeAtivas());
+
+        // Leitura antiga ativa x mais nova encerrada: a ocorrência não volta ao cache
+        concorrer(servico, lendo.get(1), liberar.get(1));
+        assertEquals(0, servico.quantidadeAtivas());
+    }
+
+    /**
+     * Inicia uma atualização que fica presa na leitura, faz outra atualização completa e só então
+     * libera a primeira.
+     */
+    private static void concorrer(LinhaDoTempoServico servico, CountDownLatch lendo, CountDownLatch liberar)
+            throws Exception {
+        Thread antiga = new Thread(() -> servico.atualizar(1L));
+        antiga.start();
+        assertTrue(lendo.await(10, TimeUnit.SECONDS));
+        servico.atualizar(1L);
+        liberar.countDown();
+        antiga.join(10_000);
+        assertFalse(antiga.isAlive());
+    }
+
+    private static TimerOcorrenciaLinha linha(Long id, StatusOcorrencia status, LocalDateTime despacho,
+                                              LocalDateTime chegada, LocalDateTime retorno) {
+        return new TimerOcorrenciaLinha(id, status, BASE, null, 30, despacho != null ? 10L : null,
+                despacho, chegada, retorno, 7.5, "ABC1D23");
+    }
+
+    private static TimerOcorrenciaLinha linhaAleatoria(Random random, Long id) {
+        StatusOcorrencia status = STATUS[random.nextInt(STATUS.length)];
+        LocalDateTime abertura = random.nextInt(20) == 0 ? null : BASE.plusSeconds(random.nextInt(600));
+        LocalDateTime referencia = abertura != null ? abertura : BASE;
+        LocalDateTime despacho = random.nextInt(4) == 0 ? null : referencia.plusSeconds(random.nextInt(900));
+        LocalDateTime chegada = random.nextInt(3) == 0 ? null
+                : (despacho != null ? despacho : referencia).plusSeconds(random.nextInt(2400));
+        LocalDateTime retorno = chegada == null || random.nextInt(2) == 0 ? null : chegada.plusSeconds(random.nextInt(2400));
+        if (random.nextInt(15) == 0) {
+            // Datas fora de ordem também precisam dar o mesmo resultado
+            retorno = referencia.plusSeconds(random.nextInt(300));
+        }
+        LocalDateTime fechamento = status == StatusOcorrencia.CONCLUIDA || status == StatusOcorrencia.CANCELADA
+                ? referencia.plusSeconds(random.nextInt(3600)) : null;
+        Integer sla = random.nextInt(6) == 0 ? null : new int[]{0, 8, 15, 30, 60}[random.nextInt(5)];
+        Long idAtendimento = random.nextInt(5) == 0 ? null : id + 1000;
+        Double distancia = switch (random.nextInt(5)) {
+            case 0 -> null;
+            case 1 -> 0.0;
+            default -> Math.round(random.nextDouble() * 4000.0) / 100.0;
+        };
+        return new TimerOcorrenciaLinha(id, status, abertura, fechamento, sla, idAtendimento,
+                despacho, chegada, retorno, distancia, idAtendimento != null ? "PLC" + id : null);
+    }
+
+    private static List<Method> getters() {
+        List<Method> getters = new ArrayList<>();
+        for (Method metodo : TimerOcorrenciaDTO.class.getMethods()) {
+            if ((metodo.getName().startsWith("get") || metodo.getName().startsWith("is"))
+                    && metodo.getParameterCount() == 0 && metodo.getDeclaringClass() == TimerOcorrenciaDTO.class) {
+                getters.add(metodo);
+            }
+        }
+        assertTrue(getters.size() > 20, "getters do DTO");
+        return getters;
+    }
+
+    private static String descrever(TimerOcorrenciaLinha l) {
+        return Objects.toString(l.getStatus()) + " abertura=" + l.getDataHoraAbertura() + " atendimento=" + l.getIdAtendimento()
+                + " despacho=" + l.getDataHoraDespacho() + " chegada=" + l.getDataHoraChegada()
+                + " retorno=" + l.getDataHoraRetorno() + " distancia=" + l.getDistanciaKm() + " sla=" + l.getSlaMinutos();
+    }
+
+    // Cálculo do timer antes da linha do tempo pré-calculada, mantido como referência
+
+    private static TimerOcorrenciaDTO timerAnterior(TimerOcorrenciaLinha linha, LocalDateTime agora) {
+        boolean temAtendimento = linha.getIdAtendimento() != null;
+
+        TimerOcorrenciaDTO dto = new TimerOcorrenciaDTO();
+        dto.setIdOcorrencia(linha.getIdOcorrencia());
+        dto.setStatus(linha.getStatus() != null ? linha.getStatus().name() : null);
+        dto.setDataHoraAbertura(linha.getDataHoraAbertura());
+        
+        // Dados do atendimento associado
+        if (temAtendimento) {
+            dto.setIdAtendimento(linha.getIdAtendimento());
+            dto.setDataHoraDespacho(linha.getDataHoraDespacho());
+            dto.setDataHoraChegada(linha.getDataHoraChegada());
+            dto.setDataHoraRetorno(linha.getDataHoraRetorno());
+            dto.setPlacaAmbulancia(linha.getPlacaAmbulancia());
+            dto.setDistanciaKm(linha.getDistanciaKm());
+        }
+        
+        dto.setDataHoraFechamento(linha.getDataHoraFechamento());
+        dto.setSlaMinutos(linha.getSlaMinutos());
+        
+        dto.setDataHoraCalculo(agora);
+        
+        // Status das etapas - definir ANTES de usar
+        dto.setFoiDespachada(temAtendimento && linha.getDataHoraDespacho() != null);
+        dto.setChegouLocal(temAtendimento && linha.getDataHoraChegada() != null);
+        dto.setFoiConcluida(linha.getStatus() == StatusOcorrencia.CONCLUIDA);
+        // IMPORTANTE: Verificar retornouBase ANTES de calcular tempos
+        dto.setRetornouBase(temAtendimento && linha.getDataHoraRetorno() != null);
+        
+        // Calcular tempo total: abertura + tempo até chegada + tempo de retorno (se concluída e retornou)
+        // O tempo total inclui:
+        // - Se ainda não chegou: tempo desde abertura até agora (estimativa)
+        // - Se chegou mas não retornou: tempo desde abertura até chegada + tempo decorrido de retorno
+        // - Se retornou: tempo desde abertura até retorno (tempo total completo e FIXO - não aumenta mais)
+        if (linha.getDataHoraAbertura() != null) {
+            long tempoTotalSegundos = 0;
+            Boolean chegouLocal = dto.getChegouLocal();
+            Boolean foiDespachada = dto.getFoiDespachada();
+            Boolean retornouBase = dto.getRetornouBase();
+            
+            if (Boolean.TRUE.equals(retornouBase) && temAtendimento && linha.getDataHoraRetorno() != null) {
+                // Se retornou: tempo total = abertura até retorno (tempo completo incluindo retorno)
+                // IMPORTANTE: Usar dataHoraRetorno FIXO, não "agora", para que o tempo não continue aumentando
+                tempoTotalSegundos = java.time.Duration.between(
+                    linha.getDataHoraAbertura(), linha.getDataHoraRetorno()).getSeconds();
+            } else if (Boolean.TRUE.equals(chegouLocal) && temAtendimento && linha.getDataHoraChegada() != null) {
+                // Se chegou mas ainda não retornou: tempo desde abertura até chegada + tempo decorrido de retorno
+                long tempoAteChegadaSegundos = java.time.Duration.between(
+                    linha.getDataHoraAbertura(), linha.getDataHoraChegada()).getSeconds();
+                long tempoRetornoSegundos = 0;
+                if (Boolean.TRUE.equals(dto.getFoiConcluida())) {
+                    // Se está concluída mas ainda não retornou, calcular tempo decorrido desde chegada
+                    tempoRetornoSegundos = java.time.Duration.between(
+                        linha.getDataHoraChegada(), agora).getSeconds();
+                }
+                tempoTotalSegundos = tempoAteChegadaSegundos + tempoRetornoSegundos;
+            } else if (Boolean.TRUE.equals(foiDespachada) && temAtendimento && linha.getDataHoraDespacho() != null) {
+                // Se ainda não chegou mas foi despachada: tempo desde abertura até agora (estimativa)
+                tempoTotalSegundos = java.time.Duration.between(linha.getDataHoraAbertura(), agora).getSeconds();
+            } else {
+                // Se ainda não foi despachada: apenas tempo desde abertura
+                tempoTotalSegundos = java.time.Duration.between(linha.getDataHoraAbertura(), agora).getSeconds();
+            }
+            dto.setTempoTotalDecorridoMinutos(tempoTotalSegundos / 60);
+            dto.setTempoTotalFormatado(formatarTempo(tempoTotalSegundos));
+        }
+        
+        // Calcular tempo desde o despacho
+        if (temAtendimento && Boolean.TRUE.equals(dto.getFoiDespachada()) && linha.getDataHoraDespacho() != null) {
+            long tempoDespachoSegundos = java.time.Duration.between(linha.getDataHoraDespacho(), agora).getSeconds();
+            dto.setTempoDespachoMinutos(tempoDespachoSegundos / 60);
+        }
+        
+        // Calcular tempo estimado de chegada baseado na distância (60 km/h)
+        // Tempo estimado = (distância em km / 60 km/h) * 60 minutos
+        Long tempoAteChegadaMinutosCalculado = null;
+        Long tempoRestanteAteChegadaMinutos = null;
+        
+        if (temAtendimento && linha.getDistanciaKm() != null && linha.getDistanciaKm() > 0) {
+            // Calcular tempo estimado de chegada baseado na distância (velocidade 60 km/h)
+            double distanciaKm = linha.getDistanciaKm();
+            long tempoEstimadoChegadaMinutos = (long) Math.ceil((distanciaKm / 60.0) * 60);
+            dto.setTempoAteChegadaMinutos(tempoEstimadoChegadaMinutos);
+            
+            Boolean chegouLocal = dto.getChegouLocal();
+            Boolean foiDespachada = dto.getFoiDespachada();
+            
+            if (Boolean.TRUE.equals(chegouLocal) && linha.getDataHoraDespacho() != null && linha.getDataHoraChegada() != null) {
+                // Se já chegou: calcular tempo real de deslocamento
+                long tempoAteChegadaSegundos = java.time.Duration.between(
+                    linha.getDataHoraDespacho(), linha.getDataHoraChegada()).getSeconds();
+                tempoAteChegadaMinutosCalculado = tempoAteChegadaSegundos / 60;
+                dto.setTempoAteChegadaMinutos(tempoAteChegadaMinutosCalculado);
+                tempoRestanteAteChegadaMinutos = 0L; // Já chegou
+                dto.setTempoRetornoMinutos(tempoAteChegadaMinutosCalculado);
+            } else if (Boolean.TRUE.equals(foiDespachada) && linha.getDataHoraDespacho() != null) {
+                // Se ainda não chegou: calcular tempo restante até chegada (DECRESCENTE)
+                long tempoDesdeDespachoSegundos = java.time.Duration.between(linha.getDataHoraDespacho(), agora).getSeconds();
+                long tempoDesdeDespachoMinutos = tempoDesdeDespachoSegundos / 60;
+                
+                // Tempo restante = tempo estimado - tempo decorrido (DECRESCENTE)
+                tempoRestanteAteChegadaMinutos = Math.max(0, tempoEstimadoChegadaMinutos - tempoDesdeDespachoMinutos);
+                dto.setTempoRestanteAteChegadaMinutos(tempoRestanteAteChegadaMinutos);
+                
+                // Tempo de retorno estimado = tempo estimado de chegada
+                dto.setTempoRetornoMinutos(tempoEstimadoChegadaMinutos);
+            }
+        } else if (temAtendimento && Boolean.TRUE.equals(dto.getChegouLocal()) && linha.getDataHoraDespacho() != null && linha.getDataHoraChegada() != null) {
+            // Se chegou mas não tem distância salva, calcular do tempo real
+            long tempoAteChegadaSegundos = java.time.Duration.between(
+                linha.getDataHoraDespacho(), linha.getDataHoraChegada()).getSeconds();
+            tempoAteChegadaMinutosCalculado = tempoAteChegadaSegundos / 60;
+            dto.setTempoAteChegadaMinutos(tempoAteChegadaMinutosCalculado);
+            tempoRestanteAteChegadaMinutos = 0L;
+            dto.setTempoRetornoMinutos(tempoAteChegadaMinutosCalculado);
+        }
+        
+        // Calcular tempo após chegada
+        if (temAtendimento && Boolean.TRUE.equals(dto.getChegouLocal()) && linha.getDataHoraChegada() != null && !Boolean.TRUE.equals(dto.getFoiConcluida())) {
+            long tempoAposChegadaSegundos = java.time.Duration.between(linha.getDataHoraChegada(), agora).getSeconds();
+            dto.setTempoAposChegadaMinutos(tempoAposChegadaSegundos / 60);
+        }
+        
+        // Calcular tempo de retorno
+        if (temAtendimento && linha.getDataHoraChegada() != null) {
+            if (linha.getDataHoraRetorno() != null) {
+                // Retorno já registrado
+                long tempoRetornoSegundos = java.time.Duration.between(
+                    linha.getDataHoraChegada(), linha.getDataHoraRetorno()).getSeconds();
+                dto.setTempoRetornoDecorridoMinutos(tempoRetornoSegundos / 60);
+                dto.setRetornouBase(true);
+                dto.setDataHoraRetorno(linha.getDataHoraRetorno());
+            } else if (Boolean.TRUE.equals(dto.getFoiConcluida())) {
+                // OS finalizada mas ainda não retornou - calcular tempo decorrido desde chegada
+                long tempoRetornoSegundos = java.time.Duration.between(
+                    linha.getDataHoraChegada(), agora).getSeconds();
+                dto.setTempoRetornoDecorridoMinutos(tempoRetornoSegundos / 60);
+                dto.setRetornouBase(false);
+                
+                // Tempo de retorno estimado = tempo de deslocamento (ida) - mesmo tempo usado para ida
+                // Se não tiver tempo calculado, usar tempo estimado baseado na distância
+                Long tempoRetornoEstimado = null;
+                if (tempoAteChegadaMinutosCalculado != null) {
+                    tempoRetornoEstimado = tempoAteChegadaMinutosCalculado;
+                    dto.setTempoRetornoMinutos(tempoRetornoEstimado);
+                } else if (linha.getDistanciaKm() != null && linha.getDistanciaKm() > 0) {
+                    // Calcular tempo estimado de retorno baseado na distância (60 km/h)
+                    double distanciaKm = linha.getDistanciaKm();
+                    tempoRetornoEstimado = (long) Math.ceil((distanciaKm / 60.0) * 60);
+                    dto.setTempoRetornoMinutos(tempoRetornoEstimado);
+                }
+                
+                // Calcular tempo restante de retorno (DECRESCENTE) - mesmo tempo que foi usado para ida
+                if (dto.getTempoRetornoMinutos() != null && dto.getTempoRetornoDecorridoMinutos() != null) {
+                    Long tempoRestanteRetorno = Math.max(0L, dto.getTempoRetornoMinutos() - dto.getTempoRetornoDecorridoMinutos());
+                    dto.setTempoRestanteRetornoMinutos(tempoRestanteRetorno);
+                }
+            }
+        }
+        
+        // Calcular SLA: tempo desde abertura até chegada ao local
+        // O SLA é contabilizado desde o momento da abertura e finalizado quando a ambulância chega ao local
+        // O tempo de retorno NÃO é considerado no SLA
+        if (linha.getSlaMinutos() != null && linha.getDataHoraAbertura() != null) {
+            long tempoSlaDecorridoMinutos = 0;
+            
+            Boolean chegouLocal = dto.getChegouLocal();
+            Boolean foiDespachada = dto.getFoiDespachada();
+            
+            if (Boolean.TRUE.equals(chegouLocal) && temAtendimento && linha.getDataHoraChegada() != null) {
+                // Se já chegou: SLA = tempo desde abertura até chegada
+                long tempoDesdeAberturaAteChegadaSegundos = java.time.Duration.between(
+                    linha.getDataHoraAbertura(), linha.getDataHoraChegada()).getSeconds();
+                tempoSlaDecorridoMinutos = tempoDesdeAberturaAteChegadaSegundos / 60;
+            } else if (Boolean.TRUE.equals(foiDespachada) && temAtendimento && linha.getDataHoraDespacho() != null) {
+                // Se ainda não chegou: calcular tempo estimado
+                // Tempo desde abertura até despacho
+                long tempoDesdeAberturaAteDespachoSegundos = java.time.Duration.between(
+                    linha.getDataHoraAbertura(), linha.getDataHoraDespacho()).getSeconds();
+                long tempoDesdeAberturaAteDespachoMinutos = tempoDesdeAberturaAteDespachoSegundos / 60;
+                
+                // Tempo desde despacho até agora (tempo de deslocamento em andamento)
+                long tempoDeslocamentoDecorridoSegundos = java.time.Duration.between(
+                    linha.getDataHoraDespacho(), agora).getSeconds();
+                long tempoDeslocamentoDecorridoMinutos = tempoDeslocamentoDecorridoSegundos / 60;
+                
+                // SLA decorrido = tempo desde abertura até agora (estimativa até chegada)
+                tempoSlaDecorridoMinutos = tempoDesdeAberturaAteDespachoMinutos + tempoDeslocamentoDecorridoMinutos;
+            } else {
+                // Se ainda não foi despachada: apenas tempo desde abertura
+                long tempoDesdeAberturaSegundos = java.time.Duration.between(linha.getDataHoraAbertura(), agora).getSeconds();
+                tempoSlaDecorridoMinutos = tempoDesdeAberturaSegundos / 60;
+            }
+            
+            dto.setTempoSlaDecorridoMinutos(tempoSlaDecorridoMinutos);
+            long tempoRestanteMinutos = linha.getSlaMinutos() - tempoSlaDecorridoMinutos;
+            
+            dto.setTempoRestanteMinutos(tempoRestanteMinutos);
+            dto.setSlaExcedido(tempoRestanteMinutos < 0);
+            dto.setSlaEmRisco(tempoRestanteMinutos >= 0 && tempoRestanteMinutos <= (linha.getSlaMinutos() * 0.25));
+            
+            // Formatar tempo restante (pode ser negativo)
+            long tempoRestanteSegundos = (linha.getSlaMinutos() * 60) - (tempoSlaDecorridoMinutos * 60);
+            dto.setTempoRestanteFormatado(formatarTempo(tempoRestanteSegundos));
+        }
+        
+        return dto;
+    }
+
+    /**
+     * Formata tempo em segundos para uma string legível (ex: "15m 30s" ou "1h 25m").
+     */
+    private static String formatarTempo(long segundos) {
+        boolean negativo = segundos < 0;
+        segundos = Math.abs(segundos);
+        
+        long horas = segundos / 3600;
+        long minutos = (segundos % 3600) / 60;
+        long seg = segundos % 60;
+        
+        StringBuilder sb = new StringBuilder();
+        if (negativo) sb.append("-");
+        
+        if (horas > 0) {
+            sb.append(horas).append("h");
+            if (minutos > 0) {
+                sb.append(" ").append(minutos).append("m");
+            }
+        } else if (minutos > 0) {
+            sb.append(minutos).append("m");
+            if (seg > 0) {
+                sb.append(" ").append(seg).append("s");
+            }
+        } else {
+            sb.append(seg).append("s");
+        }
+        
+        return sb.toString();
+    }
+}
@@ -0,0 +1,150 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import com.vitalistech.sosrota.dominio.repositorio.HistoricoArquivoRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.HistoricoOcorrenciaRepositorio;
+import com.vitalistech.sosrota.web.dto.HistoricoOcorrenciaDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ciclo completo do particionamento contra um PostgreSQL real, na ordem em que acontece em
+ * produção: tabela criada pelo Hibernate e pelo script de setup, já com dados; conversão na
+ * inicialização seguida do script de novo; criação de partições à frente; arquivamento de um mês
+ * antigo; e a leitura paginada passando da tabela principal para o arquivo.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class ParticionamentoHistoricoPostgresTest {
+
+    private static final String TABELA = ParticionamentoHistoricoServico.TABELA;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private HistoricoOcorrenciaRepositorio historicoRepositorio;
+
+    @Test
+    void converteCriaParticoesArquivaELeDasDuasTabelas() {
+        executarSetup();
+        YearMonth atual = YearMonth.now();
+        long idUsuario = jdbcTemplate.queryForObject("INSERT INTO usuarios (login, senha_hash, perfil, ativo) "
+                + "VALUES ('maria', '!', 'OPERADOR', true) RETURNING id", Long.class);
+        long idBairro = jdbcTemplate.queryForObject(
+                "INSERT INTO bairros (nome) VALUES ('Centro') RETURNING id", Long.class);
+        long idOcorrencia = jdbcTemplate.queryForObject("INSERT INTO ocorrencias "
+                + "(descricao, tipo_ocorrencia, gravidade, status, id_bairro_origem, data_hora_abertura) "
+                + "VALUES ('Queda de moto', 'Trauma', 'MEDIA', 'ABERTA', ?, ?) RETURNING id",
+                Long.class, idBairro, LocalDateTime.now());
+
+        long antiga = inserir(idOcorrencia, idUsuario, atual.minusMonths(20).atDay(10).atTime(8, 0));
+        long recente = inserir(idOcorrencia, idUsuario, atual.atDay(1).atTime(0, 1));
+        long adiantada = inserir(idOcorrencia, idUsuario, atual.plusMonths(3).atDay(5).atTime(9, 0));
+
+        // Conversão na inicialização (partições até atual + 2) e o script de setup logo depois
+        servico(2, 12).particionar();
+        executarSetup();
+
+        assertEquals("p", jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)", String.class, TABELA));
+        assertEquals(3, contar(TABELA));
+        assertEquals(List.of("id", "data_hora"), jdbcTemplate.queryForList("SELECT a.attname FROM pg_constraint c "
+                + "JOIN LATERAL unnest(c.conkey) WITH ORDINALITY AS k(num, ordem) ON true "
+                + "JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = k.num "
+                + "WHERE c.conrelid = to_regclass(?) AND c.contype = 'p' ORDER BY k.ordem", String.class, TABELA));
+        assertEquals(Integer.valueOf(2), jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_constraint WHERE conrelid = to_regclass(?) AND contype = 'f'",
+                Integer.class, TABELA));
+        assertNotNull(jdbcTemplate.queryForObject(
+                "SELECT to_regclass('idx_historico_ocorrencia_ocorrencia_data_hora_id')::text", String.class),
+                "índices do script criados na tabela particionada");
+        assertEquals(1, contar(ParticionamentoHistoricoServico.nomeParticao(atual.minusMonths(20))));
+        assertEquals(1, contar(ParticionamentoHistoricoServico.PARTICAO_PADRAO), "mês sem partição cai na padrão");
+
+        // O id continua vindo de uma sequência, a partir do maior id copiado
+        long nova = inserir(idOcorrencia, idUsuario, atual.atDay(1).atTime(0, 2));
+        assertTrue(nova > adiantada);
+
+        // Partições à frente: a entrada do mês que estava na padrão passa para a partição nova
+        servico(3, 0).manter();
+        assertEquals(0, contar(ParticionamentoHistoricoServico.PARTICAO_PADRAO));
+        assertEquals(1, contar(ParticionamentoHistoricoServico.nomeParticao(atual.plusMonths(3))));
+        assertEquals(0, contar(HistoricoArquivoRepositorio.TABELA), "nada arquivado com meses-quentes 0");
+
+        // Arquivamento: o mês de 20 meses atrás sai da tabela principal
+        ParticionamentoHistoricoServico particionamento = servico(3, 12);
+        particionamento.manter();
+        assertNull(jdbcTemplate.queryForObject("SELECT to_regclass(?)::text", String.class,
+                ParticionamentoHistoricoServico.nomeParticao(atual.minusMonths(20))));
+        assertEquals(List.of(antiga), jdbcTemplate.queryForList(
+                "SELECT id FROM " + HistoricoArquivoRepositorio.TABELA, Long.class));
+        assertEquals(3, contar(TABELA));
+        assertTrue(particionamento.possuiArquivadas());
+
+        // Leitura: a página esgota a tabela principal e continua no arquivo
+        HistoricoOcorrenciaServico historico = new HistoricoOcorrenciaServico(historicoRepositorio, null,
+                new HistoricoArquivoRepositorio(jdbcTemplate), particionamento);
+        List<HistoricoOcorrenciaDTO> pagina = historico.buscarPagina(null, idOcorrencia, null, null, 10);
+        assertEquals(List.of(adiantada, nova, recente, antiga),
+                pagina.stream().map(HistoricoOcorrenciaDTO::getId).toList());
+        HistoricoOcorrenciaDTO ultimaQuente = pagina.get(2);
+        assertEquals(List.of(antiga), historico.buscarPagina(null, idOcorrencia,
+                ultimaQuente.getDataHora(), ultimaQuente.getId(), 10).stream().map(HistoricoOcorrenciaDTO::getId).toList());
+    }
+
+    private ParticionamentoHistoricoServico servico(int mesesFuturos, int mesesQuentes) {
+        return new ParticionamentoHistoricoServico(jdbcTemplate, transactionManager,
+                new HistoricoArquivoRepositorio(jdbcTemplate), true, mesesFuturos, mesesQuentes);
+    }
+
+    // Mesmo modo de execução do InicializadorBancoDados
+    private void executarSetup() {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("db/migration/setup.sql"));
+        populator.setSeparator(";");
+        populator.setContinueOnError(true);
+        populator.setCommentPrefix("--");
+        populator.execute(dataSource);
+    }
+
+    private long inserir(long idOcorrencia, long idUsuario, LocalDateTime dataHora) {
+        return jdbcTemplate.queryForObject("INSERT INTO " + TABELA
+                + " (id_ocorrencia, id_usuario, acao, status_novo, data_hora) "
+                + "VALUES (?, ?, 'ALTERACAO_STATUS', 'ABERTA', ?) RETURNING id",
+                Long.class, idOcorrencia, idUsuario, dataHora);
+    }
+
+    private int contar(String tabela) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tabela, Integer.class);
+    }
+}
@@ -0,0 +1,108 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import com.vitalistech.sosrota.dominio.repositorio.HistoricoArquivoRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.HistoricoOcorrenciaRepositorio;
+import com.vitalistech.sosrota.web.dto.HistoricoOcorrenciaDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Planejamento das partições mensais do histórico (quais criar, quais arquivar) e a consulta
+ * paginada que completa a página com o arquivo quando a tabela principal se esgota.
+ */
+class ParticionamentoHistoricoServicoTest {
+
+    private static final YearMonth ATUAL = YearMonth.of(2026, 10);
+
+    @Test
+    void nomeDaParticaoIdaEVolta() {
+        assertEquals("historico_ocorrencias_p202610", ParticionamentoHistoricoServico.nomeParticao(ATUAL));
+        assertEquals(ATUAL, ParticionamentoHistoricoServico.mesDaParticao("historico_ocorrencias_p202610"));
+        assertNull(ParticionamentoHistoricoServico.mesDaParticao(ParticionamentoHistoricoServico.PARTICAO_PADRAO));
+        assertNull(ParticionamentoHistoricoServico.mesDaParticao("historico_ocorrencias_p2026"));
+    }
+
+    @Test
+    void criaSoOsMesesQueFaltamAteOHorizonteFuturo() {
+        List<YearMonth> existentes = List.of(YearMonth.of(2026, 9), ATUAL, YearMonth.of(2026, 12));
+
+        assertEquals(List.of(YearMonth.of(2026, 11), YearMonth.of(2027, 1)),
+                ParticionamentoHistoricoServico.mesesACriar(existentes, ATUAL, 3));
+        assertEquals(List.of(), ParticionamentoHistoricoServico.mesesACriar(existentes, ATUAL, 0));
+    }
+
+    @Test
+    void arquivaSoOsMesesAnterioresAoHorizonte() {
+        List<YearMonth> existentes = List.of(ATUAL, YearMonth.of(2025, 10), YearMonth.of(2025, 8),
+                YearMonth.of(2025, 9), YearMonth.of(2026, 1));
+
+        assertEquals(List.of(YearMonth.of(2025, 8), YearMonth.of(2025, 9)),
+                ParticionamentoHistoricoServico.mesesAArquivar(existentes, ATUAL, 12));
+        assertEquals(List.of(), ParticionamentoHistoricoServico.mesesAArquivar(existentes, ATUAL, 0));
+    }
+
+    @Test
+    void paginaIncompletaNaTabelaPrincipalEhCompletadaPeloArquivo() {
+        LocalDateTime agora = LocalDateTime.of(2026, 10, 18, 12, 0);
+        List<HistoricoOcorrenciaDTO> quentes = List.of(dto(30L, agora), dto(20L, agora.minusDays(1)));
+        List<List<Object>> cursoresNoArquivo = new ArrayList<>();
+        HistoricoArquivoRepositorio arquivo = new HistoricoArquivoRepositorio(null) {
+            @Override
+            public List<HistoricoOcorrenciaDTO> buscarPaginaPorOcorrencia(Long ocorrenciaId, Long usuarioId,
+                                                                          LocalDateTime antesDataHora, Long antesId,
+                                                                          int limite) {
+                cursoresNoArquivo.add(List.of(antesDataHora, antesId, limite));
+                return List.of(dto(10L, agora.minusYears(2)));
+            }
+        };
+
+        HistoricoOcorrenciaServico semArquivo = new HistoricoOcorrenciaServico(repositorio(quentes), null,
+                arquivo, particionamento(false));
+        assertEquals(2, semArquivo.buscarPagina(null, 5L, null, null, 3).size());
+        assertTrue(cursoresNoArquivo.isEmpty(), "sem histórico arquivado o arquivo não é consultado");
+
+        HistoricoOcorrenciaServico servico = new HistoricoOcorrenciaServico(repositorio(quentes), null,
+                arquivo, particionamento(true));
+        List<HistoricoOcorrenciaDTO> pagina = servico.buscarPagina(null, 5L, null, null, 3);
+        assertEquals(List.of(30L, 20L, 10L), pagina.stream().map(HistoricoOcorrenciaDTO::getId).toList());
+        assertEquals(List.of(agora.minusDays(1), 20L, 1), cursoresNoArquivo.get(0),
+                "o arquivo continua a partir da última entrada da tabela principal");
+
+        cursoresNoArquivo.clear();
+        assertEquals(2, servico.buscarPagina(null, 5L, null, null, 2).size());
+        assertTrue(cursoresNoArquivo.isEmpty(), "página completa na tabela principal");
+    }
+
+    private static ParticionamentoHistoricoServico particionamento(boolean possuiArquivadas) {
+        return new ParticionamentoHistoricoServico(null, null, null, true, 3, 12) {
+            @Override
+            public boolean possuiArquivadas() {
+                return possuiArquivadas;
+            }
+        };
+    }
+
+    private static HistoricoOcorrenciaRepositorio repositorio(List<HistoricoOcorrenciaDTO> entradas) {
+        HistoricoOcorrenciaRepositorio repositorio = mock(HistoricoOcorrenciaRepositorio.class);
+        when(repositorio.buscarPaginaPorOcorrencia(any(), any(), any(), any(), any(Pageable.class))).thenAnswer(i -> {
+            int limite = i.<Pageable>getArgument(4).getPageSize();
+            return entradas.subList(0, Math.min(limite, entradas.size()));
+        });
+        return repositorio;
+    }
+
+    private static HistoricoOcorrenciaDTO dto(Long id, LocalDateTime dataHora) {
+        return new HistoricoOcorrenciaDTO(id, 5L, 7L, "ALTERACAO_STATUS", null, "ABERTA", null, dataHora,
+                null, null, null, null, null, null, null);
+    }
+}
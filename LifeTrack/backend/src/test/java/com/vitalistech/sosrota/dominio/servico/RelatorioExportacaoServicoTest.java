@@ -0,0 +1,104 @@
+package com.vitalistech.sosrota.dominio.servico;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.vitalistech.sosrota.dominio.modelo.Gravidade;
+import com.vitalistech.sosrota.dominio.modelo.StatusOcorrencia;
+import com.vitalistech.sosrota.dominio.repositorio.OcorrenciaRepositorio;
+import com.vitalistech.sosrota.dominio.repositorio.RelatorioOcorrenciaLinha;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Exportação do relatório: cabeçalho e escape do CSV, uma linha JSON por ocorrência no NDJSON
+ * e fechamento do stream do repositório.
+ */
+class RelatorioExportacaoServicoTest {
+
+    private static final LocalDateTime ABERTURA = LocalDateTime.of(2024, 5, 2, 14, 30, 0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void csvComCabecalhoEEscapeDeCampos() throws Exception {
+        AtomicBoolean fechado = new AtomicBoolean();
+        RelatorioExportacaoServico servico = servico(fechado, List.of(
+                linha(2L, "Queda, com \"fratura\"\nexposta", 10L),
+                linha(1L, null, null)));
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        long total = servico.exportar(null, null, null, null, RelatorioExportacaoServico.Formato.CSV, saida);
+
+        assertEquals(2, total);
+        assertTrue(fechado.get(), "stream do repositório deve ser fechado");
+        String csv = saida.toString(StandardCharsets.UTF_8);
+        String[] linhas = csv.split("\r\n", -1);
+        assertEquals(4, linhas.length, csv);
+        assertTrue(linhas[0].startsWith("id,dataHoraAbertura,tipoOcorrencia,gravidade,status,bairroNome,observacoes,"));
+        assertTrue(linhas[1].startsWith("2,2024-05-02T14:30,Trauma,ALTA,CONCLUIDA,Centro,"
+                + "\"Queda, com \"\"fratura\"\"\nexposta\",Maria,maria,Joao,joao,2024-05-02T14:33,ABC1D23,4.5,"), linhas[1]);
+        // Sem atendimento: campos do despacho vazios
+        assertTrue(linhas[2].startsWith("1,2024-05-02T14:30,Trauma,ALTA,CONCLUIDA,Centro,,Maria,maria,,,,,,"), linhas[2]);
+        assertEquals("", linhas[3]);
+        assertEquals(21, linhas[0].split(",").length);
+    }
+
+    @Test
+    void ndjsonComUmaOcorrenciaPorLinha() throws Exception {
+        AtomicBoolean fechado = new AtomicBoolean();
+        RelatorioExportacaoServico servico = servico(fechado, List.of(
+                linha(3L, "linha 1\nlinha 2", 10L), linha(2L, null, 11L), linha(1L, null, null)));
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        long total = servico.exportar(null, null, Gravidade.ALTA, 5L, RelatorioExportacaoServico.Formato.NDJSON, saida);
+
+        assertEquals(3, total);
+        assertTrue(fechado.get());
+        String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, linhas.length);
+        JsonNode primeira = objectMapper.readTree(linhas[0]);
+        assertEquals(3, primeira.get("id").asLong());
+        assertEquals("linha 1\nlinha 2", primeira.get("observacoes").asText());
+        assertEquals("ABC1D23", primeira.get("ambulanciaPlaca").asText());
+        assertEquals("2024-05-02T14:30:00", primeira.get("dataHoraAbertura").asText());
+        assertTrue(objectMapper.readTree(linhas[2]).get("ambulanciaPlaca").isNull());
+    }
+
+    @Test
+    void formatoInvalidoRejeitado() {
+        assertEquals(RelatorioExportacaoServico.Formato.NDJSON, RelatorioExportacaoServico.Formato.de(" NDJSON "));
+        assertThrows(IllegalArgumentException.class, () -> RelatorioExportacaoServico.Formato.de("xlsx"));
+        assertThrows(IllegalArgumentException.class, () -> RelatorioExportacaoServico.Formato.de(null));
+    }
+
+    private RelatorioExportacaoServico servico(AtomicBoolean fechado, List<RelatorioOcorrenciaLinha> linhas) {
+        OcorrenciaRepositorio repositorio = mock(OcorrenciaRepositorio.class);
+        when(repositorio.streamLinhasRelatorio(any(), any(), any(), any()))
+                .thenAnswer(i -> linhas.stream().onClose(() -> fechado.set(true)));
+        return new RelatorioExportacaoServico(repositorio, objectMapper);
+    }
+
+    private static RelatorioOcorrenciaLinha linha(Long id, String observacoes, Long idAtendimento) {
+        boolean despachada = idAtendimento != null;
+        return new RelatorioOcorrenciaLinha(id, ABERTURA, "Trauma", Gravidade.ALTA, StatusOcorrencia.CONCLUIDA,
+                "Centro", observacoes, "Maria", "maria", ABERTURA.plusMinutes(40), 20, 30, true, 0,
+                idAtendimento, despachada ? ABERTURA.plusMinutes(3) : null,
+                despachada ? ABERTURA.plusMinutes(20) : null, despachada ? ABERTURA.plusMinutes(38) : null,
+                despachada ? 4.5 : null, despachada ? "ABC1D23" : null,
+                despachada ? "Joao" : null, despachada ? "joao" : null);
+    }
+}
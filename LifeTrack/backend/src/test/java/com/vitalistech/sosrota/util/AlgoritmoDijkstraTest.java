@@ -0,0 +1,305 @@
+package com.vitalistech.sosrota.util;
+
+import com.vitalistech.sosrota.dominio.modelo.Bairro;
+import com.vitalistech.sosrota.dominio.modelo.RuaConexao;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara o Dijkstra (heap indexado) com uma implementação de referência
+ * (Floyd-Warshall sobre matriz) em grafos aleatórios.
+ */
+class AlgoritmoDijkstraTest {
+
+    private static final double TOLERANCIA = 1e-9;
+
+    @Test
+    void distanciasFracionariasSaoRespeitadas() {
+        // Trechos menores que 1 km: as prioridades precisam ser comparadas sem truncamento
+        List<Bairro> bairros = criarBairros(4);
+        List<RuaConexao> conexoes = new ArrayList<>();
+        conexoes.add(conexao(1, bairros.get(0), bairros.get(1), 1.5));
+        conexoes.add(conexao(2, bairros.get(1), bairros.get(3), 0.4));
+        conexoes.add(conexao(3, bairros.get(0), bairros.get(2), 0.9));
+        conexoes.add(conexao(4, bairros.get(2), bairros.get(3), 0.9));
+
+        GrafoViario grafo = GrafoViario.construir(bairros, conexoes, 0L);
+        ResultadoRota rota = AlgoritmoDijkstra.calcularRota(grafo, bairros.get(0), bairros.get(3));
+
+        assertEquals(1.8, rota.getDistanciaKm(), TOLERANCIA);
+        assertEquals(List.of(bairros.get(0), bairros.get(2), bairros.get(3)), rota.getCaminho());
+    }
+
+    @Test
+    void bairroIsoladoNaoTemRota() {
+        List<Bairro> bairros = criarBairros(3);
+        List<RuaConexao> conexoes = List.of(conexao(1, bairros.get(0), bairros.get(1), 2.0));
+
+        GrafoViario grafo = GrafoViario.construir(bairros, conexoes, 0L);
+
+        ResultadoRota semCaminho = AlgoritmoDijkstra.calcularRota(grafo, bairros.get(0), bairros.get(2));
+        assertTrue(Double.isInfinite(semCaminho.getDistanciaKm()));
+        assertTrue(semCaminho.getCaminho().isEmpty());
+
+        ResultadoRota mesmoBairro = AlgoritmoDijkstra.calcularRota(grafo, bairros.get(2), bairros.get(2));
+        assertEquals(0.0, mesmoBairro.getDistanciaKm());
+        assertEquals(List.of(bairros.get(2)), mesmoBairro.getCaminho());
+    }
+
+    @Test
+    void componentesConexosConferemComReferencia() {
+        Random random = new Random(11);
+        for (int execucao = 0; execucao < 200; execucao++) {
+            int n = 2 + random.nextInt(40);
+            List<Bairro> bairros = criarBairros(n);
+            List<RuaConexao> conexoes = grafoAleatorio(bairros, random);
+            GrafoViario grafo = GrafoViario.construir(bairros, conexoes, 0L);
+            double[][] referencia = floydWarshall(n, conexoes);
+
+            for (int o = 0; o < n; o++) {
+                for (int d = 0; d < n; d++) {
+                    boolean esperado = !Double.isInfinite(referencia[o][d]);
+                    assertEquals(esperado, grafo.conectados(bairros.get(o).getId(), bairros.get(d).getId()));
+                }
+            }
+        }
+    }
+
+    @Test
+    void calcularRotaConfereComReferenciaEmGrafosAleatorios() {
+        Random random = new Random(42);
+        for (int execucao = 0; execucao < 200; execucao++) {
+            int n = 2 + random.nextInt(40);
+            List<Bairro> bairros = criarBairros(n);
+            List<RuaConexao> conexoes = grafoAleatorio(bairros, random);
+            GrafoViario grafo = GrafoViario.construir(bairros, conexoes, 0L);
+            double[][] referencia = floydWarshall(n, conexoes);
+
+            for (int consulta = 0; consulta < 20; consulta++) {
+                int o = random.nextInt(n);
+                int d = random.nextInt(n);
+                ResultadoRota rota = AlgoritmoDijkstra.calcularRota(grafo, bairros.get(o), bairros.get(d));
+
+                assertDistanciaIgual(referencia[o][d], rota.getDistanciaKm());
+                if (!Double.isInfinite(referencia[o][d])) {
+                    assertCaminhoValido(rota, bairros.get(o), bairros.get(d), conexoes);
+                }
+            }
+        }
+    }
+
+    @Test
+    void distanciasAteConfereComReferenciaEmGrafosAleatorios() {
+        Random random = new Random(7);
+        for (int execucao = 0; execucao < 200; execucao++) {
+            int n = 2 + random.nextInt(40);
+            List<Bairro> bairros = criarBairros(n);
+            List<RuaConexao> conexoes = grafoAleatorio(bairros, random);
+            GrafoViario grafo = GrafoViario.construir(bairros, conexoes, 0L);
+            double[][] referencia = floydWarshall(n, conexoes);
+
+            int d = random.nextInt(n);
+            Set<Long> origens = new HashSet<>();
+            int quantidade = 1 + random.nextInt(n);
+            for (int i = 0; i < quantidade; i++) {
+                origens.add(bairros.get(random.nextInt(n)).getId());
+            }
+
+            Map<Long, ResultadoRota> rotas = AlgoritmoDijkstra.distanciasAte(grafo, bairros.get(d), origens);
+
+            for (Long idOrigem : origens) {
+                int o = (int) (idOrigem - 1);
+                ResultadoRota rota = rotas.get(idOrigem);
+                if (Double.isInfinite(referencia[o][d])) {
+                    assertNull(rota);
+                } else {
+                    assertNotNull(rota);
+                    assertDistanciaIgual(referencia[o][d], rota.getDistanciaKm());
+                    assertCaminhoValido(rota, bairros.get(o), bairros.get(d), conexoes);
+                }
+            }
+        }
+    }
+
+    @Test
+    void origemMaisProximaIgualAoMenorValorDasArvores() {
+        Random random = new Random(19);
+        for (int execucao = 0; execucao < 200; execucao++) {
+            int n = 1 + random.nextInt(40);
+            List<Bairro> bairros = criarBairros(n);
+            GrafoViario grafo = GrafoViario.construir(bairros, grafoAleatorio(bairros, random), 0L);
+
+            int[] origens = new int[random.nextInt(5)];
+            for (int i = 0; i < origens.length; i++) {
+                origens[i] = random.nextInt(n);
+            }
+            double[] obtidas = new double[n];
+            AlgoritmoDijkstra.distanciasDaOrigemMaisProxima(grafo, origens, obtidas);
+
+            double[] esperadas = new double[n];
+            Arrays.fill(esperadas, Double.POSITIVE_INFINITY);
+            double[] dist = new double[n];
+            for (int origem : origens) {
+                AlgoritmoDijkstra.arvoreCaminhosMinimos(grafo, origem, dist, new int[n]);
+                for (int v = 0; v < n; v++) {
+                    esperadas[v] = Math.min(esperadas[v], dist[v]);
+                }
+            }
+            // Mesmo valor exato, não só dentro da tolerância
+            for (int v = 0; v < n; v++) {
+                assertEquals(Double.valueOf(esperadas[v]), Double.valueOf(obtidas[v]));
+            }
+        }
+    }
+
+    @Test
+    void modosBidirecionalEAEstrelaConferemComReferencia() {
+        Random random = new Random(11);
+        for (int execucao = 0; execucao < 200; execucao++) {
+            int n = 2 + random.nextInt(40);
+            List<Bairro> bairros = criarBairros(n);
+            for (Bairro b : bairros) {
+                b.setLatitude(-16.40 + random.nextDouble() * 0.2);
+                b.setLongitude(-49.05 + random.nextDouble() * 0.2);
+            }
+
+            // Distâncias ~ linha reta com fator aleatório (algumas menores que a linha reta)
+            List<RuaConexao> conexoes = new ArrayList<>();
+            int arestas = random.nextInt(n * 3);
+            for (int i = 0; i < arestas; i++) {
+                Bairro origem = bairros.get(random.nextInt(n));
+                Bairro destino = bairros.get(random.nextInt(n));
+                double linhaReta = DistanciaGeografica.haversineKm(origem.getLatitude(), origem.getLongitude(),
+                        destino.getLatitude(), destino.getLongitude());
+                double km = Math.round(linhaReta * (0.7 + random.nextDouble()) * 100.0) / 100.0;
+                conexoes.add(conexao(i + 1, origem, destino, km));
+            }
+
+            GrafoViario grafo = GrafoViario.construir(bairros, conexoes, 0L);
+            assertTrue(grafo.possuiCoordenadas());
+            double[][] referencia = floydWarshall(n, conexoes);
+
+            for (int consulta = 0; consulta < 20; consulta++) {
+                int o = random.nextInt(n);
+                int d = random.nextInt(n);
+                for (ModoRoteamento modo : ModoRoteamento.values()) {
+                    ResultadoRota rota = AlgoritmoDijkstra.calcularRota(grafo, bairros.get(o), bairros.get(d), modo);
+
+                    assertDistanciaIgual(referencia[o][d], rota.getDistanciaKm());
+                    if (!Double.isInfinite(referencia[o][d])) {
+                        assertCaminhoValido(rota, bairros.get(o), bairros.get(d), conexoes);
+                    }
+                }
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Auxiliares
+    // ---------------------------------------------------------------------
+
+    private static List<Bairro> criarBairros(int n) {
+        List<Bairro> bairros = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Bairro b = new Bairro();
+            b.setId((long) i + 1);
+            b.setNome("Bairro " + (i + 1));
+            bairros.add(b);
+        }
+        return bairros;
+    }
+
+    private static RuaConexao conexao(long id, Bairro origem, Bairro destino, double km) {
+        RuaConexao c = new RuaConexao();
+        c.setId(id);
+        c.setBairroOrigem(origem);
+        c.setBairroDestino(destino);
+        c.setDistanciaKm(km);
+        return c;
+    }
+
+    private static List<RuaConexao> grafoAleatorio(List<Bairro> bairros, Random random) {
+        int n = bairros.size();
+        int arestas = random.nextInt(n * 3);
+        List<RuaConexao> conexoes = new ArrayList<>();
+        for (int i = 0; i < arestas; i++) {
+            Bairro origem = bairros.get(random.nextInt(n));
+            Bairro destino = bairros.get(random.nextInt(n));
+            // Distâncias fracionárias pequenas (inclusive < 1 km) e arestas paralelas
+            double km = Math.round(random.nextDouble() * 500.0) / 100.0;
+            conexoes.add(conexao(i + 1, origem, destino, km));
+        }
+        return conexoes;
+    }
+
+    private static double[][] floydWarshall(int n, List<RuaConexao> conexoes) {
+        double[][] d = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(d[i], Double.POSITIVE_INFINITY);
+            d[i][i] = 0.0;
+        }
+        for (RuaConexao c : conexoes) {
+            int u = (int) (c.getBairroOrigem().getId() - 1);
+            int v = (int) (c.getBairroDestino().getId() - 1);
+            double km = c.getDistanciaKm();
+            d[u][v] = Math.min(d[u][v], km);
+            d[v][u] = Math.min(d[v][u], km);
+        }
+        for (int k = 0; k < n; k++) {
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    if (d[i][k] + d[k][j] < d[i][j]) {
+                        d[i][j] = d[i][k] + d[k][j];
+                    }
+                }
+            }
+        }
+        return d;
+    }
+
+    private static void assertDistanciaIgual(double esperada, double obtida) {
+        if (Double.isInfinite(esperada)) {
+            assertTrue(Double.isInfinite(obtida), "esperado sem caminho, obtido " + obtida);
+        } else {
+            assertEquals(esperada, obtida, TOLERANCIA);
+        }
+    }
+
+    /**
+     * O caminho deve começar na origem, terminar no destino, usar apenas conexões existentes
+     * e somar exatamente a distância informada.
+     */
+    private static void assertCaminhoValido(ResultadoRota rota, Bairro origem, Bairro destino,
+                                            List<RuaConexao> conexoes) {
+        List<Bairro> caminho = rota.getCaminho();
+        assertFalse(caminho.isEmpty());
+        assertEquals(origem.getId(), caminho.get(0).getId());
+        assertEquals(destino.getId(), caminho.get(caminho.size() - 1).getId());
+
+        double soma = 0.0;
+        for (int i = 0; i < caminho.size() - 1; i++) {
+            Long a = caminho.get(i).getId();
+            Long b = caminho.get(i + 1).getId();
+            double menor = Double.POSITIVE_INFINITY;
+            for (RuaConexao c : conexoes) {
+                Long u = c.getBairroOrigem().getId();
+                Long v = c.getBairroDestino().getId();
+                if ((u.equals(a) && v.equals(b)) || (u.equals(b) && v.equals(a))) {
+                    menor = Math.min(menor, c.getDistanciaKm());
+                }
+            }
+            assertFalse(Double.isInfinite(menor), "trecho inexistente " + a + " -> " + b);
+            soma += menor;
+        }
+        assertEquals(rota.getDistanciaKm(), soma, TOLERANCIA);
+    }
+}
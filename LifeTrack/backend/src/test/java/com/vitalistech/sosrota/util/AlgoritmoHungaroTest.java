@@ -0,0 +1,139 @@
+package com.vitalistech.sosrota.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara a atribuição húngara com a busca exaustiva em matrizes pequenas (retangulares e com
+ * pares proibidos) e verifica uma matriz 200 × 200 contra a escolha gulosa.
+ */
+class AlgoritmoHungaroTest {
+
+    private static final double TOLERANCIA = 1e-9;
+
+    @Test
+    void confereComBuscaExaustivaEmMatrizesAleatorias() {
+        Random random = new Random(5);
+        for (int execucao = 0; execucao < 500; execucao++) {
+            int linhas = 1 + random.nextInt(6);
+            int colunas = 1 + random.nextInt(6);
+            double[][] custo = new double[linhas][colunas];
+            for (int i = 0; i < linhas; i++) {
+                for (int j = 0; j < colunas; j++) {
+                    custo[i][j] = random.nextDouble() < 0.2
+                            ? Double.POSITIVE_INFINITY
+                            : Math.round(random.nextDouble() * 2000.0) / 100.0;
+                }
+            }
+
+            int[] atribuicao = AlgoritmoHungaro.resolver(custo);
+            assertAtribuicaoValida(custo, atribuicao);
+
+            double[] esperado = melhorExaustivo(custo, 0, new boolean[colunas]);
+            assertEquals((int) esperado[0], quantidade(atribuicao), "quantidade de associações");
+            assertEquals(esperado[1], soma(custo, atribuicao), TOLERANCIA);
+        }
+    }
+
+    @Test
+    void matrizVaziaOuTodaProibida() {
+        assertEquals(0, AlgoritmoHungaro.resolver(new double[0][0]).length);
+
+        double[][] proibida = {
+                {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY},
+                {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY}
+        };
+        assertArrayEquals(new int[]{-1, -1}, AlgoritmoHungaro.resolver(proibida));
+    }
+
+    @Test
+    void matriz200x200NaoPerdeParaEscolhaGulosa() {
+        Random random = new Random(17);
+        int n = 200;
+        double[][] custo = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                custo[i][j] = Math.round(random.nextDouble() * 5000.0) / 100.0;
+            }
+        }
+
+        int[] atribuicao = AlgoritmoHungaro.resolver(custo);
+        assertAtribuicaoValida(custo, atribuicao);
+        assertEquals(n, quantidade(atribuicao));
+
+        // Gulosa: cada linha, em ordem, pega a coluna livre mais barata (como despachos sequenciais)
+        boolean[] usada = new boolean[n];
+        double gulosa = 0.0;
+        for (int i = 0; i < n; i++) {
+            int melhor = -1;
+            for (int j = 0; j < n; j++) {
+                if (!usada[j] && (melhor < 0 || custo[i][j] < custo[i][melhor])) {
+                    melhor = j;
+                }
+            }
+            usada[melhor] = true;
+            gulosa += custo[i][melhor];
+        }
+        assertTrue(soma(custo, atribuicao) <= gulosa + TOLERANCIA);
+    }
+
+    // ---------------------------------------------------------------------
+    // Auxiliares
+    // ---------------------------------------------------------------------
+
+    /**
+     * Melhor resultado a partir da linha informada: {quantidade de associações, soma dos custos},
+     * maximizando a quantidade e, em seguida, minimizando a soma.
+     */
+    private static double[] melhorExaustivo(double[][] custo, int linha, boolean[] usada) {
+        if (linha == custo.length) {
+            return new double[]{0, 0.0};
+        }
+        double[] melhor = melhorExaustivo(custo, linha + 1, usada); // linha sem associação
+        for (int j = 0; j < usada.length; j++) {
+            if (usada[j] || Double.isInfinite(custo[linha][j])) {
+                continue;
+            }
+            usada[j] = true;
+            double[] resto = melhorExaustivo(custo, linha + 1, usada);
+            usada[j] = false;
+            double[] candidato = {resto[0] + 1, resto[1] + custo[linha][j]};
+            if (candidato[0] > melhor[0] || (candidato[0] == melhor[0] && candidato[1] < melhor[1] - TOLERANCIA)) {
+                melhor = candidato;
+            }
+        }
+        return melhor;
+    }
+
+    private static void assertAtribuicaoValida(double[][] custo, int[] atribuicao) {
+        assertEquals(custo.length, atribuicao.length);
+        Set<Integer> colunas = new HashSet<>();
+        for (int i = 0; i < atribuicao.length; i++) {
+            if (atribuicao[i] >= 0) {
+                assertTrue(colunas.add(atribuicao[i]), "coluna " + atribuicao[i] + " associada duas vezes");
+                assertFalse(Double.isInfinite(custo[i][atribuicao[i]]), "par proibido no resultado");
+            }
+        }
+    }
+
+    private static int quantidade(int[] atribuicao) {
+        int q = 0;
+        for (int coluna : atribuicao) {
+            if (coluna >= 0) q++;
+        }
+        return q;
+    }
+
+    private static double soma(double[][] custo, int[] atribuicao) {
+        double soma = 0.0;
+        for (int i = 0; i < atribuicao.length; i++) {
+            if (atribuicao[i] >= 0) soma += custo[i][atribuicao[i]];
+        }
+        return soma;
+    }
+}
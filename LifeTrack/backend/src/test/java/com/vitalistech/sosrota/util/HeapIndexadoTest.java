@@ -0,0 +1,61 @@
+package com.vitalistech.sosrota.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeapIndexadoTest {
+
+    @Test
+    void removeEmOrdemCrescenteComDecreaseKey() {
+        Random random = new Random(1);
+        HeapIndexado heap = new HeapIndexado(4);
+
+        for (int execucao = 0; execucao < 100; execucao++) {
+            int n = 1 + random.nextInt(300);
+            heap.garantirCapacidade(n);
+            heap.limpar();
+
+            double[] esperado = new double[n];
+            Arrays.fill(esperado, Double.POSITIVE_INFINITY);
+            for (int op = 0; op < n * 3; op++) {
+                int v = random.nextInt(n);
+                double prioridade = random.nextDouble() * 10.0;
+                heap.inserirOuDiminuir(v, prioridade);
+                esperado[v] = Math.min(esperado[v], prioridade);
+            }
+
+            double anterior = Double.NEGATIVE_INFINITY;
+            int removidos = 0;
+            while (!heap.isVazio()) {
+                double prioridade = heap.menorPrioridade();
+                int v = heap.removerMinimo();
+                assertEquals(esperado[v], prioridade);
+                assertTrue(prioridade >= anterior);
+                assertFalse(heap.contem(v));
+                anterior = prioridade;
+                removidos++;
+            }
+            long distintos = Arrays.stream(esperado).filter(d -> !Double.isInfinite(d)).count();
+            assertEquals(distintos, removidos);
+        }
+    }
+
+    @Test
+    void limparPermiteReutilizar() {
+        HeapIndexado heap = new HeapIndexado(8);
+        heap.inserirOuDiminuir(3, 1.0);
+        heap.inserirOuDiminuir(5, 0.5);
+        heap.limpar();
+
+        assertTrue(heap.isVazio());
+        assertFalse(heap.contem(3));
+
+        heap.inserirOuDiminuir(3, 2.0);
+        assertEquals(3, heap.removerMinimo());
+        assertThrows(IllegalStateException.class, heap::removerMinimo);
+    }
+}
@@ -0,0 +1,162 @@
+package com.vitalistech.sosrota.util;
+
+import com.vitalistech.sosrota.dominio.modelo.Bairro;
+import com.vitalistech.sosrota.dominio.modelo.RuaConexao;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Equivalência entre a hierarquia de contração e o Dijkstra simples.
+ */
+class HierarquiaContracaoTest {
+
+    private static final double TOLERANCIA = 1e-9;
+
+    @Test
+    void calcularRotaEquivaleAoDijkstraEmGrafosAleatorios() {
+        Random random = new Random(21);
+        for (int execucao = 0; execucao < 200; execucao++) {
+            int n = 1 + random.nextInt(60);
+            List<Bairro> bairros = criarBairros(n);
+            List<RuaConexao> conexoes = grafoAleatorio(bairros, random);
+            GrafoViario grafo = GrafoViario.construir(bairros, conexoes, 0L);
+            HierarquiaContracao hierarquia = HierarquiaContracao.preprocessar(grafo);
+
+            for (int consulta = 0; consulta < 30; consulta++) {
+                Bairro origem = bairros.get(random.nextInt(n));
+                Bairro destino = bairros.get(random.nextInt(n));
+
+                ResultadoRota esperado = AlgoritmoDijkstra.calcularRota(grafo, origem, destino);
+                ResultadoRota obtido = hierarquia.calcularRota(origem, destino);
+
+                assertMesmaDistancia(esperado, obtido);
+                if (!Double.isInfinite(esperado.getDistanciaKm())) {
+                    assertCaminhoValido(obtido, origem, destino, conexoes);
+                }
+            }
+        }
+    }
+
+    @Test
+    void distanciasAteEquivaleAoDijkstraEmGrade() {
+        Random random = new Random(3);
+        int lado = 30;
+        List<Bairro> bairros = criarBairros(lado * lado);
+        List<RuaConexao> conexoes = new ArrayList<>();
+        long id = 1;
+        for (int i = 0; i < lado; i++) {
+            for (int j = 0; j < lado; j++) {
+                int u = i * lado + j;
+                if (j + 1 < lado) {
+                    conexoes.add(conexao(id++, bairros.get(u), bairros.get(u + 1), 0.1 + random.nextDouble()));
+                }
+                if (i + 1 < lado) {
+                    conexoes.add(conexao(id++, bairros.get(u), bairros.get(u + lado), 0.1 + random.nextDouble()));
+                }
+            }
+        }
+        GrafoViario grafo = GrafoViario.construir(bairros, conexoes, 0L);
+        HierarquiaContracao hierarquia = HierarquiaContracao.preprocessar(grafo);
+
+        for (int consulta = 0; consulta < 20; consulta++) {
+            Bairro destino = bairros.get(random.nextInt(bairros.size()));
+            Set<Long> origens = new HashSet<>();
+            for (int i = 0; i < 25; i++) {
+                origens.add(bairros.get(random.nextInt(bairros.size())).getId());
+            }
+
+            Map<Long, ResultadoRota> esperado = AlgoritmoDijkstra.distanciasAte(grafo, destino, origens);
+            Map<Long, ResultadoRota> obtido = hierarquia.distanciasAte(destino, origens);
+
+            assertEquals(esperado.keySet(), obtido.keySet());
+            for (Long idOrigem : esperado.keySet()) {
+                assertMesmaDistancia(esperado.get(idOrigem), obtido.get(idOrigem));
+                Bairro origem = bairros.get((int) (idOrigem - 1));
+                assertCaminhoValido(obtido.get(idOrigem), origem, destino, conexoes);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Auxiliares
+    // ---------------------------------------------------------------------
+
+    private static List<Bairro> criarBairros(int n) {
+        List<Bairro> bairros = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Bairro b = new Bairro();
+            b.setId((long) i + 1);
+            b.setNome("Bairro " + (i + 1));
+            bairros.add(b);
+        }
+        return bairros;
+    }
+
+    private static RuaConexao conexao(long id, Bairro origem, Bairro destino, double km) {
+        RuaConexao c = new RuaConexao();
+        c.setId(id);
+        c.setBairroOrigem(origem);
+        c.setBairroDestino(destino);
+        c.setDistanciaKm(km);
+        return c;
+    }
+
+    private static List<RuaConexao> grafoAleatorio(List<Bairro> bairros, Random random) {
+        int n = bairros.size();
+        int arestas = random.nextInt(n * 3 + 1);
+        List<RuaConexao> conexoes = new ArrayList<>();
+        for (int i = 0; i < arestas; i++) {
+            // Inclui laços, arestas paralelas e distâncias zero/inteiras (empates)
+            double km = random.nextInt(5) == 0
+                    ? random.nextInt(3)
+                    : Math.round(random.nextDouble() * 500.0) / 100.0;
+            conexoes.add(conexao(i + 1, bairros.get(random.nextInt(n)), bairros.get(random.nextInt(n)), km));
+        }
+        return conexoes;
+    }
+
+    private static void assertMesmaDistancia(ResultadoRota esperado, ResultadoRota obtido) {
+        if (Double.isInfinite(esperado.getDistanciaKm())) {
+            assertTrue(Double.isInfinite(obtido.getDistanciaKm()));
+            assertTrue(obtido.getCaminho().isEmpty());
+        } else {
+            assertEquals(esperado.getDistanciaKm(), obtido.getDistanciaKm(), TOLERANCIA);
+        }
+    }
+
+    /**
+     * O caminho desempacotado deve ligar origem e destino apenas por conexões cadastradas
+     * e somar a distância informada.
+     */
+    private static void assertCaminhoValido(ResultadoRota rota, Bairro origem, Bairro destino,
+                                            List<RuaConexao> conexoes) {
+        List<Bairro> caminho = rota.getCaminho();
+        assertEquals(origem.getId(), caminho.get(0).getId());
+        assertEquals(destino.getId(), caminho.get(caminho.size() - 1).getId());
+
+        double soma = 0.0;
+        for (int i = 0; i < caminho.size() - 1; i++) {
+            Long a = caminho.get(i).getId();
+            Long b = caminho.get(i + 1).getId();
+            double menor = Double.POSITIVE_INFINITY;
+            for (RuaConexao c : conexoes) {
+                Long u = c.getBairroOrigem().getId();
+                Long v = c.getBairroDestino().getId();
+                if ((u.equals(a) && v.equals(b)) || (u.equals(b) && v.equals(a))) {
+                    menor = Math.min(menor, c.getDistanciaKm());
+                }
+            }
+            assertFalse(Double.isInfinite(menor), "trecho inexistente " + a + " -> " + b);
+            soma += menor;
+        }
+        assertEquals(rota.getDistanciaKm(), soma, TOLERANCIA);
+    }
+}
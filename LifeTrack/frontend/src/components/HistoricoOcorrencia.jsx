@@ -1,11 +1,22 @@
-import { useState, useEffect } from 'react';
+import { useState, useEffect, useRef } from 'react';
 import { historicoService } from '../services/historicoService';
+import { ocorrenciaStream } from '../services/ocorrenciaStream';
 import './HistoricoOcorrencia.css';
 
-function HistoricoOcorrencia({ ocorrenciaId, atualizarEmTempoReal = true, statusOcorrencia = null }) {
+// Maior sequência de confirmação entre as entradas (as ainda não sequenciadas vêm sem)
+const maiorSequencia = (entradas, inicial) =>
+  entradas.reduce((maior, h) => Math.max(maior, h.sequencia || 0), inicial || 0);
+
+function HistoricoOcorrencia({ ocorrenciaId, atualizarEmTempoReal = true }) {
   const [historicos, setHistoricos] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
+  const [proximoCursor, setProximoCursor] = useState(null);
+  const [carregandoMais, setCarregandoMais] = useState(false);
+  // Versão do histórico e maior sequência já recebidas, para buscar só o que mudou ao reconectar.
+  // A sequência (e não o id) acompanha a ordem de confirmação; entradas que chegam de novo são
+  // descartadas pelo id
+  const versaoRef = useRef({ etag: null, ultimaSequencia: null });
 
   useEffect(() => {
     if (!ocorrenciaId) {
@@ -13,30 +24,17 @@ function HistoricoOcorrencia({ ocorrenciaId, atualizarEmTempoReal = true, status
       return;
     }
 
-    let interval = null;
     let isMounted = true;
 
     const carregarHistorico = async () => {
       try {
-        const dados = await historicoService.buscarPorOcorrencia(ocorrenciaId);
+        const { itens, proximoCursor: cursor, etag } = await historicoService.buscarPorOcorrencia(ocorrenciaId);
         if (!isMounted) return;
         
-        setHistoricos(dados);
+        versaoRef.current = { etag, ultimaSequencia: maiorSequencia(itens) };
+        setHistoricos(itens);
+        setProximoCursor(cursor);
         setError(null);
-        
-        // Verificar se ocorrência está concluída e se há histórico de retorno definitivo
-        // Se sim, parar atualizações
-        const temRetornoDefinitivo = dados && dados.some(h => 
-          (h.acao === 'ALTERACAO_STATUS' || h.acao === 'CONCLUSAO') && 
-          h.acaoAmbulancia && 
-          (h.acaoAmbulancia.includes('Retornou') || h.acaoAmbulancia.includes('retornou'))
-        );
-        
-        // Parar atualizações apenas quando realmente retornou (não apenas "voltando")
-        if (statusOcorrencia === 'CONCLUIDA' && temRetornoDefinitivo && interval) {
-          clearInterval(interval);
-          interval = null;
-        }
       } catch (err) {
         if (!isMounted) return;
         setError(err.message);
@@ -47,35 +45,74 @@ function HistoricoOcorrencia({ ocorrenciaId, atualizarEmTempoReal = true, status
       }
     };
 
+    const mesclar = (novas) => {
+      if (novas.length === 0) return;
+      const ultimaSequencia = maiorSequencia(novas, versaoRef.current.ultimaSequencia);
+      versaoRef.current = { ...versaoRef.current, ultimaSequencia };
+      // Mais recente primeiro, como no backend
+      setHistoricos(atuais => {
+        const ids = new Set(novas.map(h => h.id));
+        return [...atuais.filter(h => !ids.has(h.id)), ...novas]
+          .sort((a, b) => new Date(b.dataHora) - new Date(a.dataHora));
+      });
+    };
+
+    // Depois de perder eventos do stream: só as entradas novas (ou 304 se nada mudou)
+    const buscarNovas = async () => {
+      const { etag, ultimaSequencia } = versaoRef.current;
+      if (!ultimaSequencia) {
+        carregarHistorico();
+        return;
+      }
+      try {
+        const resultado = await historicoService.buscarNovasPorOcorrencia(ocorrenciaId, ultimaSequencia, etag);
+        if (!isMounted) return;
+        versaoRef.current = { ...versaoRef.current, etag: resultado.etag };
+        mesclar(resultado.itens);
+      } catch (err) {
+        if (isMounted) carregarHistorico();
+      }
+    };
+
     carregarHistorico();
 
-    // Atualizar em tempo real se habilitado e ainda não retornou
+    // Atualizar em tempo real se habilitado: novas entradas chegam pelo stream
+    let cancelarAssinatura = null;
     if (atualizarEmTempoReal) {
-      // Verificar se já retornou antes de iniciar
-      historicoService.buscarPorOcorrencia(ocorrenciaId).then(dados => {
+      cancelarAssinatura = ocorrenciaStream.assinar('historico', ocorrenciaId, (entrada, tipo) => {
         if (!isMounted) return;
-        
-        const temRetorno = dados && dados.some(h => 
-          (h.acao === 'ALTERACAO_STATUS' || h.acao === 'CONCLUSAO') && 
-          h.acaoAmbulancia && 
-          (h.acaoAmbulancia.includes('Retornou') || h.acaoAmbulancia.includes('retornou'))
-        );
-        
-        // Continuar atualizando se está concluída mas ainda não retornou (pode ter "voltando para base")
-        // Só parar quando realmente retornou
-        if (!(statusOcorrencia === 'CONCLUIDA' && temRetorno)) {
-          interval = setInterval(carregarHistorico, 3000); // 3 segundos para atualizar mais frequentemente durante retorno
+        if (tipo === 'reinicio') {
+          buscarNovas();
+          return;
         }
+        mesclar([entrada]);
       });
     }
 
     return () => {
       isMounted = false;
-      if (interval) {
-        clearInterval(interval);
+      if (cancelarAssinatura) {
+        cancelarAssinatura();
       }
     };
-  }, [ocorrenciaId, atualizarEmTempoReal, statusOcorrencia]);
+  }, [ocorrenciaId, atualizarEmTempoReal]);
+
+  const carregarMais = async () => {
+    if (!proximoCursor || carregandoMais) return;
+    setCarregandoMais(true);
+    try {
+      const { itens, proximoCursor: cursor } = await historicoService.buscarPorOcorrencia(ocorrenciaId, proximoCursor);
+      setHistoricos(atuais => {
+        const ids = new Set(atuais.map(h => h.id));
+        return [...atuais, ...itens.filter(h => !ids.has(h.id))];
+      });
+      setProximoCursor(cursor);
+    } catch (err) {
+      setError(err.message);
+    } finally {
+      setCarregandoMais(false);
+    }
+  };
 
   if (!ocorrenciaId) {
     return null;
@@ -257,6 +294,11 @@ function HistoricoOcorrencia({ ocorrenciaId, atualizarEmTempoReal = true, status
           );
         })}
       </div>
+      {proximoCursor && (
+        <button type="button" className="historico-carregar-mais" onClick={carregarMais} disabled={carregandoMais}>
+          {carregandoMais ? 'Carregando...' : 'Carregar entradas anteriores'}
+        </button>
+      )}
     </div>
   );
 }
@@ -1,8 +1,10 @@
 import { useState, useEffect } from 'react';
 import { ocorrenciaService } from '../services/ocorrenciaService';
+import { ocorrenciaStream } from '../services/ocorrenciaStream';
+import { avancarTimer } from '../utils/timerUtils';
 import './SLATimer.css';
 
-function SLATimer({ ocorrenciaId, status }) {
+function SLATimer({ ocorrenciaId, status, timerInicial = null, timerRecebidoEm = null }) {
   const [timer, setTimer] = useState(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
@@ -16,77 +18,66 @@ function SLATimer({ ocorrenciaId, status }) {
       return;
     }
 
-    let interval = null;
     let isMounted = true;
-    let retornouBase = false; // Flag para controlar se já retornou
+    let base = null; // Último timer calculado pelo servidor
+    let recebidoEm = 0;
+    let tick = null;
 
-    const carregarTimer = async () => {
-      // Se já retornou, não atualizar mais
-      if (retornouBase) {
-        return;
-      }
-
-      try {
-        const dados = await ocorrenciaService.obterTimer(ocorrenciaId);
-        if (!isMounted) return;
-        
-        // Se retornou à base, marcar flag e parar o intervalo IMEDIATAMENTE
-        if (dados && dados.retornouBase === true) {
-          retornouBase = true;
-          if (interval) {
-            clearInterval(interval);
-            interval = null;
-          }
-          setTimer(dados); // Manter os dados finais
-          setError(null);
-          setLoading(false);
-          return; // Não continuar atualizando
-        }
-        
-        setTimer(dados);
-        setError(null);
-      } catch (err) {
-        if (!isMounted) return;
-        setError(err.message);
-      } finally {
-        if (isMounted && !retornouBase) {
-          setLoading(false);
-        }
-      }
+    // Entre dois eventos do servidor, a contagem avança localmente a cada segundo
+    const atualizarLocal = () => {
+      if (!isMounted || !base) return;
+      setTimer(avancarTimer(base, recebidoEm));
     };
 
-    // Carregar inicialmente e verificar se já retornou
-    ocorrenciaService.obterTimer(ocorrenciaId).then(dados => {
+    const aplicar = (dados, recebidoNoInstante = Date.now()) => {
       if (!isMounted) return;
-      
-      // Verificar se já retornou no carregamento inicial
-      if (dados && dados.retornouBase === true) {
-        retornouBase = true;
-        setTimer(dados);
-        setError(null);
-        setLoading(false);
-        // Não iniciar intervalo se já retornou
-        return;
-      }
-      
+      base = dados;
+      recebidoEm = recebidoNoInstante;
       setTimer(dados);
       setError(null);
       setLoading(false);
-      
-      // Continuar atualizando se ainda não retornou (mesmo se status for CONCLUIDA, para atualizar o tempo de retorno)
-      if (dados && dados.retornouBase !== true) {
-        interval = setInterval(carregarTimer, 2000);
+
+      // Retornou à base: valores finais, não há mais o que contar
+      if (dados && dados.retornouBase === true) {
+        if (tick) {
+          clearInterval(tick);
+          tick = null;
+        }
+      } else if (!tick) {
+        tick = setInterval(atualizarLocal, 1000);
+      }
+    };
+
+    const carregarTimer = () => {
+      ocorrenciaService.obterTimer(ocorrenciaId).then(dados => aplicar(dados)).catch(err => {
+        if (!isMounted) return;
+        setError(err.message);
+        setLoading(false);
+      });
+    };
+
+    // A lista já carrega os timers de todas as ocorrências ativas de uma vez (/timers);
+    // se o status mudou depois disso, o timer em lote está desatualizado e é buscado de novo
+    if (timerInicial && timerInicial.status === status) {
+      aplicar(timerInicial, timerRecebidoEm || Date.now());
+    } else {
+      carregarTimer();
+    }
+
+    // Mudanças de etapa e viradas do SLA chegam pelo stream; 'reinicio' pede recarga completa
+    const cancelarAssinatura = ocorrenciaStream.assinar('timer', ocorrenciaId, (dados, tipo) => {
+      if (tipo === 'reinicio') {
+        carregarTimer();
+      } else {
+        aplicar(dados);
       }
-    }).catch(err => {
-      if (!isMounted) return;
-      setError(err.message);
-      setLoading(false);
     });
 
     return () => {
       isMounted = false;
-      if (interval) {
-        clearInterval(interval);
+      cancelarAssinatura();
+      if (tick) {
+        clearInterval(tick);
       }
     };
   }, [ocorrenciaId, status]);
@@ -11,16 +11,22 @@ function Relatorios() {
   const [filtroStatus, setFiltroStatus] = useState('TODAS');
   const [filtroGravidade, setFiltroGravidade] = useState('TODAS');
   const [busca, setBusca] = useState('');
+  const [proximoCursor, setProximoCursor] = useState(null);
+  const [carregandoMais, setCarregandoMais] = useState(false);
+
+  // Gravidade é filtrada no servidor; status e busca, nas linhas já carregadas
+  const filtrosServidor = () => ({ gravidade: filtroGravidade === 'TODAS' ? null : filtroGravidade });
 
   useEffect(() => {
     carregarRelatorio();
-  }, []);
+  }, [filtroGravidade]);
 
   const carregarRelatorio = async () => {
     try {
       setLoading(true);
-      const dadosRelatorio = await relatorioService.relatorioOcorrencias();
-      setDados(dadosRelatorio);
+      const pagina = await relatorioService.relatorioOcorrencias(filtrosServidor());
+      setDados(pagina.itens);
+      setProximoCursor(pagina.proximoCursor);
       setError('');
     } catch (err) {
       setError('Erro ao carregar relatório: ' + err.message);
@@ -29,6 +35,21 @@ function Relatorios() {
     }
   };
 
+  const carregarMais = async () => {
+    if (!proximoCursor) return;
+    try {
+      setCarregandoMais(true);
+      const pagina = await relatorioService.relatorioOcorrencias(filtrosServidor(), proximoCursor);
+      setDados(prev => [...prev, ...pagina.itens]);
+      setProximoCursor(pagina.proximoCursor);
+      setError('');
+    } catch (err) {
+      setError('Erro ao carregar relatório: ' + err.message);
+    } finally {
+      setCarregandoMais(false);
+    }
+  };
+
   const formatarData = (data) => {
     if (!data) return '-';
     const date = new Date(data);
@@ -81,11 +102,10 @@ function Relatorios() {
 
   const ocorrenciasFiltradas = dados.filter(item => {
     const matchStatus = filtroStatus === 'TODAS' || item.status === filtroStatus;
-    const matchGravidade = filtroGravidade === 'TODAS' || item.gravidade === filtroGravidade;
     const matchBusca = !busca || 
       (item.tipoOcorrencia && item.tipoOcorrencia.toLowerCase().includes(busca.toLowerCase())) ||
       (item.bairroNome && item.bairroNome.toLowerCase().includes(busca.toLowerCase()));
-    return matchStatus && matchGravidade && matchBusca;
+    return matchStatus && matchBusca;
   });
 
   const toggleExpandirOcorrencia = (ocorrenciaId) => {
@@ -110,21 +130,37 @@ function Relatorios() {
         <h1 style={{ color: '#1f2937', fontSize: '2rem', margin: 0 }}>
           Relatório de Ocorrências
         </h1>
-        <button
-          onClick={carregarRelatorio}
-          style={{
-            padding: '10px 20px',
-            backgroundColor: '#2563eb',
-            color: 'white',
-            border: 'none',
-            borderRadius: '8px',
-            fontSize: '0.95rem',
-            fontWeight: '600',
-            cursor: 'pointer'
-          }}
-        >
-          🔄 Atualizar
-        </button>
+        <div style={{ display: 'flex', gap: '12px' }}>
+          <a
+            href={relatorioService.urlExportacao(filtrosServidor(), 'csv')}
+            style={{
+              padding: '10px 20px',
+              backgroundColor: '#059669',
+              color: 'white',
+              borderRadius: '8px',
+              fontSize: '0.95rem',
+              fontWeight: '600',
+              textDecoration: 'none'
+            }}
+          >
+            ⬇️ Exportar CSV
+          </a>
+          <button
+            onClick={carregarRelatorio}
+            style={{
+              padding: '10px 20px',
+              backgroundColor: '#2563eb',
+              color: 'white',
+              border: 'none',
+              borderRadius: '8px',
+              fontSize: '0.95rem',
+              fontWeight: '600',
+              cursor: 'pointer'
+            }}
+          >
+            🔄 Atualizar
+          </button>
+        </div>
       </div>
 
       {error && (
@@ -396,6 +432,28 @@ function Relatorios() {
           </div>
         </div>
       )}
+
+      {!loading && proximoCursor && (
+        <div style={{ textAlign: 'center', marginTop: '24px' }}>
+          <button
+            onClick={carregarMais}
+            disabled={carregandoMais}
+            style={{
+              padding: '10px 20px',
+              backgroundColor: '#2563eb',
+              color: 'white',
+              border: 'none',
+              borderRadius: '8px',
+              fontSize: '0.95rem',
+              fontWeight: '600',
+              cursor: carregandoMais ? 'default' : 'pointer',
+              opacity: carregandoMais ? 0.7 : 1
+            }}
+          >
+            {carregandoMais ? 'Carregando...' : 'Carregar mais'}
+          </button>
+        </div>
+      )}
     </div>
   );
 }
@@ -1,5 +1,6 @@
 import React, { useState, useEffect, useRef } from 'react';
 import { ocorrenciaService } from '../../../services/ocorrenciaService';
+import { ocorrenciaStream } from '../../../services/ocorrenciaStream';
 import SugerirAmbulancias from './SugerirAmbulancias';
 import SLATimer from '../../../components/SLATimer';
 import HistoricoOcorrencia from '../../../components/HistoricoOcorrencia';
@@ -7,6 +8,7 @@ import '../OperatorLayout.css';
 
 function ListarOcorrencias() {
   const [ocorrencias, setOcorrencias] = useState([]);
+  const [timers, setTimers] = useState({ porId: {}, recebidoEm: 0 });
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
   const [filtroStatus, setFiltroStatus] = useState('TODAS');
@@ -19,6 +21,21 @@ function ListarOcorrencias() {
   const isAutoRefreshRef = useRef(false);
   const scrollPositionRef = useRef(0);
 
+  // Timers de todas as ocorrências ativas em uma requisição, em vez de um GET por SLATimer
+  const carregarTimers = async () => {
+    try {
+      const lista = await ocorrenciaService.obterTimers();
+      const porId = {};
+      lista.forEach(timer => {
+        porId[timer.idOcorrencia] = timer;
+      });
+      return { porId, recebidoEm: Date.now() };
+    } catch (err) {
+      // Sem os timers em lote, cada SLATimer busca o seu
+      return { porId: {}, recebidoEm: 0 };
+    }
+  };
+
   const carregarOcorrencias = async (preservarScroll = false) => {
     try {
       // Salvar posição do scroll antes de atualizar
@@ -28,8 +45,9 @@ function ListarOcorrencias() {
       }
       
       setLoading(true);
-      const dados = await ocorrenciaService.listar();
+      const [dados, timersAtivos] = await Promise.all([ocorrenciaService.listar(), carregarTimers()]);
       setOcorrencias(dados);
+      setTimers(timersAtivos);
       setError('');
     } catch (err) {
       setError('Erro ao carregar ocorrências: ' + err.message);
@@ -52,10 +70,10 @@ function ListarOcorrencias() {
   useEffect(() => {
     carregarOcorrencias(false);
     
-    let interval = null;
     let isMounted = true;
+    let recarga = null;
     
-    // Função para verificar se ainda há ocorrências ativas
+    // Função para recarregar a lista preservando a posição do scroll
     const verificarEAtualizar = async () => {
       try {
         // Preservar posição do scroll
@@ -63,10 +81,11 @@ function ListarOcorrencias() {
         scrollPositionRef.current = scrollPosition;
         isAutoRefreshRef.current = true;
         
-        const dados = await ocorrenciaService.listar();
+        const [dados, timersAtivos] = await Promise.all([ocorrenciaService.listar(), carregarTimers()]);
         if (!isMounted) return;
         
         setOcorrencias(dados);
+        setTimers(timersAtivos);
         setError('');
         
         // Restaurar posição do scroll após atualização
@@ -85,16 +104,39 @@ function ListarOcorrencias() {
       }
     };
     
-    // Atualizar ocorrências a cada 10 segundos para refletir mudanças em tempo real
-    // Intervalo aumentado para reduzir refresh excessivo
-    interval = setInterval(() => {
-      verificarEAtualizar();
-    }, 10000);
+    // Várias ocorrências novas em sequência geram uma só recarga
+    const agendarRecarga = () => {
+      if (recarga) return;
+      recarga = setTimeout(() => {
+        recarga = null;
+        verificarEAtualizar();
+      }, 500);
+    };
+    
+    // Mudanças de status chegam pelo stream (sem polling): atualiza a linha em memória
+    // e só recarrega a lista quando aparece uma ocorrência que ainda não está nela
+    const cancelarAssinatura = ocorrenciaStream.assinar('timer', null, (timer, tipo) => {
+      if (!isMounted) return;
+      if (tipo === 'reinicio') {
+        agendarRecarga();
+        return;
+      }
+      setOcorrencias(atuais => {
+        if (!atuais.some(oc => oc.id === timer.idOcorrencia)) {
+          agendarRecarga();
+          return atuais;
+        }
+        return atuais.map(oc => oc.id === timer.idOcorrencia
+          ? { ...oc, status: timer.status, dataHoraFechamento: timer.dataHoraFechamento }
+          : oc);
+      });
+    });
     
     return () => {
       isMounted = false;
-      if (interval) {
-        clearInterval(interval);
+      cancelarAssinatura();
+      if (recarga) {
+        clearTimeout(recarga);
       }
     };
   }, []);
@@ -453,7 +495,12 @@ function ListarOcorrencias() {
                         <>
                           <tr>
                             <td colSpan="7" style={{ padding: '0 16px 16px 16px' }}>
-                              <SLATimer ocorrenciaId={oc.id} status={oc.status} />
+                              <SLATimer
+                                ocorrenciaId={oc.id}
+                                status={oc.status}
+                                timerInicial={timers.porId[oc.id]}
+                                timerRecebidoEm={timers.recebidoEm}
+                              />
                             </td>
                           </tr>
                           {(oc.status === 'DESPACHADA' || oc.status === 'EM_ATENDIMENTO' || oc.status === 'CONCLUIDA') && (
@@ -1,15 +1,56 @@
 const API_URL = 'http://localhost:8081/api';
 
+const montarPagina = (antesDe, limite) => {
+  const params = new URLSearchParams();
+  if (antesDe) params.append('antesDe', antesDe);
+  if (limite) params.append('limite', limite);
+  const query = params.toString();
+  return query ? `?${query}` : '';
+};
+
+const lerPagina = async (response) => ({
+  itens: await response.json(),
+  proximoCursor: response.headers.get('X-Proximo-Cursor'),
+  etag: response.headers.get('ETag'),
+});
+
+/**
+ * As consultas são paginadas (mais recentes primeiro) e retornam { itens, proximoCursor };
+ * para a página seguinte, passar proximoCursor como antesDe (null na última página).
+ */
 export const historicoService = {
-  async buscarPorOcorrencia(ocorrenciaId) {
-    const response = await fetch(`${API_URL}/historico-ocorrencias/ocorrencia/${ocorrenciaId}`);
+  async buscarPorOcorrencia(ocorrenciaId, antesDe = null, limite = null) {
+    const response = await fetch(
+      `${API_URL}/historico-ocorrencias/ocorrencia/${ocorrenciaId}${montarPagina(antesDe, limite)}`
+    );
+    if (!response.ok) {
+      throw new Error('Erro ao buscar histórico da ocorrência');
+    }
+    return lerPagina(response);
+  },
+
+  /**
+   * Entradas da ocorrência confirmadas depois de aposSequencia (ordem de confirmação; podem repetir
+   * entradas já recebidas sem sequência, a descartar pelo id). Com a versão (etag) da
+   * última resposta, o servidor responde 304 sem consultar nada se o histórico não mudou.
+   * Retorna { itens, etag }; itens vazio quando não há novidade.
+   */
+  async buscarNovasPorOcorrencia(ocorrenciaId, aposSequencia, etag = null) {
+    const headers = etag ? { 'If-None-Match': etag } : {};
+    const response = await fetch(
+      `${API_URL}/historico-ocorrencias/ocorrencia/${ocorrenciaId}?aposSequencia=${aposSequencia}`,
+      { headers }
+    );
+    if (response.status === 304) {
+      return { itens: [], etag };
+    }
     if (!response.ok) {
       throw new Error('Erro ao buscar histórico da ocorrência');
     }
-    return response.json();
+    return { itens: await response.json(), etag: response.headers.get('ETag') };
   },
 
-  async buscarMeuHistorico() {
+  async buscarMeuHistorico(antesDe = null, limite = null) {
     const userStr = localStorage.getItem('user');
     if (!userStr) {
       throw new Error('Usuário não autenticado');
@@ -19,13 +60,13 @@ export const historicoService = {
       'X-User-Id': user.id.toString(),
     };
     
-    const response = await fetch(`${API_URL}/historico-ocorrencias/meu-historico`, {
+    const response = await fetch(`${API_URL}/historico-ocorrencias/meu-historico${montarPagina(antesDe, limite)}`, {
       headers,
     });
     if (!response.ok) {
       throw new Error('Erro ao buscar meu histórico');
     }
-    return response.json();
+    return lerPagina(response);
   },
 };
 
@@ -151,6 +151,14 @@ export const ocorrenciaService = {
     return response.json();
   },
 
+  // Timers de todas as ocorrências ativas em uma requisição. A resposta tem ETag: o navegador
+  // revalida com If-None-Match e reaproveita o corpo em cache quando o servidor responde 304.
+  async obterTimers() {
+    const response = await fetch(`${API_URL}/ocorrencias/timers`);
+    if (!response.ok) throw new Error('Erro ao obter timers');
+    return response.json();
+  },
+
   async cancelar(idOcorrencia) {
     const userId = getUserId();
     const headers = {
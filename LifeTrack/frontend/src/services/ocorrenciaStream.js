@@ -0,0 +1,91 @@
+const API_URL = 'http://localhost:8081/api';
+
+// Uma única conexão SSE por aba, compartilhada por todos os componentes.
+// O EventSource reconecta sozinho e envia Last-Event-ID; o servidor reenvia o que foi perdido
+// ou manda 'reinicio' quando não consegue (os assinantes devem recarregar o estado).
+// A conexão pede ao servidor só os tipos e ocorrências dos assinantes; quando eles mudam, é
+// reaberta com o novo filtro, retomando do último evento recebido.
+const TIPOS = ['timer', 'historico', 'reinicio'];
+
+let eventSource = null;
+let filtroAberto = null;
+let ultimoEventoId = null;
+let reabertura = null;
+const assinantes = new Set();
+
+// Filtro que cobre todos os assinantes: tipos pedidos e, se nenhum quer todas, as ocorrências
+const montarFiltro = () => {
+  const lista = [...assinantes];
+  const params = new URLSearchParams();
+  params.set('tipos', [...new Set(lista.map(a => a.tipo))].sort().join(','));
+  if (!lista.some(a => a.idOcorrencia == null)) {
+    params.set('ocorrencias', [...new Set(lista.map(a => a.idOcorrencia))].sort((a, b) => a - b).join(','));
+  }
+  return params.toString();
+};
+
+const abrir = (filtro) => {
+  const retomada = ultimoEventoId != null ? `&ultimoEventoId=${encodeURIComponent(ultimoEventoId)}` : '';
+  filtroAberto = filtro;
+  eventSource = new EventSource(`${API_URL}/ocorrencias/stream?${filtro}${retomada}`);
+  TIPOS.forEach(tipo => {
+    eventSource.addEventListener(tipo, (evento) => {
+      if (evento.lastEventId) ultimoEventoId = evento.lastEventId;
+      let dados = null;
+      try {
+        dados = JSON.parse(evento.data);
+      } catch (err) {
+        return;
+      }
+      assinantes.forEach(assinante => {
+        if (assinante.tipo !== tipo && tipo !== 'reinicio') return;
+        if (tipo !== 'reinicio' && assinante.idOcorrencia != null) {
+          const idEvento = tipo === 'timer' ? dados.idOcorrencia : dados.ocorrenciaId;
+          if (idEvento !== assinante.idOcorrencia) return;
+        }
+        assinante.callback(dados, tipo);
+      });
+    });
+  });
+};
+
+const fechar = () => {
+  if (eventSource) {
+    eventSource.close();
+    eventSource = null;
+    filtroAberto = null;
+  }
+};
+
+// Agrupa as assinaturas feitas na mesma renderização em uma só (re)abertura
+const atualizar = () => {
+  if (reabertura) return;
+  reabertura = setTimeout(() => {
+    reabertura = null;
+    if (assinantes.size === 0) {
+      fechar();
+      ultimoEventoId = null;
+      return;
+    }
+    const filtro = montarFiltro();
+    if (eventSource && filtro === filtroAberto) return;
+    fechar();
+    abrir(filtro);
+  }, 0);
+};
+
+export const ocorrenciaStream = {
+  /**
+   * Recebe os eventos de um tipo ('timer' ou 'historico'), opcionalmente de uma ocorrência.
+   * O callback também é chamado com tipo 'reinicio'. Retorna a função que cancela a assinatura.
+   */
+  assinar(tipo, idOcorrencia, callback) {
+    const assinante = { tipo, idOcorrencia: idOcorrencia != null ? Number(idOcorrencia) : null, callback };
+    assinantes.add(assinante);
+    atualizar();
+    return () => {
+      assinantes.delete(assinante);
+      atualizar();
+    };
+  },
+};
@@ -1,10 +1,38 @@
 const API_URL = 'http://localhost:8081/api';
 
+const montarParametros = (filtros = {}) => {
+  const params = new URLSearchParams();
+  Object.entries(filtros).forEach(([chave, valor]) => {
+    if (valor !== null && valor !== undefined && valor !== '') params.append(chave, valor);
+  });
+  return params;
+};
+
 export const relatorioService = {
-  async relatorioOcorrencias() {
-    const response = await fetch(`${API_URL}/relatorios/ocorrencias`);
+  /**
+   * Uma página do relatório (mais recentes primeiro).
+   * filtros: { inicio, fim, gravidade, idBairro, limite }; cursor: proximoCursor da página anterior.
+   * Retorna { itens, proximoCursor } (proximoCursor null na última página).
+   */
+  async relatorioOcorrencias(filtros = {}, cursor = null) {
+    const params = montarParametros(filtros);
+    if (cursor) params.append('cursor', cursor);
+
+    const query = params.toString();
+    const response = await fetch(`${API_URL}/relatorios/ocorrencias${query ? `?${query}` : ''}`);
     if (!response.ok) throw new Error('Erro ao buscar relatório de ocorrências');
-    return response.json();
+    return {
+      itens: await response.json(),
+      proximoCursor: response.headers.get('X-Proximo-Cursor'),
+    };
   },
-};
 
+  /**
+   * URL do arquivo com todas as ocorrências dos filtros (formato 'csv' ou 'ndjson'),
+   * gerado pelo servidor à medida que é baixado.
+   */
+  urlExportacao(filtros = {}, formato = 'csv', gzip = false) {
+    const params = montarParametros({ ...filtros, formato, gzip: gzip || null });
+    return `${API_URL}/relatorios/ocorrencias/export?${params.toString()}`;
+  },
+};
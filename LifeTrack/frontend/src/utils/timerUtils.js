@@ -0,0 +1,96 @@
+/**
+ * Formata tempo em segundos (ex: "15m 30s", "1h 25m", "-3m"), igual ao backend
+ * @param {number} segundos - Tempo em segundos (pode ser negativo)
+ * @returns {string} - Tempo formatado
+ */
+export const formatarTempo = (segundos) => {
+  const negativo = segundos < 0;
+  const total = Math.abs(Math.trunc(segundos));
+  const horas = Math.floor(total / 3600);
+  const minutos = Math.floor((total % 3600) / 60);
+  const seg = total % 60;
+
+  let texto = negativo ? '-' : '';
+  if (horas > 0) {
+    texto += `${horas}h`;
+    if (minutos > 0) texto += ` ${minutos}m`;
+  } else if (minutos > 0) {
+    texto += `${minutos}m`;
+    if (seg > 0) texto += ` ${seg}s`;
+  } else {
+    texto += `${seg}s`;
+  }
+  return texto;
+};
+
+const instante = (dataHora) => (dataHora ? new Date(dataHora).getTime() : null);
+
+// Minutos inteiros entre dois instantes (como Duration.getSeconds() / 60 no backend)
+const minutosEntre = (inicio, fim) => Math.trunc(Math.trunc((fim - inicio) / 1000) / 60);
+
+/**
+ * Avança localmente um timer recebido do servidor, sem nova requisição.
+ * Refaz as mesmas contas do backend usando como "agora" o instante do cálculo no servidor
+ * (dataHoraCalculo) mais o tempo passado desde o recebimento, o que evita diferença de relógio.
+ * @param {object} timer - TimerOcorrenciaDTO recebido
+ * @param {number} recebidoEm - Date.now() no momento do recebimento
+ * @returns {object} - Cópia do timer com os tempos atualizados
+ */
+export const avancarTimer = (timer, recebidoEm) => {
+  if (!timer || !timer.dataHoraCalculo) return timer;
+
+  const agora = instante(timer.dataHoraCalculo) + (Date.now() - recebidoEm);
+  const abertura = instante(timer.dataHoraAbertura);
+  const despacho = instante(timer.dataHoraDespacho);
+  const chegada = instante(timer.dataHoraChegada);
+  const t = { ...timer };
+
+  // Tempo total (fixo depois do retorno à base)
+  if (abertura != null && !t.retornouBase) {
+    let totalSegundos;
+    if (t.chegouLocal && chegada != null) {
+      totalSegundos = Math.trunc((chegada - abertura) / 1000)
+        + (t.foiConcluida ? Math.trunc((agora - chegada) / 1000) : 0);
+    } else {
+      totalSegundos = Math.trunc((agora - abertura) / 1000);
+    }
+    t.tempoTotalDecorridoMinutos = Math.trunc(totalSegundos / 60);
+    t.tempoTotalFormatado = formatarTempo(totalSegundos);
+  }
+
+  if (t.foiDespachada && despacho != null) {
+    t.tempoDespachoMinutos = minutosEntre(despacho, agora);
+  }
+
+  // Contagem regressiva até a chegada
+  if (!t.chegouLocal && t.foiDespachada && despacho != null && t.tempoAteChegadaMinutos != null) {
+    t.tempoRestanteAteChegadaMinutos = Math.max(0, t.tempoAteChegadaMinutos - minutosEntre(despacho, agora));
+  }
+
+  if (t.chegouLocal && chegada != null && !t.foiConcluida) {
+    t.tempoAposChegadaMinutos = minutosEntre(chegada, agora);
+  }
+
+  // Contagem regressiva do retorno à base
+  if (t.foiConcluida && chegada != null && !t.retornouBase) {
+    t.tempoRetornoDecorridoMinutos = minutosEntre(chegada, agora);
+    if (t.tempoRetornoMinutos != null) {
+      t.tempoRestanteRetornoMinutos = Math.max(0, t.tempoRetornoMinutos - t.tempoRetornoDecorridoMinutos);
+    }
+  }
+
+  // SLA: conta da abertura até a chegada
+  if (t.slaMinutos && abertura != null && !t.chegouLocal) {
+    const decorrido = despacho != null
+      ? minutosEntre(abertura, despacho) + minutosEntre(despacho, agora)
+      : minutosEntre(abertura, agora);
+    const restante = t.slaMinutos - decorrido;
+    t.tempoSlaDecorridoMinutos = decorrido;
+    t.tempoRestanteMinutos = restante;
+    t.slaExcedido = restante < 0;
+    t.slaEmRisco = restante >= 0 && restante <= t.slaMinutos * 0.25;
+    t.tempoRestanteFormatado = formatarTempo(t.slaMinutos * 60 - decorrido * 60);
+  }
+
+  return t;
+};